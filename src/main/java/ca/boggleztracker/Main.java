@@ -2,11 +2,14 @@
  * File: Main.java
  * Revision History:
  * - 2024-06-29: Function and variable declarations
+ * - 2026-10-18: --export-pending runs the pending changes export without the UI
  * Purpose:
  * Main class starts the bug tracker application. Data includes a static string
  * variable storing the data file. The class is responsible for instantiating the
  * manager and the user interface (UI). It uses dependency injection to pass a reference of the
- * manager to the UI for improved modularity and flexibility.
+ * manager to the UI for improved modularity and flexibility. Started with
+ * "--export-pending <file>", it exports the pending change items and exits instead, for the
+ * nightly export.
  */
 package ca.boggleztracker;
 
@@ -16,6 +19,11 @@ import java.io.IOException;
 
 
 public class Main {
+    //=============================
+    // Constants and Static Fields
+    //=============================
+    private static final String EXPORT_PENDING_OPTION = "--export-pending";
+
     //=============================
     // Static Method Declarations
     //=============================
@@ -29,6 +37,14 @@ public class Main {
     public static void main(String[] args) {
         try {
             ScenarioManager manager = new ScenarioManager();
+            if (args.length == 2 && args[0].equals(EXPORT_PENDING_OPTION)) {
+                long exported = manager.exportPendingChanges(args[1]);
+                manager.closeFiles();
+                if (exported >= 0) {
+                    System.out.println(exported + " pending change items exported to " + args[1]);
+                }
+                return;
+            }
             TextUI ui = new TextUI(manager);
             ui.start();
         } catch (IOException e) {
@@ -0,0 +1,719 @@
+/**
+ * File: BPlusTree.java
+ * Revision History:
+ * - 2026-10-18: On-disk B+tree of fixed size keys and long values
+ * - 2026-10-18: Changes can be begun by the owner of the tree ahead of its own writes
+ * Purpose:
+ * BPlusTree class is an index file mapping fixed size byte keys, compared as unsigned bytes, to
+ * long values such as record offsets. Keys are unique; an index that needs duplicate keys adds
+ * the value to the key. Nodes are pages of RecordPage.PAGE_SIZE bytes, so with the usual key
+ * sizes a lookup among millions of keys reads three or four pages. Leaves are chained in key
+ * order for range scans.
+ * Deletes only remove the key from its leaf and never merge nodes, so the tree does not shrink
+ * until it is rebuilt, which happens whenever its record file is compacted.
+ *
+ * File layout: page 0 holds magic (4 bytes), version (4 bytes), page size (4 bytes),
+ * key size (4 bytes), the IndexStamp, root page (8 bytes), page count (8 bytes) and first leaf
+ * (8 bytes). Every other page is a node of kind (1 byte), 1 unused byte, key count (2 bytes)
+ * and next leaf (8 bytes), followed by the entries. A leaf entry is a key and its value. An
+ * inner node has its first child (8 bytes) followed by entries of a key and the child holding
+ * keys at or above it.
+ */
+package ca.boggleztracker.model;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class BPlusTree {
+    //=============================
+    // Constants and static fields
+    //=============================
+    public static final int PAGE_SIZE = RecordPage.PAGE_SIZE;
+    private static final int MAGIC = 0x42475A49; // "BGZI"
+    private static final int VERSION = 1;
+    private static final int KEY_SIZE_OFFSET = 12;
+    private static final int STAMP_OFFSET = 16;
+    private static final int ROOT_OFFSET = STAMP_OFFSET + IndexStamp.SIZE;
+    private static final int PAGE_COUNT_OFFSET = ROOT_OFFSET + Long.BYTES;
+    private static final int FIRST_LEAF_OFFSET = PAGE_COUNT_OFFSET + Long.BYTES;
+    private static final int HEADER_SIZE = FIRST_LEAF_OFFSET + Long.BYTES;
+    private static final byte LEAF = 1;
+    private static final byte INNER = 2;
+    private static final int KIND_OFFSET = 0;
+    private static final int COUNT_OFFSET = 2;
+    private static final int NEXT_OFFSET = 4;
+    private static final int ENTRIES_OFFSET = 12; // leaf entries, or the first child of an inner node
+    private static final int INNER_ENTRIES_OFFSET = ENTRIES_OFFSET + Long.BYTES;
+    private static final int GROWTH_PAGES = 64; // pages added to the file at once
+
+    //=============================
+    // Member fields
+    //=============================
+    private final String fileName;
+    private final int keySize;
+    private final int entrySize;
+    private final int leafCapacity;
+    private final int innerCapacity;
+    private final RandomAccessFile file;
+    private final StorageBackend storage;
+    private IndexStamp stamp;
+    private long root;
+    private long pageCount;
+    private long firstLeaf;
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * Three argument constructor for BPlusTree, opens the index file or creates an empty tree.
+     * A file that is not a tree of the key size is started again as an empty tree that is not
+     * valid for any record file.
+     *
+     * @param fileName (in) String - name of the index file.
+     * @param keySize (in) int - bytes of every key.
+     * @param mapped (in) boolean - true to memory map the file, false for positional channel I/O.
+     * @throws IOException
+     */
+    //---
+    public BPlusTree(String fileName, int keySize, boolean mapped) throws IOException {
+        this.fileName = fileName;
+        this.keySize = keySize;
+        this.entrySize = keySize + Long.BYTES;
+        this.leafCapacity = (PAGE_SIZE - ENTRIES_OFFSET) / entrySize;
+        this.innerCapacity = (PAGE_SIZE - INNER_ENTRIES_OFFSET) / entrySize;
+        this.file = new RandomAccessFile(fileName, "rw");
+        if (file.length() < PAGE_SIZE) {
+            file.setLength(PAGE_SIZE);
+        }
+        if (mapped && MappedStorage.canMap(file.length())) {
+            storage = new MappedStorage(file.getChannel());
+        } else {
+            storage = new ChannelStorage(file.getChannel());
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        storage.read(0, header);
+        if (header.getInt(0) == MAGIC && header.getInt(4) == VERSION && header.getInt(8) == PAGE_SIZE
+                && header.getInt(KEY_SIZE_OFFSET) == keySize) {
+            stamp = IndexStamp.read(header, STAMP_OFFSET);
+            root = header.getLong(ROOT_OFFSET);
+            pageCount = header.getLong(PAGE_COUNT_OFFSET);
+            firstLeaf = header.getLong(FIRST_LEAF_OFFSET);
+        } else {
+            clear(new IndexStamp(false, -1, -1, -1));
+        }
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Getter method for the stamp the tree was last written with.
+     *
+     * @return (out) IndexStamp - stamp of the record file.
+     */
+    //---
+    public IndexStamp getStamp() {
+        return stamp;
+    }
+
+    //-----------------------------
+    /**
+     * Getter method for the key size.
+     *
+     * @return (out) int - bytes of every key.
+     */
+    //---
+    public int getKeySize() {
+        return keySize;
+    }
+
+    //-----------------------------
+    /**
+     * Looks up the value of a key.
+     *
+     * @param key (in) byte[] - key of keySize bytes.
+     * @return (out) long - value of the key, or -1 if the key is not in the tree.
+     * @throws IOException
+     */
+    //---
+    public long find(byte[] key) throws IOException {
+        ByteBuffer node = findLeaf(key, null);
+        int index = search(node, key);
+        if (index < 0) {
+            return -1;
+        }
+        return node.getLong(ENTRIES_OFFSET + index * entrySize + keySize);
+    }
+
+    //-----------------------------
+    /**
+     * Starts a range scan at the first key at or above a key.
+     *
+     * @param key (in) byte[] - key of keySize bytes, or null to start at the smallest key.
+     * @return (out) Cursor - cursor positioned before the first key of the range.
+     * @throws IOException
+     */
+    //---
+    public Cursor seek(byte[] key) throws IOException {
+        if (key == null) {
+            return new Cursor(readNode(firstLeaf, newNode()), 0);
+        }
+        ByteBuffer node = findLeaf(key, null);
+        int index = search(node, key);
+        return new Cursor(node, index < 0 ? -index - 1 : index);
+    }
+
+    //-----------------------------
+    /**
+     * Adds a key or replaces its value.
+     *
+     * @param key (in) byte[] - key of keySize bytes.
+     * @param value (in) long - value of the key.
+     * @return (out) long - previous value of the key, or -1 if the key is new.
+     * @throws IOException
+     */
+    //---
+    public long put(byte[] key, long value) throws IOException {
+        beginChange();
+        List<long[]> path = new ArrayList<>(); // page and child index of every inner node passed
+        ByteBuffer leaf = findLeaf(key, path);
+        int index = search(leaf, key);
+
+        if (index >= 0) {
+            int position = ENTRIES_OFFSET + index * entrySize + keySize;
+            long previous = leaf.getLong(position);
+            leaf.putLong(position, value);
+            writeNode(leafPage(path), leaf);
+            return previous;
+        }
+        index = -index - 1;
+        insertEntry(leaf, ENTRIES_OFFSET, index, key, value);
+        if (count(leaf) <= leafCapacity) {
+            writeNode(leafPage(path), leaf);
+            return -1;
+        }
+
+        // split the leaf, then every inner node on the path that overflows in turn
+        long leftPage = leafPage(path);
+        long rightPage = allocatePage();
+        byte[] separator = splitLeaf(leftPage, leaf, rightPage);
+        long child = rightPage;
+        for (int level = path.size() - 2; level >= 0; level--) {
+            long page = path.get(level)[0];
+            ByteBuffer inner = readNode(page, newNode());
+            insertEntry(inner, INNER_ENTRIES_OFFSET, (int) path.get(level)[1], separator, child);
+            if (count(inner) <= innerCapacity) {
+                writeNode(page, inner);
+                writeHeader();
+                return -1;
+            }
+            child = allocatePage();
+            separator = splitInner(page, inner, child);
+        }
+
+        ByteBuffer newRoot = newNode();
+        newRoot.put(KIND_OFFSET, INNER);
+        newRoot.putLong(ENTRIES_OFFSET, root);
+        insertEntry(newRoot, INNER_ENTRIES_OFFSET, 0, separator, child);
+        root = allocatePage();
+        writeNode(root, newRoot);
+        writeHeader();
+        return -1;
+    }
+
+    //-----------------------------
+    /**
+     * Removes a key from its leaf.
+     *
+     * @param key (in) byte[] - key of keySize bytes.
+     * @return (out) long - value the key had, or -1 if the key was not in the tree.
+     * @throws IOException
+     */
+    //---
+    public long remove(byte[] key) throws IOException {
+        List<long[]> path = new ArrayList<>();
+        ByteBuffer leaf = findLeaf(key, path);
+        int index = search(leaf, key);
+        if (index < 0) {
+            return -1;
+        }
+        beginChange();
+
+        int position = ENTRIES_OFFSET + index * entrySize;
+        long value = leaf.getLong(position + keySize);
+        int count = count(leaf);
+        leaf.put(position, leaf, position + entrySize, (count - index - 1) * entrySize);
+        leaf.putShort(COUNT_OFFSET, (short) (count - 1));
+        writeNode(leafPage(path), leaf);
+        return value;
+    }
+
+    //-----------------------------
+    /**
+     * Replaces the tree with the given entries, building it bottom up with full nodes.
+     *
+     * @param keys (in) byte[][] - keys in ascending order, without duplicates.
+     * @param values (in) long[] - value of each key.
+     * @param newStamp (in) IndexStamp - stamp of the record file the entries were read from.
+     * @throws IOException
+     */
+    //---
+    public void load(byte[][] keys, long[] values, IndexStamp newStamp) throws IOException {
+        clear(newStamp.dirty());
+        if (keys.length == 0) {
+            return;
+        }
+
+        // leaves, remembering the first key and page of each for the level above
+        List<byte[]> firstKeys = new ArrayList<>();
+        List<Long> pages = new ArrayList<>();
+        ByteBuffer node = newNode();
+        long page = firstLeaf;
+        for (int start = 0; start < keys.length; start += leafCapacity) {
+            int end = Math.min(start + leafCapacity, keys.length);
+            long next = end < keys.length ? allocatePage() : 0;
+            clearNode(node, LEAF);
+            for (int i = start; i < end; i++) {
+                node.put(ENTRIES_OFFSET + (i - start) * entrySize, keys[i]);
+                node.putLong(ENTRIES_OFFSET + (i - start) * entrySize + keySize, values[i]);
+            }
+            node.putShort(COUNT_OFFSET, (short) (end - start));
+            node.putLong(NEXT_OFFSET, next);
+            writeNode(page, node);
+            firstKeys.add(keys[start]);
+            pages.add(page);
+            page = next;
+        }
+
+        while (pages.size() > 1) {
+            List<byte[]> upperKeys = new ArrayList<>();
+            List<Long> upperPages = new ArrayList<>();
+            for (int start = 0; start < pages.size(); start += innerCapacity + 1) {
+                int end = Math.min(start + innerCapacity + 1, pages.size());
+                clearNode(node, INNER);
+                node.putLong(ENTRIES_OFFSET, pages.get(start));
+                for (int i = start + 1; i < end; i++) {
+                    node.put(INNER_ENTRIES_OFFSET + (i - start - 1) * entrySize, firstKeys.get(i));
+                    node.putLong(INNER_ENTRIES_OFFSET + (i - start - 1) * entrySize + keySize, pages.get(i));
+                }
+                node.putShort(COUNT_OFFSET, (short) (end - start - 1));
+                long innerPage = allocatePage();
+                writeNode(innerPage, node);
+                upperKeys.add(firstKeys.get(start));
+                upperPages.add(innerPage);
+            }
+            firstKeys = upperKeys;
+            pages = upperPages;
+        }
+        root = pages.get(0);
+        writeHeader();
+    }
+
+    //-----------------------------
+    /**
+     * Forces the tree to disk with a stamp and closes the file.
+     *
+     * @param newStamp (in) IndexStamp - clean stamp of the record file.
+     * @throws IOException
+     */
+    //---
+    public void close(IndexStamp newStamp) throws IOException {
+        storage.force();
+        stamp = newStamp;
+        writeHeader();
+        storage.force();
+        storage.close();
+        file.close();
+    }
+
+    //-----------------------------
+    /**
+     * Empties the tree, leaving a single empty leaf as the root. The file keeps its length, as
+     * a mapped file must not shrink under its mapping, and the old pages are reused.
+     *
+     * @param newStamp (in) IndexStamp - stamp written with the empty tree.
+     * @throws IOException
+     */
+    //---
+    private void clear(IndexStamp newStamp) throws IOException {
+        stamp = newStamp;
+        pageCount = 1;
+        root = allocatePage();
+        firstLeaf = root;
+        ByteBuffer leaf = newNode();
+        leaf.put(KIND_OFFSET, LEAF);
+        writeNode(root, leaf);
+        writeHeader();
+    }
+
+    //-----------------------------
+    /**
+     * Marks the stored tree as changed before its first change since it was written clean,
+     * so a tree left half written is rebuilt on the next start up.
+     *
+     * @throws IOException
+     */
+    //---
+    public void beginChange() throws IOException {
+        if (stamp.isClean()) {
+            stamp = stamp.dirty();
+            writeHeader();
+            storage.force();
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Writes the header page fields.
+     *
+     * @throws IOException
+     */
+    //---
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putInt(8, PAGE_SIZE);
+        header.putInt(KEY_SIZE_OFFSET, keySize);
+        stamp.writeTo(header, STAMP_OFFSET);
+        header.putLong(ROOT_OFFSET, root);
+        header.putLong(PAGE_COUNT_OFFSET, pageCount);
+        header.putLong(FIRST_LEAF_OFFSET, firstLeaf);
+        storage.write(0, header);
+    }
+
+    //-----------------------------
+    /**
+     * Takes the next unused page, growing the file GROWTH_PAGES pages at a time.
+     *
+     * @return (out) long - number of the new page.
+     * @throws IOException
+     */
+    //---
+    private long allocatePage() throws IOException {
+        long page = pageCount++;
+        if (pageCount * PAGE_SIZE > file.length()) {
+            file.setLength((pageCount + GROWTH_PAGES) * PAGE_SIZE);
+        }
+        return page;
+    }
+
+    //-----------------------------
+    /**
+     * Walks from the root to the leaf that holds a key or would hold it.
+     *
+     * @param key (in) byte[] - key of keySize bytes.
+     * @param path (out) List - if not null, gets the page and child index of each node passed,
+     *                          ending with the page of the leaf.
+     * @return (out) ByteBuffer - the leaf node.
+     * @throws IOException
+     */
+    //---
+    private ByteBuffer findLeaf(byte[] key, List<long[]> path) throws IOException {
+        ByteBuffer node = newNode();
+        long page = root;
+
+        readNode(page, node);
+        while (node.get(KIND_OFFSET) == INNER) {
+            // child i + 1 holds the keys at or above key i
+            int index = search(node, key);
+            int child = index >= 0 ? index + 1 : -index - 1;
+            if (path != null) {
+                path.add(new long[] {page, child});
+            }
+            page = child == 0 ? node.getLong(ENTRIES_OFFSET)
+                    : node.getLong(INNER_ENTRIES_OFFSET + (child - 1) * entrySize + keySize);
+            readNode(page, node);
+        }
+        if (path != null) {
+            path.add(new long[] {page, 0});
+        }
+        return node;
+    }
+
+    //-----------------------------
+    /**
+     * Binary search over the keys of a node.
+     *
+     * @param node (in) ByteBuffer - leaf or inner node.
+     * @param key (in) byte[] - key of keySize bytes.
+     * @return (out) int - index of the key, or -(insertion point) - 1 if it is not in the node.
+     */
+    //---
+    private int search(ByteBuffer node, byte[] key) {
+        int start = node.get(KIND_OFFSET) == LEAF ? ENTRIES_OFFSET : INNER_ENTRIES_OFFSET;
+        byte[] bytes = node.array();
+        int low = 0;
+        int high = count(node) - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int position = start + middle * entrySize;
+            int compare = Arrays.compareUnsigned(bytes, position, position + keySize, key, 0, keySize);
+            if (compare < 0) {
+                low = middle + 1;
+            } else if (compare > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    //-----------------------------
+    /**
+     * Inserts an entry into a node buffer, which has room for one entry past a full page.
+     *
+     * @param node (in/out) ByteBuffer - leaf or inner node.
+     * @param start (in) int - index of the first entry in the node.
+     * @param index (in) int - position of the new entry.
+     * @param key (in) byte[] - key of keySize bytes.
+     * @param value (in) long - value or child page of the entry.
+     */
+    //---
+    private void insertEntry(ByteBuffer node, int start, int index, byte[] key, long value) {
+        int count = count(node);
+        int position = start + index * entrySize;
+        node.put(position + entrySize, node, position, (count - index) * entrySize);
+        node.put(position, key);
+        node.putLong(position + keySize, value);
+        node.putShort(COUNT_OFFSET, (short) (count + 1));
+    }
+
+    //-----------------------------
+    /**
+     * Moves the upper half of an overfull leaf to a new leaf linked after it.
+     *
+     * @param leftPage (in) long - page of the overfull leaf.
+     * @param left (in/out) ByteBuffer - the overfull leaf.
+     * @param rightPage (in) long - page of the new leaf.
+     * @return (out) byte[] - first key of the new leaf.
+     * @throws IOException
+     */
+    //---
+    private byte[] splitLeaf(long leftPage, ByteBuffer left, long rightPage) throws IOException {
+        int count = count(left);
+        int keep = count / 2;
+        ByteBuffer right = newNode();
+        right.put(KIND_OFFSET, LEAF);
+        right.put(ENTRIES_OFFSET, left, ENTRIES_OFFSET + keep * entrySize, (count - keep) * entrySize);
+        right.putShort(COUNT_OFFSET, (short) (count - keep));
+        right.putLong(NEXT_OFFSET, left.getLong(NEXT_OFFSET));
+        left.putShort(COUNT_OFFSET, (short) keep);
+        left.putLong(NEXT_OFFSET, rightPage);
+
+        writeNode(rightPage, right);
+        writeNode(leftPage, left);
+        byte[] separator = new byte[keySize];
+        right.get(ENTRIES_OFFSET, separator);
+        return separator;
+    }
+
+    //-----------------------------
+    /**
+     * Moves the upper half of an overfull inner node to a new inner node. The middle key moves
+     * up to the parent and its child becomes the first child of the new node.
+     *
+     * @param leftPage (in) long - page of the overfull node.
+     * @param left (in/out) ByteBuffer - the overfull node.
+     * @param rightPage (in) long - page of the new node.
+     * @return (out) byte[] - key moved up to the parent.
+     * @throws IOException
+     */
+    //---
+    private byte[] splitInner(long leftPage, ByteBuffer left, long rightPage) throws IOException {
+        int count = count(left);
+        int keep = count / 2;
+        int middle = INNER_ENTRIES_OFFSET + keep * entrySize;
+        byte[] separator = new byte[keySize];
+        left.get(middle, separator);
+
+        ByteBuffer right = newNode();
+        right.put(KIND_OFFSET, INNER);
+        right.putLong(ENTRIES_OFFSET, left.getLong(middle + keySize));
+        right.put(INNER_ENTRIES_OFFSET, left, middle + entrySize, (count - keep - 1) * entrySize);
+        right.putShort(COUNT_OFFSET, (short) (count - keep - 1));
+        left.putShort(COUNT_OFFSET, (short) keep);
+
+        writeNode(rightPage, right);
+        writeNode(leftPage, left);
+        return separator;
+    }
+
+    //-----------------------------
+    /**
+     * Gets the leaf page at the end of a path.
+     *
+     * @param path (in) List - path filled by findLeaf.
+     * @return (out) long - page of the leaf.
+     */
+    //---
+    private long leafPage(List<long[]> path) {
+        return path.get(path.size() - 1)[0];
+    }
+
+    //-----------------------------
+    /**
+     * Creates a node buffer with room for one entry past a full page.
+     *
+     * @return (out) ByteBuffer - zeroed node buffer.
+     */
+    //---
+    private ByteBuffer newNode() {
+        return ByteBuffer.allocate(PAGE_SIZE + entrySize);
+    }
+
+    //-----------------------------
+    /**
+     * Zeroes a node buffer and sets its kind.
+     *
+     * @param node (out) ByteBuffer - node buffer.
+     * @param kind (in) byte - LEAF or INNER.
+     */
+    //---
+    private void clearNode(ByteBuffer node, byte kind) {
+        Arrays.fill(node.array(), (byte) 0);
+        node.put(KIND_OFFSET, kind);
+    }
+
+    //-----------------------------
+    /**
+     * Gets the number of keys of a node.
+     *
+     * @param node (in) ByteBuffer - leaf or inner node.
+     * @return (out) int - key count.
+     */
+    //---
+    private int count(ByteBuffer node) {
+        return node.getShort(COUNT_OFFSET);
+    }
+
+    //-----------------------------
+    /**
+     * Loads a node with a single read.
+     *
+     * @param page (in) long - page of the node.
+     * @param node (out) ByteBuffer - node buffer.
+     * @return (out) ByteBuffer - the node buffer.
+     * @throws IOException when the page is not in the file.
+     */
+    //---
+    private ByteBuffer readNode(long page, ByteBuffer node) throws IOException {
+        if (page < 1 || page >= pageCount) {
+            throw new IOException(fileName + " has no node " + page);
+        }
+        storage.read(page * PAGE_SIZE, node.clear().limit(PAGE_SIZE));
+        node.clear();
+        return node;
+    }
+
+    //-----------------------------
+    /**
+     * Writes a node with a single write.
+     *
+     * @param page (in) long - page of the node.
+     * @param node (in) ByteBuffer - node buffer.
+     * @throws IOException
+     */
+    //---
+    private void writeNode(long page, ByteBuffer node) throws IOException {
+        storage.write(page * PAGE_SIZE, node.duplicate().position(0).limit(PAGE_SIZE));
+    }
+
+    //=============================
+    // Nested Classes
+    //=============================
+
+    /**
+     * Cursor class walks the keys of the tree in ascending order, following the leaf chain.
+     * A cursor is only valid while the tree is not changed.
+     */
+    public class Cursor {
+        private final ByteBuffer leaf;
+        private int index;
+        private int position; // entry of the current key, -1 before the first call to next
+
+        //-----------------------------
+        /**
+         * Two argument constructor for Cursor.
+         *
+         * @param leaf (in) ByteBuffer - leaf the scan starts in.
+         * @param index (in) int - index of the first key of the scan.
+         */
+        //---
+        private Cursor(ByteBuffer leaf, int index) {
+            this.leaf = leaf;
+            this.index = index;
+            this.position = -1;
+        }
+
+        //-----------------------------
+        /**
+         * Moves to the next key, loading the next leaf when the current one is done.
+         *
+         * @return (out) boolean - false when there are no more keys.
+         * @throws IOException
+         */
+        //---
+        public boolean next() throws IOException {
+            while (index >= count(leaf)) {
+                long next = leaf.getLong(NEXT_OFFSET);
+                if (next == 0) {
+                    position = -1;
+                    return false;
+                }
+                readNode(next, leaf);
+                index = 0;
+            }
+            position = ENTRIES_OFFSET + index * entrySize;
+            index++;
+            return true;
+        }
+
+        //-----------------------------
+        /**
+         * Getter method for the current key.
+         *
+         * @return (out) byte[] - copy of the key.
+         */
+        //---
+        public byte[] getKey() {
+            byte[] key = new byte[keySize];
+            leaf.get(position, key);
+            return key;
+        }
+
+        //-----------------------------
+        /**
+         * Compares the start of the current key with a prefix.
+         *
+         * @param prefix (in) byte[] - up to keySize bytes.
+         * @return (out) boolean - true if the key starts with the prefix.
+         */
+        //---
+        public boolean keyStartsWith(byte[] prefix) {
+            return Arrays.equals(leaf.array(), position, position + prefix.length, prefix, 0, prefix.length);
+        }
+
+        //-----------------------------
+        /**
+         * Getter method for the value of the current key.
+         *
+         * @return (out) long - value of the key.
+         */
+        //---
+        public long getValue() {
+            return leaf.getLong(position + keySize);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+/**
+ * File: BTreeIndex.java
+ * Revision History:
+ * - 2026-10-18: Record index on a field of the encoded records, kept in a BPlusTree
+ * - 2026-10-18: Seek to a record offset within the records of one field value
+ * - 2026-10-18: Marked changed by the record file before each change
+ * - 2026-10-18: Duplicates of a unique field are reported on rebuild instead of failing it
+ * - 2026-10-18: Tree of a compacted file written ahead of the swap, which only renames it
+ * Purpose:
+ * BTreeIndex class indexes the records of a RecordFile on a fixed size field, taken straight from
+ * the encoded record bytes, e.g. the padded email of a requester. The key of a unique index is
+ * the field itself; the key of a non unique index is the field followed by the record offset, so
+ * every record has its own key and records of one field value are next to each other in offset
+ * order. The index file is named after the data file and the index name.
+ * Should a unique field value be found twice when the index is rebuilt, e.g. in a file written
+ * before the index existed, the record with the lowest offset is indexed and the others are
+ * reported through IntegrityCheck, so start up goes on. Deletes and updates of a unique index
+ * only remove a key that still points at the record.
+ */
+package ca.boggleztracker.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class BTreeIndex implements RecordIndex {
+    //=============================
+    // Constants and static fields
+    //=============================
+    public static final String SUFFIX = ".idx";
+
+    //=============================
+    // Member fields
+    //=============================
+    private final String name;
+    private final int fieldOffset;
+    private final int fieldSize;
+    private final boolean unique;
+    private final boolean mapped;
+    private String fileName;
+    private BPlusTree tree;
+    private BTreeIndex compacted; // index written for a compacted file, not swapped in yet
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * Five argument constructor for BTreeIndex. The index file is opened by open.
+     *
+     * @param name (in) String - name of the index, part of the index file name.
+     * @param fieldOffset (in) int - index of the field in the encoded record.
+     * @param fieldSize (in) int - bytes of the field.
+     * @param unique (in) boolean - true if no two records have the same field value.
+     * @param mapped (in) boolean - true to memory map the index file.
+     */
+    //---
+    public BTreeIndex(String name, int fieldOffset, int fieldSize, boolean unique, boolean mapped) {
+        this.name = name;
+        this.fieldOffset = fieldOffset;
+        this.fieldSize = fieldSize;
+        this.unique = unique;
+        this.mapped = mapped;
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Opens the index file next to the data file.
+     *
+     * @param file (in) RecordFile - open record file.
+     * @return (out) boolean - true if the stored tree is valid, false if it must be rebuilt.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public boolean open(RecordFile file) throws IOException {
+        fileName = file.getFileName() + "." + name + SUFFIX;
+        tree = new BPlusTree(fileName, unique ? fieldSize : fieldSize + Long.BYTES, mapped);
+        return tree.getStamp().isValidFor(file);
+    }
+
+    //-----------------------------
+    /**
+     * Rebuilds the tree from a scan of the file, sorting the keys and loading them bottom up.
+     * Of the records with the same unique field value, only the first in the file is indexed.
+     *
+     * @param file (in) RecordFile - open record file.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void rebuild(RecordFile file) throws IOException {
+        List<byte[]> keys = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+        RecordScanner scanner = file.scan(0);
+
+        while (scanner.next()) {
+            keys.add(keyOf(scanner.getOffset(), ByteBuffer.wrap(scanner.getRecordBytes())));
+            offsets.add(scanner.getOffset());
+        }
+
+        Integer[] order = new Integer[keys.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(keys.get(a), keys.get(b)));
+
+        // the sort is stable, so the first of equal keys has the lowest offset
+        byte[][] sortedKeys = new byte[order.length][];
+        long[] values = new long[order.length];
+        int count = 0;
+        for (Integer i : order) {
+            if (count > 0 && Arrays.equals(sortedKeys[count - 1], keys.get(i))) {
+                IntegrityCheck.reportDuplicate(file, name, offsets.get(i), values[count - 1]);
+                continue;
+            }
+            sortedKeys[count] = keys.get(i);
+            values[count] = offsets.get(i);
+            count++;
+        }
+        tree.load(Arrays.copyOf(sortedKeys, count), Arrays.copyOf(values, count), IndexStamp.of(file));
+    }
+
+    //-----------------------------
+    /**
+     * Marks the tree as changed.
+     *
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void beginChange() throws IOException {
+        tree.beginChange();
+    }
+
+    //-----------------------------
+    /**
+     * Adds the key of an inserted record.
+     *
+     * @param offset (in) long - byte offset of the record.
+     * @param record (in) ByteBuffer - encoded record.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void inserted(long offset, ByteBuffer record) throws IOException {
+        tree.put(keyOf(offset, record), offset);
+    }
+
+    //-----------------------------
+    /**
+     * Removes the key of a deleted record. A unique key is left alone if it points at another
+     * record, i.e. the deleted record was a duplicate left out of the index.
+     *
+     * @param offset (in) long - byte offset of the record.
+     * @param record (in) ByteBuffer - encoded record as it was.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void deleted(long offset, ByteBuffer record) throws IOException {
+        removeKey(keyOf(offset, record), offset);
+    }
+
+    //-----------------------------
+    /**
+     * Replaces the key of an overwritten record, if the indexed field changed.
+     *
+     * @param offset (in) long - byte offset of the record.
+     * @param oldRecord (in) ByteBuffer - encoded record as it was.
+     * @param newRecord (in) ByteBuffer - encoded record as it is now.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void updated(long offset, ByteBuffer oldRecord, ByteBuffer newRecord) throws IOException {
+        byte[] oldKey = keyOf(offset, oldRecord);
+        byte[] newKey = keyOf(offset, newRecord);
+        if (!Arrays.equals(oldKey, newKey)) {
+            removeKey(oldKey, offset);
+            tree.put(newKey, offset);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Writes the tree with the stamp of the file and closes it.
+     *
+     * @param file (in) RecordFile - record file, still open.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void close(RecordFile file) throws IOException {
+        tree.close(IndexStamp.of(file));
+    }
+
+    //-----------------------------
+    /**
+     * Writes the tree of a compacted file next to it, loaded like a rebuilt tree.
+     *
+     * @param file (in) RecordFile - compacted file opened for reading.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void writeCompacted(RecordFile file) throws IOException {
+        compacted = new BTreeIndex(name, fieldOffset, fieldSize, unique, mapped);
+        compacted.open(file);
+        compacted.rebuild(file);
+        compacted.close(file);
+    }
+
+    //-----------------------------
+    /**
+     * Closes the tree and renames the tree of the compacted file over it.
+     *
+     * @param file (in) RecordFile - record file, opened again on the compacted file.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void swapCompacted(RecordFile file) throws IOException {
+        tree.close(tree.getStamp());
+        Files.move(Paths.get(compacted.fileName), Paths.get(fileName), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        compacted = null;
+        if (!open(file)) {
+            rebuild(file);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Deletes the tree written for a compacted file.
+     *
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void discardCompacted() throws IOException {
+        if (compacted != null) {
+            Files.deleteIfExists(Paths.get(compacted.fileName));
+            compacted = null;
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Looks up the record of a field value in a unique index.
+     *
+     * @param field (in) byte[] - encoded field value of fieldSize bytes.
+     * @return (out) long - byte offset of the record, or -1 if no record has the value.
+     * @throws IOException
+     */
+    //---
+    public long find(byte[] field) throws IOException {
+        return tree.find(field);
+    }
+
+    //-----------------------------
+    /**
+     * Starts a scan of the records in field order.
+     *
+     * @param field (in) byte[] - encoded field value to start at, up to fieldSize bytes, or null
+     *                            to start at the smallest value.
+     * @return (out) BPlusTree.Cursor - cursor over the keys, whose values are record offsets.
+     * @throws IOException
+     */
+    //---
+    public BPlusTree.Cursor seek(byte[] field) throws IOException {
+        if (field == null) {
+            return tree.seek(null);
+        }
+        return tree.seek(Arrays.copyOf(field, tree.getKeySize()));
+    }
+
+    //-----------------------------
+    /**
+     * Starts a scan of the records of one field value in a non unique index, in offset order.
+     *
+     * @param field (in) byte[] - encoded field value of fieldSize bytes.
+     * @param fromOffset (in) long - the scan starts at the first record at or after this offset.
+     * @return (out) BPlusTree.Cursor - cursor over the keys; the scan is over once a key does
+     *                                  not start with the field value.
+     * @throws IOException
+     */
+    //---
+    public BPlusTree.Cursor seek(byte[] field, long fromOffset) throws IOException {
+        byte[] key = Arrays.copyOf(field, fieldSize + Long.BYTES);
+        ByteBuffer.wrap(key).putLong(fieldSize, fromOffset);
+        return tree.seek(key);
+    }
+
+    //-----------------------------
+    /**
+     * Removes the key of a record, unless it is a unique key pointing at another record.
+     *
+     * @param key (in) byte[] - key of the record.
+     * @param offset (in) long - byte offset of the record.
+     * @throws IOException
+     */
+    //---
+    private void removeKey(byte[] key, long offset) throws IOException {
+        if (!unique || tree.find(key) == offset) {
+            tree.remove(key);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Gets the key of a record.
+     *
+     * @param offset (in) long - byte offset of the record.
+     * @param record (in) ByteBuffer - encoded record, the position is left unchanged.
+     * @return (out) byte[] - field value, followed by the offset for a non unique index.
+     */
+    //---
+    private byte[] keyOf(long offset, ByteBuffer record) {
+        byte[] key = new byte[tree.getKeySize()];
+        record.get(record.position() + fieldOffset, key, 0, fieldSize);
+        if (!unique) {
+            ByteBuffer.wrap(key).putLong(fieldSize, offset);
+        }
+        return key;
+    }
+}
@@ -0,0 +1,401 @@
+/**
+ * File: BitmapIndex.java
+ * Revision History:
+ * - 2026-10-18: Bitmaps of the records of every value of a field, saved on close
+ * - 2026-10-18: Marked changed by the record file before each change
+ * - 2026-10-18: Bitmaps of a compacted file written ahead of the swap, which only renames them
+ * Purpose:
+ * BitmapIndex class indexes the records of a RecordFile on a field with few distinct values,
+ * e.g. the status of a change item, with one RoaringBitmap of record numbers per value (see
+ * RecordFile.recordNumber). Filters over several fields are answered by combining the bitmaps
+ * and reading only the records left. The field is either a run of bytes of the encoded record
+ * or a bit field of one byte, for values packed together like status and priority.
+ * The bitmaps are held in memory and written to the index file when the record file is closed,
+ * so they are loaded instead of rebuilt on the next start up.
+ *
+ * Index file layout: magic (4 bytes), version (4 bytes), value count (4 bytes), the IndexStamp,
+ * then for every value its length (1 byte), its bytes and its bitmap.
+ */
+package ca.boggleztracker.model;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class BitmapIndex implements RecordIndex {
+    //=============================
+    // Constants and static fields
+    //=============================
+    private static final int MAGIC = 0x42475A42; // "BGZB"
+    private static final int VERSION = 1;
+    private static final int STAMP_OFFSET = 12;
+    private static final int HEADER_SIZE = STAMP_OFFSET + IndexStamp.SIZE;
+    private static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+    //=============================
+    // Member fields
+    //=============================
+    private final String name;
+    private final int fieldOffset;
+    private final int fieldSize; // 0 for a bit field
+    private final int shift;
+    private final int mask;
+    private final Map<String, RoaringBitmap> bitmaps; // field value as Latin-1 text
+    private RecordFile recordFile;
+    private String fileName;
+    private RandomAccessFile file;
+    private IndexStamp stamp;
+    private BitmapIndex compacted; // index written for a compacted file, not swapped in yet
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * Three argument constructor for BitmapIndex on a run of bytes. The index file is opened by
+     * open.
+     *
+     * @param name (in) String - name of the index, part of the index file name.
+     * @param fieldOffset (in) int - index of the field in the encoded record.
+     * @param fieldSize (in) int - bytes of the field, up to 255.
+     */
+    //---
+    public BitmapIndex(String name, int fieldOffset, int fieldSize) {
+        this(name, fieldOffset, fieldSize, 0, 0);
+    }
+
+    //-----------------------------
+    /**
+     * Four argument constructor for BitmapIndex on a bit field of one byte. The index file is
+     * opened by open.
+     *
+     * @param name (in) String - name of the index, part of the index file name.
+     * @param fieldOffset (in) int - index of the byte in the encoded record.
+     * @param shift (in) int - position of the lowest bit of the field in the byte.
+     * @param mask (in) int - mask of the field bits after shifting.
+     */
+    //---
+    public BitmapIndex(String name, int fieldOffset, int shift, int mask) {
+        this(name, fieldOffset, 0, shift, mask);
+    }
+
+    //-----------------------------
+    /**
+     * Five argument constructor for BitmapIndex used by the public constructors.
+     *
+     * @param name (in) String - name of the index.
+     * @param fieldOffset (in) int - index of the field in the encoded record.
+     * @param fieldSize (in) int - bytes of the field, 0 for a bit field.
+     * @param shift (in) int - position of the lowest bit of a bit field.
+     * @param mask (in) int - mask of a bit field after shifting.
+     */
+    //---
+    private BitmapIndex(String name, int fieldOffset, int fieldSize, int shift, int mask) {
+        this.name = name;
+        this.fieldOffset = fieldOffset;
+        this.fieldSize = fieldSize;
+        this.shift = shift;
+        this.mask = mask;
+        this.bitmaps = new TreeMap<>();
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Opens the index file next to the data file and loads the bitmaps if the file is valid.
+     *
+     * @param file (in) RecordFile - open record file.
+     * @return (out) boolean - true if the stored bitmaps were loaded, false if they must be rebuilt.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public boolean open(RecordFile file) throws IOException {
+        this.recordFile = file;
+        fileName = file.getFileName() + "." + name + BTreeIndex.SUFFIX;
+        this.file = new RandomAccessFile(fileName, "rw");
+        FileChannel channel = this.file.getChannel();
+        long length = this.file.length();
+        bitmaps.clear();
+
+        ByteBuffer contents = ByteBuffer.allocate((int) Math.min(length, Integer.MAX_VALUE));
+        while (contents.hasRemaining()) {
+            if (channel.read(contents, contents.position()) < 0) {
+                break;
+            }
+        }
+        contents.flip();
+
+        boolean valid = contents.limit() >= HEADER_SIZE && contents.getInt(0) == MAGIC
+                && contents.getInt(4) == VERSION;
+        stamp = valid ? IndexStamp.read(contents, STAMP_OFFSET) : new IndexStamp(false, -1, -1, -1);
+        if (!stamp.isValidFor(file)) {
+            return false;
+        }
+
+        int count = contents.getInt(8);
+        contents.position(HEADER_SIZE);
+        try {
+            for (int i = 0; i < count; i++) {
+                byte[] value = new byte[contents.get() & 0xFF];
+                contents.get(value);
+                bitmaps.put(new String(value, StandardCharsets.ISO_8859_1), RoaringBitmap.read(contents));
+            }
+        } catch (RuntimeException e) {
+            bitmaps.clear();
+            return false;
+        }
+        return true;
+    }
+
+    //-----------------------------
+    /**
+     * Rebuilds the bitmaps from a scan of the file.
+     *
+     * @param file (in) RecordFile - open record file.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void rebuild(RecordFile file) throws IOException {
+        beginChange();
+        bitmaps.clear();
+        RecordScanner scanner = file.scan(0);
+
+        while (scanner.next()) {
+            bitmaps.computeIfAbsent(valueOf(ByteBuffer.wrap(scanner.getRecordBytes())), v -> new RoaringBitmap())
+                    .add(recordFile.recordNumber(scanner.getOffset()));
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Adds an inserted record to the bitmap of its value.
+     *
+     * @param offset (in) long - byte offset of the record.
+     * @param record (in) ByteBuffer - encoded record.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void inserted(long offset, ByteBuffer record) throws IOException {
+        beginChange();
+        bitmaps.computeIfAbsent(valueOf(record), v -> new RoaringBitmap()).add(recordFile.recordNumber(offset));
+    }
+
+    //-----------------------------
+    /**
+     * Removes a deleted record from the bitmap of its value, dropping bitmaps that get empty.
+     *
+     * @param offset (in) long - byte offset of the record.
+     * @param record (in) ByteBuffer - encoded record as it was.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void deleted(long offset, ByteBuffer record) throws IOException {
+        beginChange();
+        String value = valueOf(record);
+        RoaringBitmap bitmap = bitmaps.get(value);
+        if (bitmap != null) {
+            bitmap.remove(recordFile.recordNumber(offset));
+            if (bitmap.getCardinality() == 0) {
+                bitmaps.remove(value);
+            }
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Moves an overwritten record to the bitmap of its new value, if the value changed.
+     *
+     * @param offset (in) long - byte offset of the record.
+     * @param oldRecord (in) ByteBuffer - encoded record as it was.
+     * @param newRecord (in) ByteBuffer - encoded record as it is now.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void updated(long offset, ByteBuffer oldRecord, ByteBuffer newRecord) throws IOException {
+        if (!valueOf(oldRecord).equals(valueOf(newRecord))) {
+            deleted(offset, oldRecord);
+            inserted(offset, newRecord);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Writes the bitmaps with the stamp of the file and closes the index file.
+     *
+     * @param file (in) RecordFile - record file, still open.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void close(RecordFile file) throws IOException {
+        int size = HEADER_SIZE;
+        for (Map.Entry<String, RoaringBitmap> entry : bitmaps.entrySet()) {
+            size += 1 + entry.getKey().length() + entry.getValue().serializedSize();
+        }
+
+        ByteBuffer contents = ByteBuffer.allocate(size);
+        contents.position(HEADER_SIZE);
+        for (Map.Entry<String, RoaringBitmap> entry : bitmaps.entrySet()) {
+            contents.put((byte) entry.getKey().length());
+            contents.put(entry.getKey().getBytes(StandardCharsets.ISO_8859_1));
+            entry.getValue().writeTo(contents);
+        }
+        contents.flip();
+
+        // the body is forced before the clean stamp, so a clean header never has a torn body
+        FileChannel channel = this.file.getChannel();
+        this.file.setLength(size);
+        contents.position(HEADER_SIZE);
+        while (contents.hasRemaining()) {
+            channel.write(contents, contents.position());
+        }
+        channel.force(false);
+
+        stamp = IndexStamp.of(file);
+        writeHeader();
+        channel.force(false);
+        this.file.close();
+    }
+
+    //-----------------------------
+    /**
+     * Writes the bitmaps of a compacted file next to it, built like rebuilt ones.
+     *
+     * @param file (in) RecordFile - compacted file opened for reading.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void writeCompacted(RecordFile file) throws IOException {
+        compacted = new BitmapIndex(name, fieldOffset, fieldSize, shift, mask);
+        compacted.open(file);
+        compacted.rebuild(file);
+        compacted.close(file);
+    }
+
+    //-----------------------------
+    /**
+     * Renames the index file of the compacted file over the index file and takes over the
+     * bitmaps built for it.
+     *
+     * @param file (in) RecordFile - record file, opened again on the compacted file.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void swapCompacted(RecordFile file) throws IOException {
+        this.file.close();
+        Files.move(Paths.get(compacted.fileName), Paths.get(fileName), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        this.file = new RandomAccessFile(fileName, "rw");
+        stamp = compacted.stamp;
+        bitmaps.clear();
+        bitmaps.putAll(compacted.bitmaps);
+        compacted = null;
+    }
+
+    //-----------------------------
+    /**
+     * Deletes the index file written for a compacted file.
+     *
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void discardCompacted() throws IOException {
+        if (compacted != null) {
+            Files.deleteIfExists(Paths.get(compacted.fileName));
+            compacted = null;
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Gets the records of a value of a byte run field. The bitmap must not be changed.
+     *
+     * @param field (in) byte[] - encoded field value of fieldSize bytes.
+     * @return (out) RoaringBitmap - record numbers of the records with the value.
+     */
+    //---
+    public RoaringBitmap get(byte[] field) {
+        return bitmaps.getOrDefault(new String(field, StandardCharsets.ISO_8859_1), EMPTY);
+    }
+
+    //-----------------------------
+    /**
+     * Gets the records of a value of a bit field. The bitmap must not be changed.
+     *
+     * @param value (in) int - value of the bit field.
+     * @return (out) RoaringBitmap - record numbers of the records with the value.
+     */
+    //---
+    public RoaringBitmap get(int value) {
+        return bitmaps.getOrDefault(String.valueOf((char) value), EMPTY);
+    }
+
+    //-----------------------------
+    /**
+     * Gets the indexed value of a record.
+     *
+     * @param record (in) ByteBuffer - encoded record, the position is left unchanged.
+     * @return (out) String - field bytes, or the bit field value, as Latin-1 text.
+     */
+    //---
+    private String valueOf(ByteBuffer record) {
+        if (fieldSize == 0) {
+            return String.valueOf((char) (((record.get(record.position() + fieldOffset) & 0xFF) >>> shift) & mask));
+        }
+        byte[] field = new byte[fieldSize];
+        record.get(record.position() + fieldOffset, field);
+        return new String(field, StandardCharsets.ISO_8859_1);
+    }
+
+    //-----------------------------
+    /**
+     * Marks the index file as changed before the first change since it was written, so bitmaps
+     * that were not saved are rebuilt on the next start up.
+     *
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void beginChange() throws IOException {
+        if (stamp.isClean()) {
+            stamp = stamp.dirty();
+            writeHeader();
+            file.getChannel().force(false);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Writes the header fields.
+     *
+     * @throws IOException
+     */
+    //---
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putInt(8, bitmaps.size());
+        stamp.writeTo(header, STAMP_OFFSET);
+        file.getChannel().write(header, 0);
+    }
+}
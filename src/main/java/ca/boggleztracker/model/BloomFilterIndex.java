@@ -0,0 +1,366 @@
+/**
+ * File: BloomFilterIndex.java
+ * Revision History:
+ * - 2026-10-18: Bloom filter over a field of the records, saved on close
+ * - 2026-10-18: Marked changed by the record file before each change
+ * - 2026-10-18: Filter of a compacted file written ahead of the swap, which only renames it
+ * Purpose:
+ * BloomFilterIndex class answers "might a record have this field value?" for the uniqueness
+ * checks done before an insert. A value that was never inserted is almost always reported as
+ * missing without reading the data file; a value reported as present still has to be looked up,
+ * since the filter has false positives (about 1% when full).
+ * Deletes cannot be taken out of a Bloom filter, so deleted values stay in it until it is
+ * rebuilt. The filter is sized for twice the records of the file when it is built, and is
+ * rebuilt at start up once more values were added than it was sized for, or when it was not
+ * saved cleanly.
+ *
+ * Index file layout: magic (4 bytes), version (4 bytes), number of 64 bit words (4 bytes),
+ * values added (8 bytes), the IndexStamp, then the words.
+ */
+package ca.boggleztracker.model;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+public class BloomFilterIndex implements RecordIndex {
+    //=============================
+    // Constants and static fields
+    //=============================
+    private static final int MAGIC = 0x42475A46; // "BGZF"
+    private static final int VERSION = 1;
+    private static final int STAMP_OFFSET = 20;
+    private static final int HEADER_SIZE = STAMP_OFFSET + IndexStamp.SIZE;
+    private static final int BITS_PER_VALUE = 10;
+    private static final int HASHES = 7; // best number of hashes for 10 bits per value
+    private static final int MIN_WORDS = 1024;
+    private static final int MAX_WORDS = 1 << 24; // bit positions stay below 2^31
+
+    //=============================
+    // Member fields
+    //=============================
+    private final String name;
+    private final int fieldOffset;
+    private final int fieldSize;
+    private String fileName;
+    private RandomAccessFile file;
+    private IndexStamp stamp;
+    private BloomFilterIndex compacted; // index written for a compacted file, not swapped in yet
+    private long[] words;
+    private long added; // values added since the filter was built
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * Three argument constructor for BloomFilterIndex. The index file is opened by open.
+     *
+     * @param name (in) String - name of the index, part of the index file name.
+     * @param fieldOffset (in) int - index of the field in the encoded record.
+     * @param fieldSize (in) int - bytes of the field.
+     */
+    //---
+    public BloomFilterIndex(String name, int fieldOffset, int fieldSize) {
+        this.name = name;
+        this.fieldOffset = fieldOffset;
+        this.fieldSize = fieldSize;
+        this.words = new long[MIN_WORDS];
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Opens the index file next to the data file and loads the filter if the file is valid and
+     * the filter is not overfull.
+     *
+     * @param file (in) RecordFile - open record file.
+     * @return (out) boolean - true if the stored filter was loaded, false if it must be rebuilt.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public boolean open(RecordFile file) throws IOException {
+        fileName = file.getFileName() + "." + name + BTreeIndex.SUFFIX;
+        this.file = new RandomAccessFile(fileName, "rw");
+        FileChannel channel = this.file.getChannel();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+
+        int wordCount = header.getInt(8);
+        boolean valid = header.position() == HEADER_SIZE && header.getInt(0) == MAGIC
+                && header.getInt(4) == VERSION && Integer.bitCount(wordCount) == 1
+                && wordCount >= MIN_WORDS && wordCount <= MAX_WORDS
+                && this.file.length() == HEADER_SIZE + (long) wordCount * Long.BYTES;
+        stamp = valid ? IndexStamp.read(header, STAMP_OFFSET) : new IndexStamp(false, -1, -1, -1);
+        added = header.getLong(12);
+        if (!stamp.isValidFor(file) || added > (long) wordCount * Long.SIZE / BITS_PER_VALUE) {
+            return false;
+        }
+
+        ByteBuffer contents = ByteBuffer.allocate(wordCount * Long.BYTES);
+        while (contents.hasRemaining()) {
+            if (channel.read(contents, HEADER_SIZE + contents.position()) < 0) {
+                throw new IOException("Index file " + name + " is truncated");
+            }
+        }
+        contents.flip();
+        words = new long[wordCount];
+        contents.asLongBuffer().get(words);
+        return true;
+    }
+
+    //-----------------------------
+    /**
+     * Rebuilds the filter from a scan of the file, sized for twice its records.
+     *
+     * @param file (in) RecordFile - open record file.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void rebuild(RecordFile file) throws IOException {
+        beginChange();
+        int wordCount = MIN_WORDS;
+        while (wordCount < MAX_WORDS && (long) wordCount * Long.SIZE < file.getRecordCount() * 2 * BITS_PER_VALUE) {
+            wordCount *= 2;
+        }
+        words = new long[wordCount];
+        added = 0;
+
+        RecordScanner scanner = file.scan(0);
+        while (scanner.next()) {
+            add(ByteBuffer.wrap(scanner.getRecordBytes()), fieldOffset);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Adds the value of an inserted record.
+     *
+     * @param offset (in) long - byte offset of the record.
+     * @param record (in) ByteBuffer - encoded record.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void inserted(long offset, ByteBuffer record) throws IOException {
+        beginChange();
+        add(record, record.position() + fieldOffset);
+    }
+
+    //-----------------------------
+    /**
+     * Ignores a deleted record, its value stays in the filter until it is rebuilt.
+     *
+     * @param offset (in) long - byte offset of the record.
+     * @param record (in) ByteBuffer - encoded record as it was.
+     */
+    //---
+    @Override
+    public void deleted(long offset, ByteBuffer record) {
+    }
+
+    //-----------------------------
+    /**
+     * Adds the new value of an overwritten record, if the value changed.
+     *
+     * @param offset (in) long - byte offset of the record.
+     * @param oldRecord (in) ByteBuffer - encoded record as it was.
+     * @param newRecord (in) ByteBuffer - encoded record as it is now.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void updated(long offset, ByteBuffer oldRecord, ByteBuffer newRecord) throws IOException {
+        if (oldRecord.slice(oldRecord.position() + fieldOffset, fieldSize)
+                .compareTo(newRecord.slice(newRecord.position() + fieldOffset, fieldSize)) != 0) {
+            inserted(offset, newRecord);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Writes the filter with the stamp of the file and closes the index file.
+     *
+     * @param file (in) RecordFile - record file, still open.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void close(RecordFile file) throws IOException {
+        FileChannel channel = this.file.getChannel();
+        ByteBuffer contents = ByteBuffer.allocate(words.length * Long.BYTES);
+        contents.asLongBuffer().put(words);
+
+        this.file.setLength(HEADER_SIZE + (long) words.length * Long.BYTES);
+        while (contents.hasRemaining()) {
+            channel.write(contents, HEADER_SIZE + contents.position());
+        }
+        channel.force(false);
+
+        stamp = IndexStamp.of(file);
+        writeHeader();
+        channel.force(false);
+        this.file.close();
+    }
+
+    //-----------------------------
+    /**
+     * Writes the filter of a compacted file next to it, built like a rebuilt one.
+     *
+     * @param file (in) RecordFile - compacted file opened for reading.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void writeCompacted(RecordFile file) throws IOException {
+        compacted = new BloomFilterIndex(name, fieldOffset, fieldSize);
+        compacted.open(file);
+        compacted.rebuild(file);
+        compacted.close(file);
+    }
+
+    //-----------------------------
+    /**
+     * Renames the index file of the compacted file over the index file and takes over the
+     * filter built for it.
+     *
+     * @param file (in) RecordFile - record file, opened again on the compacted file.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void swapCompacted(RecordFile file) throws IOException {
+        this.file.close();
+        Files.move(Paths.get(compacted.fileName), Paths.get(fileName), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        this.file = new RandomAccessFile(fileName, "rw");
+        stamp = compacted.stamp;
+        words = compacted.words;
+        added = compacted.added;
+        compacted = null;
+    }
+
+    //-----------------------------
+    /**
+     * Deletes the index file written for a compacted file.
+     *
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void discardCompacted() throws IOException {
+        if (compacted != null) {
+            Files.deleteIfExists(Paths.get(compacted.fileName));
+            compacted = null;
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Checks whether a record might have a field value.
+     *
+     * @param field (in) byte[] - encoded field value of fieldSize bytes.
+     * @return (out) boolean - false if no record has the value, true if one might have it.
+     */
+    //---
+    public boolean mightContain(byte[] field) {
+        long hash = hash(ByteBuffer.wrap(field), 0);
+        int mask = words.length * Long.SIZE - 1;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (h1 + i * h2) & mask;
+            if ((words[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //-----------------------------
+    /**
+     * Sets the bits of a field value.
+     *
+     * @param record (in) ByteBuffer - buffer holding the value.
+     * @param index (in) int - index of the value in the buffer.
+     */
+    //---
+    private void add(ByteBuffer record, int index) {
+        long hash = hash(record, index);
+        int mask = words.length * Long.SIZE - 1;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (h1 + i * h2) & mask;
+            words[bit >>> 6] |= 1L << bit;
+        }
+        added++;
+    }
+
+    //-----------------------------
+    /**
+     * Hashes a field value with FNV-1a and a final mix, whose two halves give the bit positions
+     * by double hashing.
+     *
+     * @param buffer (in) ByteBuffer - buffer holding the value.
+     * @param index (in) int - index of the value in the buffer.
+     * @return (out) long - 64 bit hash.
+     */
+    //---
+    private long hash(ByteBuffer buffer, int index) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < fieldSize; i++) {
+            h = (h ^ (buffer.get(index + i) & 0xFF)) * 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    //-----------------------------
+    /**
+     * Marks the index file as changed before the first change since it was written, so a filter
+     * that was not saved is rebuilt on the next start up.
+     *
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void beginChange() throws IOException {
+        if (stamp.isClean()) {
+            stamp = stamp.dirty();
+            writeHeader();
+            file.getChannel().force(false);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Writes the header fields.
+     *
+     * @throws IOException
+     */
+    //---
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putInt(8, words.length);
+        header.putLong(12, added);
+        stamp.writeTo(header, STAMP_OFFSET);
+        file.getChannel().write(header, 0);
+    }
+}
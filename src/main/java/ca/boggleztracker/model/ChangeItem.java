@@ -9,6 +9,13 @@
  * - 2024-07-09: moved generateRandomChangeID to Scenario Manager and made empty constructor for changeItem
  * - 2024-07-15: created two getters for status and product name for use in scenario manager
  * - 2024-07-25: documentation changes
+ * - 2026-10-18: readChangeItems decodes from a buffered RecordReader
+ * - 2026-10-18: v2 record layout with 1 byte characters, epoch day date and packed status/priority
+ * - 2026-10-18: offset of the change ID in the encoded record, for the change ID index
+ * - 2026-10-18: offset of the product name and release ID, for the release index
+ * - 2026-10-18: layout of the status and priority byte, for the bitmap indexes
+ * - 2026-10-18: offset of the description, for the description search index
+ * - 2026-10-18: offset of the anticipated release date, for the date index
  * Purpose:
  * ChangeItem class represents a change item of a particular product release and is responsible for
  * managing the change requests of the change item. The class stores data such as changeID, priority
@@ -16,6 +23,7 @@
  */
 package ca.boggleztracker.model;
 
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.time.LocalDate;
@@ -27,7 +35,15 @@ public class ChangeItem {
     //=============================
     public static final int MAX_DESCRIPTION = 30; // accessed in TextUI
     public static final int MAX_STATUS = 12;
-    public static final long BYTES_SIZE_CHANGE_ITEM = 146; // accessed in scenario manager
+    public static final long BYTES_SIZE_CHANGE_ITEM = 57; // accessed in scenario manager
+    public static final int CHANGE_ID_OFFSET = 0; // index of the change ID in the encoded record
+    public static final int PRODUCT_OFFSET = 4; // index of the product name, followed by the release ID
+    public static final int DESCRIPTION_OFFSET = 22; // index of the change description in the encoded record
+    public static final int STATUS_PRIORITY_OFFSET = 52; // index of the packed status and priority byte
+    public static final int STATUS_SHIFT = 4; // the status code is in the high 4 bits
+    public static final int CODE_MASK = 0x0F; // mask of the status code and of the priority code
+    public static final int DATE_OFFSET = 53; // index of the anticipated release date epoch day
+    private static final char NO_PRIORITY = ' ';
 
     //=============================
     // Member fields
@@ -141,7 +157,7 @@ public class ChangeItem {
     //-----------------------------
     /**
      * returns the date of the object that it calls from.
-     * @return (out) String - date of the object.
+     * @return (out) String - date of the object, empty if it has none.
      */
     //---
     public String getAnticipatedReleaseDate() {
@@ -153,40 +169,85 @@ public class ChangeItem {
 
     //-----------------------------
     /**
-     * Writes the contents of release object to the release file.
+     * Writes the contents of change item object to the change item file.
      *
-     * @param file (in) RandomAccessFile - The file to read from.
+     * @param file (in) DataOutput - The file to write to.
      */
     //---
-    public void writeChangeItem(RandomAccessFile file) throws IOException {
+    public void writeChangeItem(DataOutput file) throws IOException {
         file.writeInt(changeID);
-        file.writeChars(new String(productName));
-        file.writeChars(new String(releaseID));
-        file.writeChars(new String(changeDescription));
-        file.writeChar(priority);
-        file.writeChars(new String(status));
+        ScenarioManager.writeCharsToFile(file, productName);
+        ScenarioManager.writeCharsToFile(file, releaseID);
+        ScenarioManager.writeCharsToFile(file, changeDescription);
+        file.writeByte(packStatusAndPriority());
+        ScenarioManager.writeDateToFile(file, anticipatedReleaseDate);
+    }
 
-        if (anticipatedReleaseDate == null) {
-            file.writeChars(" ".repeat(10));
-        } else {
-            file.writeChars(anticipatedReleaseDate.toString()); // format to yyyy-mm-dd (20 bytes)
+    //-----------------------------
+    /**
+     * Packs status and priority into one byte, the status code in the high 4 bits and
+     * the priority digit in the low 4 bits (0 when there is no priority).
+     *
+     * @return (out) int - packed status and priority.
+     * @throws IOException when the status is not a known ChangeStatus.
+     */
+    //---
+    private int packStatusAndPriority() throws IOException {
+        ChangeStatus changeStatus = ChangeStatus.fromText(new String(status));
+        if (changeStatus == null) {
+            throw new IOException("Unknown change item status: " + new String(status).trim());
+        }
+
+        int priorityCode = 0;
+        if (priority >= '1' && priority <= '9') {
+            priorityCode = priority - '0';
         }
+        return (changeStatus.getCode() << STATUS_SHIFT) | priorityCode;
     }
 
     //-----------------------------
     /**
-     * Reads individual change item record from file
+     * Unpacks the status and priority byte written by packStatusAndPriority.
+     *
+     * @param packed (in) int - packed status and priority.
+     */
+    //---
+    private void unpackStatusAndPriority(int packed) {
+        ChangeStatus changeStatus = ChangeStatus.fromCode((packed >> STATUS_SHIFT) & CODE_MASK);
+        String statusText = changeStatus == null ? "" : changeStatus.getText();
+        int priorityCode = packed & CODE_MASK;
+
+        status = ScenarioManager.padCharArray(statusText.toCharArray(), MAX_STATUS);
+        priority = priorityCode == 0 ? NO_PRIORITY : (char) ('0' + priorityCode);
+    }
+
+    //-----------------------------
+    /**
+     * Reads individual change item record from file at the current file pointer.
      *
      * @param file (in) RandomAccessFile - The file to read from.
      */
     //---
-    public void readChangeItems(RandomAccessFile file) throws IOException{
+    public void readChangeItems(RandomAccessFile file) throws IOException {
+        RecordReader reader = new RecordReader(file.getChannel(), (int) BYTES_SIZE_CHANGE_ITEM);
+        reader.seek(file.getFilePointer());
+        readChangeItems(reader);
+        file.seek(reader.getFilePointer());
+    }
+
+    //-----------------------------
+    /**
+     * Reads individual change item record from a buffered reader.
+     *
+     * @param file (in) RecordReader - The buffered reader of the file to read from.
+     */
+    //---
+    public void readChangeItems(RecordReader file) throws IOException{
         changeID = file.readInt();
         productName = ScenarioManager.readCharsFromFile(file, Product.MAX_PRODUCT_NAME);
         releaseID = ScenarioManager.readCharsFromFile(file, Release.MAX_RELEASE_ID);
         changeDescription = ScenarioManager.readCharsFromFile(file, MAX_DESCRIPTION);
-        priority = file.readChar();
-        status = ScenarioManager.readCharsFromFile(file, MAX_STATUS);
+        unpackStatusAndPriority(file.readByte());
         anticipatedReleaseDate = ScenarioManager.readDateFromFile(file);
     }
     //---
@@ -6,12 +6,16 @@
  * - 2024-07-06: writeChangeRequest implementation
  * - 2024-07-08: readChangeRequest implementation
  * - 2024-07-25: documentation changes
+ * - 2026-10-18: readChangeRequest decodes from a buffered RecordReader
+ * - 2026-10-18: v2 record layout with 1 byte characters and epoch day date
+ * - 2026-10-18: offsets of the change ID and requester email, for the change request indexes
  * Purpose:
  * ChangeRequest class represents a change request of a product, storing data such as
  * reported date and the requester.
  */
 package ca.boggleztracker.model;
 
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.time.LocalDate;
@@ -21,7 +25,9 @@ public class ChangeRequest {
     //=============================
     // Constants and static fields
     //=============================
-    public static final int BYTES_SIZE_CHANGE_REQUEST = 108; // accessed to calculate start position in file seeking
+    public static final int BYTES_SIZE_CHANGE_REQUEST = 50; // accessed to calculate start position in file seeking
+    public static final int CHANGE_ID_OFFSET = 0; // index of the change ID in the encoded record
+    public static final int EMAIL_OFFSET = 22; // index of the requester email in the encoded record
 
     //=============================
     // Member fields
@@ -90,25 +96,39 @@ public class ChangeRequest {
     /**
      * Writes the contents of release object to the release file.
      *
-     * @param file (in) RandomAccessFile - The file to read from.
+     * @param file (in) DataOutput - The file to write to.
      */
     //---
-    public void writeChangeRequest(RandomAccessFile file) throws IOException {
+    public void writeChangeRequest(DataOutput file) throws IOException {
         file.writeInt(changeID);
-        file.writeChars(new String(productName));
-        file.writeChars(new String(reportedRelease));
-        file.writeChars(new String(requesterEmail));
-        file.writeChars(reportedDate.toString()); // format to yyyy-mm-dd (20 bytes)
+        ScenarioManager.writeCharsToFile(file, productName);
+        ScenarioManager.writeCharsToFile(file, reportedRelease);
+        ScenarioManager.writeCharsToFile(file, requesterEmail);
+        ScenarioManager.writeDateToFile(file, reportedDate);
     }
 
     //-----------------------------
     /**
-     * Reads individual change request record from file
+     * Reads individual change request record from file at the current file pointer.
      *
      * @param file (in) RandomAccessFile - The file to read from.
      */
     //---
-    public void readChangeRequest(RandomAccessFile file) throws IOException{
+    public void readChangeRequest(RandomAccessFile file) throws IOException {
+        RecordReader reader = new RecordReader(file.getChannel(), BYTES_SIZE_CHANGE_REQUEST);
+        reader.seek(file.getFilePointer());
+        readChangeRequest(reader);
+        file.seek(reader.getFilePointer());
+    }
+
+    //-----------------------------
+    /**
+     * Reads individual change request record from a buffered reader.
+     *
+     * @param file (in) RecordReader - The buffered reader of the file to read from.
+     */
+    //---
+    public void readChangeRequest(RecordReader file) throws IOException{
         changeID = file.readInt();
         productName = ScenarioManager.readCharsFromFile(file, Product.MAX_PRODUCT_NAME);
         reportedRelease = ScenarioManager.readCharsFromFile(file, Release.MAX_RELEASE_ID);
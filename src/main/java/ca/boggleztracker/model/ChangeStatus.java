@@ -0,0 +1,100 @@
+/**
+ * File: ChangeStatus.java
+ * Revision History:
+ * - 2026-10-18: Status declarations
+ * Purpose:
+ * ChangeStatus enum lists the statuses a change item can be in. The status is stored on disk
+ * as its code, packed together with the priority into a single byte of the change item record.
+ */
+package ca.boggleztracker.model;
+
+public enum ChangeStatus {
+    //=============================
+    // Constants
+    //=============================
+    OPEN("Open"),
+    ASSESSED("Assessed"),
+    IN_PROGRESS("In-Progress"),
+    COMPLETED("Completed"),
+    CANCELLED("Cancelled");
+
+    //=============================
+    // Member fields
+    //=============================
+    private final String text;
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * One argument constructor for ChangeStatus.
+     *
+     * @param text (in) String - status as displayed and entered in TextUI.
+     */
+    //---
+    ChangeStatus(String text) {
+        this.text = text;
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Getter method for the status text.
+     *
+     * @return (out) String - status as displayed in TextUI.
+     */
+    //---
+    public String getText() {
+        return text;
+    }
+
+    //-----------------------------
+    /**
+     * Gets the on-disk code of the status. Code 0 is kept for records without a status.
+     *
+     * @return (out) int - status code between 1 and 15.
+     */
+    //---
+    public int getCode() {
+        return ordinal() + 1;
+    }
+
+    //-----------------------------
+    /**
+     * Finds the status matching a status text, ignoring padding.
+     *
+     * @param text (in) String - status text.
+     * @return (out) ChangeStatus - matching status, or null if the text is not a status.
+     */
+    //---
+    public static ChangeStatus fromText(String text) {
+        String trimmed = text.trim();
+
+        for (ChangeStatus status : values()) {
+            if (status.text.equalsIgnoreCase(trimmed)) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    //-----------------------------
+    /**
+     * Finds the status of an on-disk code.
+     *
+     * @param code (in) int - status code.
+     * @return (out) ChangeStatus - matching status, or null for code 0 and unknown codes.
+     */
+    //---
+    public static ChangeStatus fromCode(int code) {
+        if (code < 1 || code > values().length) {
+            return null;
+        }
+        return values()[code - 1];
+    }
+}
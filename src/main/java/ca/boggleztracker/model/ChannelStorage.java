@@ -0,0 +1,133 @@
+/**
+ * File: ChannelStorage.java
+ * Revision History:
+ * - 2026-10-18: Positional FileChannel backend
+ * - 2026-10-18: Truncating the file, used for files too large to be memory mapped
+ * Purpose:
+ * ChannelStorage class is a StorageBackend that serves every read and write with a positional
+ * FileChannel call. It is the fallback when memory mapping is not wanted, or the file is too large
+ * to be mapped.
+ */
+package ca.boggleztracker.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+public class ChannelStorage implements StorageBackend {
+    //=============================
+    // Member fields
+    //=============================
+    private final FileChannel channel;
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * One argument constructor for ChannelStorage.
+     *
+     * @param channel (in) FileChannel - channel of the data file.
+     */
+    //---
+    public ChannelStorage(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Reads bytes with a single positional read, repeated only for short reads.
+     *
+     * @param position (in) long - byte position in file.
+     * @param destination (in/out) ByteBuffer - buffer the bytes are copied into.
+     * @return (out) int - number of bytes read, or -1 at end of file.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public int read(long position, ByteBuffer destination) throws IOException {
+        int total = 0;
+
+        while (destination.hasRemaining()) {
+            int bytesRead = channel.read(destination, position + total);
+            if (bytesRead < 0) {
+                break;
+            }
+            total += bytesRead;
+        }
+        if (total == 0 && destination.hasRemaining()) {
+            return -1;
+        }
+        return total;
+    }
+
+    //-----------------------------
+    /**
+     * Writes bytes with positional writes until the source is drained.
+     *
+     * @param position (in) long - byte position in file.
+     * @param source (in) ByteBuffer - bytes to be written.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void write(long position, ByteBuffer source) throws IOException {
+        long pos = position;
+
+        while (source.hasRemaining()) {
+            pos += channel.write(source, pos);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Gets the size of the file.
+     *
+     * @return (out) long - file size in bytes.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public long length() throws IOException {
+        return channel.size();
+    }
+
+    //-----------------------------
+    /**
+     * Truncates the file through the channel.
+     *
+     * @param size (in) long - new file size in bytes, not above the current size.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void truncate(long size) throws IOException {
+        channel.truncate(size);
+    }
+
+    //-----------------------------
+    /**
+     * Forces all written bytes to the storage device.
+     *
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void force() throws IOException {
+        channel.force(false);
+    }
+
+    //-----------------------------
+    /**
+     * Nothing is held beyond the channel, which is closed by its owner.
+     */
+    //---
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,197 @@
+/**
+ * File: Compactor.java
+ * Revision History:
+ * - 2026-10-18: Background compaction of record files
+ * - 2026-10-18: Indexes of the compacted file written outside of the locks
+ * Purpose:
+ * Compactor class runs in a background thread and rewrites record files that have too many
+ * deleted records. The live records are copied to a new file while holding the read lock of
+ * the ScenarioManager, so readers go on while writers wait. The indexes of the new file are then
+ * written from it without holding a lock. The new file and its indexes are swapped in under the
+ * write lock, which is held only for a checkpoint of the log and the atomic renames. A file that
+ * was changed meanwhile is not swapped and is compacted again later.
+ */
+package ca.boggleztracker.model;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+
+public class Compactor {
+    //=============================
+    // Constants and static fields
+    //=============================
+    public static final double DEAD_RATIO = 0.25; // share of free slots that makes a file worth compacting
+    private static final long INTERVAL_MS = 60 * 1000;
+
+    //=============================
+    // Member fields
+    //=============================
+    private final Map<RecordType, RecordFile> files;
+    private final ReadWriteLock lock;
+    private final WriteAheadLog log;
+    private final Thread thread;
+    private boolean requested;
+    private boolean stopped;
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * Three argument constructor for Compactor, the thread is not started yet.
+     *
+     * @param files (in) Map - open record files by record type.
+     * @param lock (in) ReadWriteLock - lock of the ScenarioManager guarding the files.
+     * @param log (in) WriteAheadLog - log of the files, checkpointed before a swap.
+     */
+    //---
+    public Compactor(Map<RecordType, RecordFile> files, ReadWriteLock lock, WriteAheadLog log) {
+        this.files = files;
+        this.lock = lock;
+        this.log = log;
+        this.thread = new Thread(this::run, "compactor");
+        this.thread.setDaemon(true);
+    }
+
+    //=============================
+    // Static Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Checks whether compacting a file frees at least one page and DEAD_RATIO of its slots.
+     *
+     * @param file (in) RecordFile - open record file.
+     * @return (out) boolean - true if the file should be compacted.
+     * @throws IOException
+     */
+    //---
+    public static boolean needsCompaction(RecordFile file) throws IOException {
+        long dataPages = file.getPageCount() - 1;
+        int slotsPerPage = file.getSlotsPerPage();
+        long capacity = dataPages * slotsPerPage;
+        long live = file.getRecordCount();
+        long livePages = (live + slotsPerPage - 1) / slotsPerPage;
+
+        return livePages < dataPages && capacity - live >= capacity * DEAD_RATIO;
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Starts the background thread.
+     */
+    //---
+    public void start() {
+        thread.start();
+    }
+
+    //-----------------------------
+    /**
+     * Wakes the background thread up to check the files now, e.g. after a delete.
+     */
+    //---
+    public synchronized void requestCompaction() {
+        requested = true;
+        notifyAll();
+    }
+
+    //-----------------------------
+    /**
+     * Stops the background thread, waiting for a running compaction to finish.
+     */
+    //---
+    public void stop() {
+        synchronized (this) {
+            stopped = true;
+            notifyAll();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Compacts a file if it needs it.
+     *
+     * @param file (in) RecordFile - open record file.
+     * @return (out) boolean - true if a compacted file was swapped in.
+     * @throws IOException
+     */
+    //---
+    public boolean compact(RecordFile file) throws IOException {
+        Path compacted;
+        long lastLsn;
+
+        lock.readLock().lock();
+        try {
+            if (!needsCompaction(file)) {
+                return false;
+            }
+            lastLsn = file.getLastLsn();
+            compacted = file.writeCompacted();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        try {
+            file.writeCompactedIndexes(compacted);
+        } catch (IOException e) {
+            file.discardCompacted(compacted);
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (file.getLastLsn() != lastLsn) {
+                file.discardCompacted(compacted);
+                return false;
+            }
+            log.checkpoint(files.values());
+            file.swap(compacted);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Body of the background thread, checks every file when requested and every INTERVAL_MS.
+     */
+    //---
+    private void run() {
+        while (true) {
+            synchronized (this) {
+                if (!requested && !stopped) {
+                    try {
+                        wait(INTERVAL_MS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (stopped) {
+                    return;
+                }
+                requested = false;
+            }
+
+            for (RecordFile file : files.values()) {
+                try {
+                    compact(file);
+                } catch (IOException e) {
+                    System.err.println("Error compacting " + file.getType().getFileName() + " " + e.getMessage());
+                }
+            }
+        }
+    }
+}
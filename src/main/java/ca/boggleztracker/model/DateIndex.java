@@ -0,0 +1,295 @@
+/**
+ * File: DateIndex.java
+ * Revision History:
+ * - 2026-10-18: Index of the records on an epoch day date field, kept in a BPlusTree
+ * - 2026-10-18: Marked changed by the record file before each change
+ * - 2026-10-18: Tree of a compacted file written ahead of the swap, which only renames it
+ * Purpose:
+ * DateIndex class indexes the records of a RecordFile on a date, stored as an int epoch day,
+ * so the records of a range of dates are found with one range scan instead of decoding every
+ * record. The key is the epoch day with its sign bit flipped, so the keys of earlier dates
+ * sort first also before 1970, followed by the record offset. Records without a date are not
+ * indexed.
+ */
+package ca.boggleztracker.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class DateIndex implements RecordIndex {
+    //=============================
+    // Constants and static fields
+    //=============================
+    private static final int KEY_SIZE = Integer.BYTES + Long.BYTES;
+
+    //=============================
+    // Member fields
+    //=============================
+    private final String name;
+    private final int fieldOffset;
+    private final int noDate; // epoch day stored for a missing date
+    private final boolean mapped;
+    private String fileName;
+    private BPlusTree tree;
+    private DateIndex compacted; // index written for a compacted file, not swapped in yet
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * Four argument constructor for DateIndex. The index file is opened by open.
+     *
+     * @param name (in) String - name of the index, part of the index file name.
+     * @param fieldOffset (in) int - index of the epoch day in the encoded record.
+     * @param noDate (in) int - epoch day stored for a missing date, not indexed.
+     * @param mapped (in) boolean - true to memory map the index file.
+     */
+    //---
+    public DateIndex(String name, int fieldOffset, int noDate, boolean mapped) {
+        this.name = name;
+        this.fieldOffset = fieldOffset;
+        this.noDate = noDate;
+        this.mapped = mapped;
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Opens the index file next to the data file.
+     *
+     * @param file (in) RecordFile - open record file.
+     * @return (out) boolean - true if the stored tree is valid, false if it must be rebuilt.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public boolean open(RecordFile file) throws IOException {
+        fileName = file.getFileName() + "." + name + BTreeIndex.SUFFIX;
+        tree = new BPlusTree(fileName, KEY_SIZE, mapped);
+        return tree.getStamp().isValidFor(file);
+    }
+
+    //-----------------------------
+    /**
+     * Rebuilds the tree from a scan of the file, sorting the keys and loading them bottom up.
+     *
+     * @param file (in) RecordFile - open record file.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void rebuild(RecordFile file) throws IOException {
+        List<byte[]> keys = new ArrayList<>();
+        RecordScanner scanner = file.scan(0);
+
+        while (scanner.next()) {
+            byte[] key = keyOf(scanner.getOffset(), ByteBuffer.wrap(scanner.getRecordBytes()));
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+        keys.sort(Arrays::compareUnsigned);
+
+        byte[][] sortedKeys = keys.toArray(new byte[0][]);
+        long[] values = new long[sortedKeys.length];
+        for (int i = 0; i < sortedKeys.length; i++) {
+            values[i] = ByteBuffer.wrap(sortedKeys[i]).getLong(Integer.BYTES);
+        }
+        tree.load(sortedKeys, values, IndexStamp.of(file));
+    }
+
+    //-----------------------------
+    /**
+     * Marks the tree as changed.
+     *
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void beginChange() throws IOException {
+        tree.beginChange();
+    }
+
+    //-----------------------------
+    /**
+     * Adds the key of an inserted record with a date.
+     *
+     * @param offset (in) long - byte offset of the record.
+     * @param record (in) ByteBuffer - encoded record.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void inserted(long offset, ByteBuffer record) throws IOException {
+        byte[] key = keyOf(offset, record);
+        if (key != null) {
+            tree.put(key, offset);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Removes the key of a deleted record with a date.
+     *
+     * @param offset (in) long - byte offset of the record.
+     * @param record (in) ByteBuffer - encoded record as it was.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void deleted(long offset, ByteBuffer record) throws IOException {
+        byte[] key = keyOf(offset, record);
+        if (key != null) {
+            tree.remove(key);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Replaces the key of an overwritten record, if its date changed.
+     *
+     * @param offset (in) long - byte offset of the record.
+     * @param oldRecord (in) ByteBuffer - encoded record as it was.
+     * @param newRecord (in) ByteBuffer - encoded record as it is now.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void updated(long offset, ByteBuffer oldRecord, ByteBuffer newRecord) throws IOException {
+        byte[] oldKey = keyOf(offset, oldRecord);
+        byte[] newKey = keyOf(offset, newRecord);
+        if (!Arrays.equals(oldKey, newKey)) {
+            deleted(offset, oldRecord);
+            inserted(offset, newRecord);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Writes the tree with the stamp of the file and closes it.
+     *
+     * @param file (in) RecordFile - record file, still open.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void close(RecordFile file) throws IOException {
+        tree.close(IndexStamp.of(file));
+    }
+
+    //-----------------------------
+    /**
+     * Writes the tree of a compacted file next to it, loaded like a rebuilt tree.
+     *
+     * @param file (in) RecordFile - compacted file opened for reading.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void writeCompacted(RecordFile file) throws IOException {
+        compacted = new DateIndex(name, fieldOffset, noDate, mapped);
+        compacted.open(file);
+        compacted.rebuild(file);
+        compacted.close(file);
+    }
+
+    //-----------------------------
+    /**
+     * Closes the tree and renames the tree of the compacted file over it.
+     *
+     * @param file (in) RecordFile - record file, opened again on the compacted file.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void swapCompacted(RecordFile file) throws IOException {
+        tree.close(tree.getStamp());
+        Files.move(Paths.get(compacted.fileName), Paths.get(fileName), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        compacted = null;
+        if (!open(file)) {
+            rebuild(file);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Deletes the tree written for a compacted file.
+     *
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void discardCompacted() throws IOException {
+        if (compacted != null) {
+            Files.deleteIfExists(Paths.get(compacted.fileName));
+            compacted = null;
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Starts a scan of the records in date order, records of one date in offset order.
+     *
+     * @param from (in) LocalDate - the scan starts at the first record of this date or later.
+     * @param fromOffset (in) long - records of the from date before this offset are skipped.
+     * @return (out) BPlusTree.Cursor - cursor over the keys, whose values are record offsets;
+     *                                  the scan is over once dateOf the key is past the range.
+     * @throws IOException
+     */
+    //---
+    public BPlusTree.Cursor seek(LocalDate from, long fromOffset) throws IOException {
+        return tree.seek(key((int) from.toEpochDay(), fromOffset));
+    }
+
+    //-----------------------------
+    /**
+     * Gets the date of a key found by a cursor.
+     *
+     * @param key (in) byte[] - key from BPlusTree.Cursor.getKey.
+     * @return (out) LocalDate - date of the record.
+     */
+    //---
+    public static LocalDate dateOf(byte[] key) {
+        return LocalDate.ofEpochDay(ByteBuffer.wrap(key).getInt(0) ^ Integer.MIN_VALUE);
+    }
+
+    //-----------------------------
+    /**
+     * Gets the key of a record.
+     *
+     * @param offset (in) long - byte offset of the record.
+     * @param record (in) ByteBuffer - encoded record, the position is left unchanged.
+     * @return (out) byte[] - sortable epoch day followed by the offset, or null without a date.
+     */
+    //---
+    private byte[] keyOf(long offset, ByteBuffer record) {
+        int epochDay = record.getInt(record.position() + fieldOffset);
+        return epochDay == noDate ? null : key(epochDay, offset);
+    }
+
+    //-----------------------------
+    /**
+     * Builds a key.
+     *
+     * @param epochDay (in) int - date as an epoch day.
+     * @param offset (in) long - byte offset of the record.
+     * @return (out) byte[] - epoch day with the sign bit flipped, followed by the offset.
+     */
+    //---
+    private static byte[] key(int epochDay, long offset) {
+        return ByteBuffer.allocate(KEY_SIZE).putInt(epochDay ^ Integer.MIN_VALUE).putLong(offset).array();
+    }
+}
@@ -0,0 +1,489 @@
+/**
+ * File: FieldHashIndex.java
+ * Revision History:
+ * - 2026-10-18: Hash set of composite keys made of several record fields, saved on close
+ * - 2026-10-18: Marked changed by the record file before each change
+ * - 2026-10-18: Table of a compacted file written ahead of the swap, which only renames it
+ * Purpose:
+ * FieldHashIndex class indexes the records of a RecordFile on a composite key made of several
+ * fields that are not next to each other in the record, e.g. the change ID and requester email
+ * of a change request, to answer "is there a record with this key?" without a scan.
+ * Only a 64 bit hash of the key is stored with the record offset, so find returns the records
+ * whose key hashes the same and the caller compares their fields; with 64 bit hashes that is
+ * almost always the one record with the key, or none. The table uses open addressing with
+ * linear probing like IntHashIndex, and may hold the same hash for several records.
+ * The table is held in memory and written to the index file when the record file is closed,
+ * so it is loaded instead of rebuilt on the next start up.
+ *
+ * Index file layout: magic (4 bytes), version (4 bytes), capacity (4 bytes), entry count
+ * (4 bytes), the IndexStamp, then for every slot the hash (8 bytes) and offset (8 bytes).
+ */
+package ca.boggleztracker.model;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+public class FieldHashIndex implements RecordIndex {
+    //=============================
+    // Constants and static fields
+    //=============================
+    private static final int MAGIC = 0x42475A4B; // "BGZK"
+    private static final int VERSION = 1;
+    private static final int STAMP_OFFSET = 16;
+    private static final int HEADER_SIZE = STAMP_OFFSET + IndexStamp.SIZE;
+    private static final int SLOT_SIZE = 2 * Long.BYTES;
+    private static final int MIN_CAPACITY = 1024;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    //=============================
+    // Member fields
+    //=============================
+    private final String name;
+    private final int[] fieldOffsets;
+    private final int[] fieldSizes;
+    private String fileName;
+    private RandomAccessFile file;
+    private IndexStamp stamp;
+    private FieldHashIndex compacted; // index written for a compacted file, not swapped in yet
+    private long[] hashes;
+    private long[] offsets;
+    private int size;
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * Three argument constructor for FieldHashIndex. The index file is opened by open.
+     *
+     * @param name (in) String - name of the index, part of the index file name.
+     * @param fieldOffsets (in) int[] - index of each field of the key in the encoded record.
+     * @param fieldSizes (in) int[] - bytes of each field of the key.
+     */
+    //---
+    public FieldHashIndex(String name, int[] fieldOffsets, int[] fieldSizes) {
+        this.name = name;
+        this.fieldOffsets = fieldOffsets.clone();
+        this.fieldSizes = fieldSizes.clone();
+        clear(MIN_CAPACITY);
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Opens the index file next to the data file and loads the table if the file is valid.
+     *
+     * @param file (in) RecordFile - open record file.
+     * @return (out) boolean - true if the stored table was loaded, false if it must be rebuilt.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public boolean open(RecordFile file) throws IOException {
+        fileName = file.getFileName() + "." + name + BTreeIndex.SUFFIX;
+        this.file = new RandomAccessFile(fileName, "rw");
+        FileChannel channel = this.file.getChannel();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+
+        int capacity = header.getInt(8);
+        boolean valid = header.position() == HEADER_SIZE && header.getInt(0) == MAGIC
+                && header.getInt(4) == VERSION && Integer.bitCount(capacity) == 1 && capacity >= MIN_CAPACITY
+                && this.file.length() == HEADER_SIZE + (long) capacity * SLOT_SIZE;
+        stamp = valid ? IndexStamp.read(header, STAMP_OFFSET) : new IndexStamp(false, -1, -1, -1);
+        if (!stamp.isValidFor(file)) {
+            return false;
+        }
+
+        clear(capacity);
+        size = header.getInt(12);
+        ByteBuffer slots = ByteBuffer.allocate(IO_BUFFER_SIZE);
+        long position = HEADER_SIZE;
+        for (int slot = 0; slot < capacity; ) {
+            slots.clear().limit((int) Math.min(IO_BUFFER_SIZE, (long) (capacity - slot) * SLOT_SIZE));
+            while (slots.hasRemaining()) {
+                if (channel.read(slots, position + slots.position()) < 0) {
+                    throw new IOException("Index file " + name + " is truncated");
+                }
+            }
+            position += slots.limit();
+            slots.flip();
+            while (slots.hasRemaining()) {
+                hashes[slot] = slots.getLong();
+                offsets[slot] = slots.getLong();
+                slot++;
+            }
+        }
+        return true;
+    }
+
+    //-----------------------------
+    /**
+     * Rebuilds the table from a scan of the file.
+     *
+     * @param file (in) RecordFile - open record file.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void rebuild(RecordFile file) throws IOException {
+        beginChange();
+        clear(capacityFor(file.getRecordCount()));
+        RecordScanner scanner = file.scan(0);
+
+        while (scanner.next()) {
+            put(hashOf(ByteBuffer.wrap(scanner.getRecordBytes())), scanner.getOffset());
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Adds the key of an inserted record.
+     *
+     * @param offset (in) long - byte offset of the record.
+     * @param record (in) ByteBuffer - encoded record.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void inserted(long offset, ByteBuffer record) throws IOException {
+        beginChange();
+        put(hashOf(record), offset);
+    }
+
+    //-----------------------------
+    /**
+     * Removes the key of a deleted record.
+     *
+     * @param offset (in) long - byte offset of the record.
+     * @param record (in) ByteBuffer - encoded record as it was.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void deleted(long offset, ByteBuffer record) throws IOException {
+        beginChange();
+        remove(hashOf(record), offset);
+    }
+
+    //-----------------------------
+    /**
+     * Replaces the key of an overwritten record, if the key changed.
+     *
+     * @param offset (in) long - byte offset of the record.
+     * @param oldRecord (in) ByteBuffer - encoded record as it was.
+     * @param newRecord (in) ByteBuffer - encoded record as it is now.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void updated(long offset, ByteBuffer oldRecord, ByteBuffer newRecord) throws IOException {
+        long oldHash = hashOf(oldRecord);
+        long newHash = hashOf(newRecord);
+        if (oldHash != newHash) {
+            beginChange();
+            remove(oldHash, offset);
+            put(newHash, offset);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Writes the table with the stamp of the file and closes the index file.
+     *
+     * @param file (in) RecordFile - record file, still open.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void close(RecordFile file) throws IOException {
+        FileChannel channel = this.file.getChannel();
+        int capacity = hashes.length;
+        ByteBuffer slots = ByteBuffer.allocate(IO_BUFFER_SIZE);
+        long position = HEADER_SIZE;
+
+        this.file.setLength(HEADER_SIZE + (long) capacity * SLOT_SIZE);
+        for (int slot = 0; slot < capacity; ) {
+            slots.clear();
+            while (slot < capacity && slots.hasRemaining()) {
+                slots.putLong(hashes[slot]);
+                slots.putLong(offsets[slot]);
+                slot++;
+            }
+            slots.flip();
+            while (slots.hasRemaining()) {
+                position += channel.write(slots, position);
+            }
+        }
+        channel.force(false);
+
+        stamp = IndexStamp.of(file);
+        writeHeader();
+        channel.force(false);
+        this.file.close();
+    }
+
+    //-----------------------------
+    /**
+     * Writes the table of a compacted file next to it, built like a rebuilt one.
+     *
+     * @param file (in) RecordFile - compacted file opened for reading.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void writeCompacted(RecordFile file) throws IOException {
+        compacted = new FieldHashIndex(name, fieldOffsets, fieldSizes);
+        compacted.open(file);
+        compacted.rebuild(file);
+        compacted.close(file);
+    }
+
+    //-----------------------------
+    /**
+     * Renames the index file of the compacted file over the index file and takes over the
+     * table built for it.
+     *
+     * @param file (in) RecordFile - record file, opened again on the compacted file.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void swapCompacted(RecordFile file) throws IOException {
+        this.file.close();
+        Files.move(Paths.get(compacted.fileName), Paths.get(fileName), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        this.file = new RandomAccessFile(fileName, "rw");
+        stamp = compacted.stamp;
+        hashes = compacted.hashes;
+        offsets = compacted.offsets;
+        size = compacted.size;
+        compacted = null;
+    }
+
+    //-----------------------------
+    /**
+     * Deletes the index file written for a compacted file.
+     *
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void discardCompacted() throws IOException {
+        if (compacted != null) {
+            Files.deleteIfExists(Paths.get(compacted.fileName));
+            compacted = null;
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Finds the records whose key hashes like a key.
+     *
+     * @param key (in) byte[] - encoded fields of the key, one after the other.
+     * @return (out) long[] - byte offsets of the records to compare with the key, usually
+     *                        none or one.
+     */
+    //---
+    public long[] find(byte[] key) {
+        long hash = hash(ByteBuffer.wrap(key), null);
+        long[] found = new long[0];
+        int mask = hashes.length - 1;
+
+        for (int slot = spread(hash) & mask; offsets[slot] != 0; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash) {
+                found = Arrays.copyOf(found, found.length + 1);
+                found[found.length - 1] = offsets[slot];
+            }
+        }
+        return found;
+    }
+
+    //-----------------------------
+    /**
+     * Adds an entry, doubling the table when it gets half full.
+     *
+     * @param hash (in) long - hash of the key.
+     * @param offset (in) long - byte offset of the record.
+     */
+    //---
+    private void put(long hash, long offset) {
+        int mask = hashes.length - 1;
+        int slot = spread(hash) & mask;
+        while (offsets[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        hashes[slot] = hash;
+        offsets[slot] = offset;
+        size++;
+
+        if (size * 2 > hashes.length) {
+            long[] oldHashes = hashes;
+            long[] oldOffsets = offsets;
+            clear(hashes.length * 2);
+            for (int i = 0; i < oldHashes.length; i++) {
+                if (oldOffsets[i] != 0) {
+                    put(oldHashes[i], oldOffsets[i]);
+                }
+            }
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Removes the entry of a record, moving back the entries after it that would no longer be
+     * found.
+     *
+     * @param hash (in) long - hash of the key.
+     * @param offset (in) long - byte offset of the record.
+     */
+    //---
+    private void remove(long hash, long offset) {
+        int mask = hashes.length - 1;
+        int slot = spread(hash) & mask;
+        while (offsets[slot] != 0 && (hashes[slot] != hash || offsets[slot] != offset)) {
+            slot = (slot + 1) & mask;
+        }
+        if (offsets[slot] == 0) {
+            return;
+        }
+        offsets[slot] = 0;
+        size--;
+
+        // an entry after the hole moves into it unless its home slot lies between the two
+        int hole = slot;
+        for (int next = (hole + 1) & mask; offsets[next] != 0; next = (next + 1) & mask) {
+            int home = spread(hashes[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                hashes[hole] = hashes[next];
+                offsets[hole] = offsets[next];
+                offsets[next] = 0;
+                hole = next;
+            }
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Replaces the table with an empty one.
+     *
+     * @param capacity (in) int - number of slots, a power of two.
+     */
+    //---
+    private void clear(int capacity) {
+        hashes = new long[capacity];
+        offsets = new long[capacity];
+        size = 0;
+    }
+
+    //-----------------------------
+    /**
+     * Gets the hash of the key of a record.
+     *
+     * @param record (in) ByteBuffer - encoded record, the position is left unchanged.
+     * @return (out) long - hash of the key fields.
+     */
+    //---
+    private long hashOf(ByteBuffer record) {
+        return hash(record, fieldOffsets);
+    }
+
+    //-----------------------------
+    /**
+     * Hashes the key fields with FNV-1a and a final mix.
+     *
+     * @param buffer (in) ByteBuffer - a record, or a key with the fields one after the other.
+     * @param fields (in) int[] - index of each field in a record, or null for a key.
+     * @return (out) long - 64 bit hash.
+     */
+    //---
+    private long hash(ByteBuffer buffer, int[] fields) {
+        long h = 0xCBF29CE484222325L;
+        int index = buffer.position();
+        for (int field = 0; field < fieldSizes.length; field++) {
+            if (fields != null) {
+                index = buffer.position() + fields[field];
+            }
+            for (int i = 0; i < fieldSizes[field]; i++) {
+                h = (h ^ (buffer.get(index + i) & 0xFF)) * 0x100000001B3L;
+            }
+            index += fieldSizes[field];
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    //-----------------------------
+    /**
+     * Marks the index file as changed before the first change since it was written, so a table
+     * that was not saved is rebuilt on the next start up.
+     *
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void beginChange() throws IOException {
+        if (stamp.isClean()) {
+            stamp = stamp.dirty();
+            writeHeader();
+            file.getChannel().force(false);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Writes the header fields.
+     *
+     * @throws IOException
+     */
+    //---
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putInt(8, hashes.length);
+        header.putInt(12, size);
+        stamp.writeTo(header, STAMP_OFFSET);
+        file.getChannel().write(header, 0);
+    }
+
+    //-----------------------------
+    /**
+     * Gets the table capacity for a number of entries, so the table is at most half full.
+     *
+     * @param entries (in) long - number of entries.
+     * @return (out) int - capacity, a power of two.
+     */
+    //---
+    private static int capacityFor(long entries) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < entries * 2) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+
+    //-----------------------------
+    /**
+     * Gets the home slot bits of a hash, the hash is already mixed.
+     *
+     * @param hash (in) long - hash of a key.
+     * @return (out) int - bits to mask into a slot index.
+     */
+    //---
+    private static int spread(long hash) {
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * File: FileHeader.java
+ * Revision History:
+ * - 2026-10-18: Magic number and format version header
+ * - 2026-10-18: Header takes the whole first page and records the page and record sizes
+ * - 2026-10-18: Flags field, records checksum flag
+ * - 2026-10-18: Generation number, raised by every compaction
+ * - 2026-10-18: Superblock copies follow the header fields
+ * - 2026-10-18: FreeSpaceMap takes the rest of page 0
+ * - 2026-10-18: Version 6, record checksums never zero; version 5 files are upgraded in place
+ * Purpose:
+ * FileHeader class describes page 0 of every record file. The header holds a magic number,
+ * the format version, the page size, the record size, flags and the generation of the file
+ * (the number of times it was compacted), so files written in the original
+ * headerless format (version 1) can be told apart and converted, files of version 5, whose
+ * record checksums are the bare CRC32C, can be upgraded in place, and files of an unknown
+ * version or layout are rejected on open. The Superblock copies are kept in page 0 after the
+ * header fields, and the FreeSpaceMap fills the page from FreeSpaceMap.MAP_OFFSET.
+ */
+package ca.boggleztracker.model;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+
+public class FileHeader {
+    //=============================
+    // Constants and static fields
+    //=============================
+    public static final int MAGIC = 0x42475A54; // "BGZT"
+    public static final int LEGACY_VERSION = 1; // headerless UTF-16 records
+    public static final int BARE_CHECKSUM_VERSION = 5; // record checksums without RecordPage's live bit
+    public static final int FORMAT_VERSION = 6;
+    public static final int FLAG_CHECKSUMS = 1; // pages keep a CRC32C per record
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int PAGE_SIZE_OFFSET = 8;
+    private static final int RECORD_SIZE_OFFSET = 12;
+    private static final int FLAGS_OFFSET = 16;
+    private static final int GENERATION_OFFSET = 20;
+    private static final int SIZE = 28;
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * Private constructor, FileHeader only has static members.
+     */
+    //---
+    private FileHeader() {
+    }
+
+    //=============================
+    // Static Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Creates the header page of a new record file.
+     *
+     * @param type (in) RecordType - type of records stored in the file.
+     * @param checksums (in) boolean - true if the file keeps a checksum per record.
+     * @return (out) ByteBuffer - page 0 of the file, ready to be written.
+     */
+    //---
+    public static ByteBuffer createPage(RecordType type, boolean checksums) {
+        return createPage(type, checksums, 0);
+    }
+
+    //-----------------------------
+    /**
+     * Creates the header page of a record file of a given generation.
+     *
+     * @param type (in) RecordType - type of records stored in the file.
+     * @param checksums (in) boolean - true if the file keeps a checksum per record.
+     * @param generation (in) long - generation of the file.
+     * @return (out) ByteBuffer - page 0 of the file, ready to be written.
+     */
+    //---
+    public static ByteBuffer createPage(RecordType type, boolean checksums, long generation) {
+        ByteBuffer page = ByteBuffer.allocate(RecordPage.PAGE_SIZE);
+        page.putInt(MAGIC_OFFSET, MAGIC);
+        page.putInt(VERSION_OFFSET, FORMAT_VERSION);
+        page.putInt(PAGE_SIZE_OFFSET, RecordPage.PAGE_SIZE);
+        page.putInt(RECORD_SIZE_OFFSET, type.getRecordSize());
+        page.putInt(FLAGS_OFFSET, checksums ? FLAG_CHECKSUMS : 0);
+        page.putLong(GENERATION_OFFSET, generation);
+        return page;
+    }
+
+    //-----------------------------
+    /**
+     * Reads the format version of a record file. Files that do not start with the magic
+     * number are legacy files.
+     *
+     * @param file (in) RandomAccessFile - non empty record file.
+     * @return (out) int - format version of the file.
+     * @throws IOException
+     */
+    //---
+    public static int readVersion(RandomAccessFile file) throws IOException {
+        if (file.length() < SIZE) {
+            return LEGACY_VERSION;
+        }
+        file.seek(MAGIC_OFFSET);
+        if (file.readInt() != MAGIC) {
+            return LEGACY_VERSION;
+        }
+        return file.readInt();
+    }
+
+    //-----------------------------
+    /**
+     * Reads the flags of a record file with a header.
+     *
+     * @param file (in) RandomAccessFile - record file of version 5 or later.
+     * @return (out) int - flags of the file, e.g. FLAG_CHECKSUMS.
+     * @throws IOException
+     */
+    //---
+    public static int readFlags(RandomAccessFile file) throws IOException {
+        file.seek(FLAGS_OFFSET);
+        return file.readInt();
+    }
+
+    //-----------------------------
+    /**
+     * Sets the format version of a record file to the current one, once it was upgraded.
+     *
+     * @param file (in) RandomAccessFile - upgraded record file.
+     * @throws IOException
+     */
+    //---
+    public static void writeVersion(RandomAccessFile file) throws IOException {
+        file.seek(VERSION_OFFSET);
+        file.writeInt(FORMAT_VERSION);
+    }
+
+    //-----------------------------
+    /**
+     * Checks that an opened file has a header of the current format matching its record type.
+     *
+     * @param storage (in) StorageBackend - backend of the opened file.
+     * @param type (in) RecordType - expected type of records.
+     * @return (out) boolean - true if the file keeps a checksum per record.
+     * @throws IOException when the header does not match.
+     */
+    //---
+    public static boolean check(StorageBackend storage, RecordType type) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(SIZE);
+        storage.read(0, header);
+
+        boolean valid = header.position() == SIZE
+                && header.getInt(MAGIC_OFFSET) == MAGIC
+                && header.getInt(VERSION_OFFSET) == FORMAT_VERSION
+                && header.getInt(PAGE_SIZE_OFFSET) == RecordPage.PAGE_SIZE
+                && header.getInt(RECORD_SIZE_OFFSET) == type.getRecordSize();
+        if (!valid) {
+            throw new IOException(type.getFileName() + " does not have a valid format version "
+                    + FORMAT_VERSION + " header");
+        }
+        return (header.getInt(FLAGS_OFFSET) & FLAG_CHECKSUMS) != 0;
+    }
+
+    //-----------------------------
+    /**
+     * Reads the generation of a checked record file.
+     *
+     * @param storage (in) StorageBackend - backend of the opened file.
+     * @return (out) long - generation of the file.
+     * @throws IOException
+     */
+    //---
+    public static long readGeneration(StorageBackend storage) throws IOException {
+        ByteBuffer generation = ByteBuffer.allocate(Long.BYTES);
+        storage.read(GENERATION_OFFSET, generation);
+        return generation.getLong(0);
+    }
+}
@@ -0,0 +1,286 @@
+/**
+ * File: FormatConverter.java
+ * Revision History:
+ * - 2026-10-18: Conversion of legacy (version 1) record files to the v2 format
+ * - 2026-10-18: Converted records are packed into slotted pages
+ * - 2026-10-18: New and converted files can keep record checksums
+ * - 2026-10-18: Superblock with the record count and next change ID
+ * - 2026-10-18: Record checksums of version 5 files upgraded in place
+ * Purpose:
+ * FormatConverter class prepares record files before ScenarioManager opens them. Empty files
+ * get a header page, files in the original headerless format (UTF-16 characters, dates as
+ * yyyy-mm-dd text) are decoded and rewritten in the current format, and files with an unknown
+ * format version are rejected. The original file is kept next to the data file with a
+ * ".v1.bak" suffix. Files of version 5 only differ in their record checksums, which are
+ * converted page by page in place; the version is changed last, so an interrupted upgrade is
+ * simply done again.
+ */
+package ca.boggleztracker.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+
+public class FormatConverter {
+    //=============================
+    // Constants and static fields
+    //=============================
+    private static final String BACKUP_SUFFIX = ".v1.bak";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int LEGACY_DATE_LENGTH = 10;
+    private static final int LEGACY_STATUS_LENGTH = 12;
+    private static final int LEGACY_REQUESTER_SIZE = 120;
+    private static final int LEGACY_PRODUCT_SIZE = 20;
+    private static final int LEGACY_RELEASE_SIZE = 56;
+    private static final int LEGACY_CHANGE_ITEM_SIZE = 146;
+    private static final int LEGACY_CHANGE_REQUEST_SIZE = 108;
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * Private constructor, FormatConverter only has static members.
+     */
+    //---
+    private FormatConverter() {
+    }
+
+    //=============================
+    // Static Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Makes sure a record file is in the current format, converting legacy files.
+     *
+     * @param type (in) RecordType - record file to be checked.
+     * @param checksums (in) boolean - true if created or converted files keep record checksums.
+     * @throws IOException when the file has an unknown format version or is not a record file.
+     */
+    //---
+    public static void upgrade(RecordType type, boolean checksums) throws IOException {
+        Path path = Paths.get(type.getFileName());
+
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            if (file.length() == 0) {
+                ByteBuffer header = FileHeader.createPage(type, checksums);
+                new Superblock(0, 0).writeTo(header);
+                file.getChannel().write(header, 0);
+                return;
+            }
+
+            int version = FileHeader.readVersion(file);
+            if (version == FileHeader.FORMAT_VERSION) {
+                return;
+            }
+            if (version == FileHeader.BARE_CHECKSUM_VERSION) {
+                upgradeChecksums(type, file);
+                return;
+            }
+            if (version != FileHeader.LEGACY_VERSION) {
+                throw new IOException(type.getFileName() + " has unsupported format version " + version);
+            }
+            if (file.length() % legacyRecordSize(type) != 0) {
+                throw new IOException(type.getFileName() + " is not a record file");
+            }
+        }
+        convertLegacyFile(type, path, checksums);
+    }
+
+    //-----------------------------
+    /**
+     * Converts the record checksums of a version 5 file in place and sets the current version.
+     * Pages whose header fails verification, e.g. torn by a crash, are left for the log and
+     * IntegrityCheck to repair.
+     *
+     * @param type (in) RecordType - record file to be upgraded.
+     * @param file (in) RandomAccessFile - open data file of version 5.
+     * @throws IOException
+     */
+    //---
+    private static void upgradeChecksums(RecordType type, RandomAccessFile file) throws IOException {
+        if ((FileHeader.readFlags(file) & FileHeader.FLAG_CHECKSUMS) != 0) {
+            ChannelStorage storage = new ChannelStorage(file.getChannel());
+            RecordPage page = new RecordPage(type.getRecordSize(), true);
+            long pageCount = file.length() / RecordPage.PAGE_SIZE;
+
+            for (long pageNumber = 1; pageNumber < pageCount; pageNumber++) {
+                page.load(storage, pageNumber);
+                if (page.verifyHeader()) {
+                    page.upgradeChecksums();
+                    page.store(storage);
+                }
+            }
+            file.getChannel().force(false);
+        }
+        FileHeader.writeVersion(file);
+        file.getChannel().force(true);
+        System.out.println("Upgraded " + type.getFileName() + " to format version " + FileHeader.FORMAT_VERSION);
+    }
+
+    //-----------------------------
+    /**
+     * Rewrites a legacy file in the current format through a temporary file, filling pages in
+     * memory and writing each one once, then replaces the data file with it. The next sequence
+     * number of change-item.dat starts after the highest converted change ID.
+     *
+     * @param type (in) RecordType - record file to be converted.
+     * @param path (in) Path - path of the data file.
+     * @param checksums (in) boolean - true if the converted file keeps record checksums.
+     * @throws IOException
+     */
+    //---
+    private static void convertLegacyFile(RecordType type, Path path, boolean checksums) throws IOException {
+        Path temp = Paths.get(type.getFileName() + TEMP_SUFFIX);
+        long records = 0;
+        long nextSequence = 0;
+
+        try (RandomAccessFile legacy = new RandomAccessFile(path.toFile(), "r");
+             RandomAccessFile converted = new RandomAccessFile(temp.toFile(), "rw")) {
+            RecordReader reader = new RecordReader(legacy.getChannel(), RecordReader.DEFAULT_BUFFER_SIZE);
+            FileChannel channel = converted.getChannel();
+            ChannelStorage storage = new ChannelStorage(channel);
+            ByteArrayOutputStream record = new ByteArrayOutputStream(type.getRecordSize());
+            DataOutputStream out = new DataOutputStream(record);
+            RecordPage page = new RecordPage(type.getRecordSize(), checksums);
+
+            channel.truncate(0);
+            page.reset(1);
+
+            while (reader.getFilePointer() < legacy.length()) {
+                int slot = (int) (records % page.getSlotCount());
+                if (slot == 0 && records > 0) {
+                    page.store(storage);
+                    page.reset(page.getPageNumber() + 1);
+                }
+                record.reset();
+                int changeID = convertRecord(type, reader, out);
+                nextSequence = Math.max(nextSequence, changeID + 1L);
+                page.putRecord(slot, record.toByteArray());
+                records++;
+            }
+            if (records > 0) {
+                page.store(storage);
+            }
+            ByteBuffer header = FileHeader.createPage(type, checksums);
+            new Superblock(records, nextSequence).writeTo(header);
+            storage.write(0, header);
+            channel.force(true);
+        }
+
+        Files.copy(path, Paths.get(type.getFileName() + BACKUP_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        System.out.println("Converted " + records + " records of " + type.getFileName() + " to format version "
+                + FileHeader.FORMAT_VERSION);
+    }
+
+    //-----------------------------
+    /**
+     * Decodes one legacy record and writes it in the current format.
+     *
+     * @param type (in) RecordType - type of record to convert.
+     * @param reader (in) RecordReader - reader positioned at the legacy record.
+     * @param out (in) DataOutputStream - output of the converted file.
+     * @return (out) int - change ID of a change item, -1 for other records.
+     * @throws IOException
+     */
+    //---
+    private static int convertRecord(RecordType type, RecordReader reader, DataOutputStream out) throws IOException {
+        switch (type) {
+            case REQUESTER: {
+                String email = new String(reader.readChars(Requester.MAX_EMAIL));
+                String name = new String(reader.readChars(Requester.MAX_NAME));
+                long phoneNumber = reader.readLong();
+                String department = new String(reader.readChars(Requester.MAX_DEPARTMENT));
+                new Requester(email, name, phoneNumber, department).writeRequester(out);
+                return -1;
+            }
+            case PRODUCT: {
+                String productName = new String(reader.readChars(Product.MAX_PRODUCT_NAME));
+                new Product(productName).writeProduct(out);
+                return -1;
+            }
+            case RELEASE: {
+                String productName = new String(reader.readChars(Product.MAX_PRODUCT_NAME));
+                String releaseID = new String(reader.readChars(Release.MAX_RELEASE_ID));
+                LocalDate date = readLegacyDate(reader);
+                new Release(productName, releaseID, date).writeRelease(out);
+                return -1;
+            }
+            case CHANGE_ITEM: {
+                int changeID = reader.readInt();
+                String productName = new String(reader.readChars(Product.MAX_PRODUCT_NAME));
+                String releaseID = new String(reader.readChars(Release.MAX_RELEASE_ID));
+                String description = new String(reader.readChars(ChangeItem.MAX_DESCRIPTION));
+                char priority = reader.readChar();
+                String status = new String(reader.readChars(LEGACY_STATUS_LENGTH));
+                LocalDate date = readLegacyDate(reader);
+                new ChangeItem(changeID, productName, releaseID, description, priority, status, date)
+                        .writeChangeItem(out);
+                return changeID;
+            }
+            case CHANGE_REQUEST: {
+                int changeID = reader.readInt();
+                String productName = new String(reader.readChars(Product.MAX_PRODUCT_NAME));
+                String release = new String(reader.readChars(Release.MAX_RELEASE_ID));
+                String email = new String(reader.readChars(Requester.MAX_EMAIL));
+                LocalDate date = readLegacyDate(reader);
+                new ChangeRequest(changeID, productName, release, email, date).writeChangeRequest(out);
+                return -1;
+            }
+            default:
+                throw new IOException("Unknown record type " + type);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Reads a legacy yyyy-mm-dd date stored as 10 UTF-16 characters.
+     *
+     * @param reader (in) RecordReader - reader positioned at the date.
+     * @return (out) LocalDate - the date, or null for a blank date.
+     * @throws IOException
+     */
+    //---
+    private static LocalDate readLegacyDate(RecordReader reader) throws IOException {
+        String date = new String(reader.readChars(LEGACY_DATE_LENGTH)).trim();
+
+        if (date.isEmpty()) {
+            return null;
+        }
+        return LocalDate.parse(date);
+    }
+
+    //-----------------------------
+    /**
+     * Gets the size of one legacy record.
+     *
+     * @param type (in) RecordType - type of record.
+     * @return (out) int - bytes of one legacy record.
+     */
+    //---
+    private static int legacyRecordSize(RecordType type) {
+        switch (type) {
+            case REQUESTER:
+                return LEGACY_REQUESTER_SIZE;
+            case PRODUCT:
+                return LEGACY_PRODUCT_SIZE;
+            case RELEASE:
+                return LEGACY_RELEASE_SIZE;
+            case CHANGE_ITEM:
+                return LEGACY_CHANGE_ITEM_SIZE;
+            default:
+                return LEGACY_CHANGE_REQUEST_SIZE;
+        }
+    }
+}
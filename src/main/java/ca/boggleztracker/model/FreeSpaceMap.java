@@ -0,0 +1,127 @@
+/**
+ * File: FreeSpaceMap.java
+ * Revision History:
+ * - 2026-10-18: Free space map of the data pages, kept in page 0
+ * Purpose:
+ * FreeSpaceMap class remembers which data pages of a record file have a free slot, so inserts
+ * fill the holes left by deletes before the file grows. The map is one bit per data page, bit 0
+ * for page 1, stored in page 0 from MAP_OFFSET to the end of the page, which covers MAX_PAGES
+ * pages. Pages after that are not tracked and inserts fall back to the last page for them.
+ * The map is only a hint: a set bit is checked against the page before its slot is used, and a
+ * clear bit only means that the space is not reused until the file is compacted. It is written
+ * when the file is forced, and the pages changed after that are marked again from the log.
+ */
+package ca.boggleztracker.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+
+public class FreeSpaceMap {
+    //=============================
+    // Constants and static fields
+    //=============================
+    public static final int MAP_OFFSET = 512;
+    public static final long MAX_PAGES = (long) (RecordPage.PAGE_SIZE - MAP_OFFSET) * Byte.SIZE;
+
+    //=============================
+    // Member fields
+    //=============================
+    private final BitSet freePages;
+    private boolean dirty;
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * Default constructor for an empty map.
+     */
+    //---
+    public FreeSpaceMap() {
+        this.freePages = new BitSet();
+        this.dirty = false;
+    }
+
+    //=============================
+    // Static Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Reads the map from page 0 of a file.
+     *
+     * @param storage (in) StorageBackend - backend of the opened file.
+     * @return (out) FreeSpaceMap - the stored map.
+     * @throws IOException
+     */
+    //---
+    public static FreeSpaceMap read(StorageBackend storage) throws IOException {
+        ByteBuffer bits = ByteBuffer.allocate(RecordPage.PAGE_SIZE - MAP_OFFSET);
+        storage.read(MAP_OFFSET, bits);
+        bits.flip();
+
+        FreeSpaceMap map = new FreeSpaceMap();
+        map.freePages.or(BitSet.valueOf(bits));
+        return map;
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Marks whether a data page has a free slot. Pages after MAX_PAGES are ignored.
+     *
+     * @param pageNumber (in) long - data page, 1 or more.
+     * @param free (in) boolean - true if the page has a free slot.
+     */
+    //---
+    public void mark(long pageNumber, boolean free) {
+        if (pageNumber < 1 || pageNumber > MAX_PAGES) {
+            return;
+        }
+        int bit = (int) (pageNumber - 1);
+        if (freePages.get(bit) != free) {
+            freePages.set(bit, free);
+            dirty = true;
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Finds the next page marked as having a free slot.
+     *
+     * @param pageNumber (in) long - first data page to look at, 1 or more.
+     * @return (out) long - number of the page, or -1 if no page after it is marked.
+     */
+    //---
+    public long nextFree(long pageNumber) {
+        if (pageNumber > MAX_PAGES) {
+            return -1;
+        }
+        int bit = freePages.nextSetBit((int) Math.max(pageNumber - 1, 0));
+        return bit == -1 ? -1 : bit + 1;
+    }
+
+    //-----------------------------
+    /**
+     * Writes the map into page 0 if it changed since it was last written.
+     *
+     * @param storage (in) StorageBackend - backend of the opened file.
+     * @throws IOException
+     */
+    //---
+    public void write(StorageBackend storage) throws IOException {
+        if (!dirty) {
+            return;
+        }
+        ByteBuffer bits = ByteBuffer.allocate(RecordPage.PAGE_SIZE - MAP_OFFSET);
+        bits.put(freePages.toByteArray());
+        bits.clear();
+        storage.write(MAP_OFFSET, bits);
+        dirty = false;
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * File: IndexStamp.java
+ * Revision History:
+ * - 2026-10-18: State of a record file an index was written for
+ * Purpose:
+ * IndexStamp class identifies the state of a record file: its generation, the LSN of the last
+ * change to its superblock and its live record count. An index file stores the stamp of its
+ * record file when it is closed cleanly, and is only used again if the record file still has
+ * the same stamp when it is opened; otherwise the index is rebuilt from the records.
+ *
+ * Stamp layout: clean flag (4 bytes), generation (8 bytes), superblock LSN (8 bytes),
+ * record count (8 bytes).
+ */
+package ca.boggleztracker.model;
+
+import java.nio.ByteBuffer;
+
+public class IndexStamp {
+    //=============================
+    // Constants and static fields
+    //=============================
+    public static final int SIZE = Integer.BYTES + 3 * Long.BYTES;
+    private static final int CLEAN = 1;
+
+    //=============================
+    // Member fields
+    //=============================
+    private final boolean clean;
+    private final long generation;
+    private final long lsn;
+    private final long recordCount;
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * Four argument constructor for IndexStamp.
+     *
+     * @param clean (in) boolean - true if the index was closed after its last change.
+     * @param generation (in) long - generation of the record file.
+     * @param lsn (in) long - LSN of the superblock of the record file.
+     * @param recordCount (in) long - live records of the record file.
+     */
+    //---
+    public IndexStamp(boolean clean, long generation, long lsn, long recordCount) {
+        this.clean = clean;
+        this.generation = generation;
+        this.lsn = lsn;
+        this.recordCount = recordCount;
+    }
+
+    //=============================
+    // Static Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Gets the current stamp of an open record file.
+     *
+     * @param file (in) RecordFile - open record file.
+     * @return (out) IndexStamp - clean stamp of the file as it is now.
+     */
+    //---
+    public static IndexStamp of(RecordFile file) {
+        return new IndexStamp(true, file.getGeneration(), file.getSuperblockLsn(), file.getRecordCount());
+    }
+
+    //-----------------------------
+    /**
+     * Decodes a stamp.
+     *
+     * @param buffer (in) ByteBuffer - buffer holding the stamp.
+     * @param position (in) int - index of the stamp in the buffer.
+     * @return (out) IndexStamp - decoded stamp.
+     */
+    //---
+    public static IndexStamp read(ByteBuffer buffer, int position) {
+        return new IndexStamp(buffer.getInt(position) == CLEAN,
+                buffer.getLong(position + Integer.BYTES),
+                buffer.getLong(position + Integer.BYTES + Long.BYTES),
+                buffer.getLong(position + Integer.BYTES + 2 * Long.BYTES));
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Encodes the stamp.
+     *
+     * @param buffer (out) ByteBuffer - buffer the stamp is put into.
+     * @param position (in) int - index of the stamp in the buffer.
+     */
+    //---
+    public void writeTo(ByteBuffer buffer, int position) {
+        buffer.putInt(position, clean ? CLEAN : 0);
+        buffer.putLong(position + Integer.BYTES, generation);
+        buffer.putLong(position + Integer.BYTES + Long.BYTES, lsn);
+        buffer.putLong(position + Integer.BYTES + 2 * Long.BYTES, recordCount);
+    }
+
+    //-----------------------------
+    /**
+     * Checks whether the index was closed after its last change.
+     *
+     * @return (out) boolean - true for a clean stamp.
+     */
+    //---
+    public boolean isClean() {
+        return clean;
+    }
+
+    //-----------------------------
+    /**
+     * Gets a copy of the stamp marked as changed since it was written.
+     *
+     * @return (out) IndexStamp - stamp that is not clean.
+     */
+    //---
+    public IndexStamp dirty() {
+        return new IndexStamp(false, generation, lsn, recordCount);
+    }
+
+    //-----------------------------
+    /**
+     * Checks whether an index written with this stamp is valid for a record file.
+     *
+     * @param file (in) RecordFile - open record file.
+     * @return (out) boolean - true if the index was closed cleanly for the file as it is now.
+     */
+    //---
+    public boolean isValidFor(RecordFile file) {
+        return clean && generation == file.getGeneration() && lsn == file.getSuperblockLsn()
+                && recordCount == file.getRecordCount();
+    }
+}
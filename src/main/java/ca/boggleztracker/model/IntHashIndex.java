@@ -0,0 +1,470 @@
+/**
+ * File: IntHashIndex.java
+ * Revision History:
+ * - 2026-10-18: Open addressing int to offset index, saved on close
+ * - 2026-10-18: Marked changed by the record file before each change
+ * - 2026-10-18: Duplicate keys are reported on rebuild instead of failing it
+ * - 2026-10-18: Table of a compacted file written ahead of the swap, which only renames it
+ * Purpose:
+ * IntHashIndex class indexes the records of a RecordFile on a unique int field, e.g. the change
+ * ID of a change item, so a record is found with one hash probe sequence instead of a scan. The
+ * table uses open addressing with linear probing in two parallel arrays, kept at most half full,
+ * and deletes shift the following entries back so no tombstones are needed. An empty slot has
+ * offset 0, which is never a record offset since page 0 is the file header.
+ * Should a key be found twice when the table is rebuilt, the first record in the file is indexed
+ * and the others are reported through IntegrityCheck, so start up goes on. Deletes and updates
+ * only remove a key that still points at the record.
+ * The table is held in memory and written to the index file when the record file is closed, so
+ * it is loaded instead of rebuilt on the next start up.
+ *
+ * Index file layout: magic (4 bytes), version (4 bytes), capacity (4 bytes), entry count
+ * (4 bytes), the IndexStamp, then for every slot the key (4 bytes) and offset (8 bytes).
+ */
+package ca.boggleztracker.model;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+public class IntHashIndex implements RecordIndex {
+    //=============================
+    // Constants and static fields
+    //=============================
+    private static final int MAGIC = 0x42475A48; // "BGZH"
+    private static final int VERSION = 1;
+    private static final int STAMP_OFFSET = 16;
+    private static final int HEADER_SIZE = STAMP_OFFSET + IndexStamp.SIZE;
+    private static final int SLOT_SIZE = Integer.BYTES + Long.BYTES;
+    private static final int MIN_CAPACITY = 1024;
+    private static final int IO_BUFFER_SIZE = 64 * 1024 / SLOT_SIZE * SLOT_SIZE;
+
+    //=============================
+    // Member fields
+    //=============================
+    private final String name;
+    private final int fieldOffset;
+    private String fileName;
+    private RandomAccessFile file;
+    private IndexStamp stamp;
+    private IntHashIndex compacted; // index written for a compacted file, not swapped in yet
+    private int[] keys;
+    private long[] offsets;
+    private int size;
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * Two argument constructor for IntHashIndex. The index file is opened by open.
+     *
+     * @param name (in) String - name of the index, part of the index file name.
+     * @param fieldOffset (in) int - index of the int field in the encoded record.
+     */
+    //---
+    public IntHashIndex(String name, int fieldOffset) {
+        this.name = name;
+        this.fieldOffset = fieldOffset;
+        clear(MIN_CAPACITY);
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Opens the index file next to the data file and loads the table if the file is valid.
+     *
+     * @param file (in) RecordFile - open record file.
+     * @return (out) boolean - true if the stored table was loaded, false if it must be rebuilt.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public boolean open(RecordFile file) throws IOException {
+        fileName = file.getFileName() + "." + name + BTreeIndex.SUFFIX;
+        this.file = new RandomAccessFile(fileName, "rw");
+        FileChannel channel = this.file.getChannel();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+
+        int capacity = header.getInt(8);
+        boolean valid = header.position() == HEADER_SIZE && header.getInt(0) == MAGIC
+                && header.getInt(4) == VERSION && Integer.bitCount(capacity) == 1 && capacity >= MIN_CAPACITY
+                && this.file.length() == HEADER_SIZE + (long) capacity * SLOT_SIZE;
+        stamp = valid ? IndexStamp.read(header, STAMP_OFFSET) : new IndexStamp(false, -1, -1, -1);
+        if (!stamp.isValidFor(file)) {
+            return false;
+        }
+
+        clear(capacity);
+        size = header.getInt(12);
+        ByteBuffer slots = ByteBuffer.allocate(IO_BUFFER_SIZE);
+        long position = HEADER_SIZE;
+        for (int slot = 0; slot < capacity; ) {
+            slots.clear().limit((int) Math.min(IO_BUFFER_SIZE, (long) (capacity - slot) * SLOT_SIZE));
+            while (slots.hasRemaining()) {
+                if (channel.read(slots, position + slots.position()) < 0) {
+                    throw new IOException("Index file " + name + " is truncated");
+                }
+            }
+            position += slots.limit();
+            slots.flip();
+            while (slots.hasRemaining()) {
+                keys[slot] = slots.getInt();
+                offsets[slot] = slots.getLong();
+                slot++;
+            }
+        }
+        return true;
+    }
+
+    //-----------------------------
+    /**
+     * Rebuilds the table from a scan of the file. Of the records with the same key, only the
+     * first in the file is indexed.
+     *
+     * @param file (in) RecordFile - open record file.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void rebuild(RecordFile file) throws IOException {
+        beginChange();
+        clear(capacityFor(file.getRecordCount()));
+        RecordScanner scanner = file.scan(0);
+
+        while (scanner.next()) {
+            int key = ByteBuffer.wrap(scanner.getRecordBytes()).getInt(fieldOffset);
+            long kept = find(key);
+            if (kept != -1) {
+                IntegrityCheck.reportDuplicate(file, name, scanner.getOffset(), kept);
+            } else {
+                put(key, scanner.getOffset());
+            }
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Adds the key of an inserted record.
+     *
+     * @param offset (in) long - byte offset of the record.
+     * @param record (in) ByteBuffer - encoded record.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void inserted(long offset, ByteBuffer record) throws IOException {
+        beginChange();
+        put(record.getInt(record.position() + fieldOffset), offset);
+    }
+
+    //-----------------------------
+    /**
+     * Removes the key of a deleted record, unless the key points at another record, i.e. the
+     * deleted record was a duplicate left out of the table.
+     *
+     * @param offset (in) long - byte offset of the record.
+     * @param record (in) ByteBuffer - encoded record as it was.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void deleted(long offset, ByteBuffer record) throws IOException {
+        beginChange();
+        removeKey(record.getInt(record.position() + fieldOffset), offset);
+    }
+
+    //-----------------------------
+    /**
+     * Replaces the key of an overwritten record, if the key changed.
+     *
+     * @param offset (in) long - byte offset of the record.
+     * @param oldRecord (in) ByteBuffer - encoded record as it was.
+     * @param newRecord (in) ByteBuffer - encoded record as it is now.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void updated(long offset, ByteBuffer oldRecord, ByteBuffer newRecord) throws IOException {
+        int oldKey = oldRecord.getInt(oldRecord.position() + fieldOffset);
+        int newKey = newRecord.getInt(newRecord.position() + fieldOffset);
+        if (oldKey != newKey) {
+            beginChange();
+            removeKey(oldKey, offset);
+            put(newKey, offset);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Writes the table with the stamp of the file and closes the index file.
+     *
+     * @param file (in) RecordFile - record file, still open.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void close(RecordFile file) throws IOException {
+        FileChannel channel = this.file.getChannel();
+        int capacity = keys.length;
+        ByteBuffer slots = ByteBuffer.allocate(IO_BUFFER_SIZE);
+        long position = HEADER_SIZE;
+
+        this.file.setLength(HEADER_SIZE + (long) capacity * SLOT_SIZE);
+        for (int slot = 0; slot < capacity; ) {
+            slots.clear();
+            while (slot < capacity && slots.hasRemaining()) {
+                slots.putInt(keys[slot]);
+                slots.putLong(offsets[slot]);
+                slot++;
+            }
+            slots.flip();
+            while (slots.hasRemaining()) {
+                position += channel.write(slots, position);
+            }
+        }
+        channel.force(false);
+
+        stamp = IndexStamp.of(file);
+        writeHeader();
+        channel.force(false);
+        this.file.close();
+    }
+
+    //-----------------------------
+    /**
+     * Writes the table of a compacted file next to it, built like a rebuilt one.
+     *
+     * @param file (in) RecordFile - compacted file opened for reading.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void writeCompacted(RecordFile file) throws IOException {
+        compacted = new IntHashIndex(name, fieldOffset);
+        compacted.open(file);
+        compacted.rebuild(file);
+        compacted.close(file);
+    }
+
+    //-----------------------------
+    /**
+     * Renames the index file of the compacted file over the index file and takes over the
+     * table built for it.
+     *
+     * @param file (in) RecordFile - record file, opened again on the compacted file.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void swapCompacted(RecordFile file) throws IOException {
+        this.file.close();
+        Files.move(Paths.get(compacted.fileName), Paths.get(fileName), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        this.file = new RandomAccessFile(fileName, "rw");
+        stamp = compacted.stamp;
+        keys = compacted.keys;
+        offsets = compacted.offsets;
+        size = compacted.size;
+        compacted = null;
+    }
+
+    //-----------------------------
+    /**
+     * Deletes the index file written for a compacted file.
+     *
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void discardCompacted() throws IOException {
+        if (compacted != null) {
+            Files.deleteIfExists(Paths.get(compacted.fileName));
+            compacted = null;
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Looks up the record of a key.
+     *
+     * @param key (in) int - value of the indexed field.
+     * @return (out) long - byte offset of the record, or -1 if no record has the key.
+     */
+    //---
+    public long find(int key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; offsets[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return offsets[slot];
+            }
+        }
+        return -1;
+    }
+
+    //-----------------------------
+    /**
+     * Adds a key or replaces its offset, doubling the table when it gets half full.
+     *
+     * @param key (in) int - value of the indexed field.
+     * @param offset (in) long - byte offset of the record.
+     * @return (out) long - previous offset of the key, or -1 if the key is new.
+     */
+    //---
+    private long put(int key, long offset) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        for (; offsets[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                long previous = offsets[slot];
+                offsets[slot] = offset;
+                return previous;
+            }
+        }
+        keys[slot] = key;
+        offsets[slot] = offset;
+        size++;
+
+        if (size * 2 > keys.length) {
+            int[] oldKeys = keys;
+            long[] oldOffsets = offsets;
+            clear(keys.length * 2);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldOffsets[i] != 0) {
+                    put(oldKeys[i], oldOffsets[i]);
+                }
+            }
+        }
+        return -1;
+    }
+
+    //-----------------------------
+    /**
+     * Removes the key of a record, unless it points at another record.
+     *
+     * @param key (in) int - value of the indexed field.
+     * @param offset (in) long - byte offset of the record.
+     */
+    //---
+    private void removeKey(int key, long offset) {
+        if (find(key) == offset) {
+            remove(key);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Removes a key, moving back the entries after it that would no longer be found.
+     *
+     * @param key (in) int - value of the indexed field.
+     */
+    //---
+    private void remove(int key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (offsets[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (offsets[slot] == 0) {
+            return;
+        }
+        offsets[slot] = 0;
+        size--;
+
+        // an entry after the hole moves into it unless its home slot lies between the two
+        int hole = slot;
+        for (int next = (hole + 1) & mask; offsets[next] != 0; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                offsets[hole] = offsets[next];
+                offsets[next] = 0;
+                hole = next;
+            }
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Replaces the table with an empty one.
+     *
+     * @param capacity (in) int - number of slots, a power of two.
+     */
+    //---
+    private void clear(int capacity) {
+        keys = new int[capacity];
+        offsets = new long[capacity];
+        size = 0;
+    }
+
+    //-----------------------------
+    /**
+     * Marks the index file as changed before the first change since it was written, so a table
+     * that was not saved is rebuilt on the next start up.
+     *
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void beginChange() throws IOException {
+        if (stamp.isClean()) {
+            stamp = stamp.dirty();
+            writeHeader();
+            file.getChannel().force(false);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Writes the header fields.
+     *
+     * @throws IOException
+     */
+    //---
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putInt(8, keys.length);
+        header.putInt(12, size);
+        stamp.writeTo(header, STAMP_OFFSET);
+        file.getChannel().write(header, 0);
+    }
+
+    //-----------------------------
+    /**
+     * Gets the table capacity for a number of entries, so the table is at most half full.
+     *
+     * @param entries (in) long - number of entries.
+     * @return (out) int - capacity, a power of two.
+     */
+    //---
+    private static int capacityFor(long entries) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < entries * 2) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+
+    //-----------------------------
+    /**
+     * Spreads the bits of a key, so consecutive keys do not fill consecutive slots.
+     *
+     * @param key (in) int - key to hash.
+     * @return (out) int - hash of the key.
+     */
+    //---
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
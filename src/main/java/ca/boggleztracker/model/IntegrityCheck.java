@@ -0,0 +1,187 @@
+/**
+ * File: IntegrityCheck.java
+ * Revision History:
+ * - 2026-10-18: Parallel start up verification of record checksums
+ * - 2026-10-18: Record count of the superblock is corrected after a repair
+ * - 2026-10-18: Report of records whose unique index key is taken by an earlier record
+ * Purpose:
+ * IntegrityCheck class verifies the page header and record checksums of a checksummed record
+ * file. The pages are split into ranges that are checked in parallel with positional reads, then
+ * the damaged pages are repaired one by one: a broken page header is rebuilt from the record
+ * checksums, and every record that fails its checksum is appended to a quarantine file next to
+ * the data file and its slot is freed, so scans never decode a corrupt record.
+ *
+ * Indexes that find a unique field value twice while being rebuilt report the later records here
+ * and keep indexing the first one, so a damaged or older file does not stop start up.
+ *
+ * Quarantine file layout: for each record, its byte offset in the data file (8 bytes) followed by
+ * the record bytes as they were found.
+ */
+package ca.boggleztracker.model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.stream.LongStream;
+
+public class IntegrityCheck {
+    //=============================
+    // Constants and static fields
+    //=============================
+    public static final String QUARANTINE_SUFFIX = ".quarantine";
+    private static final int TASKS_PER_PROCESSOR = 4;
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * Private constructor, IntegrityCheck only has static members.
+     */
+    //---
+    private IntegrityCheck() {
+    }
+
+    //=============================
+    // Static Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Verifies every page of a record file and quarantines the corrupt records. Files without
+     * checksums are not checked.
+     *
+     * @param file (in) RecordFile - open record file.
+     * @return (out) int - number of records moved to quarantine.
+     * @throws IOException
+     */
+    //---
+    public static int verify(RecordFile file) throws IOException {
+        if (!file.isChecksummed()) {
+            return 0;
+        }
+        long[] damaged = findDamagedPages(file);
+        if (damaged.length == 0) {
+            return 0;
+        }
+
+        int quarantined = 0;
+        String fileName = file.getType().getFileName() + QUARANTINE_SUFFIX;
+        RecordPage page = file.newPage();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(fileName, true)))) {
+            for (long pageNumber : damaged) {
+                file.readPage(pageNumber, page);
+                if (!page.verifyHeader()) {
+                    page.rebuildHeader();
+                }
+                for (int slot = page.nextOccupied(0); slot != -1; slot = page.nextOccupied(slot + 1)) {
+                    if (!page.verifyRecord(slot)) {
+                        out.writeLong(page.recordOffset(slot));
+                        out.write(page.getRecordBytes(slot));
+                        page.setOccupied(slot, false);
+                        quarantined++;
+                    }
+                }
+                file.writePage(page);
+            }
+        }
+        file.recount();
+        file.force();
+        return quarantined;
+    }
+
+    //-----------------------------
+    /**
+     * Reports a record whose unique index key is already taken by an earlier record, found while
+     * the index was rebuilt. The record stays in the file but is left out of the index.
+     *
+     * @param file (in) RecordFile - record file of the index.
+     * @param indexName (in) String - name of the index.
+     * @param offset (in) long - byte offset of the record left out.
+     * @param keptOffset (in) long - byte offset of the indexed record with the same key.
+     */
+    //---
+    public static void reportDuplicate(RecordFile file, String indexName, long offset, long keptOffset) {
+        System.err.println("Duplicate " + indexName + " in " + file.getType().getFileName() + " at offset "
+                + offset + ", only the record at offset " + keptOffset + " is indexed");
+    }
+
+    //-----------------------------
+    /**
+     * Checks all data pages in parallel, each task reading its own range of pages.
+     *
+     * @param file (in) RecordFile - open checksummed record file.
+     * @return (out) long[] - numbers of the damaged pages, in file order.
+     * @throws IOException
+     */
+    //---
+    private static long[] findDamagedPages(RecordFile file) throws IOException {
+        long pageCount = file.getPageCount();
+        int tasks = Runtime.getRuntime().availableProcessors() * TASKS_PER_PROCESSOR;
+        long pagesPerTask = Math.max((pageCount - 1 + tasks - 1) / tasks, 1);
+
+        try {
+            return LongStream.range(0, tasks)
+                    .parallel()
+                    .flatMap(task -> {
+                        long from = 1 + task * pagesPerTask;
+                        long to = Math.min(from + pagesPerTask, pageCount);
+                        return findDamagedPages(file, from, to);
+                    })
+                    .toArray();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Checks a range of pages.
+     *
+     * @param file (in) RecordFile - open checksummed record file.
+     * @param from (in) long - first page to check.
+     * @param to (in) long - page after the last page to check.
+     * @return (out) LongStream - numbers of the damaged pages of the range.
+     */
+    //---
+    private static LongStream findDamagedPages(RecordFile file, long from, long to) {
+        RecordPage page = file.newPage();
+        LongStream.Builder damaged = LongStream.builder();
+
+        for (long pageNumber = from; pageNumber < to; pageNumber++) {
+            try {
+                file.readPage(pageNumber, page);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (!isIntact(page)) {
+                damaged.add(pageNumber);
+            }
+        }
+        return damaged.build();
+    }
+
+    //-----------------------------
+    /**
+     * Checks the header and every occupied record of a loaded page.
+     *
+     * @param page (in) RecordPage - loaded page.
+     * @return (out) boolean - true if no checksum fails.
+     */
+    //---
+    private static boolean isIntact(RecordPage page) {
+        if (!page.verifyHeader()) {
+            return false;
+        }
+        for (int slot = page.nextOccupied(0); slot != -1; slot = page.nextOccupied(slot + 1)) {
+            if (!page.verifyRecord(slot)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,295 @@
+/**
+ * File: MappedStorage.java
+ * Revision History:
+ * - 2026-10-18: Memory mapped backend with remapping on file growth
+ * - 2026-10-18: Mapping grown geometrically ahead of the file, remapped by the writer only
+ * - 2026-10-18: Mappings released on close, before the file is cut back or renamed
+ * Purpose:
+ * MappedStorage class is a StorageBackend that maps the data file into memory with
+ * FileChannel.map, so reading a record is a memory copy instead of a seek and read system call.
+ * When a write goes past the mapped region the mapping is replaced by a larger one, grown by the
+ * size of the old mapping up to MAX_GROWTH bytes at a time, so a growing file is mapped again only
+ * a logarithmic number of times. Mapping ahead extends the file on disk, so the backend keeps the
+ * logical length of the file itself and cuts the file back to it when closed.
+ * Only writes remap, and they are made by one thread at a time under the owner's write lock.
+ * Readers take the published mapping once per read, and an older mapping they still hold stays
+ * valid, as all mappings of the file share its pages. Bytes past the largest mappable region of
+ * 2 GiB are read and written through the channel.
+ * Mappings replaced on growth are kept until the backend is closed, and close unmaps them all
+ * before it cuts the file back, since a mapped file can be neither truncated nor replaced by a
+ * rename on Windows. Java has no public call to unmap a buffer, so close uses the cleaner of the
+ * JDK's unsupported Unsafe class, and only where that is missing leaves the mappings to the
+ * garbage collector, which POSIX platforms allow.
+ */
+package ca.boggleztracker.model;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MappedStorage implements StorageBackend {
+    //=============================
+    // Constants
+    //=============================
+    public static final long MAX_MAPPED_SIZE = Integer.MAX_VALUE;
+    private static final long MIN_GROWTH = 1024 * 1024;
+    private static final long MAX_GROWTH = 64 * 1024 * 1024;
+
+    //=============================
+    // Member fields
+    //=============================
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> retired = new ArrayList<>();
+    private volatile MappedByteBuffer mapping;
+    private volatile long length;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * One argument constructor for MappedStorage, maps the current contents of the file.
+     *
+     * @param channel (in) FileChannel - channel of the data file, opened for reading and writing.
+     * @throws IOException when the file is too large to be memory mapped.
+     */
+    //---
+    public MappedStorage(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.length = channel.size();
+        if (length > MAX_MAPPED_SIZE) {
+            throw new IOException("File too large to be memory mapped: " + length + " bytes");
+        }
+        this.mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Checks whether a file of a size can be opened with a MappedStorage.
+     *
+     * @param size (in) long - file size in bytes.
+     * @return (out) boolean - true if the file fits in a single mapping.
+     */
+    //---
+    public static boolean canMap(long size) {
+        return size <= MAX_MAPPED_SIZE;
+    }
+
+    //-----------------------------
+    /**
+     * Copies bytes out of the mapping, up to the logical end of the file. Bytes past the mapping
+     * are read through the channel.
+     *
+     * @param position (in) long - byte position in file.
+     * @param destination (in/out) ByteBuffer - buffer the bytes are copied into.
+     * @return (out) int - number of bytes read, or -1 at end of file.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public int read(long position, ByteBuffer destination) throws IOException {
+        long end = length;
+        if (position >= end) {
+            return -1;
+        }
+
+        int count = (int) Math.min(destination.remaining(), end - position);
+        MappedByteBuffer current = mapping;
+        if (position + count <= current.capacity()) {
+            destination.put(destination.position(), current, (int) position, count);
+            destination.position(destination.position() + count);
+            return count;
+        }
+
+        int limit = destination.limit();
+        int total = 0;
+        destination.limit(destination.position() + count);
+        try {
+            while (destination.hasRemaining()) {
+                int bytesRead = channel.read(destination, position + total);
+                if (bytesRead < 0) {
+                    break;
+                }
+                total += bytesRead;
+            }
+        } finally {
+            destination.limit(limit);
+        }
+        return total;
+    }
+
+    //-----------------------------
+    /**
+     * Copies bytes into the mapping, growing the mapping first when the write goes past it.
+     * Writes past the largest mappable region go through the channel.
+     *
+     * @param position (in) long - byte position in file.
+     * @param source (in) ByteBuffer - bytes to be written.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void write(long position, ByteBuffer source) throws IOException {
+        long end = position + source.remaining();
+        if (end > mapping.capacity() && end <= MAX_MAPPED_SIZE) {
+            grow(end);
+        }
+
+        MappedByteBuffer current = mapping;
+        if (end <= current.capacity()) {
+            current.put((int) position, source, source.position(), source.remaining());
+            source.position(source.limit());
+        } else {
+            long pos = position;
+            while (source.hasRemaining()) {
+                pos += channel.write(source, pos);
+            }
+        }
+        if (end > length) {
+            length = end;
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Gets the logical size of the file, which excludes the region only mapped ahead.
+     *
+     * @return (out) long - file size in bytes.
+     */
+    //---
+    @Override
+    public long length() {
+        return length;
+    }
+
+    //-----------------------------
+    /**
+     * Cuts the logical file back to a size. The bytes dropped are zeroed in the mapping, since
+     * the mapped region past the end must read as zeros when the file grows again.
+     *
+     * @param size (in) long - new file size in bytes, not above the current size.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void truncate(long size) throws IOException {
+        if (size >= length) {
+            return;
+        }
+
+        MappedByteBuffer current = mapping;
+        long mappedEnd = Math.min(length, current.capacity());
+        if (mappedEnd > size) {
+            current.put((int) size, new byte[(int) (mappedEnd - size)]);
+        }
+        if (length > current.capacity()) {
+            channel.truncate(Math.max(size, current.capacity()));
+        }
+        length = size;
+    }
+
+    //-----------------------------
+    /**
+     * Forces the mapped pages and file metadata to the storage device.
+     *
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void force() throws IOException {
+        mapping.force();
+        channel.force(false);
+    }
+
+    //-----------------------------
+    /**
+     * Unmaps the mapping and the ones it replaced, and cuts off the region of the file that was
+     * only mapped ahead. No reader may use the backend any more.
+     *
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void close() throws IOException {
+        MappedByteBuffer current = mapping;
+        mapping = null;
+        if (current != null) {
+            retired.add(current);
+        }
+        for (MappedByteBuffer old : retired) {
+            unmap(old);
+        }
+        retired.clear();
+        if (channel.size() > length) {
+            channel.truncate(length);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Replaces the mapping with one covering at least a given size, larger than the old one by
+     * its own size, between MIN_GROWTH and MAX_GROWTH bytes. Only called by the writer.
+     *
+     * @param size (in) long - bytes the new mapping must cover.
+     * @throws IOException
+     */
+    //---
+    private void grow(long size) throws IOException {
+        long capacity = mapping.capacity();
+        long step = Math.min(Math.max(capacity, MIN_GROWTH), MAX_GROWTH);
+        long newCapacity = Math.min(Math.max(size, capacity + step), MAX_MAPPED_SIZE);
+        MappedByteBuffer old = mapping;
+        mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, newCapacity);
+        retired.add(old);
+    }
+
+    //-----------------------------
+    /**
+     * Unmaps a buffer right away through the cleaner of Unsafe, or leaves it to the garbage
+     * collector when the JDK has none. The buffer must not be used afterwards.
+     *
+     * @param buffer (in) MappedByteBuffer - mapping to be released.
+     * @throws IOException when the cleaner fails.
+     */
+    //---
+    private static void unmap(MappedByteBuffer buffer) throws IOException {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IOException("Unable to unmap data file", e);
+        }
+    }
+}
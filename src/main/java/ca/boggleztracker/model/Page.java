@@ -0,0 +1,61 @@
+/**
+ * File: Page.java
+ * Revision History:
+ * - 2026-10-18: One page of a paged listing with the cursor of the next page
+ * Purpose:
+ * Page class holds the items of one page of a listing, unused entries left null, and the
+ * PageCursor to pass back for the next page. The cursor of the last page is PageCursor.FIRST,
+ * so paging on starts the listing over.
+ */
+package ca.boggleztracker.model;
+
+public class Page<T> {
+    //=============================
+    // Member fields
+    //=============================
+    private final T[] items;
+    private final PageCursor next;
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * Two argument constructor for Page.
+     *
+     * @param items (in) T[] - items of the page, unused entries null.
+     * @param next (in) PageCursor - cursor of the next page.
+     */
+    //---
+    public Page(T[] items, PageCursor next) {
+        this.items = items;
+        this.next = next;
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Getter method for the items of the page.
+     *
+     * @return (out) T[] - items, unused entries null.
+     */
+    //---
+    public T[] getItems() {
+        return items;
+    }
+
+    //-----------------------------
+    /**
+     * Getter method for the cursor of the next page.
+     *
+     * @return (out) PageCursor - cursor to pass back for the next page.
+     */
+    //---
+    public PageCursor getNext() {
+        return next;
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * File: PageCursor.java
+ * Revision History:
+ * - 2026-10-18: Resume point of a paged listing
+ * Purpose:
+ * PageCursor class is the opaque resume point of a paged listing, returned with every Page and
+ * passed back to get the next one. It holds the offset of the last record shown, so the next
+ * page starts right after it with one index seek however deep the listing is, and the sort key
+ * of that record for listings that are not in offset order, e.g. the epoch day of a date
+ * listing. Offsets are only valid in the generation of the file they were taken from; a cursor
+ * of an older generation, i.e. from before a compaction, starts the listing over.
+ */
+package ca.boggleztracker.model;
+
+public final class PageCursor {
+    //=============================
+    // Constants and static fields
+    //=============================
+    public static final PageCursor FIRST = new PageCursor(-1, 0, -1); // start of a listing
+
+    //=============================
+    // Member fields
+    //=============================
+    private final long generation;
+    private final long key;
+    private final long offset;
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * Three argument constructor for PageCursor.
+     *
+     * @param generation (in) long - generation of the file the offset is from.
+     * @param key (in) long - sort key of the last record shown, 0 if the listing has none.
+     * @param offset (in) long - byte offset of the last record shown.
+     */
+    //---
+    private PageCursor(long generation, long key, long offset) {
+        this.generation = generation;
+        this.key = key;
+        this.offset = offset;
+    }
+
+    //=============================
+    // Static Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Creates the cursor after a record of a listing in offset order.
+     *
+     * @param file (in) RecordFile - file of the record.
+     * @param offset (in) long - byte offset of the last record shown.
+     * @return (out) PageCursor - cursor of the next page.
+     */
+    //---
+    static PageCursor after(RecordFile file, long offset) {
+        return after(file, 0, offset);
+    }
+
+    //-----------------------------
+    /**
+     * Creates the cursor after a record of a listing in sort key order.
+     *
+     * @param file (in) RecordFile - file of the record.
+     * @param key (in) long - sort key of the last record shown.
+     * @param offset (in) long - byte offset of the last record shown.
+     * @return (out) PageCursor - cursor of the next page.
+     */
+    //---
+    static PageCursor after(RecordFile file, long key, long offset) {
+        return new PageCursor(file.getGeneration(), key, offset);
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Gets the offset of the last record shown, the next page starts right after it.
+     *
+     * @param file (in) RecordFile - file of the listing.
+     * @return (out) long - byte offset, or -1 for FIRST or a cursor of another generation of the
+     *                      file, to start the listing over.
+     */
+    //---
+    long getLastOffset(RecordFile file) {
+        return generation == file.getGeneration() ? offset : -1;
+    }
+
+    //-----------------------------
+    /**
+     * Gets the sort key of the last record shown. Only valid if getLastOffset is not -1.
+     *
+     * @return (out) long - sort key.
+     */
+    //---
+    long getKey() {
+        return key;
+    }
+}
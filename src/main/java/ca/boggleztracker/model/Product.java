@@ -6,6 +6,12 @@
  * - 2024-07-04: writeProduct implementation
  * - 2024-07-08: readProduct implementation
  * - 2024-07-25: documentation changes & static method moved above constructor
+ * - 2026-10-18: readProduct and productExists decode from a buffered RecordReader
+ * - 2026-10-18: v2 record layout with 1 byte characters
+ * - 2026-10-18: productExists scans the paged record file
+ * - 2026-10-18: productExists skips the scan for names the Bloom filter has never seen
+ * - 2026-10-18: productExists streams only the names and stops at the first match
+ * - 2026-10-18: productExists compares the encoded names without decoding them
  * Purpose:
  * Product class represents a product in the system and is responsible for
  * managing the releases of the product. The class stores data such as product name
@@ -13,9 +19,10 @@
  */
 package ca.boggleztracker.model;
 
-import java.io.EOFException;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
 import java.util.Arrays;
 
 public class Product {
@@ -23,7 +30,8 @@ public class Product {
     // Constants and static fields
     //=============================
     public static final int MAX_PRODUCT_NAME = 10; // used to limit input string length for TextUI
-    public static final long BYTES_SIZE_PRODUCT = 20; // used to calculate seek position on file
+    public static final int NAME_OFFSET = 0; // index of the product name in the encoded record
+    public static final long BYTES_SIZE_PRODUCT = 10; // used to calculate seek position on file
 
     //=============================
     // Member fields
@@ -34,25 +42,24 @@ public class Product {
     /**
      * Checks file to see if email already exists.
      *
-     * @param file (in) RandomAccessFile - The file to read from.
+     * @param file (in) RecordFile - The file to read from.
+     * @param nameFilter (in) BloomFilterIndex - Bloom filter on the product names.
      * @param productName (in) String - The product name is checked.
      * @return (out) boolean - Whether the product exists or not.
      */
     //---
-    public static boolean productExists(RandomAccessFile file, String productName) throws IOException {
-        Product product = new Product();
-        boolean productExists = false;
-        char[] temp = ScenarioManager.padCharArray(productName.toCharArray(), MAX_PRODUCT_NAME);
-        file.seek(0);
+    public static boolean productExists(RecordFile file, BloomFilterIndex nameFilter, String productName)
+            throws IOException {
+        if (productName.length() <= MAX_PRODUCT_NAME
+                && !nameFilter.mightContain(ScenarioManager.encodeChars(productName, MAX_PRODUCT_NAME))) {
+            return false;
+        }
+
+        RecordFilter filter = RecordFilter.charsEqual(NAME_OFFSET, productName, MAX_PRODUCT_NAME);
         try {
-            while (true) {
-                product.readProduct(file);
-                if (Arrays.equals(temp, product.getProductName())) {
-                    productExists = true;
-                }
-            }
-        } catch (EOFException e) {
-            return productExists;
+            return file.stream(filter, reader -> Boolean.TRUE).findAny().isPresent();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
     }
 
@@ -99,21 +106,35 @@ public class Product {
     /**
      * Writes the contents of release object to the release file.
      *
-     * @param file (in) RandomAccessFile - The file to read from.
+     * @param file (in) DataOutput - The file to write to.
      */
     //---
-    public void writeProduct(RandomAccessFile file) throws IOException {
-        file.writeChars(new String(productName));
+    public void writeProduct(DataOutput file) throws IOException {
+        ScenarioManager.writeCharsToFile(file, productName);
     }
 
     //-----------------------------
     /**
-     * Reads individual product record from file
+     * Reads individual product record from file at the current file pointer.
      *
      * @param file (in) RandomAccessFile - The file to read from.
      */
     //---
-    public void readProduct(RandomAccessFile file) throws IOException{
+    public void readProduct(RandomAccessFile file) throws IOException {
+        RecordReader reader = new RecordReader(file.getChannel(), (int) BYTES_SIZE_PRODUCT);
+        reader.seek(file.getFilePointer());
+        readProduct(reader);
+        file.seek(reader.getFilePointer());
+    }
+
+    //-----------------------------
+    /**
+     * Reads individual product record from a buffered reader.
+     *
+     * @param file (in) RecordReader - The buffered reader of the file to read from.
+     */
+    //---
+    public void readProduct(RecordReader file) throws IOException{
         productName = ScenarioManager.readCharsFromFile(file, Product.MAX_PRODUCT_NAME);
     }
 
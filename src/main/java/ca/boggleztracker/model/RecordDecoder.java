@@ -0,0 +1,28 @@
+/**
+ * File: RecordDecoder.java
+ * Revision History:
+ * - 2026-10-18: Function declarations
+ * Purpose:
+ * RecordDecoder functional interface defines a contract for turning a record into an object
+ * while a file is streamed. The decoder reads the record from the reader it is given.
+ */
+package ca.boggleztracker.model;
+
+import java.io.IOException;
+
+public interface RecordDecoder<T> {
+    //=============================
+    // Abstract Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Decodes a record.
+     *
+     * @param reader (in) RecordReader - reader positioned at the record.
+     * @return (out) T - decoded record, not null.
+     * @throws IOException
+     */
+    //---
+    T decode(RecordReader reader) throws IOException;
+}
@@ -0,0 +1,266 @@
+/**
+ * File: RecordEncoder.java
+ * Revision History:
+ * - 2026-10-18: DataOutput over a reusable direct buffer
+ * Purpose:
+ * RecordEncoder class is the DataOutput the record write methods encode into. It fills a direct
+ * ByteBuffer of one record size that is reset and reused for every record, so encoding a record
+ * allocates nothing and the encoded bytes can be copied into a page or handed to a FileChannel
+ * without another copy into native memory. Writing more than one record size throws a
+ * BufferOverflowException.
+ */
+package ca.boggleztracker.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class RecordEncoder implements DataOutput {
+    //=============================
+    // Member fields
+    //=============================
+    private final ByteBuffer buffer;
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * One argument constructor for RecordEncoder.
+     *
+     * @param recordSize (in) int - bytes of one encoded record.
+     */
+    //---
+    public RecordEncoder(int recordSize) {
+        this.buffer = ByteBuffer.allocateDirect(recordSize);
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Empties the buffer before the next record is encoded.
+     */
+    //---
+    public void reset() {
+        buffer.clear();
+    }
+
+    //-----------------------------
+    /**
+     * Gets the number of bytes encoded since the last reset.
+     *
+     * @return (out) int - encoded bytes.
+     */
+    //---
+    public int size() {
+        return buffer.position();
+    }
+
+    //-----------------------------
+    /**
+     * Gets the encoded record. The view shares the buffer, so it is only valid until the next
+     * reset.
+     *
+     * @return (out) ByteBuffer - read only view of the encoded bytes.
+     */
+    //---
+    public ByteBuffer getRecord() {
+        return buffer.asReadOnlyBuffer().flip();
+    }
+
+    //-----------------------------
+    /**
+     * Writes characters one byte each. Characters outside ISO-8859-1 are written as '?'.
+     *
+     * @param chars (in) char[] - padded character array.
+     */
+    //---
+    public void writeLatin1(char[] chars) {
+        for (char c : chars) {
+            buffer.put((byte) (c <= 0xFF ? c : '?'));
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Puts the low byte of an int.
+     *
+     * @param b (in) int - byte to be written.
+     */
+    //---
+    @Override
+    public void write(int b) {
+        buffer.put((byte) b);
+    }
+
+    //-----------------------------
+    /**
+     * Puts an array of bytes.
+     *
+     * @param b (in) byte[] - bytes to be written.
+     */
+    //---
+    @Override
+    public void write(byte[] b) {
+        buffer.put(b);
+    }
+
+    //-----------------------------
+    /**
+     * Puts part of an array of bytes.
+     *
+     * @param b (in) byte[] - bytes to be written.
+     * @param off (in) int - index of the first byte.
+     * @param len (in) int - number of bytes.
+     */
+    //---
+    @Override
+    public void write(byte[] b, int off, int len) {
+        buffer.put(b, off, len);
+    }
+
+    //-----------------------------
+    /**
+     * Puts a boolean as one byte.
+     *
+     * @param v (in) boolean - value to be written.
+     */
+    //---
+    @Override
+    public void writeBoolean(boolean v) {
+        buffer.put((byte) (v ? 1 : 0));
+    }
+
+    //-----------------------------
+    /**
+     * Puts one byte.
+     *
+     * @param v (in) int - byte to be written.
+     */
+    //---
+    @Override
+    public void writeByte(int v) {
+        buffer.put((byte) v);
+    }
+
+    //-----------------------------
+    /**
+     * Puts a short, high byte first.
+     *
+     * @param v (in) int - value to be written.
+     */
+    //---
+    @Override
+    public void writeShort(int v) {
+        buffer.putShort((short) v);
+    }
+
+    //-----------------------------
+    /**
+     * Puts a char as two bytes, high byte first.
+     *
+     * @param v (in) int - character to be written.
+     */
+    //---
+    @Override
+    public void writeChar(int v) {
+        buffer.putChar((char) v);
+    }
+
+    //-----------------------------
+    /**
+     * Puts an int, high byte first.
+     *
+     * @param v (in) int - value to be written.
+     */
+    //---
+    @Override
+    public void writeInt(int v) {
+        buffer.putInt(v);
+    }
+
+    //-----------------------------
+    /**
+     * Puts a long, high byte first.
+     *
+     * @param v (in) long - value to be written.
+     */
+    //---
+    @Override
+    public void writeLong(long v) {
+        buffer.putLong(v);
+    }
+
+    //-----------------------------
+    /**
+     * Puts a float as its int bits.
+     *
+     * @param v (in) float - value to be written.
+     */
+    //---
+    @Override
+    public void writeFloat(float v) {
+        buffer.putFloat(v);
+    }
+
+    //-----------------------------
+    /**
+     * Puts a double as its long bits.
+     *
+     * @param v (in) double - value to be written.
+     */
+    //---
+    @Override
+    public void writeDouble(double v) {
+        buffer.putDouble(v);
+    }
+
+    //-----------------------------
+    /**
+     * Puts the low byte of every character of a string.
+     *
+     * @param s (in) String - characters to be written.
+     */
+    //---
+    @Override
+    public void writeBytes(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            buffer.put((byte) s.charAt(i));
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Puts every character of a string as two bytes.
+     *
+     * @param s (in) String - characters to be written.
+     */
+    //---
+    @Override
+    public void writeChars(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            buffer.putChar(s.charAt(i));
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Puts a string in modified UTF-8 with a two byte length.
+     *
+     * @param s (in) String - string to be written.
+     * @throws IOException when the string is too long.
+     */
+    //---
+    @Override
+    public void writeUTF(String s) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new DataOutputStream(bytes).writeUTF(s);
+        buffer.put(bytes.toByteArray());
+    }
+}
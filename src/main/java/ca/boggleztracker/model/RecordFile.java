@@ -0,0 +1,976 @@
+/**
+ * File: RecordFile.java
+ * Revision History:
+ * - 2026-10-18: Paged record file with slot based inserts and updates
+ * - 2026-10-18: Changes are logged to the WriteAheadLog before pages are written
+ * - 2026-10-18: Pages of checksummed files, quarantine of corrupt records
+ * - 2026-10-18: Deletes, rewriting the file without deleted records and swapping it in
+ * - 2026-10-18: Superblock with record count and next sequence number, kept through the log
+ * - 2026-10-18: Inserts fill free slots found through the FreeSpaceMap, storage statistics
+ * - 2026-10-18: Records encoded into a reused direct buffer, each insert or update is one page write
+ * - 2026-10-18: RecordIndexes kept up to date with every change and rebuilt after compaction
+ * - 2026-10-18: Single record reads at an offset taken from an index
+ * - 2026-10-18: Record numbers for bitmap indexes
+ * - 2026-10-18: Lazy record streams, splittable by page range
+ * - 2026-10-18: Record streams filtered on the encoded bytes
+ * - 2026-10-18: Removed the shared reader and record index lookups, listings page with cursors
+ * - 2026-10-18: Unwritten pages at the end of the file are cut off when it is opened
+ * - 2026-10-18: Changed pages held in memory until the log is durable, torn pages repaired by redo
+ * - 2026-10-18: Indexes marked changed before the log record and pages of each change
+ * - 2026-10-18: Indexes of the compacted file written ahead of the swap, which only renames
+ * Purpose:
+ * RecordFile class represents one open record file of the tracker. Page 0 holds the FileHeader
+ * and the remaining pages are RecordPages of fixed size slots. The class is responsible for
+ * opening the file through a StorageBackend, loading and storing pages, and inserting and
+ * updating encoded records. Records are addressed by their byte offset in the file.
+ * Every insert, update and delete is appended to the WriteAheadLog first and the written page is
+ * stamped with the LSN of the change, so the change can be replayed after a crash.
+ * Changed pages and the superblock are held in memory as dirty pages, and are written only once
+ * the log is durable up to their LSN, so the file never has a change the log could still lose.
+ * Reads see the dirty pages. Each change first writes back the pages the flusher has caught up
+ * with, and waits for the log when more than MAX_DIRTY_PAGES pages are held.
+ * A delete only clears the slot's bit in the page bitmap, which leaves a tombstone that scans skip.
+ * Compaction writes the live records densely to a new file with the next generation number and
+ * swaps it in; offsets of the old generation are not valid in the new one.
+ * The live record count and the next sequence number are kept in the file's Superblock. Every
+ * change to them is logged with its absolute values, so they can be read in O(1) and are exact
+ * again after a crash.
+ * Inserts take the first free slot of the first page marked in the file's FreeSpaceMap, so the
+ * slots of deleted records are reused before the file grows.
+ * Every RecordIndex added to the file is marked changed before and told about each insert,
+ * update and delete, and is rebuilt when it is not valid for the file on open. The indexes of a
+ * compacted file are written from it before it is swapped in, so the swap itself only renames
+ * files.
+ */
+package ca.boggleztracker.model;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class RecordFile {
+    //=============================
+    // Constants and static fields
+    //=============================
+    public static final String COMPACT_SUFFIX = ".compact";
+    private static final int MAX_DIRTY_PAGES = 64; // changed pages held before waiting for the log
+
+    //=============================
+    // Member fields
+    //=============================
+    private final RecordType type;
+    private final String fileName;
+    private final boolean mapped;
+    private final WriteAheadLog log;
+    private RandomAccessFile file;
+    private StorageBackend storage;
+    private boolean checksummed;
+    private long generation;
+    private Superblock superblock;
+    private FreeSpaceMap freeSpace;
+    private long lastLsn; // LSN of the last change made to the file since it was opened
+    private long pageCount; // pages of the file including dirty pages not written yet
+    private RecordPage writePage;
+    private final Map<Long, RecordPage> dirtyPages; // changed pages by number, not written yet
+    private final ArrayDeque<RecordPage> sparePages; // written dirty pages kept for reuse
+    private boolean superblockDirty;
+    private final RecordEncoder encoder; // reused by every change, changes are made one at a time
+    private final List<RecordIndex> indexes;
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * Three argument constructor for RecordFile, opens the file and checks its header.
+     *
+     * @param type (in) RecordType - record file to be opened.
+     * @param mapped (in) boolean - true to memory map the file, false for positional channel I/O.
+     * @param log (in) WriteAheadLog - log that changes to the file are appended to.
+     * @throws IOException when the file can not be opened or has a mismatching header.
+     */
+    //---
+    public RecordFile(RecordType type, boolean mapped, WriteAheadLog log) throws IOException {
+        this(type, type.getFileName(), mapped, log);
+    }
+
+    //-----------------------------
+    /**
+     * Four argument constructor for RecordFile, opens a file of a record type under another
+     * name, e.g. a compacted file, and checks its header.
+     *
+     * @param type (in) RecordType - type of records in the file.
+     * @param fileName (in) String - name of the file.
+     * @param mapped (in) boolean - true to memory map the file, false for positional channel I/O.
+     * @param log (in) WriteAheadLog - log that changes to the file are appended to.
+     * @throws IOException when the file can not be opened or has a mismatching header.
+     */
+    //---
+    private RecordFile(RecordType type, String fileName, boolean mapped, WriteAheadLog log) throws IOException {
+        this.type = type;
+        this.fileName = fileName;
+        this.mapped = mapped;
+        this.log = log;
+        this.encoder = new RecordEncoder(type.getRecordSize());
+        this.indexes = new ArrayList<>();
+        this.dirtyPages = new TreeMap<>();
+        this.sparePages = new ArrayDeque<>();
+        open();
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Opens the data file and reads its header.
+     *
+     * @throws IOException when the file can not be opened or has a mismatching header.
+     */
+    //---
+    private void open() throws IOException {
+        file = new RandomAccessFile(fileName, "rw");
+        if (mapped && MappedStorage.canMap(file.length())) {
+            storage = new MappedStorage(file.getChannel());
+        } else {
+            storage = new ChannelStorage(file.getChannel());
+        }
+
+        try {
+            checksummed = FileHeader.check(storage, type);
+            generation = FileHeader.readGeneration(storage);
+            superblock = Superblock.read(storage);
+            freeSpace = FreeSpaceMap.read(storage);
+            trimUnwrittenPages();
+        } catch (IOException e) {
+            file.close();
+            throw new IOException(fileName + ": " + e.getMessage(), e);
+        }
+        writePage = new RecordPage(type.getRecordSize(), checksummed, true);
+        pageCount = storage.length() / RecordPage.PAGE_SIZE;
+        dirtyPages.clear();
+        sparePages.clear();
+        superblockDirty = false;
+    }
+
+    //-----------------------------
+    /**
+     * Cuts off the pages at the end of the file that were never written. A memory mapped file
+     * is grown ahead of its writes, so a crash can leave it ending in pages of zeros.
+     *
+     * @throws IOException
+     */
+    //---
+    private void trimUnwrittenPages() throws IOException {
+        long pageCount = storage.length() / RecordPage.PAGE_SIZE;
+        while (pageCount > 1 && !RecordPage.isFormatted(storage, pageCount - 1)) {
+            pageCount--;
+        }
+        if (pageCount * RecordPage.PAGE_SIZE < storage.length()) {
+            storage.truncate(pageCount * RecordPage.PAGE_SIZE);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Getter method for the record type of the file.
+     *
+     * @return (out) RecordType - type of records stored.
+     */
+    //---
+    public RecordType getType() {
+        return type;
+    }
+
+    //-----------------------------
+    /**
+     * Getter method for the name of the open file, which index files are named after.
+     *
+     * @return (out) String - file name.
+     */
+    //---
+    public String getFileName() {
+        return fileName;
+    }
+
+    //-----------------------------
+    /**
+     * Checks whether the pages of the file keep a checksum per record.
+     *
+     * @return (out) boolean - true for a checksummed file.
+     */
+    //---
+    public boolean isChecksummed() {
+        return checksummed;
+    }
+
+    //-----------------------------
+    /**
+     * Gets the generation of the file, which goes up by one with every compaction.
+     *
+     * @return (out) long - generation number from the file header.
+     */
+    //---
+    public long getGeneration() {
+        return generation;
+    }
+
+    //-----------------------------
+    /**
+     * Gets the LSN of the last change made to the file since it was opened.
+     *
+     * @return (out) long - LSN of the last logged change, 0 if there was none.
+     */
+    //---
+    public long getLastLsn() {
+        return lastLsn;
+    }
+
+    //-----------------------------
+    /**
+     * Getter method for the number of slots of every data page.
+     *
+     * @return (out) int - slots per page.
+     */
+    //---
+    public int getSlotsPerPage() {
+        return writePage.getSlotCount();
+    }
+
+    //-----------------------------
+    /**
+     * Gets the number of pages in the file, including the header page and new pages that are
+     * not written yet.
+     *
+     * @return (out) long - number of pages.
+     */
+    //---
+    public long getPageCount() {
+        return pageCount;
+    }
+
+    //-----------------------------
+    /**
+     * Gets the number of live records from the superblock.
+     *
+     * @return (out) long - number of records.
+     */
+    //---
+    public long getRecordCount() {
+        return superblock.getRecordCount();
+    }
+
+    //-----------------------------
+    /**
+     * Gets the LSN of the last logged change to the superblock, which changes with every insert
+     * and delete.
+     *
+     * @return (out) long - superblock LSN.
+     */
+    //---
+    public long getSuperblockLsn() {
+        return superblock.getLsn();
+    }
+
+    //-----------------------------
+    /**
+     * Adds an index that is kept up to date with every change to the file. The index is
+     * rebuilt if the stored one is not valid for the file as it is now.
+     *
+     * @param index (in) RecordIndex - index of the records of this file.
+     * @throws IOException
+     */
+    //---
+    public void addIndex(RecordIndex index) throws IOException {
+        if (!index.open(this)) {
+            index.rebuild(this);
+        }
+        indexes.add(index);
+    }
+
+    //-----------------------------
+    /**
+     * Hands out the next sequence number of the file, e.g. the next change ID. The change is
+     * logged but not yet durable, see WriteAheadLog.commit.
+     *
+     * @return (out) long - sequence number, never handed out before.
+     * @throws IOException
+     */
+    //---
+    public long nextSequence() throws IOException {
+        prepareChange();
+        long sequence = superblock.getNextSequence();
+        superblock.setNextSequence(sequence + 1);
+        logSuperblock();
+        return sequence;
+    }
+
+    //-----------------------------
+    /**
+     * Counts the live records again from the page headers and stores the count in the
+     * superblock without logging it. Used after pages were repaired outside of the log, while
+     * no changes are held in memory.
+     *
+     * @throws IOException
+     */
+    //---
+    public void recount() throws IOException {
+        superblock.setRecordCount(countRecords());
+        superblock.write(storage);
+    }
+
+    //-----------------------------
+    /**
+     * Adds up the record counts of the page headers.
+     *
+     * @return (out) long - number of records.
+     * @throws IOException
+     */
+    //---
+    private long countRecords() throws IOException {
+        long pageCount = getPageCount();
+        RecordPage page = newPage();
+        long records = 0;
+
+        for (long pageNumber = 1; pageNumber < pageCount; pageNumber++) {
+            readPage(pageNumber, page);
+            records += page.getRecordCount();
+        }
+        return records;
+    }
+
+    //-----------------------------
+    /**
+     * Gets the live and free bytes of the file. Free slots are counted from the page headers.
+     *
+     * @return (out) StorageStats - space used by the file.
+     * @throws IOException
+     */
+    //---
+    public StorageStats getStats() throws IOException {
+        long pageCount = getPageCount();
+        RecordPage page = newPage();
+        long records = 0;
+        long freeSlots = 0;
+
+        for (long pageNumber = 1; pageNumber < pageCount; pageNumber++) {
+            readPage(pageNumber, page);
+            records += page.getRecordCount();
+            freeSlots += page.getSlotCount() - page.getRecordCount();
+        }
+        return new StorageStats(type.getFileName(), storage.length(), records * type.getRecordSize(),
+                freeSlots * type.getRecordSize());
+    }
+
+    //-----------------------------
+    /**
+     * Creates an empty page buffer sized for the records of this file.
+     *
+     * @return (out) RecordPage - new page buffer.
+     */
+    //---
+    public RecordPage newPage() {
+        return new RecordPage(type.getRecordSize(), checksummed);
+    }
+
+    //-----------------------------
+    /**
+     * Loads a data page with a single read, or copies it when it is a dirty page not written yet.
+     *
+     * @param pageNumber (in) long - page to be loaded, 1 or more.
+     * @param page (out) RecordPage - page buffer to load into.
+     * @throws IOException
+     */
+    //---
+    public void readPage(long pageNumber, RecordPage page) throws IOException {
+        RecordPage dirty = dirtyPages.get(pageNumber);
+        if (dirty != null) {
+            page.copyFrom(dirty);
+        } else {
+            page.load(storage, pageNumber);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Writes a whole data page with a single write and marks in the free space map whether it
+     * has a free slot. Only used for pages whose changes are durable already, i.e. by redo and
+     * repairs during start up; changes go through the dirty pages.
+     *
+     * @param page (in) RecordPage - page to be written.
+     * @throws IOException
+     */
+    //---
+    public void writePage(RecordPage page) throws IOException {
+        page.store(storage);
+        pageCount = Math.max(pageCount, page.getPageNumber() + 1);
+        markFreeSpace(page);
+    }
+
+    //-----------------------------
+    /**
+     * Gets the dirty page of a loaded page, copying the loaded page into a new dirty page
+     * unless it is dirty already.
+     *
+     * @param loaded (in) RecordPage - page as loaded by readPage.
+     * @return (out) RecordPage - dirty page to be changed.
+     */
+    //---
+    private RecordPage dirtyPage(RecordPage loaded) {
+        RecordPage page = dirtyPages.get(loaded.getPageNumber());
+        if (page == null) {
+            page = takeSparePage();
+            page.copyFrom(loaded);
+            dirtyPages.put(page.getPageNumber(), page);
+        }
+        return page;
+    }
+
+    //-----------------------------
+    /**
+     * Adds an empty page at the end of the file as a dirty page.
+     *
+     * @param pageNumber (in) long - number of the new page, the current page count.
+     * @return (out) RecordPage - dirty page to be changed.
+     */
+    //---
+    private RecordPage newDirtyPage(long pageNumber) {
+        RecordPage page = takeSparePage();
+        page.reset(pageNumber);
+        dirtyPages.put(pageNumber, page);
+        pageCount = pageNumber + 1;
+        return page;
+    }
+
+    //-----------------------------
+    /**
+     * Takes a page buffer for a dirty page, reusing one that was written back.
+     *
+     * @return (out) RecordPage - unused page buffer.
+     */
+    //---
+    private RecordPage takeSparePage() {
+        RecordPage page = sparePages.poll();
+        return page != null ? page : new RecordPage(type.getRecordSize(), checksummed, true);
+    }
+
+    //-----------------------------
+    /**
+     * Prepares a change before anything of it is logged or written. Marks every index changed,
+     * so an index a crash leaves behind the file is rebuilt, and writes back the dirty pages the
+     * log is durable for, after waiting for the log first when MAX_DIRTY_PAGES pages are held.
+     *
+     * @throws IOException
+     */
+    //---
+    private void prepareChange() throws IOException {
+        for (RecordIndex index : indexes) {
+            index.beginChange();
+        }
+        if (dirtyPages.size() >= MAX_DIRTY_PAGES) {
+            log.commit(lastLsn);
+        }
+        writeBack(log.getDurableLsn());
+    }
+
+    //-----------------------------
+    /**
+     * Writes the dirty pages and the superblock whose LSN the log is durable for, in page order.
+     * A new page waiting for the log holds back the new pages after it, so the file never has
+     * a page missing in the middle.
+     *
+     * @param durableLsn (in) long - last LSN forced to the log.
+     * @throws IOException
+     */
+    //---
+    private void writeBack(long durableLsn) throws IOException {
+        long storedPages = storage.length() / RecordPage.PAGE_SIZE;
+        Iterator<RecordPage> pages = dirtyPages.values().iterator();
+
+        while (pages.hasNext()) {
+            RecordPage page = pages.next();
+            if (page.getLsn() > durableLsn) {
+                if (page.getPageNumber() >= storedPages) {
+                    break;
+                }
+                continue;
+            }
+            page.store(storage);
+            storedPages = Math.max(storedPages, page.getPageNumber() + 1);
+            pages.remove();
+            sparePages.push(page);
+        }
+        if (superblockDirty && superblock.getLsn() <= durableLsn) {
+            superblock.write(storage);
+            superblockDirty = false;
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Marks in the free space map whether a loaded page has a free slot.
+     *
+     * @param page (in) RecordPage - page as it is stored.
+     */
+    //---
+    private void markFreeSpace(RecordPage page) {
+        freeSpace.mark(page.getPageNumber(), page.firstFree() != -1);
+    }
+
+    //-----------------------------
+    /**
+     * Starts a scan over the records of the file.
+     *
+     * @param fromOffset (in) long - the scan starts at the first record at or after this offset.
+     * @return (out) RecordScanner - scanner positioned before the first record.
+     */
+    //---
+    public RecordScanner scan(long fromOffset) {
+        return new RecordScanner(this, fromOffset);
+    }
+
+    //-----------------------------
+    /**
+     * Streams the records of the file in file order, decoding each record when the stream gets
+     * to it. A parallel stream reads disjoint page ranges on several threads. The file must not
+     * be changed while the stream is used.
+     *
+     * @param decoder (in) RecordDecoder<T> - turns a record into an object.
+     * @return (out) Stream<T> - sequential stream of the decoded records.
+     * @throws IOException
+     */
+    //---
+    public <T> Stream<T> stream(RecordDecoder<T> decoder) throws IOException {
+        return stream(null, decoder);
+    }
+
+    //-----------------------------
+    /**
+     * Streams the records of the file selected by a filter, in file order. The filter is checked
+     * on the encoded record, and only the selected records are decoded.
+     *
+     * @param filter (in) RecordMatcher - selects the records, e.g. a RecordFilter, or null for all.
+     * @param decoder (in) RecordDecoder<T> - turns a selected record into an object.
+     * @return (out) Stream<T> - sequential stream of the decoded records.
+     * @throws IOException
+     */
+    //---
+    public <T> Stream<T> stream(RecordMatcher filter, RecordDecoder<T> decoder) throws IOException {
+        return StreamSupport.stream(new RecordSpliterator<>(this, filter, decoder, 1, getPageCount()), false);
+    }
+
+    //-----------------------------
+    /**
+     * Reads the record at an offset, e.g. one found in an index, into a page buffer of the
+     * caller. The page is only loaded if it does not hold the record's page already, so records
+     * read in offset order cost one read per page.
+     *
+     * @param offset (in) long - byte offset of an occupied slot.
+     * @param page (in/out) RecordPage - page buffer from newPage.
+     * @return (out) RecordReader - reader positioned at the record.
+     * @throws IOException when the slot is not occupied.
+     */
+    //---
+    public RecordReader readRecord(long offset, RecordPage page) throws IOException {
+        long pageNumber = offset / RecordPage.PAGE_SIZE;
+        if (page.getPageNumber() != pageNumber) {
+            readPage(pageNumber, page);
+        }
+        int slot = page.slotAtOrAfter(offset);
+        if (slot == page.getSlotCount() || page.recordOffset(slot) != offset || !page.isOccupied(slot)) {
+            throw new IOException("No record at offset " + offset + " of " + type.getFileName());
+        }
+        return page.getReader(slot);
+    }
+
+    //-----------------------------
+    /**
+     * Gets the number of the slot at an offset, counting the slots of all data pages from 0.
+     * Record numbers are dense, so sets of records can be kept as bitmaps.
+     *
+     * @param offset (in) long - byte offset of a slot.
+     * @return (out) int - record number.
+     */
+    //---
+    public int recordNumber(long offset) {
+        long pageNumber = offset / RecordPage.PAGE_SIZE;
+        int slot = (int) ((offset - writePage.offsetOf(pageNumber, 0)) / type.getRecordSize());
+        return (int) ((pageNumber - 1) * writePage.getSlotCount() + slot);
+    }
+
+    //-----------------------------
+    /**
+     * Gets the offset of a record number.
+     *
+     * @param recordNumber (in) int - record number from recordNumber.
+     * @return (out) long - byte offset of the slot.
+     */
+    //---
+    public long recordOffset(int recordNumber) {
+        int slotCount = writePage.getSlotCount();
+        return writePage.offsetOf(recordNumber / slotCount + 1, recordNumber % slotCount);
+    }
+
+    //-----------------------------
+    /**
+     * Inserts a record into the first free slot of the first page the free space map points
+     * to, or of the last page, adding a page when there is no free slot. The change is logged
+     * but not yet durable, see WriteAheadLog.commit.
+     *
+     * @param record (in) RecordWriter - write method of the record to be inserted.
+     * @return (out) long - byte offset of the inserted record.
+     * @throws IOException
+     */
+    //---
+    public long insert(RecordWriter record) throws IOException {
+        ByteBuffer bytes = encode(record);
+        prepareChange();
+        int slot = -1;
+
+        // the map is a hint, a marked page that turns out to be full is unmarked
+        long pageNumber = freeSpace.nextFree(1);
+        while (pageNumber != -1 && pageNumber < pageCount) {
+            readPage(pageNumber, writePage);
+            slot = writePage.firstFree();
+            if (slot != -1) {
+                break;
+            }
+            freeSpace.mark(pageNumber, false);
+            pageNumber = freeSpace.nextFree(pageNumber + 1);
+        }
+
+        if (slot == -1 && pageCount > 1) {
+            readPage(pageCount - 1, writePage);
+            slot = writePage.firstFree();
+        }
+
+        RecordPage page;
+        if (slot == -1) {
+            page = newDirtyPage(Math.max(pageCount, 1));
+            slot = 0;
+        } else {
+            page = dirtyPage(writePage);
+        }
+        long offset = page.recordOffset(slot);
+        long lsn = log.append(type, WriteAheadLog.PUT, offset, bytes);
+        page.putRecord(slot, bytes);
+        page.setLsn(lsn);
+        lastLsn = lsn;
+        markFreeSpace(page);
+
+        superblock.setRecordCount(superblock.getRecordCount() + 1);
+        logSuperblock();
+        for (RecordIndex index : indexes) {
+            index.inserted(offset, bytes);
+        }
+        return offset;
+    }
+
+    //-----------------------------
+    /**
+     * Overwrites the record stored at an offset. The change is logged but not yet durable,
+     * see WriteAheadLog.commit.
+     *
+     * @param offset (in) long - byte offset of an occupied slot.
+     * @param record (in) RecordWriter - write method of the new record.
+     * @throws IOException
+     */
+    //---
+    public void update(long offset, RecordWriter record) throws IOException {
+        ByteBuffer bytes = encode(record);
+        prepareChange();
+
+        readPage(offset / RecordPage.PAGE_SIZE, writePage);
+        RecordPage page = dirtyPage(writePage);
+        int slot = page.slotAtOrAfter(offset);
+        ByteBuffer oldBytes = ByteBuffer.wrap(page.getRecordBytes(slot));
+        long lsn = log.append(type, WriteAheadLog.PUT, offset, bytes);
+        page.putRecord(slot, bytes);
+        page.setLsn(lsn);
+        lastLsn = lsn;
+
+        for (RecordIndex index : indexes) {
+            index.updated(offset, oldBytes, bytes);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Deletes the record stored at an offset by clearing its slot in the page bitmap. The
+     * record bytes stay in place as a tombstone until the file is compacted. The change is
+     * logged but not yet durable, see WriteAheadLog.commit.
+     *
+     * @param offset (in) long - byte offset of an occupied slot.
+     * @throws IOException when the slot is not occupied.
+     */
+    //---
+    public void delete(long offset) throws IOException {
+        prepareChange();
+        readPage(offset / RecordPage.PAGE_SIZE, writePage);
+        int slot = writePage.slotAtOrAfter(offset);
+        if (!writePage.isOccupied(slot)) {
+            throw new IOException("No record at offset " + offset + " of " + type.getFileName());
+        }
+
+        RecordPage page = dirtyPage(writePage);
+        ByteBuffer oldBytes = ByteBuffer.wrap(page.getRecordBytes(slot));
+        long lsn = log.append(type, WriteAheadLog.DELETE, offset, new byte[0]);
+        page.setOccupied(slot, false);
+        page.setLsn(lsn);
+        lastLsn = lsn;
+        freeSpace.mark(page.getPageNumber(), true);
+
+        superblock.setRecordCount(superblock.getRecordCount() - 1);
+        logSuperblock();
+        for (RecordIndex index : indexes) {
+            index.deleted(offset, oldBytes);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Logs the current superblock counters and marks the superblock dirty.
+     *
+     * @throws IOException
+     */
+    //---
+    private void logSuperblock() throws IOException {
+        long lsn = log.append(type, WriteAheadLog.SUPERBLOCK, 0, superblock.toLogBytes());
+        superblock.setLsn(lsn);
+        lastLsn = lsn;
+        superblockDirty = true;
+    }
+
+    //-----------------------------
+    /**
+     * Applies a logged change again during start up, unless its page already has it. Pages past
+     * the end of the file, or torn at the end of it, are started from empty. A page that was torn
+     * while being written can carry the LSN of a change whose record bytes did not make it, so a
+     * change is also applied when the header or the record fails its checksum; applying logged
+     * changes again is harmless, as each one sets whole slots. The page is marked in the free
+     * space map either way, since the map is only written at checkpoints.
+     *
+     * @param lsn (in) long - LSN of the logged change.
+     * @param kind (in) byte - kind of change, WriteAheadLog.PUT, DELETE or SUPERBLOCK.
+     * @param offset (in) long - byte offset of the record, 0 for the superblock.
+     * @param bytes (in) byte[] - record bytes of the change, empty for a delete.
+     * @return (out) boolean - true if the page or superblock was changed.
+     * @throws IOException when the change is not valid for this file.
+     */
+    //---
+    public boolean redo(long lsn, byte kind, long offset, byte[] bytes) throws IOException {
+        long pageNumber = offset / RecordPage.PAGE_SIZE;
+        long pageCount = getPageCount();
+        boolean valid = (kind == WriteAheadLog.PUT && bytes.length == type.getRecordSize() && pageNumber >= 1)
+                || (kind == WriteAheadLog.DELETE && bytes.length == 0 && pageNumber >= 1)
+                || (kind == WriteAheadLog.SUPERBLOCK && bytes.length == Superblock.LOG_SIZE && offset == 0);
+
+        if (!valid) {
+            throw new IOException("Invalid log record " + lsn + " for " + type.getFileName());
+        }
+        if (kind == WriteAheadLog.SUPERBLOCK) {
+            if (superblock.getLsn() >= lsn) {
+                return false;
+            }
+            superblock.fromLogBytes(lsn, bytes);
+            superblock.write(storage);
+            return true;
+        }
+        for (long gap = Math.max(pageCount, 1); gap < pageNumber; gap++) {
+            writePage.reset(gap);
+            writePage(writePage);
+        }
+        if (pageNumber < pageCount) {
+            readPage(pageNumber, writePage);
+            if (!writePage.verifyHeader()) {
+                // torn page, every logged change to it is applied again
+                writePage.rebuildHeader();
+                writePage.setLsn(0);
+            } else if (writePage.getLsn() >= lsn
+                    && (kind == WriteAheadLog.DELETE || writePage.verifyRecord(writePage.slotAtOrAfter(offset)))) {
+                markFreeSpace(writePage);
+                return false;
+            }
+        } else {
+            writePage.reset(pageNumber);
+        }
+
+        if (kind == WriteAheadLog.PUT) {
+            writePage.putRecord(writePage.slotAtOrAfter(offset), bytes);
+        } else {
+            writePage.setOccupied(writePage.slotAtOrAfter(offset), false);
+        }
+        writePage.setLsn(lsn);
+        writePage(writePage);
+        return true;
+    }
+
+    //-----------------------------
+    /**
+     * Writes the live records densely into a new file of the next generation, next to the data
+     * file. The data file itself is not changed, so it can still be read meanwhile.
+     *
+     * @return (out) Path - path of the compacted file.
+     * @throws IOException
+     */
+    //---
+    public Path writeCompacted() throws IOException {
+        Path compacted = Paths.get(fileName + COMPACT_SUFFIX);
+        RecordPage page = newPage();
+        long records = 0;
+
+        try (RandomAccessFile out = new RandomAccessFile(compacted.toFile(), "rw")) {
+            ChannelStorage target = new ChannelStorage(out.getChannel());
+            out.getChannel().truncate(0);
+            page.reset(1);
+
+            RecordScanner scanner = scan(0);
+            while (scanner.next()) {
+                int slot = (int) (records % page.getSlotCount());
+                if (slot == 0 && records > 0) {
+                    page.store(target);
+                    page.reset(page.getPageNumber() + 1);
+                }
+                page.putRecord(slot, scanner.getRecordBytes());
+                records++;
+            }
+            if (records > 0) {
+                page.store(target);
+            }
+            ByteBuffer header = FileHeader.createPage(type, checksummed, generation + 1);
+            new Superblock(records, superblock.getNextSequence()).writeTo(header);
+            target.write(0, header);
+            target.force();
+        }
+        return compacted;
+    }
+
+    //-----------------------------
+    /**
+     * Writes every index of the file for a compacted file, next to the compacted file. Only the
+     * compacted file is read, so the data file can be changed meanwhile; the indexes are then
+     * discarded with the compacted file.
+     *
+     * @param compacted (in) Path - file written by writeCompacted.
+     * @throws IOException
+     */
+    //---
+    public void writeCompactedIndexes(Path compacted) throws IOException {
+        RecordFile copy = new RecordFile(type, compacted.toString(), false, log);
+        try {
+            for (RecordIndex index : indexes) {
+                index.writeCompacted(copy);
+            }
+        } finally {
+            copy.close();
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Deletes a compacted file and the indexes written for it, when it is not swapped in.
+     *
+     * @param compacted (in) Path - file written by writeCompacted.
+     * @throws IOException
+     */
+    //---
+    public void discardCompacted(Path compacted) throws IOException {
+        Files.deleteIfExists(compacted);
+        for (RecordIndex index : indexes) {
+            index.discardCompacted();
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Replaces the data file with a compacted file in a single atomic rename, opens it and
+     * swaps in the indexes written by writeCompactedIndexes. Every change logged for the old
+     * file must be checkpointed before.
+     *
+     * @param compacted (in) Path - file written by writeCompacted.
+     * @throws IOException
+     */
+    //---
+    public void swap(Path compacted) throws IOException {
+        storage.close();
+        file.close();
+        Files.move(compacted, Paths.get(fileName), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        open();
+        for (RecordIndex index : indexes) {
+            index.swapCompacted(this);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Encodes a record into its fixed size byte image. The image is only valid until the next
+     * record is encoded.
+     *
+     * @param record (in) RecordWriter - write method of the record.
+     * @return (out) ByteBuffer - read only view of the encoded record.
+     * @throws IOException when the encoded record does not have the record size of the file.
+     */
+    //---
+    public ByteBuffer encode(RecordWriter record) throws IOException {
+        encoder.reset();
+        try {
+            record.write(encoder);
+        } catch (BufferOverflowException e) {
+            throw new IOException("Encoded " + type + " record is larger than " + type.getRecordSize() + " bytes");
+        }
+
+        if (encoder.size() != type.getRecordSize()) {
+            throw new IOException("Encoded " + type + " record has " + encoder.size() + " bytes");
+        }
+        return encoder.getRecord();
+    }
+
+    //-----------------------------
+    /**
+     * Waits for the log to be durable for every change to the file, writes back all dirty pages
+     * and the free space map and forces the file to disk.
+     *
+     * @throws IOException
+     */
+    //---
+    public void force() throws IOException {
+        log.commit(lastLsn);
+        writeBack(lastLsn);
+        freeSpace.write(storage);
+        storage.force();
+    }
+
+    //-----------------------------
+    /**
+     * Closes the indexes and the file. Dirty pages the log is not durable for are dropped, as in
+     * a crash, so the log is checkpointed first on a clean shut down.
+     *
+     * @throws IOException
+     */
+    //---
+    public void close() throws IOException {
+        writeBack(log.getDurableLsn());
+        for (RecordIndex index : indexes) {
+            index.close(this);
+        }
+        indexes.clear();
+        storage.close();
+        file.close();
+    }
+}
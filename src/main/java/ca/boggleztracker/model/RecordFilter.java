@@ -0,0 +1,137 @@
+/**
+ * File: RecordFilter.java
+ * Revision History:
+ * - 2026-10-18: Predicates on the encoded bytes of a record
+ * Purpose:
+ * RecordFilter class selects records by comparing fields of the encoded record with encoded
+ * values, e.g. productName = X and status in (Open, Assessed), so a scan only decodes the
+ * records that match. A filter is a conjunction of field conditions; each condition looks at
+ * the bytes of its field in the page buffer, without copying them or creating objects.
+ */
+package ca.boggleztracker.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class RecordFilter implements RecordMatcher {
+    //=============================
+    // Constants and static fields
+    //=============================
+    public static final RecordFilter NONE = new RecordFilter(new RecordMatcher[] {reader -> false});
+
+    //=============================
+    // Member fields
+    //=============================
+    private final RecordMatcher[] conditions; // all must hold
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * One argument constructor for RecordFilter, used by the factory methods.
+     *
+     * @param conditions (in) RecordMatcher[] - conditions on the record at the reader position,
+     *                                          which must not move the position.
+     */
+    //---
+    private RecordFilter(RecordMatcher[] conditions) {
+        this.conditions = conditions;
+    }
+
+    //=============================
+    // Static Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Creates a filter on a text field, stored padded with spaces by writeCharsToFile.
+     *
+     * @param fieldOffset (in) int - index of the field in the encoded record.
+     * @param value (in) String - text the field must hold.
+     * @param length (in) int - characters of the field.
+     * @return (out) RecordFilter - filter, NONE if the text is longer than the field.
+     */
+    //---
+    public static RecordFilter charsEqual(int fieldOffset, String value, int length) {
+        if (value.length() > length) {
+            return NONE;
+        }
+        byte[] encoded = ScenarioManager.encodeChars(value, length);
+        return new RecordFilter(new RecordMatcher[] {reader -> reader.fieldEquals(fieldOffset, encoded)});
+    }
+
+    //-----------------------------
+    /**
+     * Creates a filter on a 4 byte integer field.
+     *
+     * @param fieldOffset (in) int - index of the field in the encoded record.
+     * @param value (in) int - value the field must hold.
+     * @return (out) RecordFilter - filter.
+     */
+    //---
+    public static RecordFilter intEquals(int fieldOffset, int value) {
+        byte[] encoded = ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+        return new RecordFilter(new RecordMatcher[] {reader -> reader.fieldEquals(fieldOffset, encoded)});
+    }
+
+    //-----------------------------
+    /**
+     * Creates a filter on a bit field of one byte, e.g. the status code of a change item.
+     *
+     * @param fieldOffset (in) int - index of the byte in the encoded record.
+     * @param shift (in) int - position of the lowest bit of the field in the byte.
+     * @param mask (in) int - mask of the field bits after shifting, at most 6 bits.
+     * @param codes (in) int[] - values the field may hold.
+     * @return (out) RecordFilter - filter.
+     */
+    //---
+    public static RecordFilter codeIn(int fieldOffset, int shift, int mask, int... codes) {
+        long accepted = 0; // bit per code
+        for (int code : codes) {
+            accepted |= 1L << (code & mask);
+        }
+        long acceptedCodes = accepted;
+        return new RecordFilter(new RecordMatcher[] {
+                reader -> (acceptedCodes & (1L << ((reader.fieldByte(fieldOffset) >>> shift) & mask))) != 0});
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Combines this filter with another one; the most selective filter should come first.
+     *
+     * @param other (in) RecordFilter - filter that must also hold.
+     * @return (out) RecordFilter - filter holding when both filters hold.
+     */
+    //---
+    public RecordFilter and(RecordFilter other) {
+        RecordMatcher[] both = Arrays.copyOf(conditions, conditions.length + other.conditions.length);
+        System.arraycopy(other.conditions, 0, both, conditions.length, other.conditions.length);
+        return new RecordFilter(both);
+    }
+
+    //-----------------------------
+    /**
+     * Checks the fields of a record, stopping at the first condition that does not hold.
+     *
+     * @param reader (in) RecordReader - reader positioned at the record, left there.
+     * @return (out) boolean - true if every condition holds.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public boolean matches(RecordReader reader) throws IOException {
+        for (RecordMatcher condition : conditions) {
+            if (!condition.matches(reader)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
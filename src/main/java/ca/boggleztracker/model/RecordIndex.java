@@ -0,0 +1,137 @@
+/**
+ * File: RecordIndex.java
+ * Revision History:
+ * - 2026-10-18: Function declarations
+ * - 2026-10-18: Indexes are marked changed before every change to the file
+ * - 2026-10-18: Indexes of a compacted file are written before it is swapped in
+ * Purpose:
+ * RecordIndex interface defines a contract for an index over the records of a RecordFile. The
+ * index is added to the file once it is open, and the file reports every insert, update and
+ * delete to it with the encoded record bytes, so the index never has to decode records itself.
+ * Before the first log record or page of a change, the file has every index mark its stored
+ * copy as changed, so an index that a crash left behind the file is never taken as clean.
+ * An index that was not closed cleanly for the current state of the file is rebuilt from a scan.
+ * Record offsets change when a file is compacted, so every index also writes a copy of itself for
+ * the compacted file while the file can still be read, and only swaps that copy in, without a
+ * scan, once the compacted file replaced the data file.
+ */
+package ca.boggleztracker.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public interface RecordIndex {
+    //=============================
+    // Abstract Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Opens the index for a record file.
+     *
+     * @param file (in) RecordFile - open record file.
+     * @return (out) boolean - true if the stored index is valid, false if it must be rebuilt.
+     * @throws IOException
+     */
+    //---
+    boolean open(RecordFile file) throws IOException;
+
+    //-----------------------------
+    /**
+     * Rebuilds the index from all records of the file.
+     *
+     * @param file (in) RecordFile - open record file.
+     * @throws IOException
+     */
+    //---
+    void rebuild(RecordFile file) throws IOException;
+
+    //-----------------------------
+    /**
+     * Marks the stored index as changed, unless it is marked already, and forces the mark to
+     * disk. Called by the file before each change, ahead of its log record and pages.
+     *
+     * @throws IOException
+     */
+    //---
+    void beginChange() throws IOException;
+
+    //-----------------------------
+    /**
+     * Adds a record that was inserted.
+     *
+     * @param offset (in) long - byte offset of the record.
+     * @param record (in) ByteBuffer - encoded record, the position is left unchanged.
+     * @throws IOException
+     */
+    //---
+    void inserted(long offset, ByteBuffer record) throws IOException;
+
+    //-----------------------------
+    /**
+     * Removes a record that was deleted.
+     *
+     * @param offset (in) long - byte offset of the record.
+     * @param record (in) ByteBuffer - encoded record as it was, the position is left unchanged.
+     * @throws IOException
+     */
+    //---
+    void deleted(long offset, ByteBuffer record) throws IOException;
+
+    //-----------------------------
+    /**
+     * Replaces a record that was overwritten in place.
+     *
+     * @param offset (in) long - byte offset of the record.
+     * @param oldRecord (in) ByteBuffer - encoded record as it was.
+     * @param newRecord (in) ByteBuffer - encoded record as it is now.
+     * @throws IOException
+     */
+    //---
+    default void updated(long offset, ByteBuffer oldRecord, ByteBuffer newRecord) throws IOException {
+        deleted(offset, oldRecord);
+        inserted(offset, newRecord);
+    }
+
+    //-----------------------------
+    /**
+     * Writes the index with the stamp of the file and closes it.
+     *
+     * @param file (in) RecordFile - record file, still open.
+     * @throws IOException
+     */
+    //---
+    void close(RecordFile file) throws IOException;
+
+    //-----------------------------
+    /**
+     * Builds the index of a compacted file into an index file next to it, leaving the index in
+     * use unchanged.
+     *
+     * @param compacted (in) RecordFile - compacted file opened for reading, see
+     *                                    RecordFile.writeCompacted.
+     * @throws IOException
+     */
+    //---
+    void writeCompacted(RecordFile compacted) throws IOException;
+
+    //-----------------------------
+    /**
+     * Replaces the index with the one written by writeCompacted, once the record file was
+     * swapped to the compacted file. Only renames the index file and takes over its contents.
+     *
+     * @param file (in) RecordFile - record file, opened again on the compacted file.
+     * @throws IOException
+     */
+    //---
+    void swapCompacted(RecordFile file) throws IOException;
+
+    //-----------------------------
+    /**
+     * Deletes the index written by writeCompacted, when the compacted file is not swapped in.
+     *
+     * @throws IOException
+     */
+    //---
+    void discardCompacted() throws IOException;
+}
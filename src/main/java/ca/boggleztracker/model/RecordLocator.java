@@ -0,0 +1,27 @@
+/**
+ * File: RecordLocator.java
+ * Revision History:
+ * - 2026-10-18: Function declarations
+ * Purpose:
+ * RecordLocator functional interface defines a contract for finding the one record a change is
+ * made to, e.g. by looking its key up in an index, while the caller holds the write lock.
+ */
+package ca.boggleztracker.model;
+
+import java.io.IOException;
+
+public interface RecordLocator {
+    //=============================
+    // Abstract Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Finds the record.
+     *
+     * @return (out) long - byte offset of the record, or -1 if there is none.
+     * @throws IOException
+     */
+    //---
+    long locate() throws IOException;
+}
@@ -0,0 +1,28 @@
+/**
+ * File: RecordMatcher.java
+ * Revision History:
+ * - 2026-10-18: Function declarations
+ * Purpose:
+ * RecordMatcher functional interface defines a contract for selecting records while a file is
+ * scanned. The matcher reads the record from the reader it is given.
+ */
+package ca.boggleztracker.model;
+
+import java.io.IOException;
+
+public interface RecordMatcher {
+    //=============================
+    // Abstract Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Decides whether a record is selected.
+     *
+     * @param reader (in) RecordReader - reader positioned at the record.
+     * @return (out) boolean - true if the record is selected.
+     * @throws IOException
+     */
+    //---
+    boolean matches(RecordReader reader) throws IOException;
+}
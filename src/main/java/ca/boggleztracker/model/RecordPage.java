@@ -0,0 +1,549 @@
+/**
+ * File: RecordPage.java
+ * Revision History:
+ * - 2026-10-18: Slotted page layout with page header
+ * - 2026-10-18: CRC32C checksums of the page header and of every record
+ * - 2026-10-18: Direct page buffers, records put from a ByteBuffer, header and slot stored in one write
+ * - 2026-10-18: Check for pages never written, left at the end of a file after a crash
+ * - 2026-10-18: Pages copied in memory, changed pages are only stored whole
+ * - 2026-10-18: Stored record checksums have their lowest bit set, so none is taken for a free slot
+ * Purpose:
+ * RecordPage class holds one fixed size page of a record file in memory. Page 0 of every file
+ * holds the FileHeader, every other page is a data page laid out as:
+ *   - LSN (8 bytes): sequence number of the last logged change applied to the page
+ *   - header checksum (4 bytes): CRC32C of the page header, bitmap and record checksums
+ *   - record count (2 bytes): number of occupied slots
+ *   - slot count (2 bytes): number of slots of the page
+ *   - slot bitmap (1 bit per slot): set for occupied slots, clear for free slots
+ *   - record checksums (4 bytes per slot): CRC32C of each record with its lowest bit set, 0 for
+ *     a free slot, only in checksummed files
+ *   - slots: fixed size records, one per slot
+ * A page is loaded and stored with a single read or write, and records are addressed by their
+ * byte offset in the file. The header checksum is computed whenever the page header is stored.
+ */
+package ca.boggleztracker.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+
+public class RecordPage {
+    //=============================
+    // Constants and static fields
+    //=============================
+    public static final int PAGE_SIZE = 8 * 1024;
+    private static final int LSN_OFFSET = 0;
+    private static final int HEADER_CHECKSUM_OFFSET = 8;
+    private static final int RECORD_COUNT_OFFSET = 12;
+    private static final int SLOT_COUNT_OFFSET = 14;
+    private static final int BITMAP_OFFSET = 16;
+    private static final int LIVE_CHECKSUM_BIT = 1; // set in every stored record checksum, never in a free slot's 0
+
+    //=============================
+    // Member fields
+    //=============================
+    private final ByteBuffer buffer;
+    private final int recordSize;
+    private final boolean checksummed;
+    private final int slotCount;
+    private final int checksumStart; // index of the record checksums inside the page
+    private final int dataStart; // index of slot 0 inside the page
+    private final CRC32C checksum;
+    private long pageNumber;
+    private RecordReader reader;
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * Two argument constructor for RecordPage, creates an empty buffer for pages of one record size.
+     *
+     * @param recordSize (in) int - bytes of one record.
+     * @param checksummed (in) boolean - true if the pages keep a checksum per record.
+     */
+    //---
+    public RecordPage(int recordSize, boolean checksummed) {
+        this(recordSize, checksummed, false);
+    }
+
+    //-----------------------------
+    /**
+     * Three argument constructor for RecordPage. A direct buffer is written to a FileChannel
+     * without being copied to native memory first, but is slower to allocate, so it is meant
+     * for long lived pages that are written often.
+     *
+     * @param recordSize (in) int - bytes of one record.
+     * @param checksummed (in) boolean - true if the pages keep a checksum per record.
+     * @param direct (in) boolean - true to allocate the page outside of the heap.
+     */
+    //---
+    public RecordPage(int recordSize, boolean checksummed, boolean direct) {
+        this.buffer = direct ? ByteBuffer.allocateDirect(PAGE_SIZE) : ByteBuffer.allocate(PAGE_SIZE);
+        this.recordSize = recordSize;
+        this.checksummed = checksummed;
+        this.slotCount = slotsPerPage(recordSize, checksummed);
+        this.checksumStart = BITMAP_OFFSET + bitmapSize(slotCount);
+        this.dataStart = checksumStart + (checksummed ? slotCount * Integer.BYTES : 0);
+        this.checksum = new CRC32C();
+        this.pageNumber = -1;
+    }
+
+    //=============================
+    // Static Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Gets the number of records that fit in one page next to the page header, slot bitmap
+     * and record checksums.
+     *
+     * @param recordSize (in) int - bytes of one record.
+     * @param checksummed (in) boolean - true if the pages keep a checksum per record.
+     * @return (out) int - number of slots per page.
+     */
+    //---
+    public static int slotsPerPage(int recordSize, boolean checksummed) {
+        int slotBytes = recordSize + (checksummed ? Integer.BYTES : 0);
+        int slots = (PAGE_SIZE - BITMAP_OFFSET) * 8 / (slotBytes * 8 + 1);
+
+        while (BITMAP_OFFSET + bitmapSize(slots) + slots * slotBytes > PAGE_SIZE) {
+            slots--;
+        }
+        return slots;
+    }
+
+    //-----------------------------
+    /**
+     * Gets the bytes needed by the slot bitmap.
+     *
+     * @param slots (in) int - number of slots.
+     * @return (out) int - bitmap size in bytes.
+     */
+    //---
+    private static int bitmapSize(int slots) {
+        return (slots + 7) / 8;
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Loads a page from storage with a single read.
+     *
+     * @param storage (in) StorageBackend - backend of the record file.
+     * @param pageNumber (in) long - page to be loaded, 1 or more.
+     * @throws IOException when the page is not complete in the file.
+     */
+    //---
+    public void load(StorageBackend storage, long pageNumber) throws IOException {
+        buffer.clear();
+        int bytesRead = storage.read(pageNumber * PAGE_SIZE, buffer);
+        if (bytesRead != PAGE_SIZE) {
+            throw new IOException("Page " + pageNumber + " is incomplete");
+        }
+        buffer.clear();
+        this.pageNumber = pageNumber;
+        this.reader = null;
+    }
+
+    //-----------------------------
+    /**
+     * Checks whether a page of the file was ever written, from its slot count, which is set on
+     * every data page. A file grown ahead of its writes can end in pages of zeros after a crash.
+     *
+     * @param storage (in) StorageBackend - backend of the record file.
+     * @param pageNumber (in) long - page to be checked, 1 or more.
+     * @return (out) boolean - true if the page has a slot count.
+     * @throws IOException
+     */
+    //---
+    public static boolean isFormatted(StorageBackend storage, long pageNumber) throws IOException {
+        ByteBuffer count = ByteBuffer.allocate(Short.BYTES);
+        storage.read(pageNumber * PAGE_SIZE + SLOT_COUNT_OFFSET, count);
+        return count.getShort(0) != 0;
+    }
+
+    //-----------------------------
+    /**
+     * Resets the buffer to an empty data page.
+     *
+     * @param pageNumber (in) long - number of the new page.
+     */
+    //---
+    public void reset(long pageNumber) {
+        buffer.clear();
+        buffer.put(new byte[PAGE_SIZE]);
+        buffer.clear();
+        buffer.putShort(SLOT_COUNT_OFFSET, (short) slotCount);
+        this.pageNumber = pageNumber;
+        this.reader = null;
+    }
+
+    //-----------------------------
+    /**
+     * Writes the whole page to storage with a single write.
+     *
+     * @param storage (in) StorageBackend - backend of the record file.
+     * @throws IOException
+     */
+    //---
+    public void store(StorageBackend storage) throws IOException {
+        buffer.putInt(HEADER_CHECKSUM_OFFSET, headerChecksum());
+        storage.write(pageNumber * PAGE_SIZE, buffer.duplicate().clear());
+    }
+
+    //-----------------------------
+    /**
+     * Copies another page of the same record size into this one, e.g. a changed page that is
+     * not stored yet. The other page is only read with absolute gets, so it can be copied by
+     * several threads at once.
+     *
+     * @param page (in) RecordPage - page to be copied.
+     */
+    //---
+    public void copyFrom(RecordPage page) {
+        buffer.put(0, page.buffer, 0, PAGE_SIZE);
+        this.pageNumber = page.pageNumber;
+        this.reader = null;
+    }
+
+    //-----------------------------
+    /**
+     * Getter method for the page number.
+     *
+     * @return (out) long - number of the loaded page.
+     */
+    //---
+    public long getPageNumber() {
+        return pageNumber;
+    }
+
+    //-----------------------------
+    /**
+     * Checks whether the pages keep a checksum per record.
+     *
+     * @return (out) boolean - true for pages of a checksummed file.
+     */
+    //---
+    public boolean isChecksummed() {
+        return checksummed;
+    }
+
+    //-----------------------------
+    /**
+     * Getter method for the number of slots.
+     *
+     * @return (out) int - slots of the page.
+     */
+    //---
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    //-----------------------------
+    /**
+     * Gets the number of occupied slots from the page header.
+     *
+     * @return (out) int - records stored in the page.
+     */
+    //---
+    public int getRecordCount() {
+        return buffer.getShort(RECORD_COUNT_OFFSET) & 0xFFFF;
+    }
+
+    //-----------------------------
+    /**
+     * Gets the LSN of the last logged change applied to the page.
+     *
+     * @return (out) long - page LSN.
+     */
+    //---
+    public long getLsn() {
+        return buffer.getLong(LSN_OFFSET);
+    }
+
+    //-----------------------------
+    /**
+     * Sets the LSN of the last logged change applied to the page.
+     *
+     * @param lsn (in) long - page LSN.
+     */
+    //---
+    public void setLsn(long lsn) {
+        buffer.putLong(LSN_OFFSET, lsn);
+    }
+
+    //-----------------------------
+    /**
+     * Checks whether a slot holds a record.
+     *
+     * @param slot (in) int - slot index.
+     * @return (out) boolean - true if the slot is occupied.
+     */
+    //---
+    public boolean isOccupied(int slot) {
+        return (buffer.get(BITMAP_OFFSET + slot / 8) & (1 << (slot % 8))) != 0;
+    }
+
+    //-----------------------------
+    /**
+     * Finds the next occupied slot, starting at a slot.
+     *
+     * @param fromSlot (in) int - first slot to check.
+     * @return (out) int - index of the next occupied slot, or -1 if there is none.
+     */
+    //---
+    public int nextOccupied(int fromSlot) {
+        for (int slot = Math.max(fromSlot, 0); slot < slotCount; slot++) {
+            if (isOccupied(slot)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    //-----------------------------
+    /**
+     * Finds the first free slot.
+     *
+     * @return (out) int - index of the first free slot, or -1 if the page is full.
+     */
+    //---
+    public int firstFree() {
+        if (getRecordCount() == slotCount) {
+            return -1;
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (!isOccupied(slot)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    //-----------------------------
+    /**
+     * Copies an encoded record into a slot and marks the slot occupied.
+     *
+     * @param slot (in) int - slot index.
+     * @param record (in) byte[] - encoded record of recordSize bytes.
+     */
+    //---
+    public void putRecord(int slot, byte[] record) {
+        putRecord(slot, ByteBuffer.wrap(record));
+    }
+
+    //-----------------------------
+    /**
+     * Copies an encoded record into a slot, marks it occupied and updates its checksum.
+     *
+     * @param slot (in) int - slot index.
+     * @param record (in) ByteBuffer - recordSize bytes from the position of the buffer, which
+     *                                 is left unchanged.
+     */
+    //---
+    public void putRecord(int slot, ByteBuffer record) {
+        buffer.put(dataStart + slot * recordSize, record, record.position(), recordSize);
+        if (checksummed) {
+            buffer.putInt(checksumStart + slot * Integer.BYTES, recordChecksum(slot));
+        }
+        setOccupied(slot, true);
+    }
+
+    //-----------------------------
+    /**
+     * Marks a slot occupied or free, keeping the record count in step. The record bytes are
+     * left as they are, the checksum of a freed slot is cleared.
+     *
+     * @param slot (in) int - slot index.
+     * @param occupied (in) boolean - true to mark the slot occupied.
+     */
+    //---
+    public void setOccupied(int slot, boolean occupied) {
+        if (isOccupied(slot) == occupied) {
+            return;
+        }
+        int index = BITMAP_OFFSET + slot / 8;
+        int bit = 1 << (slot % 8);
+        if (occupied) {
+            buffer.put(index, (byte) (buffer.get(index) | bit));
+            buffer.putShort(RECORD_COUNT_OFFSET, (short) (getRecordCount() + 1));
+        } else {
+            buffer.put(index, (byte) (buffer.get(index) & ~bit));
+            buffer.putShort(RECORD_COUNT_OFFSET, (short) (getRecordCount() - 1));
+            if (checksummed) {
+                buffer.putInt(checksumStart + slot * Integer.BYTES, 0);
+            }
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Copies the bytes of a slot.
+     *
+     * @param slot (in) int - slot index.
+     * @return (out) byte[] - recordSize bytes of the slot.
+     */
+    //---
+    public byte[] getRecordBytes(int slot) {
+        byte[] record = new byte[recordSize];
+        buffer.get(dataStart + slot * recordSize, record);
+        return record;
+    }
+
+    //-----------------------------
+    /**
+     * Checks the stored header checksum against the page header, bitmap and record checksums.
+     *
+     * @return (out) boolean - true if the header is intact.
+     */
+    //---
+    public boolean verifyHeader() {
+        return buffer.getInt(HEADER_CHECKSUM_OFFSET) == headerChecksum()
+                && (buffer.getShort(SLOT_COUNT_OFFSET) & 0xFFFF) == slotCount;
+    }
+
+    //-----------------------------
+    /**
+     * Checks the stored checksum of a slot against its record bytes. Pages of files without
+     * checksums always pass.
+     *
+     * @param slot (in) int - slot index.
+     * @return (out) boolean - true if the record is intact.
+     */
+    //---
+    public boolean verifyRecord(int slot) {
+        return !checksummed || buffer.getInt(checksumStart + slot * Integer.BYTES) == recordChecksum(slot);
+    }
+
+    //-----------------------------
+    /**
+     * Rebuilds the slot bitmap and record count of a page whose header failed verification.
+     * Free slots have a zero checksum and the checksum of a record is never zero, so every slot
+     * with a stored checksum is marked occupied again and has to be verified afterwards. Without
+     * checksums no slot can be recovered.
+     */
+    //---
+    public void rebuildHeader() {
+        buffer.putShort(SLOT_COUNT_OFFSET, (short) slotCount);
+        buffer.putShort(RECORD_COUNT_OFFSET, (short) 0);
+        buffer.put(BITMAP_OFFSET, new byte[bitmapSize(slotCount)]);
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (checksummed && buffer.getInt(checksumStart + slot * Integer.BYTES) != 0) {
+                setOccupied(slot, true);
+            }
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Converts the record checksums of a page of format version 5, which stored the bare CRC32C
+     * of each record, to checksums with LIVE_CHECKSUM_BIT set. A record that does not match its
+     * old checksum gets a zero one, so it still fails verification. Converting a page again
+     * leaves it as it is.
+     */
+    //---
+    public void upgradeChecksums() {
+        if (!checksummed) {
+            return;
+        }
+        for (int slot = nextOccupied(0); slot >= 0; slot = nextOccupied(slot + 1)) {
+            int index = checksumStart + slot * Integer.BYTES;
+            int upgraded = recordChecksum(slot);
+            buffer.putInt(index, (buffer.getInt(index) | LIVE_CHECKSUM_BIT) == upgraded ? upgraded : 0);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Computes the checksum of a slot as it is stored: the CRC32C of the record bytes with
+     * LIVE_CHECKSUM_BIT set, so it is never the zero of a free slot.
+     *
+     * @param slot (in) int - slot index.
+     * @return (out) int - checksum of the record bytes.
+     */
+    //---
+    private int recordChecksum(int slot) {
+        checksum.reset();
+        checksum.update(buffer.duplicate().position(dataStart + slot * recordSize)
+                .limit(dataStart + (slot + 1) * recordSize));
+        return (int) checksum.getValue() | LIVE_CHECKSUM_BIT;
+    }
+
+    //-----------------------------
+    /**
+     * Computes the CRC32C of everything before the slots except the header checksum itself.
+     *
+     * @return (out) int - checksum of the page header.
+     */
+    //---
+    private int headerChecksum() {
+        checksum.reset();
+        checksum.update(buffer.duplicate().position(0).limit(HEADER_CHECKSUM_OFFSET));
+        checksum.update(buffer.duplicate().position(RECORD_COUNT_OFFSET).limit(dataStart));
+        return (int) checksum.getValue();
+    }
+
+    //-----------------------------
+    /**
+     * Gets the file offset of a slot.
+     *
+     * @param slot (in) int - slot index.
+     * @return (out) long - byte offset of the record in the file.
+     */
+    //---
+    public long recordOffset(int slot) {
+        return offsetOf(pageNumber, slot);
+    }
+
+    //-----------------------------
+    /**
+     * Gets the file offset of a slot of any page of the same layout, without loading it.
+     *
+     * @param pageNumber (in) long - page of the slot.
+     * @param slot (in) int - slot index.
+     * @return (out) long - byte offset of the record in the file.
+     */
+    //---
+    public long offsetOf(long pageNumber, int slot) {
+        return pageNumber * PAGE_SIZE + dataStart + (long) slot * recordSize;
+    }
+
+    //-----------------------------
+    /**
+     * Gets the slot index of a file offset inside this page, rounding up to the next slot when
+     * the offset is not at the start of a slot.
+     *
+     * @param offset (in) long - byte offset in the file.
+     * @return (out) int - slot index, slotCount when the offset is past the last slot.
+     */
+    //---
+    public int slotAtOrAfter(long offset) {
+        long inPage = offset - pageNumber * PAGE_SIZE - dataStart;
+
+        if (inPage <= 0) {
+            return 0;
+        }
+        return (int) Math.min((inPage + recordSize - 1) / recordSize, slotCount);
+    }
+
+    //-----------------------------
+    /**
+     * Gets a reader over the loaded page, positioned at a slot.
+     *
+     * @param slot (in) int - slot index.
+     * @return (out) RecordReader - reader positioned at the record.
+     */
+    //---
+    public RecordReader getReader(int slot) {
+        if (reader == null) {
+            reader = new RecordReader(buffer, pageNumber * PAGE_SIZE);
+        }
+        reader.seek(recordOffset(slot));
+        return reader;
+    }
+}
@@ -0,0 +1,334 @@
+/**
+ * File: RecordReader.java
+ * Revision History:
+ * - 2026-10-18: Page buffered reader replacing per character RandomAccessFile reads
+ * - 2026-10-18: Pages are loaded from a StorageBackend
+ * - 2026-10-18: readByte and readByteChars for the v2 record layout
+ * - 2026-10-18: Readers over an already loaded page, readShort and readBytes
+ * - 2026-10-18: fieldEquals and fieldByte look at a field of a record without decoding it
+ * Purpose:
+ * RecordReader class decodes records from a data file through a page sized buffer. A page
+ * of the file is loaded with a single read from the file's StorageBackend and all primitive reads
+ * are served from that buffer, so decoding a record no longer costs one system call per character.
+ * The reader keeps its own position and never moves the file pointer of the underlying channel.
+ * A reader can also wrap a page that is already in memory, it then only serves that page.
+ */
+package ca.boggleztracker.model;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+public class RecordReader {
+    //=============================
+    // Constants and static fields
+    //=============================
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    //=============================
+    // Member fields
+    //=============================
+    private final StorageBackend storage; // null when wrapping a loaded page
+    private final ByteBuffer page;
+    private long pageStart; // file position of the first buffered byte
+    private long position;
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * One argument constructor for RecordReader using the default page size.
+     *
+     * @param storage (in) StorageBackend - backend of the data file to read from.
+     */
+    //---
+    public RecordReader(StorageBackend storage) {
+        this(storage, DEFAULT_BUFFER_SIZE);
+    }
+
+    //-----------------------------
+    /**
+     * Two argument constructor for RecordReader reading straight from a file channel.
+     *
+     * @param channel (in) FileChannel - channel of the data file to read from.
+     * @param pageSize (in) int - number of bytes loaded per read.
+     */
+    //---
+    public RecordReader(FileChannel channel, int pageSize) {
+        this(new ChannelStorage(channel), pageSize);
+    }
+
+    //-----------------------------
+    /**
+     * Two argument constructor for RecordReader.
+     *
+     * @param storage (in) StorageBackend - backend of the data file to read from.
+     * @param pageSize (in) int - number of bytes loaded per read.
+     */
+    //---
+    public RecordReader(StorageBackend storage, int pageSize) {
+        this.storage = storage;
+        this.page = ByteBuffer.allocate(pageSize);
+        this.page.limit(0);
+        this.pageStart = 0;
+        this.position = 0;
+    }
+
+    //-----------------------------
+    /**
+     * Two argument constructor for RecordReader over bytes that are already loaded.
+     * Reads outside of the buffer fail with an EOFException.
+     *
+     * @param page (in) ByteBuffer - loaded bytes, from index 0 to its limit.
+     * @param pageStart (in) long - file position of the first byte of the buffer.
+     */
+    //---
+    public RecordReader(ByteBuffer page, long pageStart) {
+        this.storage = null;
+        this.page = page;
+        this.pageStart = pageStart;
+        this.position = pageStart;
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Moves the reader to a new position in the file. The buffered page is kept, so
+     * seeking inside the current page costs no I/O.
+     *
+     * @param position (in) long - byte position in file.
+     */
+    //---
+    public void seek(long position) {
+        this.position = position;
+    }
+
+    //-----------------------------
+    /**
+     * Gets the current position of the reader.
+     *
+     * @return (out) long - byte position in file.
+     */
+    //---
+    public long getFilePointer() {
+        return position;
+    }
+
+    //-----------------------------
+    /**
+     * Drops the buffered page. Must be called after the file is written to, so stale
+     * bytes are not served from the buffer.
+     */
+    //---
+    public void invalidate() {
+        if (storage == null) {
+            return;
+        }
+        page.limit(0);
+        pageStart = 0;
+    }
+
+    //-----------------------------
+    /**
+     * Reads a 2 byte unsigned short.
+     *
+     * @return (out) int - short read from file, between 0 and 65535.
+     * @throws IOException when end of file is reached.
+     */
+    //---
+    public int readShort() throws IOException {
+        int index = require(Short.BYTES);
+        position += Short.BYTES;
+        return page.getShort(index) & 0xFFFF;
+    }
+
+    //-----------------------------
+    /**
+     * Reads a 4 byte integer.
+     *
+     * @return (out) int - integer read from file.
+     * @throws IOException when end of file is reached.
+     */
+    //---
+    public int readInt() throws IOException {
+        int index = require(Integer.BYTES);
+        position += Integer.BYTES;
+        return page.getInt(index);
+    }
+
+    //-----------------------------
+    /**
+     * Reads an 8 byte long.
+     *
+     * @return (out) long - long read from file.
+     * @throws IOException when end of file is reached.
+     */
+    //---
+    public long readLong() throws IOException {
+        int index = require(Long.BYTES);
+        position += Long.BYTES;
+        return page.getLong(index);
+    }
+
+    //-----------------------------
+    /**
+     * Reads a single unsigned byte.
+     *
+     * @return (out) int - byte read from file, between 0 and 255.
+     * @throws IOException when end of file is reached.
+     */
+    //---
+    public int readByte() throws IOException {
+        int index = require(Byte.BYTES);
+        position += Byte.BYTES;
+        return page.get(index) & 0xFF;
+    }
+
+    //-----------------------------
+    /**
+     * Reads a 2 byte character.
+     *
+     * @return (out) char - character read from file.
+     * @throws IOException when end of file is reached.
+     */
+    //---
+    public char readChar() throws IOException {
+        int index = require(Character.BYTES);
+        position += Character.BYTES;
+        return page.getChar(index);
+    }
+
+    //-----------------------------
+    /**
+     * Reads a fixed number of 2 byte characters.
+     *
+     * @param numChars (in) int - number of characters to read.
+     * @return (out) char[] - characters read from file.
+     * @throws IOException when end of file is reached.
+     */
+    //---
+    public char[] readChars(int numChars) throws IOException {
+        char[] temp = new char[numChars];
+        int index = require(numChars * Character.BYTES);
+
+        for (int i = 0; i < numChars; i++) {
+            temp[i] = page.getChar(index + i * Character.BYTES);
+        }
+        position += (long) numChars * Character.BYTES;
+        return temp;
+    }
+
+    //-----------------------------
+    /**
+     * Reads a fixed number of 1 byte (ISO-8859-1) characters.
+     *
+     * @param numChars (in) int - number of characters to read.
+     * @return (out) char[] - characters read from file.
+     * @throws IOException when end of file is reached.
+     */
+    //---
+    public char[] readByteChars(int numChars) throws IOException {
+        char[] temp = new char[numChars];
+        int index = require(numChars);
+
+        for (int i = 0; i < numChars; i++) {
+            temp[i] = (char) (page.get(index + i) & 0xFF);
+        }
+        position += numChars;
+        return temp;
+    }
+
+    //-----------------------------
+    /**
+     * Reads raw bytes into an array.
+     *
+     * @param bytes (out) byte[] - array filled with the bytes read.
+     * @throws IOException when end of file is reached.
+     */
+    //---
+    public void readBytes(byte[] bytes) throws IOException {
+        int index = require(bytes.length);
+        page.get(index, bytes);
+        position += bytes.length;
+    }
+
+    //-----------------------------
+    /**
+     * Compares a field of the record at the current position with encoded bytes, without
+     * copying the field or moving the position.
+     *
+     * @param offset (in) int - index of the field in the record.
+     * @param value (in) byte[] - encoded field value.
+     * @return (out) boolean - true if the field holds exactly the value.
+     * @throws IOException when end of file is reached.
+     */
+    //---
+    public boolean fieldEquals(int offset, byte[] value) throws IOException {
+        int index = require(offset + value.length) + offset;
+
+        for (int i = 0; i < value.length; i++) {
+            if (page.get(index + i) != value[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //-----------------------------
+    /**
+     * Gets a byte of the record at the current position, without moving the position.
+     *
+     * @param offset (in) int - index of the byte in the record.
+     * @return (out) int - byte, between 0 and 255.
+     * @throws IOException when end of file is reached.
+     */
+    //---
+    public int fieldByte(int offset) throws IOException {
+        return page.get(require(offset + Byte.BYTES) + offset) & 0xFF;
+    }
+
+    //-----------------------------
+    /**
+     * Makes sure the requested bytes at the current position are buffered, loading the
+     * page starting at the current position when they are not.
+     *
+     * @param length (in) int - number of bytes needed.
+     * @return (out) int - index of the current position inside the buffer.
+     * @throws IOException when fewer than length bytes are left in the file.
+     */
+    //---
+    private int require(int length) throws IOException {
+        boolean buffered = position >= pageStart && position + length <= pageStart + page.limit();
+
+        if (!buffered) {
+            if (storage == null) {
+                throw new EOFException();
+            }
+            fill();
+            if (page.limit() < length) {
+                throw new EOFException();
+            }
+        }
+        return (int) (position - pageStart);
+    }
+
+    //-----------------------------
+    /**
+     * Loads the page starting at the current position.
+     *
+     * @throws IOException
+     */
+    //---
+    private void fill() throws IOException {
+        page.clear();
+        pageStart = position;
+        storage.read(pageStart, page);
+        page.flip();
+    }
+}
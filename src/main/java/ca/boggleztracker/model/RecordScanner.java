@@ -0,0 +1,110 @@
+/**
+ * File: RecordScanner.java
+ * Revision History:
+ * - 2026-10-18: Page at a time iteration over occupied slots
+ * - 2026-10-18: Raw bytes of the current record
+ * Purpose:
+ * RecordScanner class iterates the records of a RecordFile in file order. Pages are loaded one
+ * at a time with a single read and free slots are skipped using the page's slot bitmap, so a
+ * scan costs one I/O per page instead of one seek per record.
+ */
+package ca.boggleztracker.model;
+
+import java.io.IOException;
+
+public class RecordScanner {
+    //=============================
+    // Member fields
+    //=============================
+    private final RecordFile file;
+    private final RecordPage page;
+    private final long fromOffset;
+    private long pageNumber;
+    private int slot;
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * Two argument constructor for RecordScanner.
+     *
+     * @param file (in) RecordFile - file to be scanned.
+     * @param fromOffset (in) long - the scan starts at the first record at or after this offset.
+     */
+    //---
+    public RecordScanner(RecordFile file, long fromOffset) {
+        this.file = file;
+        this.page = file.newPage();
+        this.fromOffset = fromOffset;
+        this.pageNumber = Math.max(fromOffset / RecordPage.PAGE_SIZE, 1) - 1;
+        this.slot = -1;
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Moves to the next occupied slot, loading the next page when the current one is done.
+     *
+     * @return (out) boolean - false when there are no more records.
+     * @throws IOException
+     */
+    //---
+    public boolean next() throws IOException {
+        while (true) {
+            if (slot >= 0) {
+                slot = page.nextOccupied(slot + 1);
+                if (slot != -1) {
+                    return true;
+                }
+            }
+
+            pageNumber++;
+            if (pageNumber >= file.getPageCount()) {
+                return false;
+            }
+            file.readPage(pageNumber, page);
+            slot = page.nextOccupied(page.slotAtOrAfter(fromOffset));
+            if (slot != -1) {
+                return true;
+            }
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Gets the file offset of the current record.
+     *
+     * @return (out) long - byte offset of the record.
+     */
+    //---
+    public long getOffset() {
+        return page.recordOffset(slot);
+    }
+
+    //-----------------------------
+    /**
+     * Gets a reader positioned at the current record, served from the loaded page.
+     *
+     * @return (out) RecordReader - reader of the current record.
+     */
+    //---
+    public RecordReader getReader() {
+        return page.getReader(slot);
+    }
+
+    //-----------------------------
+    /**
+     * Copies the encoded bytes of the current record.
+     *
+     * @return (out) byte[] - record bytes.
+     */
+    //---
+    public byte[] getRecordBytes() {
+        return page.getRecordBytes(slot);
+    }
+}
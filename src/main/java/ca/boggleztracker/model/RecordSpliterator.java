@@ -0,0 +1,145 @@
+/**
+ * File: RecordSpliterator.java
+ * Revision History:
+ * - 2026-10-18: Spliterator over a range of data pages of a record file
+ * - 2026-10-18: Records not selected by a filter on their encoded bytes are not decoded
+ * Purpose:
+ * RecordSpliterator class is the source of the record streams of a RecordFile. It walks the
+ * occupied slots of a range of data pages like RecordScanner, one read per page, and decodes a
+ * record only when the stream asks for it, so a stream that stops early reads no further pages.
+ * A filter, e.g. a RecordFilter, is checked on the encoded record first, and records it does not
+ * select are skipped without being decoded.
+ * A range is split into two halves of its pages, so a parallel stream reads disjoint parts of
+ * the file, each with its own page buffer. I/O errors are thrown as UncheckedIOException, as
+ * streams cannot throw checked exceptions.
+ */
+package ca.boggleztracker.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+public class RecordSpliterator<T> implements Spliterator<T> {
+    //=============================
+    // Member fields
+    //=============================
+    private final RecordFile file;
+    private final RecordMatcher filter; // null to select every record
+    private final RecordDecoder<T> decoder;
+    private final RecordPage page;
+    private long pageNumber; // page loaded, or the page before the range
+    private long endPage; // first page after the range
+    private int slot; // -1 until the first page of the range is loaded
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * Five argument constructor for RecordSpliterator.
+     *
+     * @param file (in) RecordFile - file to be streamed.
+     * @param filter (in) RecordMatcher - selects the records to be decoded, or null for all.
+     * @param decoder (in) RecordDecoder<T> - turns a record into an object.
+     * @param startPage (in) long - first data page of the range, at least 1.
+     * @param endPage (in) long - first page after the range.
+     */
+    //---
+    public RecordSpliterator(RecordFile file, RecordMatcher filter, RecordDecoder<T> decoder, long startPage,
+                             long endPage) {
+        this.file = file;
+        this.filter = filter;
+        this.decoder = decoder;
+        this.page = file.newPage();
+        this.pageNumber = startPage - 1;
+        this.endPage = endPage;
+        this.slot = -1;
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Decodes the next selected record of the range and passes it to an action.
+     *
+     * @param action (in) Consumer<? super T> - action for the record.
+     * @return (out) boolean - false when there are no more records.
+     */
+    //---
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        try {
+            while (true) {
+                if (slot >= 0) {
+                    slot = page.nextOccupied(slot + 1);
+                }
+                while (slot == -1) {
+                    if (pageNumber + 1 >= endPage) {
+                        return false;
+                    }
+                    pageNumber++;
+                    file.readPage(pageNumber, page);
+                    slot = page.nextOccupied(0);
+                }
+
+                RecordReader reader = page.getReader(slot);
+                if (filter == null || filter.matches(reader)) {
+                    action.accept(decoder.decode(reader));
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Splits off the first half of the range, as the records are ordered. Only a range that
+     * was not read from yet is split.
+     *
+     * @return (out) Spliterator<T> - spliterator of the first half of the pages, or null if
+     *                                fewer than two pages are left.
+     */
+    //---
+    @Override
+    public Spliterator<T> trySplit() {
+        long firstPage = pageNumber + 1;
+        if (slot != -1 || endPage - firstPage < 2) {
+            return null;
+        }
+        long middle = firstPage + (endPage - firstPage) / 2;
+        RecordSpliterator<T> first = new RecordSpliterator<>(file, filter, decoder, firstPage, middle);
+        pageNumber = middle - 1;
+        return first;
+    }
+
+    //-----------------------------
+    /**
+     * Estimates the records left, assuming the pages not yet read are full.
+     *
+     * @return (out) long - slots of the pages not yet read.
+     */
+    //---
+    @Override
+    public long estimateSize() {
+        return (endPage - pageNumber - 1) * page.getSlotCount();
+    }
+
+    //-----------------------------
+    /**
+     * Gets the characteristics of the record streams: records come in file order and are never
+     * null.
+     *
+     * @return (out) int - ORDERED and NONNULL.
+     */
+    //---
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+}
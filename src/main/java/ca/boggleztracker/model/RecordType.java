@@ -0,0 +1,87 @@
+/**
+ * File: RecordType.java
+ * Revision History:
+ * - 2026-10-18: Record file declarations
+ * - 2026-10-18: Data directory set by the boggleztracker.dir system property
+ * Purpose:
+ * RecordType enum lists the five record files of the tracker together with the size of one
+ * record in the current on-disk format. The files are kept in the working directory, or in the
+ * directory named by the boggleztracker.dir system property, e.g. for tests.
+ */
+package ca.boggleztracker.model;
+
+import java.nio.file.Paths;
+
+public enum RecordType {
+    //=============================
+    // Constants
+    //=============================
+    REQUESTER("requester.dat", Requester.BYTES_SIZE_REQUESTER),
+    PRODUCT("product.dat", Product.BYTES_SIZE_PRODUCT),
+    RELEASE("release.dat", Release.BYTES_SIZE_RELEASE),
+    CHANGE_ITEM("change-item.dat", ChangeItem.BYTES_SIZE_CHANGE_ITEM),
+    CHANGE_REQUEST("change-request.dat", ChangeRequest.BYTES_SIZE_CHANGE_REQUEST);
+
+    public static final String DIRECTORY_PROPERTY = "boggleztracker.dir"; // directory of the data files
+
+    //=============================
+    // Member fields
+    //=============================
+    private final String fileName;
+    private final int recordSize;
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * Two argument constructor for RecordType.
+     *
+     * @param fileName (in) String - name of the data file.
+     * @param recordSize (in) long - bytes of one record.
+     */
+    //---
+    RecordType(String fileName, long recordSize) {
+        this.fileName = fileName;
+        this.recordSize = (int) recordSize;
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Getter method for the data file name, in the data directory.
+     *
+     * @return (out) String - path of the data file.
+     */
+    //---
+    public String getFileName() {
+        return dataPath(fileName);
+    }
+
+    //-----------------------------
+    /**
+     * Gets the path of a file in the data directory.
+     *
+     * @param fileName (in) String - name of the file.
+     * @return (out) String - path of the file in the data directory.
+     */
+    //---
+    public static String dataPath(String fileName) {
+        return Paths.get(System.getProperty(DIRECTORY_PROPERTY, ""), fileName).toString();
+    }
+
+    //-----------------------------
+    /**
+     * Getter method for the record size.
+     *
+     * @return (out) int - bytes of one record.
+     */
+    //---
+    public int getRecordSize() {
+        return recordSize;
+    }
+}
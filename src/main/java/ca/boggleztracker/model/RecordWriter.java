@@ -0,0 +1,29 @@
+/**
+ * File: RecordWriter.java
+ * Revision History:
+ * - 2026-10-18: Function declarations
+ * Purpose:
+ * RecordWriter functional interface defines a contract for encoding a record. The write methods
+ * of the record classes match it, so RecordFile can take them as method references
+ * (e.g. requester::writeRequester) and decide where the encoded bytes are stored.
+ */
+package ca.boggleztracker.model;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+public interface RecordWriter {
+    //=============================
+    // Abstract Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Encodes a record.
+     *
+     * @param file (in) DataOutput - output the record is encoded to.
+     * @throws IOException
+     */
+    //---
+    void write(DataOutput file) throws IOException;
+}
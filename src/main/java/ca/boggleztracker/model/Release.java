@@ -6,6 +6,15 @@
  * - 2024-07-06: writeRelease implementation
  * - 2024-07-08: readRelease implementation
  * - 2024-07-25: documentation changes
+ * - 2026-10-18: readRelease and releaseExists decode from a buffered RecordReader
+ * - 2026-10-18: v2 record layout with 1 byte characters and epoch day date
+ * - 2026-10-18: releaseExists scans the paged record file
+ * - 2026-10-18: releaseExists skips the scan for IDs the Bloom filter has never seen
+ * - 2026-10-18: offset of the product name, for the release by product index
+ * - 2026-10-18: offset of the date and date getter, for the release date index
+ * - 2026-10-18: releaseExists streams only the release IDs and stops at the first match
+ * - 2026-10-18: releaseExists compares the encoded release IDs without decoding them
+ * - 2026-10-18: releaseExists seeks the release ID in the release ID index instead of scanning
  * Purpose:
  * Release class represents a release of a product in the system and is responsible for
  * managing the change items of the release. The class stores data such as release ID,
@@ -13,7 +22,7 @@
  */
 package ca.boggleztracker.model;
 
-import java.io.EOFException;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.time.LocalDate;
@@ -24,7 +33,10 @@ public class Release {
     // Constants and static fields
     //=============================
     public static final int MAX_RELEASE_ID = 8; // used to limit user input length in TextUI
-    public static final long BYTES_SIZE_RELEASE = 56; // used to calculate position in scenarioManager
+    public static final int PRODUCT_OFFSET = 0; // index of the product name in the encoded record
+    public static final int RELEASE_ID_OFFSET = 10; // index of the release ID in the encoded record
+    public static final int DATE_OFFSET = 18; // index of the epoch day date in the encoded record
+    public static final long BYTES_SIZE_RELEASE = 22; // used to calculate position in scenarioManager
 
     //=============================
     // Member fields
@@ -84,53 +96,74 @@ public class Release {
         return releaseID;
     }
 
+    //-----------------------------
+    /**
+     * returns the date of the object that it calls from.
+     * @return (out) LocalDate - date of the release, can be null.
+     */
+    //---
+    public LocalDate getDate() {
+        return date;
+    }
+
     //-----------------------------
     /**
      * Writes the contents of release object to the release file.
      *
-     * @param file (in) RandomAccessFile - The file to read from.
+     * @param file (in) DataOutput - The file to write to.
      */
     //---
-    public void writeRelease(RandomAccessFile file) throws IOException {
-        file.writeChars(new String(productName));
-        file.writeChars(new String(releaseID));
-        file.writeChars(date.toString()); // format to yyyy-mm-dd (20 bytes)
+    public void writeRelease(DataOutput file) throws IOException {
+        ScenarioManager.writeCharsToFile(file, productName);
+        ScenarioManager.writeCharsToFile(file, releaseID);
+        ScenarioManager.writeDateToFile(file, date);
     }
 
     //-----------------------------
     /**
-     * Checks file to see if an exact permutation of the three ProductRelease parameters already exists.
+     * Checks the release ID index to see if a release ID already exists.
      *
-     * @param file (in) RandomAccessFile - The file to read from.
+     * @param idFilter (in) BloomFilterIndex - Bloom filter on the release IDs.
+     * @param idIndex (in) BTreeIndex - non unique index on the release IDs.
      * @param releaseID (in) String - ID of the release version.
      * @return (out) boolean - true if the release already exists
      */
     //---
-    public static boolean releaseExists(RandomAccessFile file, String releaseID) throws IOException {
-        Release release = new Release();
-        boolean releaseExists = false;
-        char[] temp = ScenarioManager.padCharArray(releaseID.toCharArray(), MAX_RELEASE_ID);
-        file.seek(0);
-        try {
-            while (true) {
-                release.readRelease(file);
-                if (Arrays.equals(temp, release.getReleaseID()))  {
-                    releaseExists = true;
-                }
-            }
-        } catch (EOFException e) {
-            return releaseExists;
+    public static boolean releaseExists(BloomFilterIndex idFilter, BTreeIndex idIndex, String releaseID)
+            throws IOException {
+        if (releaseID.length() > MAX_RELEASE_ID) {
+            return false;
         }
+        byte[] key = ScenarioManager.encodeChars(releaseID, MAX_RELEASE_ID);
+        if (!idFilter.mightContain(key)) {
+            return false;
+        }
+        BPlusTree.Cursor cursor = idIndex.seek(key, 0);
+        return cursor.next() && cursor.keyStartsWith(key);
     }
 
     //-----------------------------
     /**
-     * Reads individual release record from file
+     * Reads individual release record from file at the current file pointer.
      *
      * @param file (in) RandomAccessFile - The file to read from.
      */
     //---
-    public void readRelease(RandomAccessFile file) throws IOException{
+    public void readRelease(RandomAccessFile file) throws IOException {
+        RecordReader reader = new RecordReader(file.getChannel(), (int) BYTES_SIZE_RELEASE);
+        reader.seek(file.getFilePointer());
+        readRelease(reader);
+        file.seek(reader.getFilePointer());
+    }
+
+    //-----------------------------
+    /**
+     * Reads individual release record from a buffered reader.
+     *
+     * @param file (in) RecordReader - The buffered reader of the file to read from.
+     */
+    //---
+    public void readRelease(RecordReader file) throws IOException{
         productName = ScenarioManager.readCharsFromFile(file, Product.MAX_PRODUCT_NAME);
         releaseID = ScenarioManager.readCharsFromFile(file, Release.MAX_RELEASE_ID);
         date = ScenarioManager.readDateFromFile(file);
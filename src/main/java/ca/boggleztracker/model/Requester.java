@@ -6,13 +6,18 @@
  * - 2024-07-06: writeRequester implementation
  * - 2024-07-08: readRequester implementation
  * - 2024-07-10: requesterExists implementation
+ * - 2026-10-18: readRequester and requesterExists decode from a buffered RecordReader
+ * - 2026-10-18: v2 record layout with 1 byte characters
+ * - 2026-10-18: requesterExists scans the paged record file
+ * - 2026-10-18: requesterExists looks the email up in the email index
+ * - 2026-10-18: requesterExists skips the index for emails the Bloom filter has never seen
  * Purpose:
  * Requester class represents a requester in the system, storing data such as email,
  * name, phone number, and department.
  */
 package ca.boggleztracker.model;
 
-import java.io.EOFException;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.util.Arrays;
@@ -22,10 +27,11 @@ public class Requester {
     // Static fields
     //=============================
     public static final int MAX_EMAIL = 24;
+    public static final int EMAIL_OFFSET = 0; // index of the email in the encoded record
     public static final int MAX_NAME = 30;
     public static final int MAX_DEPARTMENT = 2;
     public static final int PHONE_NUMBER_LENGTH = 11;
-    public static final long BYTES_SIZE_REQUESTER = 120;
+    public static final long BYTES_SIZE_REQUESTER = 64;
 
     //=============================
     // Member fields
@@ -109,50 +115,57 @@ public class Requester {
     /**
      * Writes the contents of Request object to the Request file.
      *
-     * @param file (in) RandomAccessFile - The file to read from.
+     * @param file (in) DataOutput - The file to write to.
      */
     //---
-    public void writeRequester(RandomAccessFile file) throws IOException {
-        file.writeChars(new String(email));
-        file.writeChars(new String(name));
+    public void writeRequester(DataOutput file) throws IOException {
+        ScenarioManager.writeCharsToFile(file, email);
+        ScenarioManager.writeCharsToFile(file, name);
         file.writeLong(phoneNumber);
-        file.writeChars(new String(department));
+        ScenarioManager.writeCharsToFile(file, department);
     }
 
     //-----------------------------
     /**
-     * Checks file to see if email already exists.
+     * Checks the email index to see if email already exists.
      *
-     * @param file (in) RandomAccessFile - The file to read from.
+     * @param emailFilter (in) BloomFilterIndex - Bloom filter on the requester emails.
+     * @param emailIndex (in) BTreeIndex - unique index on the requester emails.
      * @param email (in) String - The email to be checked.
      * @return (out) boolean - Whether the requester exists.
      */
     //---
-    public static boolean requesterExists(RandomAccessFile file, String email) throws IOException {
-        Requester requester = new Requester();
-        boolean requesterExists = false;
-        char[] temp = ScenarioManager.padCharArray(email.toCharArray(), MAX_EMAIL);
-        file.seek(0);
-        try {
-            while (true) {
-                requester.readRequester(file);
-                if (Arrays.equals(temp, requester.getEmail())) {
-                    requesterExists = true;
-                }
-            }
-        } catch (EOFException e) {
-            return requesterExists;
+    public static boolean requesterExists(BloomFilterIndex emailFilter, BTreeIndex emailIndex, String email)
+            throws IOException {
+        if (email.length() > MAX_EMAIL) {
+            return false;
         }
+        byte[] key = ScenarioManager.encodeChars(email, MAX_EMAIL);
+        return emailFilter.mightContain(key) && emailIndex.find(key) != -1;
     }
 
     //-----------------------------
     /**
-     * Reads individual requester record from file
+     * Reads individual requester record from file at the current file pointer.
      *
      * @param file (in) RandomAccessFile - The file to read from.
      */
     //---
-    public void readRequester(RandomAccessFile file) throws IOException{
+    public void readRequester(RandomAccessFile file) throws IOException {
+        RecordReader reader = new RecordReader(file.getChannel(), (int) BYTES_SIZE_REQUESTER);
+        reader.seek(file.getFilePointer());
+        readRequester(reader);
+        file.seek(reader.getFilePointer());
+    }
+
+    //-----------------------------
+    /**
+     * Reads individual requester record from a buffered reader.
+     *
+     * @param file (in) RecordReader - The buffered reader of the file to read from.
+     */
+    //---
+    public void readRequester(RecordReader file) throws IOException{
         email = ScenarioManager.readCharsFromFile(file, Requester.MAX_EMAIL);
         name = ScenarioManager.readCharsFromFile(file, Requester.MAX_NAME);
         phoneNumber = file.readLong();
@@ -0,0 +1,639 @@
+/**
+ * File: RoaringBitmap.java
+ * Revision History:
+ * - 2026-10-18: Compressed bitmap of record numbers
+ * Purpose:
+ * RoaringBitmap class is a compressed set of non negative ints, e.g. the numbers of the records
+ * that have one status. The values are split on their high 16 bits into containers of up to
+ * 65536 values each. A container holding at most ARRAY_MAX values is a sorted array of their low
+ * 16 bits, a fuller one is a plain bitmap of 1024 longs, so sparse and dense sets both stay small
+ * and intersections work a container at a time.
+ *
+ * Serialized layout: container count (4 bytes), then for every container its high bits
+ * (2 bytes), its cardinality (4 bytes) and either its sorted low bits (2 bytes each) or,
+ * above ARRAY_MAX values, its bitmap words (8 bytes each).
+ */
+package ca.boggleztracker.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class RoaringBitmap {
+    //=============================
+    // Constants and static fields
+    //=============================
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 65536 / Long.SIZE;
+    private static final int MIN_CONTAINERS = 4;
+    private static final int MIN_ARRAY = 4;
+
+    //=============================
+    // Member fields
+    //=============================
+    private char[] keys; // high 16 bits of the values of each container, ascending
+    private Container[] containers;
+    private int size; // containers in use
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * Default constructor for an empty bitmap.
+     */
+    //---
+    public RoaringBitmap() {
+        this.keys = new char[MIN_CONTAINERS];
+        this.containers = new Container[MIN_CONTAINERS];
+        this.size = 0;
+    }
+
+    //=============================
+    // Static Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Intersects two bitmaps.
+     *
+     * @param a (in) RoaringBitmap - first bitmap.
+     * @param b (in) RoaringBitmap - second bitmap.
+     * @return (out) RoaringBitmap - new bitmap of the values in both.
+     */
+    //---
+    public static RoaringBitmap and(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0;
+        int j = 0;
+
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                Container c = Container.and(a.containers[i], b.containers[j]);
+                if (c.cardinality > 0) {
+                    result.append(a.keys[i], c);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    //-----------------------------
+    /**
+     * Unites two bitmaps.
+     *
+     * @param a (in) RoaringBitmap - first bitmap.
+     * @param b (in) RoaringBitmap - second bitmap.
+     * @return (out) RoaringBitmap - new bitmap of the values in either.
+     */
+    //---
+    public static RoaringBitmap or(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0;
+        int j = 0;
+
+        while (i < a.size || j < b.size) {
+            if (j == b.size || (i < a.size && a.keys[i] < b.keys[j])) {
+                result.append(a.keys[i], a.containers[i].copy());
+                i++;
+            } else if (i == a.size || a.keys[i] > b.keys[j]) {
+                result.append(b.keys[j], b.containers[j].copy());
+                j++;
+            } else {
+                result.append(a.keys[i], Container.or(a.containers[i], b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    //-----------------------------
+    /**
+     * Removes the values of one bitmap from another.
+     *
+     * @param a (in) RoaringBitmap - bitmap to take values from.
+     * @param b (in) RoaringBitmap - values to leave out.
+     * @return (out) RoaringBitmap - new bitmap of the values in a but not in b.
+     */
+    //---
+    public static RoaringBitmap andNot(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap result = new RoaringBitmap();
+        int j = 0;
+
+        for (int i = 0; i < a.size; i++) {
+            while (j < b.size && b.keys[j] < a.keys[i]) {
+                j++;
+            }
+            Container c = j < b.size && b.keys[j] == a.keys[i]
+                    ? Container.andNot(a.containers[i], b.containers[j])
+                    : a.containers[i].copy();
+            if (c.cardinality > 0) {
+                result.append(a.keys[i], c);
+            }
+        }
+        return result;
+    }
+
+    //-----------------------------
+    /**
+     * Decodes a bitmap written by writeTo.
+     *
+     * @param buffer (in/out) ByteBuffer - buffer positioned at the bitmap, left after it.
+     * @return (out) RoaringBitmap - decoded bitmap.
+     */
+    //---
+    public static RoaringBitmap read(ByteBuffer buffer) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        int count = buffer.getInt();
+
+        for (int i = 0; i < count; i++) {
+            char key = buffer.getChar();
+            Container c = new Container();
+            c.cardinality = buffer.getInt();
+            if (c.cardinality <= ARRAY_MAX) {
+                c.array = new char[Math.max(c.cardinality, MIN_ARRAY)];
+                buffer.asCharBuffer().get(c.array, 0, c.cardinality);
+                buffer.position(buffer.position() + c.cardinality * Character.BYTES);
+            } else {
+                c.array = null;
+                c.bits = new long[BITMAP_WORDS];
+                buffer.asLongBuffer().get(c.bits);
+                buffer.position(buffer.position() + BITMAP_WORDS * Long.BYTES);
+            }
+            bitmap.append(key, c);
+        }
+        return bitmap;
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Adds a value.
+     *
+     * @param value (in) int - value of 0 or more.
+     */
+    //---
+    public void add(int value) {
+        char key = (char) (value >>> 16);
+        int index = indexOf(key);
+
+        if (index < 0) {
+            index = -index - 1;
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                containers = Arrays.copyOf(containers, size * 2);
+            }
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(containers, index, containers, index + 1, size - index);
+            keys[index] = key;
+            containers[index] = new Container();
+            size++;
+        }
+        containers[index].add((char) value);
+    }
+
+    //-----------------------------
+    /**
+     * Removes a value, dropping its container once it is empty.
+     *
+     * @param value (in) int - value of 0 or more.
+     */
+    //---
+    public void remove(int value) {
+        int index = indexOf((char) (value >>> 16));
+
+        if (index >= 0) {
+            containers[index].remove((char) value);
+            if (containers[index].cardinality == 0) {
+                System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+                System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+                size--;
+                containers[size] = null;
+            }
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Checks whether a value is in the bitmap.
+     *
+     * @param value (in) int - value of 0 or more.
+     * @return (out) boolean - true if the value was added.
+     */
+    //---
+    public boolean contains(int value) {
+        int index = indexOf((char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    //-----------------------------
+    /**
+     * Gets the number of values.
+     *
+     * @return (out) long - values in the bitmap.
+     */
+    //---
+    public long getCardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    //-----------------------------
+    /**
+     * Finds the smallest value at or after a value, for iterating in ascending order.
+     *
+     * @param from (in) int - value to start at, 0 or more.
+     * @return (out) int - next value in the bitmap, or -1 if there is none.
+     */
+    //---
+    public int nextValue(int from) {
+        char key = (char) (from >>> 16);
+        int index = indexOf(key);
+        int low = from & 0xFFFF;
+
+        if (index < 0) {
+            index = -index - 1;
+            low = 0;
+        }
+        for (; index < size; index++, low = 0) {
+            int next = containers[index].next(low);
+            if (next != -1) {
+                return keys[index] << 16 | next;
+            }
+        }
+        return -1;
+    }
+
+    //-----------------------------
+    /**
+     * Gets the bytes writeTo needs.
+     *
+     * @return (out) int - serialized size in bytes.
+     */
+    //---
+    public int serializedSize() {
+        int bytes = Integer.BYTES;
+        for (int i = 0; i < size; i++) {
+            int cardinality = containers[i].cardinality;
+            bytes += Character.BYTES + Integer.BYTES
+                    + (cardinality <= ARRAY_MAX ? cardinality * Character.BYTES : BITMAP_WORDS * Long.BYTES);
+        }
+        return bytes;
+    }
+
+    //-----------------------------
+    /**
+     * Encodes the bitmap.
+     *
+     * @param buffer (out) ByteBuffer - buffer with serializedSize bytes remaining.
+     */
+    //---
+    public void writeTo(ByteBuffer buffer) {
+        buffer.putInt(size);
+        for (int i = 0; i < size; i++) {
+            Container c = containers[i];
+            buffer.putChar(keys[i]);
+            buffer.putInt(c.cardinality);
+            if (c.cardinality <= ARRAY_MAX) {
+                for (int j = 0; j < c.cardinality; j++) {
+                    buffer.putChar(c.array[j]);
+                }
+            } else {
+                for (long word : c.bits) {
+                    buffer.putLong(word);
+                }
+            }
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Adds a container after the last one.
+     *
+     * @param key (in) char - high bits of the container, above those of the last one.
+     * @param container (in) Container - non empty container.
+     */
+    //---
+    private void append(char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        keys[size] = key;
+        containers[size] = container;
+        size++;
+    }
+
+    //-----------------------------
+    /**
+     * Finds the container of some high bits.
+     *
+     * @param key (in) char - high 16 bits of a value.
+     * @return (out) int - index of the container, or -(insertion point) - 1 if there is none.
+     */
+    //---
+    private int indexOf(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    //=============================
+    // Nested classes
+    //=============================
+
+    //-----------------------------
+    /**
+     * Container class holds the low 16 bits of the values sharing their high 16 bits, as a sorted
+     * array while it has at most ARRAY_MAX values and as a bitmap above that. Exactly one of
+     * array and bits is set.
+     */
+    //---
+    private static class Container {
+        private char[] array;
+        private long[] bits;
+        private int cardinality;
+
+        //-----------------------------
+        /**
+         * Default constructor for an empty array container.
+         */
+        //---
+        Container() {
+            this.array = new char[MIN_ARRAY];
+        }
+
+        //-----------------------------
+        /**
+         * Intersects two containers.
+         *
+         * @param a (in) Container - first container.
+         * @param b (in) Container - second container.
+         * @return (out) Container - new container of the values in both.
+         */
+        //---
+        static Container and(Container a, Container b) {
+            if (a.bits != null && b.bits != null) {
+                Container c = new Container();
+                c.array = null;
+                c.bits = new long[BITMAP_WORDS];
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    c.bits[i] = a.bits[i] & b.bits[i];
+                }
+                c.recount();
+                return c;
+            }
+
+            // walk the array, there are at most ARRAY_MAX values in it
+            Container small = a.array != null && (b.array == null || a.cardinality <= b.cardinality) ? a : b;
+            Container other = small == a ? b : a;
+            Container c = new Container();
+            c.array = new char[Math.max(small.cardinality, MIN_ARRAY)];
+            for (int i = 0; i < small.cardinality; i++) {
+                if (other.contains(small.array[i])) {
+                    c.array[c.cardinality++] = small.array[i];
+                }
+            }
+            return c;
+        }
+
+        //-----------------------------
+        /**
+         * Unites two containers.
+         *
+         * @param a (in) Container - first container.
+         * @param b (in) Container - second container.
+         * @return (out) Container - new container of the values in either.
+         */
+        //---
+        static Container or(Container a, Container b) {
+            Container c = a.copy();
+            if (b.bits != null) {
+                c.toBits();
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    c.bits[i] |= b.bits[i];
+                }
+                c.recount();
+            } else {
+                for (int i = 0; i < b.cardinality; i++) {
+                    c.add(b.array[i]);
+                }
+            }
+            return c;
+        }
+
+        //-----------------------------
+        /**
+         * Removes the values of one container from another.
+         *
+         * @param a (in) Container - container to take values from.
+         * @param b (in) Container - values to leave out.
+         * @return (out) Container - new container of the values in a but not in b.
+         */
+        //---
+        static Container andNot(Container a, Container b) {
+            Container c = new Container();
+            if (a.array != null) {
+                c.array = new char[Math.max(a.cardinality, MIN_ARRAY)];
+                for (int i = 0; i < a.cardinality; i++) {
+                    if (!b.contains(a.array[i])) {
+                        c.array[c.cardinality++] = a.array[i];
+                    }
+                }
+                return c;
+            }
+
+            c = a.copy();
+            if (b.bits != null) {
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    c.bits[i] &= ~b.bits[i];
+                }
+                c.recount();
+            } else {
+                for (int i = 0; i < b.cardinality; i++) {
+                    c.remove(b.array[i]);
+                }
+            }
+            return c;
+        }
+
+        //-----------------------------
+        /**
+         * Copies the container.
+         *
+         * @return (out) Container - container with the same values.
+         */
+        //---
+        Container copy() {
+            Container c = new Container();
+            c.array = array == null ? null : array.clone();
+            c.bits = bits == null ? null : bits.clone();
+            c.cardinality = cardinality;
+            return c;
+        }
+
+        //-----------------------------
+        /**
+         * Adds a value, turning the array into a bitmap when it outgrows ARRAY_MAX.
+         *
+         * @param low (in) char - low 16 bits of the value.
+         */
+        //---
+        void add(char low) {
+            if (bits != null) {
+                long mask = 1L << low;
+                if ((bits[low >>> 6] & mask) == 0) {
+                    bits[low >>> 6] |= mask;
+                    cardinality++;
+                }
+                return;
+            }
+
+            int index = Arrays.binarySearch(array, 0, cardinality, low);
+            if (index >= 0) {
+                return;
+            }
+            if (cardinality == ARRAY_MAX) {
+                toBits();
+                add(low);
+                return;
+            }
+            index = -index - 1;
+            if (cardinality == array.length) {
+                array = Arrays.copyOf(array, Math.min(cardinality * 2, ARRAY_MAX));
+            }
+            System.arraycopy(array, index, array, index + 1, cardinality - index);
+            array[index] = low;
+            cardinality++;
+        }
+
+        //-----------------------------
+        /**
+         * Removes a value, turning the bitmap back into an array when it gets down to ARRAY_MAX.
+         *
+         * @param low (in) char - low 16 bits of the value.
+         */
+        //---
+        void remove(char low) {
+            if (bits != null) {
+                long mask = 1L << low;
+                if ((bits[low >>> 6] & mask) != 0) {
+                    bits[low >>> 6] &= ~mask;
+                    cardinality--;
+                    if (cardinality <= ARRAY_MAX) {
+                        toArray();
+                    }
+                }
+                return;
+            }
+
+            int index = Arrays.binarySearch(array, 0, cardinality, low);
+            if (index >= 0) {
+                System.arraycopy(array, index + 1, array, index, cardinality - index - 1);
+                cardinality--;
+            }
+        }
+
+        //-----------------------------
+        /**
+         * Checks whether a value is in the container.
+         *
+         * @param low (in) char - low 16 bits of the value.
+         * @return (out) boolean - true if the value is in the container.
+         */
+        //---
+        boolean contains(char low) {
+            if (bits != null) {
+                return (bits[low >>> 6] & (1L << low)) != 0;
+            }
+            return Arrays.binarySearch(array, 0, cardinality, low) >= 0;
+        }
+
+        //-----------------------------
+        /**
+         * Finds the smallest value at or after some low bits.
+         *
+         * @param from (in) int - low bits to start at, 0 to 65535.
+         * @return (out) int - low bits of the next value, or -1 if there is none.
+         */
+        //---
+        int next(int from) {
+            if (bits != null) {
+                int word = from >>> 6;
+                long current = bits[word] & (-1L << from);
+                while (current == 0) {
+                    if (++word == BITMAP_WORDS) {
+                        return -1;
+                    }
+                    current = bits[word];
+                }
+                return word * Long.SIZE + Long.numberOfTrailingZeros(current);
+            }
+
+            int index = Arrays.binarySearch(array, 0, cardinality, (char) from);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return index < cardinality ? array[index] : -1;
+        }
+
+        //-----------------------------
+        /**
+         * Turns an array container into a bitmap container.
+         */
+        //---
+        private void toBits() {
+            if (bits == null) {
+                bits = new long[BITMAP_WORDS];
+                for (int i = 0; i < cardinality; i++) {
+                    bits[array[i] >>> 6] |= 1L << array[i];
+                }
+                array = null;
+            }
+        }
+
+        //-----------------------------
+        /**
+         * Turns a bitmap container into an array container.
+         */
+        //---
+        private void toArray() {
+            char[] values = new char[Math.max(cardinality, MIN_ARRAY)];
+            int count = 0;
+            for (int word = 0; word < BITMAP_WORDS; word++) {
+                for (long w = bits[word]; w != 0; w &= w - 1) {
+                    values[count++] = (char) (word * Long.SIZE + Long.numberOfTrailingZeros(w));
+                }
+            }
+            array = values;
+            bits = null;
+        }
+
+        //-----------------------------
+        /**
+         * Counts the values of a bitmap container after a word operation, and turns it into an
+         * array container if it has ARRAY_MAX values or fewer.
+         */
+        //---
+        private void recount() {
+            cardinality = 0;
+            for (long word : bits) {
+                cardinality += Long.bitCount(word);
+            }
+            if (cardinality <= ARRAY_MAX) {
+                toArray();
+            }
+        }
+    }
+}
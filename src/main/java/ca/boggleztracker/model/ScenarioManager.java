@@ -12,6 +12,36 @@
  * - 2024-07-14: implemented generateRequesterPage method
  * - 2024-07-15: implemented all generate pages methods
  * - 2024-07-25: documentation changes
+ * - 2026-10-18: all record reads go through page buffered RecordReaders
+ * - 2026-10-18: record files are read through a StorageBackend, memory mapped by default
+ * - 2026-10-18: v2 compact record format, legacy files are converted on start up
+ * - 2026-10-18: record files are paged RecordFiles, scans iterate pages instead of seeking per record
+ * - 2026-10-18: changes go through the write ahead log with group commit, log replayed on start up
+ * - 2026-10-18: record checksums, verified on start up
+ * - 2026-10-18: delete methods, background compaction, read write lock
+ * - 2026-10-18: record counts and next change ID from the file superblocks
+ * - 2026-10-18: storage statistics of live and free bytes per file
+ * - 2026-10-18: writeCharsToFile encodes straight into a RecordEncoder
+ * - 2026-10-18: requester lookups by email go through a B+tree index
+ * - 2026-10-18: change items are found by change ID through a hash index
+ * - 2026-10-18: change items of a release are listed through a (product, release) index
+ * - 2026-10-18: pending and completed changes are found through product, status and priority bitmaps
+ * - 2026-10-18: Bloom filters in front of the product, release and requester uniqueness checks
+ * - 2026-10-18: releases of a product are listed through a product index
+ * - 2026-10-18: change requests are found by change ID and by (change ID, email) through indexes
+ * - 2026-10-18: search of change item descriptions through an inverted index
+ * - 2026-10-18: requester emails starting with a prefix are listed from the email index
+ * - 2026-10-18: change items due and releases between dates are listed through date indexes
+ * - 2026-10-18: paged listings resume from a PageCursor instead of looking up the last key
+ * - 2026-10-18: lazy record streams of every file
+ * - 2026-10-18: deletes, release updates and change request lookups filter on the encoded records
+ * - 2026-10-18: requesters to notify are joined with the change requests a batch at a time
+ * - 2026-10-18: export of the pending change items with a parallel scan
+ * - 2026-10-18: removed the record counts left from index based paging
+ * - 2026-10-18: deletes and release updates find the record through an index where there is one
+ * - 2026-10-18: export lines are written as they are merged instead of being collected first
+ * - 2026-10-18: every text field of an export line is quoted, a missing date is an empty field
+ * - 2026-10-18: the log is kept with the data files, in the directory set by boggleztracker.dir
  * Purpose:
  * ScenarioManager class is responsible for opening and closing the data file,
  * populating the array lists of products and requesters, and supports various interactions
@@ -21,32 +51,67 @@
 package ca.boggleztracker.model;
 
 
-import java.io.EOFException;
+import java.io.BufferedWriter;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
 
 public class ScenarioManager {
     //=============================
     // Constants and static fields
     //=============================
-    private static final String REQUESTER_FILE = "requester.dat";
-    private static final String PRODUCT_FILE = "product.dat";
-    private static final String RELEASE_FILE = "release.dat";
-    private static final String CHANGE_ITEM_FILE = "change-item.dat";
-    private static final String CHANGE_REQUEST_FILE = "change-request.dat";
-    private static final int LOCAL_DATE_LENGTH = 10;
+    private static final int NO_DATE = Integer.MIN_VALUE; // epoch day stored for a missing date
+    private static final String STORAGE_PROPERTY = "boggleztracker.storage"; // "mapped" or "channel"
+    private static final String CHECKSUM_PROPERTY = "boggleztracker.checksums"; // "off" for new files without checksums
+    private static final String VERIFY_PROPERTY = "boggleztracker.verify"; // "off" to skip the start up check
+    private static final int PROBE_RECORDS = 32; // requesters scanned in the time of one email index probe
+    private static final String EXPORT_HEADER = "changeID,product,release,status,priority,anticipatedDate,description";
 
     //=============================
     // Member fields
     //=============================
-    private final RandomAccessFile requesterFile;
-    private final RandomAccessFile productFile;
-    private final RandomAccessFile releaseFile;
-    private final RandomAccessFile changeItemFile;
-    private final RandomAccessFile changeRequestFile;
+    private final RecordFile requesterFile;
+    private final RecordFile productFile;
+    private final RecordFile releaseFile;
+    private final RecordFile changeItemFile;
+    private final RecordFile changeRequestFile;
+    private final Map<RecordType, RecordFile> files;
+    private final BTreeIndex requesterEmails;
+    private final BloomFilterIndex requesterEmailFilter;
+    private final BloomFilterIndex productNameFilter;
+    private final BloomFilterIndex releaseIDFilter;
+    private final BTreeIndex releaseProducts; // product name then offset
+    private final BTreeIndex releaseIDs; // release ID then offset
+    private final DateIndex releaseDates;
+    private final BTreeIndex changeRequestIDs; // change ID then offset
+    private final FieldHashIndex changeRequestPairs; // (change ID, requester email)
+    private final IntHashIndex changeItemIDs;
+    private final BTreeIndex changeItemReleases; // (product name, release ID) then offset
+    private final BitmapIndex changeItemProducts;
+    private final BitmapIndex changeItemStatuses;
+    private final BitmapIndex changeItemPriorities;
+    private final TermIndex changeItemTerms;
+    private final DateIndex changeItemDates; // anticipated release date
+    private final WriteAheadLog log;
+    private final ReadWriteLock lock; // read lock for listings, write lock for changes and file swaps
+    private final Compactor compactor;
 
     //=============================
     // Constructor
@@ -54,45 +119,93 @@ public class ScenarioManager {
 
     //-----------------------------
     /**
-     * Default construction for scenario manager, opens all files.
+     * Default construction for scenario manager, opens all files. Files still in the legacy
+     * format are converted first. Files are memory mapped unless the boggleztracker.storage
+     * system property is set to "channel". Changes left in the write ahead log by a previous
+     * run are replayed, then the checksums of every file are verified and corrupt records are
+     * quarantined, unless the boggleztracker.verify property is "off". Indexes that were not
+     * closed cleanly for the files as they are now are rebuilt.
      */
     //---
     public ScenarioManager() throws IOException {
-        requesterFile = new RandomAccessFile(REQUESTER_FILE, "rw");
-        productFile = new RandomAccessFile(PRODUCT_FILE, "rw");
-        releaseFile = new RandomAccessFile(RELEASE_FILE, "rw");
-        changeItemFile = new RandomAccessFile(CHANGE_ITEM_FILE, "rw");
-        changeRequestFile = new RandomAccessFile(CHANGE_REQUEST_FILE, "rw");
+        boolean checksums = !"off".equals(System.getProperty(CHECKSUM_PROPERTY));
+        for (RecordType type : RecordType.values()) {
+            FormatConverter.upgrade(type, checksums);
+        }
+        boolean mapped = !"channel".equals(System.getProperty(STORAGE_PROPERTY));
+        log = new WriteAheadLog(RecordType.dataPath(WriteAheadLog.FILE_NAME));
+        requesterFile = new RecordFile(RecordType.REQUESTER, mapped, log);
+        productFile = new RecordFile(RecordType.PRODUCT, mapped, log);
+        releaseFile = new RecordFile(RecordType.RELEASE, mapped, log);
+        changeItemFile = new RecordFile(RecordType.CHANGE_ITEM, mapped, log);
+        changeRequestFile = new RecordFile(RecordType.CHANGE_REQUEST, mapped, log);
+
+        files = new EnumMap<>(RecordType.class);
+        files.put(RecordType.REQUESTER, requesterFile);
+        files.put(RecordType.PRODUCT, productFile);
+        files.put(RecordType.RELEASE, releaseFile);
+        files.put(RecordType.CHANGE_ITEM, changeItemFile);
+        files.put(RecordType.CHANGE_REQUEST, changeRequestFile);
+
+        int replayed = log.redo(files);
+        if (replayed > 0) {
+            System.out.println("Recovered " + replayed + " logged changes");
+        }
+        if (!"off".equals(System.getProperty(VERIFY_PROPERTY))) {
+            for (RecordFile file : files.values()) {
+                int quarantined = IntegrityCheck.verify(file);
+                if (quarantined > 0) {
+                    System.err.println("Quarantined " + quarantined + " corrupt records of "
+                            + file.getType().getFileName());
+                }
+            }
+        }
+        requesterEmails = new BTreeIndex("email", Requester.EMAIL_OFFSET, Requester.MAX_EMAIL, true, mapped);
+        requesterFile.addIndex(requesterEmails);
+        requesterEmailFilter = new BloomFilterIndex("email-filter", Requester.EMAIL_OFFSET, Requester.MAX_EMAIL);
+        requesterFile.addIndex(requesterEmailFilter);
+        productNameFilter = new BloomFilterIndex("name-filter", Product.NAME_OFFSET, Product.MAX_PRODUCT_NAME);
+        productFile.addIndex(productNameFilter);
+        releaseIDFilter = new BloomFilterIndex("id-filter", Release.RELEASE_ID_OFFSET, Release.MAX_RELEASE_ID);
+        releaseFile.addIndex(releaseIDFilter);
+        releaseProducts = new BTreeIndex("product", Release.PRODUCT_OFFSET, Product.MAX_PRODUCT_NAME, false, mapped);
+        releaseFile.addIndex(releaseProducts);
+        releaseIDs = new BTreeIndex("id", Release.RELEASE_ID_OFFSET, Release.MAX_RELEASE_ID, false, mapped);
+        releaseFile.addIndex(releaseIDs);
+        releaseDates = new DateIndex("date", Release.DATE_OFFSET, NO_DATE, mapped);
+        releaseFile.addIndex(releaseDates);
+        changeRequestIDs = new BTreeIndex("change-id", ChangeRequest.CHANGE_ID_OFFSET, Integer.BYTES, false, mapped);
+        changeRequestFile.addIndex(changeRequestIDs);
+        changeRequestPairs = new FieldHashIndex("change-id-email",
+                new int[] {ChangeRequest.CHANGE_ID_OFFSET, ChangeRequest.EMAIL_OFFSET},
+                new int[] {Integer.BYTES, Requester.MAX_EMAIL});
+        changeRequestFile.addIndex(changeRequestPairs);
+        changeItemIDs = new IntHashIndex("change-id", ChangeItem.CHANGE_ID_OFFSET);
+        changeItemFile.addIndex(changeItemIDs);
+        changeItemReleases = new BTreeIndex("product-release", ChangeItem.PRODUCT_OFFSET,
+                Product.MAX_PRODUCT_NAME + Release.MAX_RELEASE_ID, false, mapped);
+        changeItemFile.addIndex(changeItemReleases);
+        changeItemProducts = new BitmapIndex("product", ChangeItem.PRODUCT_OFFSET, Product.MAX_PRODUCT_NAME);
+        changeItemFile.addIndex(changeItemProducts);
+        changeItemStatuses = new BitmapIndex("status", ChangeItem.STATUS_PRIORITY_OFFSET,
+                ChangeItem.STATUS_SHIFT, ChangeItem.CODE_MASK);
+        changeItemFile.addIndex(changeItemStatuses);
+        changeItemPriorities = new BitmapIndex("priority", ChangeItem.STATUS_PRIORITY_OFFSET, 0, ChangeItem.CODE_MASK);
+        changeItemFile.addIndex(changeItemPriorities);
+        changeItemTerms = new TermIndex("terms", ChangeItem.DESCRIPTION_OFFSET, ChangeItem.MAX_DESCRIPTION, mapped);
+        changeItemFile.addIndex(changeItemTerms);
+        changeItemDates = new DateIndex("date", ChangeItem.DATE_OFFSET, NO_DATE, mapped);
+        changeItemFile.addIndex(changeItemDates);
+
+        lock = new ReentrantReadWriteLock();
+        compactor = new Compactor(files, lock, log);
+        compactor.start();
     }
 
     //=============================
     // Methods
     //=============================
 
-    //-----------------------------
-    /**
-     * Get the size of requester file.
-     *
-     * @return (out) long - requester file size
-     * @throws IOException
-     */
-    //---
-    public long getRequesterFileSize() throws IOException {
-        return requesterFile.length();
-    }
-
-    //-----------------------------
-    /**
-     * Get the size of product file.
-     *
-     * @return (out) long - product file size
-     * @throws IOException
-     */
-    //---
-    public long getProductFileSize() throws IOException {
-        return productFile.length();
-    }
-
     //-----------------------------
     /**
      * Helper function to pad character array with spaces to ensure
@@ -126,41 +239,90 @@ public class ScenarioManager {
 
     //-----------------------------
     /**
-     * Helper function to read char arrays from file.
+     * Helper function to encode a string the way writeCharsToFile stores it, padded with spaces,
+     * for looking it up in an index.
+     *
+     * @param value (in) String - string to encode.
+     * @param length (in) int - number of characters stored, longer strings are cut.
+     * @return (out) byte[] - one byte per character.
+     */
+    //---
+    public static byte[] encodeChars(String value, int length) {
+        byte[] bytes = new byte[length];
+
+        for (int i = 0; i < length; i++) {
+            char c = i < value.length() ? value.charAt(i) : ' ';
+            bytes[i] = (byte) (c <= 0xFF ? c : '?');
+        }
+        return bytes;
+    }
+
+    //-----------------------------
+    /**
+     * Helper function to read char arrays from file, one byte per character.
      *
-     * @param file (in) RandomAccessFile - file to read char array from.
+     * @param file (in) RecordReader - buffered reader of the file to read char array from.
      * @param numChars (in) int - number of bytes the char array consists of.
      * @return (out) char[] - character array read from file
      */
     //---
-    public static char[] readCharsFromFile(RandomAccessFile file, int numChars) throws IOException {
-        char[] temp = new char[numChars];
+    public static char[] readCharsFromFile(RecordReader file, int numChars) throws IOException {
+        return file.readByteChars(numChars);
+    }
 
-        //reads each byte
-        for (int i = 0; i < numChars; i++) {
-            temp[i] = file.readChar();
+    //-----------------------------
+    /**
+     * Helper function to write char arrays to file, one byte per character. Characters
+     * outside ISO-8859-1 are written as '?'.
+     *
+     * @param file (in) DataOutput - file to write char array to.
+     * @param chars (in) char[] - padded character array.
+     */
+    //---
+    public static void writeCharsToFile(DataOutput file, char[] chars) throws IOException {
+        if (file instanceof RecordEncoder) {
+            ((RecordEncoder) file).writeLatin1(chars);
+            return;
         }
-        return temp;
+        byte[] temp = new byte[chars.length];
+
+        for (int i = 0; i < chars.length; i++) {
+            temp[i] = (byte) (chars[i] <= 0xFF ? chars[i] : '?');
+        }
+        file.write(temp);
     }
 
     //-----------------------------
     /**
-     * Helper function to read local dates from file.
+     * Helper function to read local dates from file, stored as an epoch day.
      *
-     * @param file (in) RandomAccessFile - file to read local date from.
-     * @return (out) LocalDate - date from file.
+     * @param file (in) RecordReader - buffered reader of the file to read local date from.
+     * @return (out) LocalDate - date from file, or null if no date was stored.
      */
     //---
-    public static LocalDate readDateFromFile(RandomAccessFile file) throws IOException {
-        char[] temp = readCharsFromFile(file, LOCAL_DATE_LENGTH);
-        String date = new String(temp).trim(); // remove white spaces
+    public static LocalDate readDateFromFile(RecordReader file) throws IOException {
+        int epochDay = file.readInt();
 
-        if (date.isEmpty()) {
+        if (epochDay == NO_DATE) {
             return null;
         }
+        return LocalDate.ofEpochDay(epochDay);
+    }
 
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        return LocalDate.parse(date, formatter);
+    //-----------------------------
+    /**
+     * Helper function to write local dates to file as an epoch day.
+     *
+     * @param file (in) DataOutput - file to write local date to.
+     * @param date (in) LocalDate - date to be written, can be null.
+     */
+    //---
+    public static void writeDateToFile(DataOutput file, LocalDate date) throws IOException {
+        if (date == null) {
+            file.writeInt(NO_DATE);
+        } else {
+            file.writeInt((int) date.toEpochDay());
+        }
     }
 
     //-----------------------------
@@ -175,16 +337,23 @@ public class ScenarioManager {
     //---
     public void addRequester(String email, String name, long phoneNumber, String department) {
         try {
-            boolean requesterExists = Requester.requesterExists(requesterFile, email);
+            long lsn;
+            lock.writeLock().lock();
+            try {
+                boolean requesterExists = Requester.requesterExists(requesterEmailFilter, requesterEmails, email);
 
-            if (!requesterExists) {
+                if (requesterExists) {
+                    System.out.println("Error: requester email already exists");
+                    return;
+                }
                 Requester requester = new Requester(email, name, phoneNumber, department);
-                requesterFile.seek(requesterFile.length());
-                requester.writeRequester(requesterFile);
-                System.out.println("The new requester is successfully added.");
-            } else {
-                System.out.println("Error: requester email already exists");
+                requesterFile.insert(requester::writeRequester);
+                lsn = endChange();
+            } finally {
+                lock.writeLock().unlock();
             }
+            log.commit(lsn);
+            System.out.println("The new requester is successfully added.");
         } catch (IOException e) {
             System.err.println("Error writing requester to file " + e.getMessage());
         }
@@ -199,16 +368,23 @@ public class ScenarioManager {
     //---
     public void addProduct(String productName) {
         try {
-            boolean productExists = Product.productExists(productFile, productName);
+            long lsn;
+            lock.writeLock().lock();
+            try {
+                boolean productExists = Product.productExists(productFile, productNameFilter, productName);
 
-            if (!productExists) {
+                if (productExists) {
+                    System.out.println("Error: product name already exists");
+                    return;
+                }
                 Product product = new Product(productName);
-                productFile.seek(productFile.length());
-                product.writeProduct(productFile);
-                System.out.println("The new product has been added.");
-            } else {
-                System.out.println("Error: product name already exists");
+                productFile.insert(product::writeProduct);
+                lsn = endChange();
+            } finally {
+                lock.writeLock().unlock();
             }
+            log.commit(lsn);
+            System.out.println("The new product has been added.");
         } catch (IOException e) {
             System.err.println("Error writing product to file " + e.getMessage());
         }
@@ -229,22 +405,20 @@ public class ScenarioManager {
                                  String requesterEmail, LocalDate reportedDate) {
         ChangeRequest changeRequest = new ChangeRequest(changeID, productName,
                 reportedRelease, requesterEmail, reportedDate);
-        ChangeRequest compare = new ChangeRequest(0, "",
-                "", "", LocalDate.of(2024,8,1));
         try {
-            int pos = 0;
-            while(pos < changeRequestFile.length() && changeRequestFile.length() != 0){
-                changeRequestFile.seek(pos);
-                compare.readChangeRequest(changeRequestFile);
-                if(compare.getChangeID() == changeRequest.getChangeID()
-                        && Arrays.equals(compare.getRequesterEmail(), changeRequest.getRequesterEmail())){
+            long lsn;
+            lock.writeLock().lock();
+            try {
+                if (findChangeRequest(changeID, requesterEmail) != -1) {
                     System.out.println("A change request of for this Change Item has already been submitted by this requester");
                     return;
                 }
-                pos += ChangeRequest.BYTES_SIZE_CHANGE_REQUEST;
+                changeRequestFile.insert(changeRequest::writeChangeRequest);
+                lsn = endChange();
+            } finally {
+                lock.writeLock().unlock();
             }
-            changeRequestFile.seek(changeRequestFile.length());
-            changeRequest.writeChangeRequest(changeRequestFile);
+            log.commit(lsn);
             System.out.println("New change request has been added!");
         } catch (IOException e) {
             System.err.println("Error writing request to file " + e.getMessage());
@@ -267,18 +441,18 @@ public class ScenarioManager {
                               String status, LocalDate anticipatedReleaseDate) {
         int changeID;
         try {
-            if (changeItemFile.length() == 0) {
-                changeID = 0;
-            } else {
-                ChangeItem dummy = new ChangeItem();
-                changeItemFile.seek(changeItemFile.length() - ChangeItem.BYTES_SIZE_CHANGE_ITEM);
-                dummy.readChangeItems(changeItemFile);
-                changeID = dummy.getChangeID() + 1;
-            }
-            ChangeItem changeItem = new ChangeItem(changeID, productName, releaseID, changeDescription,
-                    priority, status, anticipatedReleaseDate);
-            changeItemFile.seek(changeItemFile.length());
-            changeItem.writeChangeItem(changeItemFile);
+            long lsn;
+            lock.writeLock().lock();
+            try {
+                changeID = (int) changeItemFile.nextSequence();
+                ChangeItem changeItem = new ChangeItem(changeID, productName, releaseID, changeDescription,
+                        priority, status, anticipatedReleaseDate);
+                changeItemFile.insert(changeItem::writeChangeItem);
+                lsn = endChange();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.commit(lsn);
         } catch (IOException e) {
             System.err.println("Error writing change item to file " + e.getMessage());
         }
@@ -294,22 +468,23 @@ public class ScenarioManager {
      */
     //---
     public void modifyChangeItem(int changeID, ChangeItem modifiedChangeItem) {
-        ChangeItem change = new ChangeItem();
-        int pos = 0;
-
         try {
-            changeItemFile.seek(pos);
-            //locate correct ChangeItem from file
-            while (true){
-                change.readChangeItems(changeItemFile);
-
-                if (changeID == change.getChangeID()){
-                    break;
+            long lsn = -1;
+            lock.writeLock().lock();
+            try {
+                long offset = changeItemIDs.find(changeID);
+                if (offset != -1) {
+                    changeItemFile.update(offset, modifiedChangeItem::writeChangeItem);
+                    lsn = endChange();
                 }
-                pos += ChangeItem.BYTES_SIZE_CHANGE_ITEM;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (lsn == -1) {
+                System.err.println("Error modifying change item, change ID " + changeID + " not found");
+                return;
             }
-            changeItemFile.seek(pos);
-            modifiedChangeItem.writeChangeItem(changeItemFile);
+            log.commit(lsn);
         } catch (IOException e) {
             System.err.println("Error modifying change item to file " + e.getMessage());
         }
@@ -318,12 +493,16 @@ public class ScenarioManager {
     // *********TEMPORARY FOR UNIT TEST, DELETE LATER
     public void modifyChangeItem(RandomAccessFile myfile,int changeID, ChangeItem modifiedChangeItem) {
         ChangeItem change = new ChangeItem();
-        int pos = 0;
+        long pos = 0;
 
         try {
             myfile.seek(pos);
-            //locate correct ChangeItem from file
+            //locate correct ChangeItem from file, stopping at the end of the file
             while (true){
+                if (pos + ChangeItem.BYTES_SIZE_CHANGE_ITEM > myfile.length()) {
+                    System.err.println("Error modifying change item, change ID " + changeID + " not found");
+                    return;
+                }
                 change.readChangeItems(myfile);
 
                 if (changeID == change.getChangeID()){
@@ -347,23 +526,23 @@ public class ScenarioManager {
      */
     //---
     public void modifyRelease(String releaseID, Release modifiedRelease) {
-        Release fileRelease = new Release();
-        long pos = 0;
-
         try {
-            releaseFile.seek(pos);
-            // locate correct Release from file
-            while (true){
-                fileRelease.readRelease(releaseFile);
-                // convert char[] to String
-                String releaseIDToBeChanged = new String(fileRelease.getReleaseID());
-                if (releaseID.equals(releaseIDToBeChanged)) {
-                    break;
+            long lsn = -1;
+            lock.writeLock().lock();
+            try {
+                long offset = findRelease(releaseID);
+                if (offset != -1) {
+                    releaseFile.update(offset, modifiedRelease::writeRelease);
+                    lsn = endChange();
                 }
-                pos += Release.BYTES_SIZE_RELEASE;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (lsn == -1) {
+                System.err.println("Error modifying release, release ID " + releaseID + " not found");
+                return;
             }
-            releaseFile.seek(pos);
-            modifiedRelease.writeRelease(releaseFile);
+            log.commit(lsn);
         } catch (IOException e) {
             System.err.println("Error modifying release to file " + e.getMessage());
         }
@@ -380,16 +559,23 @@ public class ScenarioManager {
     //---
     public void addRelease(String productName, String releaseID, LocalDate date) {
         try {
-            boolean releaseExists = Release.releaseExists(releaseFile, releaseID);
+            long lsn;
+            lock.writeLock().lock();
+            try {
+                boolean releaseExists = Release.releaseExists(releaseIDFilter, releaseIDs, releaseID);
 
-            if (!releaseExists) {
+                if (releaseExists) {
+                    System.out.println("Error: release ID already exists");
+                    return;
+                }
                 Release release = new Release(productName, releaseID, date);
-                releaseFile.seek(releaseFile.length());
-                release.writeRelease(releaseFile);
-                System.out.println("The new release ID has been added.");
-            } else {
-                System.out.println("Error: release ID already exists");
+                releaseFile.insert(release::writeRelease);
+                lsn = endChange();
+            } finally {
+                lock.writeLock().unlock();
             }
+            log.commit(lsn);
+            System.out.println("The new release ID has been added.");
         } catch (IOException e) {
             System.err.println("Error writing release to file " + e.getMessage());
         }
@@ -397,374 +583,958 @@ public class ScenarioManager {
 
     //-----------------------------
     /**
-     * Gets a list of Requesters from the file to display for user.
+     * Deletes a requester from the file.
+     *
+     * @param email (in) String - Email of the requester to be deleted.
+     */
+    //---
+    public void deleteRequester(String email) {
+        boolean deleted = deleteRecord(requesterFile, () -> email.length() > Requester.MAX_EMAIL ? -1
+                : requesterEmails.find(encodeChars(email, Requester.MAX_EMAIL)));
+        if (deleted) {
+            System.out.println("The requester has been deleted.");
+        } else {
+            System.out.println("Error: requester email not found");
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Deletes a product from the file. Products have no exact index, so the file is scanned.
+     *
+     * @param productName (in) String - Name of the product to be deleted.
+     */
+    //---
+    public void deleteProduct(String productName) {
+        RecordFilter filter = RecordFilter.charsEqual(Product.NAME_OFFSET, productName, Product.MAX_PRODUCT_NAME);
+        boolean deleted = deleteRecord(productFile, () -> findFirst(productFile, filter));
+        if (deleted) {
+            System.out.println("The product has been deleted.");
+        } else {
+            System.out.println("Error: product name not found");
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Deletes a release from the file.
+     *
+     * @param releaseID (in) String - Identifier of the release to be deleted.
+     */
+    //---
+    public void deleteRelease(String releaseID) {
+        boolean deleted = deleteRecord(releaseFile, () -> findRelease(releaseID));
+        if (deleted) {
+            System.out.println("The release has been deleted.");
+        } else {
+            System.out.println("Error: release ID not found");
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Deletes a change item from the file. Change requests for it are kept.
+     *
+     * @param changeID (in) int - Identifier of the change item to be deleted.
+     */
+    //---
+    public void deleteChangeItem(int changeID) {
+        boolean deleted = deleteRecord(changeItemFile, () -> changeItemIDs.find(changeID));
+        if (deleted) {
+            System.out.println("The change item has been deleted.");
+        } else {
+            System.out.println("Error: change ID not found");
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Deletes the change request of a requester for a change item from the file.
+     *
+     * @param changeID (in) int - Identifier of the change item of the request.
+     * @param requesterEmail (in) String - Email of the requester of the request.
+     */
+    //---
+    public void deleteChangeRequest(int changeID, String requesterEmail) {
+        boolean deleted = deleteRecord(changeRequestFile, () -> findChangeRequest(changeID, requesterEmail));
+        if (deleted) {
+            System.out.println("The change request has been deleted.");
+        } else {
+            System.out.println("Error: change request not found");
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Utility method that deletes the record of a file found by a locator, waits for the delete
+     * to be durable and wakes up the compactor. The locator runs under the write lock, so the
+     * record cannot move before it is deleted.
      *
-     * @param page (in) int - Counter to track what page of Requester are displayed for user.
+     * @param file (in) RecordFile - file to delete from.
+     * @param locator (in) RecordLocator - finds the record to be deleted, through an index where
+     *                                     the file has one.
+     * @return (out) boolean - true if a record was deleted.
+     */
+    //---
+    private boolean deleteRecord(RecordFile file, RecordLocator locator) {
+        try {
+            long lsn = -1;
+            lock.writeLock().lock();
+            try {
+                long offset = locator.locate();
+                if (offset != -1) {
+                    file.delete(offset);
+                    lsn = endChange();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (lsn == -1) {
+                return false;
+            }
+            log.commit(lsn);
+            compactor.requestCompaction();
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error deleting record from " + file.getType().getFileName() + " " + e.getMessage());
+            return false;
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Gets a page of Requesters from the file to display for user, in file order.
+     *
+     * @param pageCursor (in) PageCursor - cursor of the previous page, or PageCursor.FIRST.
      * @param pageSize (in) int - How many items of data each page can hold.
-     * @return (out) String[] - String array of emails.
+     * @return (out) Page<String> - emails, and the cursor of the next page.
      */
     //---
-    public String[] generateRequesterPage(int page, int pageSize) {
-        long startingPage = page * pageSize * Requester.BYTES_SIZE_REQUESTER;
+    public Page<String> generateRequesterPage(PageCursor pageCursor, int pageSize) {
         String[] emails = new String[pageSize];
+        PageCursor next = PageCursor.FIRST;
         Requester r = new Requester();
 
+        lock.readLock().lock();
         try {
-            requesterFile.seek(startingPage);
+            RecordScanner scanner = requesterFile.scan(pageCursor.getLastOffset(requesterFile) + 1);
+            for (int i = 0; i < pageSize && scanner.next(); i++) {
+                r.readRequester(scanner.getReader());
+                emails[i] = new String(r.getEmail());
+                if (i == pageSize - 1) {
+                    next = PageCursor.after(requesterFile, scanner.getOffset());
+                }
+            }
         } catch (IOException e) {
-        System.err.println("Error in reading from file" + e.getMessage());
+            System.err.println("Error in reading from file" + e.getMessage());
+        } finally {
+            lock.readLock().unlock();
         }
+        return new Page<>(emails, next);
+    }
 
-        for (int i = 0; i < 6; i++) {
-            try {
-                r.readRequester(requesterFile);
-                emails[i] = new String(r.getEmail());
-            } catch (EOFException e) {
-                // do nothing when end of file is reached
-            } catch (IOException e) {
-                System.err.println("Error in reading from file" + e.getMessage());
+    //-----------------------------
+    /**
+     * Gets a list of the requester emails starting with a prefix, in email order. The emails are
+     * read from the keys of the email index, so no requester record is read.
+     *
+     * @param prefix (in) String - start of the emails, case sensitive.
+     * @param lastEmail (in) String - last email of previous page, or null for the first page.
+     * @param pageSize (in) int - How many items of data each page can hold.
+     * @return (out) String[] - String array of emails.
+     */
+    //---
+    public String[] generateRequesterPrefixPage(String prefix, String lastEmail, int pageSize) {
+        String[] emails = new String[pageSize];
+        if (prefix.length() > Requester.MAX_EMAIL) {
+            return emails;
+        }
+        byte[] start = prefix.getBytes(StandardCharsets.ISO_8859_1);
+
+        lock.readLock().lock();
+        try {
+            byte[] last = lastEmail == null ? null : encodeChars(lastEmail, Requester.MAX_EMAIL);
+            BPlusTree.Cursor cursor = requesterEmails.seek(last == null ? start : last);
+
+            int emailCounter = 0;
+            while (emailCounter < pageSize && cursor.next() && cursor.keyStartsWith(start)) {
+                if (!Arrays.equals(cursor.getKey(), last)) {
+                    emails[emailCounter] = new String(cursor.getKey(), StandardCharsets.ISO_8859_1);
+                    emailCounter++;
+                }
             }
+        } catch (IOException e) {
+            System.err.println("Error in reading from file" + e.getMessage());
+        } finally {
+            lock.readLock().unlock();
         }
         return emails;
     }
 
     //-----------------------------
     /**
-     * Gets a list of Products from the file to display for user.
+     * Gets a page of Products from the file to display for user, in file order.
      *
-     * @param page (in) int - Counter to track what page of Product are displayed for user.
+     * @param pageCursor (in) PageCursor - cursor of the previous page, or PageCursor.FIRST.
      * @param pageSize (in) int - How many items of data each page can hold.
-     * @return String[] (out) - String array of product names
+     * @return (out) Page<String> - product names, and the cursor of the next page.
      */
     //---
-    public String[] generateProductPage(int page, int pageSize) {
+    public Page<String> generateProductPage(PageCursor pageCursor, int pageSize) {
         String[] productNames = new String[pageSize];
-        long startingPage = page * pageSize * Product.BYTES_SIZE_PRODUCT;
+        PageCursor next = PageCursor.FIRST;
         Product p = new Product();
 
+        lock.readLock().lock();
         try {
-            productFile.seek(startingPage);
-        } catch (IOException e) {
-            System.err.println("Error in finding product page" + e.getMessage());
-        }
-
-        for (int i = 0; i < 6; i++) {
-            try {
-                p.readProduct(productFile);
+            RecordScanner scanner = productFile.scan(pageCursor.getLastOffset(productFile) + 1);
+            for (int i = 0; i < pageSize && scanner.next(); i++) {
+                p.readProduct(scanner.getReader());
                 productNames[i] = new String(p.getProductName());
-            } catch (EOFException e) {
-                // do nothing at end of file
-            } catch (IOException e) {
-                System.err.println("Error in reading from file" + e.getMessage());
+                if (i == pageSize - 1) {
+                    next = PageCursor.after(productFile, scanner.getOffset());
+                }
             }
+        } catch (IOException e) {
+            System.err.println("Error in reading from file" + e.getMessage());
+        } finally {
+            lock.readLock().unlock();
         }
-        return productNames;
+        return new Page<>(productNames, next);
     }
 
     //-----------------------------
     /**
-     * Gets a list of Valid Releases from the file to display for user.
+     * Gets a page of Valid Releases from the file to display for user.
      *
      * @param productName (in) String - productName of specified release.
-     * @param lastReleaseName (in) String - last release of previous page.
+     * @param pageCursor (in) PageCursor - cursor of the previous page, or PageCursor.FIRST.
      * @param pageSize (in) int - How many items of data each page can hold.
-     * @return (out) String[] - String array of releases of specific product.
+     * @return (out) Page<String> - releases of specific product, and the cursor of the next page.
      */
     //---
-    public String[] generateReleasePage(String productName, String lastReleaseName, int pageSize) {
+    public Page<String> generateReleasePage(String productName, PageCursor pageCursor, int pageSize) {
         String[] releaseVersions = new String[pageSize];
+        PageCursor next = PageCursor.FIRST;
         Release r = new Release();
+        byte[] product = encodeChars(productName, Product.MAX_PRODUCT_NAME);
 
-        // get the starting position in file
+        lock.readLock().lock();
         try {
-            long startPosition = getStartingPositionForReleaseItem(lastReleaseName);
-            releaseFile.seek(startPosition);
-        } catch (IOException e) {
-            System.err.println("Error in finding release page" + e.getMessage());
-        }
-
-        int releaseCounter = 0;
-        while (releaseCounter < pageSize) {
-            try {
-                r.readRelease(releaseFile);
-                String temp = new String(r.getProductName());
-                if (temp.equals(productName)) {
-                    releaseVersions[releaseCounter] = new String(r.getReleaseID());
-                    releaseCounter++;
-                }
-            } catch (EOFException e) {
-                break;
-            } catch (IOException e) {
-                System.err.println("Error in reading from file" + e.getMessage());
+            // the releases of the product are in offset order, continue after the last one shown
+            BPlusTree.Cursor cursor = releaseProducts.seek(product, pageCursor.getLastOffset(releaseFile) + 1);
+            RecordPage page = releaseFile.newPage();
+
+            int releaseCounter = 0;
+            while (releaseCounter < pageSize && cursor.next() && cursor.keyStartsWith(product)) {
+                r.readRelease(releaseFile.readRecord(cursor.getValue(), page));
+                releaseVersions[releaseCounter] = new String(r.getReleaseID());
+                releaseCounter++;
+            }
+            if (releaseCounter == pageSize) {
+                next = PageCursor.after(releaseFile, cursor.getValue());
             }
+        } catch (IOException e) {
+            System.err.println("Error in reading from file" + e.getMessage());
+        } finally {
+            lock.readLock().unlock();
         }
-        return releaseVersions;
+        return new Page<>(releaseVersions, next);
     }
 
     //-----------------------------
     /**
-     * Utility method that searches the last release of the previous page, and gets its position
-     * in the file.
+     * Gets a page of Valid ChangeItem from the file to display for user.
      *
-     * @param lastReleaseName (in) String - last release of previous page.
-     * @return (out) long - position in number of bytes
-     * @throws IOException
+     * @param productName (in) String - Product name for specified change item.
+     * @param releaseID (in) String - Release ID for specified change item.
+     * @param pageCursor (in) PageCursor - cursor of the previous page, or PageCursor.FIRST.
+     * @param pageSize (in) int - How many items of data each page can hold.
+     * @return (out) Page<ChangeItem> - change items, and the cursor of the next page.
      */
     //---
-    private long getStartingPositionForReleaseItem(String lastReleaseName) throws IOException {
-        Release release = new Release();
-        long pos = 0;
-        releaseFile.seek(pos);
+    public Page<ChangeItem> generateChangeItemPage(String productName, String releaseID, PageCursor pageCursor,
+                                                   int pageSize) {
+        ChangeItem[] changeItems = new ChangeItem[pageSize];
+        PageCursor next = PageCursor.FIRST;
+        byte[] release = new byte[Product.MAX_PRODUCT_NAME + Release.MAX_RELEASE_ID];
+        System.arraycopy(encodeChars(productName, Product.MAX_PRODUCT_NAME), 0, release, 0, Product.MAX_PRODUCT_NAME);
+        System.arraycopy(encodeChars(releaseID, Release.MAX_RELEASE_ID), 0, release, Product.MAX_PRODUCT_NAME,
+                Release.MAX_RELEASE_ID);
 
-        if (lastReleaseName != null) {
-            while (true) {
-                release.readRelease(releaseFile);
-                String startingPositionOfRelease = new String(release.getReleaseID());
-                if (lastReleaseName.equals(startingPositionOfRelease)) {
-                    break;
-                }
-                pos += Release.BYTES_SIZE_RELEASE;
+        lock.readLock().lock();
+        try {
+            // the items of the release are in offset order, continue after the last one shown
+            BPlusTree.Cursor cursor = changeItemReleases.seek(release, pageCursor.getLastOffset(changeItemFile) + 1);
+            RecordPage page = changeItemFile.newPage();
+
+            int changeItemCounter = 0;
+            while (changeItemCounter < pageSize && cursor.next() && cursor.keyStartsWith(release)) {
+                ChangeItem c = new ChangeItem();
+                c.readChangeItems(changeItemFile.readRecord(cursor.getValue(), page));
+                changeItems[changeItemCounter] = c;
+                changeItemCounter++;
+            }
+            if (changeItemCounter == pageSize) {
+                next = PageCursor.after(changeItemFile, cursor.getValue());
             }
-            pos += Release.BYTES_SIZE_RELEASE;
+        } catch (IOException e) {
+            System.err.println("Error in reading from file" + e.getMessage());
+        } finally {
+            lock.readLock().unlock();
         }
-        return pos;
+        return new Page<>(changeItems, next);
     }
 
     //-----------------------------
     /**
-     * Gets a list of Valid ChangeItem from the file to display for user.
+     * Gets a page of the change items whose description has every word of a search, where each
+     * word may be the start of a longer word. Letter case and punctuation are ignored.
      *
-     * @param productName (in) String - Product name for specified change item.
-     * @param releaseID (in) String - Release ID for specified change item.
-     * @param lastChangeItem (in) int - last change item of previous page.
+     * @param query (in) String - words to search for.
+     * @param pageCursor (in) PageCursor - cursor of the previous page, or PageCursor.FIRST.
      * @param pageSize (in) int - How many items of data each page can hold.
-     * @return (out) ChangeItem[] - array of change items
+     * @return (out) Page<ChangeItem> - matching change items in file order, and the cursor of
+     *                                  the next page.
      */
     //---
-    public ChangeItem[] generateChangeItemPage(String productName, String releaseID, int lastChangeItem, int pageSize) {
+    public Page<ChangeItem> searchChangeItems(String query, PageCursor pageCursor, int pageSize) {
         ChangeItem[] changeItems = new ChangeItem[pageSize];
+        PageCursor next = PageCursor.FIRST;
 
-        // get the starting position in file
+        lock.readLock().lock();
         try {
-            long startingPosition = getStartingPositionForChangeItem(lastChangeItem);
-            changeItemFile.seek(startingPosition);
-        } catch (IOException e) {
-            System.err.println("Error in finding change item page" + e.getMessage());
-        }
+            long[] matches = changeItemTerms.search(query);
+            RecordPage page = changeItemFile.newPage();
 
-        int changeItemCounter = 0;
-        while (changeItemCounter < pageSize) {
-            try {
+            // the matches are in offset order, continue after the last one shown
+            int changeItemCounter = 0;
+            int i = Arrays.binarySearch(matches, pageCursor.getLastOffset(changeItemFile) + 1);
+            for (i = i < 0 ? -i - 1 : i; changeItemCounter < pageSize && i < matches.length; i++) {
                 ChangeItem c = new ChangeItem();
-                c.readChangeItems(changeItemFile);
-
-                String tempProductName = new String(c.getProductName());
-                String tempReleaseID = new String(c.getReleaseID());
-
-                if (tempProductName.equals(productName) && tempReleaseID.equals(releaseID)) {
-                    changeItems[changeItemCounter] = c;
-                    changeItemCounter++;
+                c.readChangeItems(changeItemFile.readRecord(matches[i], page));
+                changeItems[changeItemCounter] = c;
+                changeItemCounter++;
+                if (changeItemCounter == pageSize) {
+                    next = PageCursor.after(changeItemFile, matches[i]);
                 }
-            } catch (EOFException e) {
-                break;
-            } catch (IOException e) {
-                System.err.println("Error in reading from file" + e.getMessage());
             }
+        } catch (IOException e) {
+            System.err.println("Error in reading from file" + e.getMessage());
+        } finally {
+            lock.readLock().unlock();
         }
-        return changeItems;
+        return new Page<>(changeItems, next);
     }
 
     //-----------------------------
     /**
-     * Utility method that searches the last change item of the previous page, and gets its position
-     * in the file.
+     * Get s a list of all filtered change items of a specific product.
      *
-     * @param lastChangeItem (in) int - last change item of previous page.
-     * @return (out) long - position in number of bytes
-     * @throws IOException
+     * @param productName (in) String - Product name reference to find all pending changes.
+     * @param pageCursor (in) PageCursor - cursor of the previous page, or PageCursor.FIRST.
+     * @param pageSize (in) int - How many items of data each page can hold.
+     * @param mode (in) String - type of filtering.
+     * @return (out) Page<ChangeItem> - filtered change items, and the cursor of the next page.
      */
     //---
-    private long getStartingPositionForChangeItem(int lastChangeItem) throws IOException {
-        ChangeItem change = new ChangeItem();
-        long pos = 0;
-        changeItemFile.seek(pos);
-
-        if (lastChangeItem != -1) {
-            while (true) {
-                change.readChangeItems(changeItemFile);
-                int changeItemOfStartingPosition = change.getChangeID();
-                if (lastChangeItem == changeItemOfStartingPosition) {
-                    break;
-                }
-                pos += ChangeItem.BYTES_SIZE_CHANGE_ITEM;
-            }
-            pos += ChangeItem.BYTES_SIZE_CHANGE_ITEM;
-        }
-        return pos;
+    public Page<ChangeItem> generateFilteredChangesPage(String productName, PageCursor pageCursor, int pageSize,
+                                                        String mode) {
+        return generateFilteredChangesPage(productName, pageCursor, pageSize, mode, ' ');
     }
 
     //-----------------------------
     /**
-     * Get s a list of all filtered change items of a specific product.
+     * Gets a list of all filtered change items of a specific product and priority. The product,
+     * status and priority bitmaps are combined first, then only the matching records are read.
      *
      * @param productName (in) String - Product name reference to find all pending changes.
-     * @param lastChangeItem (in) int - Last change item of previous page.
+     * @param pageCursor (in) PageCursor - cursor of the previous page, or PageCursor.FIRST.
      * @param pageSize (in) int - How many items of data each page can hold.
      * @param mode (in) String - type of filtering.
-     * @return (out) ChangeItem[] - array of filtered change items
+     * @param priority (in) char - priority of the change items ('1' - '5'), or ' ' for any.
+     * @return (out) Page<ChangeItem> - filtered change items, and the cursor of the next page.
      */
     //---
-    public ChangeItem[] generateFilteredChangesPage(String productName, int lastChangeItem, int pageSize, String mode) {
+    public Page<ChangeItem> generateFilteredChangesPage(String productName, PageCursor pageCursor, int pageSize,
+                                                        String mode, char priority) {
         ChangeItem[] changeItems = new ChangeItem[pageSize];
+        PageCursor next = PageCursor.FIRST;
 
+        lock.readLock().lock();
         try {
-            long startingPosition = getStartingPositionForChangeItem(lastChangeItem);
-            changeItemFile.seek(startingPosition);
-        } catch (IOException e) {
-            System.err.println("Error in finding change item page" + e.getMessage());
-        }
+            RoaringBitmap matches = changeItemProducts.get(encodeChars(productName, Product.MAX_PRODUCT_NAME));
+            RoaringBitmap completed = changeItemStatuses.get(ChangeStatus.COMPLETED.getCode());
+            if (mode.equals("pending")) {
+                RoaringBitmap cancelled = changeItemStatuses.get(ChangeStatus.CANCELLED.getCode());
+                matches = RoaringBitmap.andNot(matches, RoaringBitmap.or(completed, cancelled));
+            } else {
+                matches = RoaringBitmap.and(matches, completed);
+            }
+            if (priority != ' ') {
+                matches = RoaringBitmap.and(matches, changeItemPriorities.get(priority - '0'));
+            }
 
-        int changeItemCounter = 0;
-        while (changeItemCounter < pageSize) {
-            try {
+            // continue after the record of the last change item shown
+            long lastOffset = pageCursor.getLastOffset(changeItemFile);
+            int recordNumber = lastOffset == -1 ? 0 : changeItemFile.recordNumber(lastOffset) + 1;
+            RecordPage page = changeItemFile.newPage();
+
+            int changeItemCounter = 0;
+            while (changeItemCounter < pageSize && (recordNumber = matches.nextValue(recordNumber)) != -1) {
+                long offset = changeItemFile.recordOffset(recordNumber);
                 ChangeItem c = new ChangeItem();
-                c.readChangeItems(changeItemFile);
-
-                String tempProductName = new String(c.getProductName());
-                String tempStatus = new String(c.getStatus()).trim();
-                boolean validChange;
-                if (mode.equals("pending")) {
-                    validChange = tempProductName.equals(productName) &&
-                            (!tempStatus.equals("Completed") && !tempStatus.equals("Cancelled"));
-                } else {
-                    validChange = tempProductName.equals(productName) &&
-                            (tempStatus.equals("Completed"));
-                }
-                if (validChange) {
-                    changeItems[changeItemCounter] = c;
-                    changeItemCounter++;
+                c.readChangeItems(changeItemFile.readRecord(offset, page));
+                changeItems[changeItemCounter] = c;
+                changeItemCounter++;
+                recordNumber++;
+                if (changeItemCounter == pageSize) {
+                    next = PageCursor.after(changeItemFile, offset);
                 }
-            } catch (EOFException e) {
-                break;
-            } catch (IOException e) {
-                System.err.println("Error in reading from file" + e.getMessage());
             }
+        } catch (IOException e) {
+            System.err.println("Error in reading from file" + e.getMessage());
+        } finally {
+            lock.readLock().unlock();
         }
-        return changeItems;
+        return new Page<>(changeItems, next);
     }
 
     //-----------------------------
     /**
      * Gets a list of all completed changes for customer notification.
      * Gets a list of all requester emails & names for a specific change item
-     * tracked by change ID
+     * tracked by change ID. The change requests are read a batch at a time and joined with
+     * the requesters of the batch together, see findRequestersByEmail.
      *
      * @param changeID (in) int - Change item reference.
-     * @param lastEmail (in) String - Last email of previous page.
+     * @param pageCursor (in) PageCursor - cursor of the previous page, or PageCursor.FIRST.
      * @param pageSize (in) int - How many items of data each page can hold.
-     * @return (out) Requester[] - Requester array of requesters to notify.
+     * @return (out) Page<Requester> - requesters to notify, and the cursor of the next page.
      */
     //---
-    public Requester[] generateEmailsPage(int changeID, String lastEmail, int pageSize) {
+    public Page<Requester> generateEmailsPage(int changeID, PageCursor pageCursor, int pageSize) {
         Requester[] emails = new Requester[pageSize];
-        String compEmail; // compared email from change request file
+        PageCursor next = PageCursor.FIRST;
+        byte[] change = ByteBuffer.allocate(Integer.BYTES).putInt(changeID).array();
 
-         ChangeRequest request = new ChangeRequest();
+        ChangeRequest request = new ChangeRequest();
 
-        // get the starting position in file
+        lock.readLock().lock();
         try {
-            long startPosition = getStartingPositionForChangeRequest(lastEmail);
-            changeRequestFile.seek(startPosition);
-        } catch (IOException e) {
-            System.err.println("Error in finding change request page" + e.getMessage());
-        }
-
-        int itemCounter = 0;
+            // the requests of the change are in offset order, continue after the last one shown
+            BPlusTree.Cursor cursor = changeRequestIDs.seek(change, pageCursor.getLastOffset(changeRequestFile) + 1);
+            RecordPage page = changeRequestFile.newPage();
+            long lastRequest = -1;
+            boolean moreRequests = true;
+
+            int itemCounter = 0;
+            while (itemCounter < pageSize && moreRequests) {
+                // a batch is no larger than the rest of the page, so no request is read past it
+                List<String> batch = new ArrayList<>();
+                while (batch.size() < pageSize - itemCounter) {
+                    moreRequests = cursor.next() && cursor.keyStartsWith(change);
+                    if (!moreRequests) {
+                        break;
+                    }
+                    request.readChangeRequest(changeRequestFile.readRecord(cursor.getValue(), page));
+                    batch.add(new String(request.getRequesterEmail()));
+                    lastRequest = cursor.getValue();
+                }
 
-        while (itemCounter < pageSize) {
-            try {
-                request.readChangeRequest(changeRequestFile);
-                if (request.getChangeID() == changeID) {
-                    compEmail = new String(request.getRequesterEmail());
-                    Requester tempRequester = findRequesterByEmail(compEmail);
+                Map<String, Requester> requesters = findRequestersByEmail(batch);
+                for (String email : batch) {
+                    Requester tempRequester = requesters.get(email);
                     if (tempRequester != null) {
                         emails[itemCounter] = tempRequester;
                         itemCounter++;
                     }
                 }
-            } catch (EOFException e) {
-                break;
-            } catch (IOException e) {
-                System.err.println("Error in reading file" + e.getMessage());
             }
+            if (itemCounter == pageSize) {
+                next = PageCursor.after(changeRequestFile, lastRequest);
+            }
+        } catch (IOException e) {
+            System.err.println("Error in reading file" + e.getMessage());
+        } finally {
+            lock.readLock().unlock();
         }
-        return emails;
+        return new Page<>(emails, next);
     }
 
     //-----------------------------
     /**
-     * Searches requester file for specific email.
+     * Gets a list of the pending change items of a product anticipated from today to a number
+     * of days ahead, in date order. The dates are scanned in the date index and only the items
+     * of the product that are neither completed nor cancelled are read.
      *
-     * @param email (in) String - email of requester.
-     * @return (out) Requester - The requester object.
-     * @throws IOException
+     * @param productName (in) String - Product name of the change items.
+     * @param days (in) int - number of days after today the range ends with.
+     * @param pageCursor (in) PageCursor - cursor of the previous page, or PageCursor.FIRST.
+     * @param pageSize (in) int - How many items of data each page can hold.
+     * @return (out) Page<ChangeItem> - change items due, and the cursor of the next page.
      */
     //---
-    private Requester findRequesterByEmail(String email) throws IOException {
-        requesterFile.seek(0); // Start at the beginning of the requester file
-        Requester requester = new Requester();
+    public Page<ChangeItem> generateChangeItemsDuePage(String productName, int days, PageCursor pageCursor,
+                                                       int pageSize) {
+        ChangeItem[] changeItems = new ChangeItem[pageSize];
+        PageCursor next = PageCursor.FIRST;
+        LocalDate today = LocalDate.now();
+        LocalDate lastDay = today.plusDays(days);
 
+        lock.readLock().lock();
         try {
-            while (true) {
-                requester.readRequester(requesterFile);
-                String requesterEmail = new String(requester.getEmail());
-                if (email.equals(requesterEmail)) {
-                    return requester;
+            RoaringBitmap matches = changeItemProducts.get(encodeChars(productName, Product.MAX_PRODUCT_NAME));
+            RoaringBitmap closed = RoaringBitmap.or(changeItemStatuses.get(ChangeStatus.COMPLETED.getCode()),
+                    changeItemStatuses.get(ChangeStatus.CANCELLED.getCode()));
+            matches = RoaringBitmap.andNot(matches, closed);
+            RecordPage page = changeItemFile.newPage();
+
+            // continue after the date and record of the last change item shown
+            BPlusTree.Cursor cursor = changeItemDates.seek(today, 0);
+            long lastOffset = pageCursor.getLastOffset(changeItemFile);
+            if (lastOffset != -1 && pageCursor.getKey() >= today.toEpochDay()) {
+                cursor = changeItemDates.seek(LocalDate.ofEpochDay(pageCursor.getKey()), lastOffset + 1);
+            }
+
+            int changeItemCounter = 0;
+            LocalDate date;
+            while (changeItemCounter < pageSize && cursor.next()
+                    && !(date = DateIndex.dateOf(cursor.getKey())).isAfter(lastDay)) {
+                long offset = cursor.getValue();
+                if (matches.contains(changeItemFile.recordNumber(offset))) {
+                    ChangeItem c = new ChangeItem();
+                    c.readChangeItems(changeItemFile.readRecord(offset, page));
+                    changeItems[changeItemCounter] = c;
+                    changeItemCounter++;
+                    if (changeItemCounter == pageSize) {
+                        next = PageCursor.after(changeItemFile, date.toEpochDay(), offset);
+                    }
                 }
             }
-        } catch (EOFException e) {
-            // End of file reached, requester not found
+        } catch (IOException e) {
+            System.err.println("Error in reading from file" + e.getMessage());
+        } finally {
+            lock.readLock().unlock();
         }
-        return null;
+        return new Page<>(changeItems, next);
     }
 
     //-----------------------------
     /**
-     * Utility method that searches the last requester of the previous page, and gets its position
-     * in the file.
+     * Gets a list of the releases of all products dated between two dates, in date order.
      *
-     * @param lastEmail (in) int - last change item of previous page.
-     * @return (out) long - position in number of bytes
-     * @throws IOException
+     * @param from (in) LocalDate - first date of the range.
+     * @param to (in) LocalDate - last date of the range.
+     * @param pageCursor (in) PageCursor - cursor of the previous page, or PageCursor.FIRST.
+     * @param pageSize (in) int - How many items of data each page can hold.
+     * @return (out) Page<Release> - releases, and the cursor of the next page.
      */
     //---
-    private long getStartingPositionForChangeRequest(String lastEmail) throws IOException {
-        ChangeRequest request = new ChangeRequest();
-        long pos = 0;
-        changeRequestFile.seek(pos);
+    public Page<Release> generateReleasesBetweenPage(LocalDate from, LocalDate to, PageCursor pageCursor,
+                                                     int pageSize) {
+        Release[] releases = new Release[pageSize];
+        PageCursor next = PageCursor.FIRST;
 
-        if (lastEmail != null) {
-            while (true) {
-                request.readChangeRequest(changeRequestFile);
-                String startingPositionOfChangeRequest = new String(request.getRequesterEmail());
-                if (lastEmail.equals(startingPositionOfChangeRequest)) {
-                    break;
+        lock.readLock().lock();
+        try {
+            RecordPage page = releaseFile.newPage();
+
+            // continue after the date and record of the last release shown
+            BPlusTree.Cursor cursor = releaseDates.seek(from, 0);
+            long lastOffset = pageCursor.getLastOffset(releaseFile);
+            if (lastOffset != -1 && pageCursor.getKey() >= from.toEpochDay()) {
+                cursor = releaseDates.seek(LocalDate.ofEpochDay(pageCursor.getKey()), lastOffset + 1);
+            }
+
+            int releaseCounter = 0;
+            LocalDate date;
+            while (releaseCounter < pageSize && cursor.next() && !(date = DateIndex.dateOf(cursor.getKey())).isAfter(to)) {
+                Release r = new Release();
+                r.readRelease(releaseFile.readRecord(cursor.getValue(), page));
+                releases[releaseCounter] = r;
+                releaseCounter++;
+                if (releaseCounter == pageSize) {
+                    next = PageCursor.after(releaseFile, date.toEpochDay(), cursor.getValue());
                 }
-                pos += ChangeRequest.BYTES_SIZE_CHANGE_REQUEST;
             }
-            pos += ChangeRequest.BYTES_SIZE_CHANGE_REQUEST;
+        } catch (IOException e) {
+            System.err.println("Error in reading from file" + e.getMessage());
+        } finally {
+            lock.readLock().unlock();
         }
-        return pos;
+        return new Page<>(releases, next);
     }
 
     //-----------------------------
     /**
-     * Closes the file, on system shut down
+     * Streams the requesters in file order. The read lock is held until the stream is closed,
+     * so the stream must be closed, e.g. with try-with-resources, and not be used by a thread
+     * that changes the files.
+     *
+     * @return (out) Stream<Requester> - lazily decoded requesters.
+     */
+    //---
+    public Stream<Requester> scanRequesters() {
+        return streamRecords(requesterFile, reader -> {
+            Requester r = new Requester();
+            r.readRequester(reader);
+            return r;
+        });
+    }
+
+    //-----------------------------
+    /**
+     * Streams the products in file order. The stream must be closed, see scanRequesters.
+     *
+     * @return (out) Stream<Product> - lazily decoded products.
+     */
+    //---
+    public Stream<Product> scanProducts() {
+        return streamRecords(productFile, reader -> {
+            Product p = new Product();
+            p.readProduct(reader);
+            return p;
+        });
+    }
+
+    //-----------------------------
+    /**
+     * Streams the releases in file order. The stream must be closed, see scanRequesters.
+     *
+     * @return (out) Stream<Release> - lazily decoded releases.
+     */
+    //---
+    public Stream<Release> scanReleases() {
+        return streamRecords(releaseFile, reader -> {
+            Release r = new Release();
+            r.readRelease(reader);
+            return r;
+        });
+    }
+
+    //-----------------------------
+    /**
+     * Streams the change items in file order. The stream must be closed, see scanRequesters.
+     *
+     * @return (out) Stream<ChangeItem> - lazily decoded change items.
+     */
+    //---
+    public Stream<ChangeItem> scanChangeItems() {
+        return scanChangeItems(null);
+    }
+
+    //-----------------------------
+    /**
+     * Streams the change items selected by a filter in file order, e.g. the open items of a
+     * product. Only the selected items are decoded. The stream must be closed, see scanRequesters.
+     *
+     * @param filter (in) RecordFilter - filter on the encoded change items, or null for all.
+     * @return (out) Stream<ChangeItem> - lazily decoded change items.
+     */
+    //---
+    public Stream<ChangeItem> scanChangeItems(RecordFilter filter) {
+        return streamRecords(changeItemFile, filter, reader -> {
+            ChangeItem c = new ChangeItem();
+            c.readChangeItems(reader);
+            return c;
+        });
+    }
+
+    //-----------------------------
+    /**
+     * Streams the change requests in file order. The stream must be closed, see scanRequesters.
+     *
+     * @return (out) Stream<ChangeRequest> - lazily decoded change requests.
+     */
+    //---
+    public Stream<ChangeRequest> scanChangeRequests() {
+        return streamRecords(changeRequestFile, reader -> {
+            ChangeRequest c = new ChangeRequest();
+            c.readChangeRequest(reader);
+            return c;
+        });
+    }
+
+    //-----------------------------
+    /**
+     * Utility method that streams the records of a file under the read lock, which the stream
+     * releases when it is closed.
+     *
+     * @param file (in) RecordFile - file to be streamed.
+     * @param decoder (in) RecordDecoder<T> - turns a record into an object.
+     * @return (out) Stream<T> - lazily decoded records, empty if the file cannot be read.
+     */
+    //---
+    private <T> Stream<T> streamRecords(RecordFile file, RecordDecoder<T> decoder) {
+        return streamRecords(file, null, decoder);
+    }
+
+    //-----------------------------
+    /**
+     * Utility method that streams the records of a file selected by a filter under the read
+     * lock, which the stream releases when it is closed.
+     *
+     * @param file (in) RecordFile - file to be streamed.
+     * @param filter (in) RecordFilter - filter on the encoded records, or null for all.
+     * @param decoder (in) RecordDecoder<T> - turns a selected record into an object.
+     * @return (out) Stream<T> - lazily decoded records, empty if the file cannot be read.
+     */
+    //---
+    private <T> Stream<T> streamRecords(RecordFile file, RecordFilter filter, RecordDecoder<T> decoder) {
+        lock.readLock().lock();
+        try {
+            return file.stream(filter, decoder).onClose(lock.readLock()::unlock);
+        } catch (IOException e) {
+            lock.readLock().unlock();
+            System.err.println("Error in reading from file" + e.getMessage());
+            return Stream.empty();
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Exports the pending change items of every product to a text file, one comma separated line
+     * per item, for the nightly export. The change items are scanned in parallel: the file is
+     * split into ranges of pages, which the threads of the common ForkJoinPool read with
+     * positional reads and filter on the status byte, and the lines are written in file order as
+     * they are merged, so the export is not held in memory.
+     *
+     * @param fileName (in) String - name of the export file, replaced if it exists.
+     * @return (out) long - number of change items exported, or -1 if the export failed.
+     */
+    //---
+    public long exportPendingChanges(String fileName) {
+        RecordFilter pending = RecordFilter.codeIn(ChangeItem.STATUS_PRIORITY_OFFSET, ChangeItem.STATUS_SHIFT,
+                ChangeItem.CODE_MASK, ChangeStatus.OPEN.getCode(), ChangeStatus.ASSESSED.getCode(),
+                ChangeStatus.IN_PROGRESS.getCode());
+        long[] exported = {0};
+
+        try (BufferedWriter writer = Files.newBufferedWriter(Path.of(fileName), StandardCharsets.ISO_8859_1);
+             Stream<ChangeItem> changes = scanChangeItems(pending)) {
+            writer.write(EXPORT_HEADER);
+            writer.newLine();
+            changes.parallel().map(ScenarioManager::exportLine).forEachOrdered(line -> {
+                try {
+                    writer.write(line);
+                    writer.newLine();
+                    exported[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Error exporting pending changes " + e.getMessage());
+            return -1;
+        }
+        return exported[0];
+    }
+
+    //-----------------------------
+    /**
+     * Helper function to format a change item as a line of the pending changes export. Every
+     * text field is quoted, and a change item without an anticipated release date gets an
+     * empty date field.
+     *
+     * @param change (in) ChangeItem - change item to be exported.
+     * @return (out) String - comma separated fields, in the order of EXPORT_HEADER.
+     */
+    //---
+    private static String exportLine(ChangeItem change) {
+        return change.getChangeID() + "," + exportText(change.getProductName()) + ","
+                + exportText(change.getReleaseID()) + "," + exportText(change.getStatus()) + ","
+                + change.getPriority() + "," + change.getAnticipatedReleaseDate() + ","
+                + exportText(change.getChangeDescription());
+    }
+
+    //-----------------------------
+    /**
+     * Helper function to format a padded text field of the pending changes export: trimmed and
+     * quoted, with its quotes doubled.
+     *
+     * @param field (in) char[] - padded text field of a record.
+     * @return (out) String - quoted field.
+     */
+    //---
+    private static String exportText(char[] field) {
+        return "\"" + new String(field).trim().replace("\"", "\"\"") + "\"";
+    }
+
+    //-----------------------------
+    /**
+     * Gets the live and free bytes of every record file, for the storage statistics report.
+     *
+     * @return (out) StorageStats[] - statistics of each file, in RecordType order.
+     */
+    //---
+    public StorageStats[] generateStorageStats() {
+        StorageStats[] stats = new StorageStats[files.size()];
+        int i = 0;
+
+        lock.readLock().lock();
+        try {
+            for (RecordFile file : files.values()) {
+                stats[i++] = file.getStats();
+            }
+        } catch (IOException e) {
+            System.err.println("Error in reading file" + e.getMessage());
+        } finally {
+            lock.readLock().unlock();
+        }
+        return stats;
+    }
+
+    //-----------------------------
+    /**
+     * Looks up a batch of requesters by email, as a hash join of the distinct emails with the
+     * requester file. A small batch probes the email index once per email; a batch large enough
+     * that the probes would cost more than reading the file is joined in one scan instead, which
+     * stops once every email is found.
+     *
+     * @param emails (in) List<String> - emails of the requesters, padded as stored.
+     * @return (out) Map<String, Requester> - requesters found, by email.
+     * @throws IOException
+     */
+    //---
+    private Map<String, Requester> findRequestersByEmail(List<String> emails) throws IOException {
+        Set<String> wanted = new HashSet<>(emails);
+        Map<String, Requester> requesters = new HashMap<>();
+
+        if ((long) wanted.size() * PROBE_RECORDS < requesterFile.getRecordCount()) {
+            RecordPage page = requesterFile.newPage();
+            for (String email : wanted) {
+                long offset = requesterEmails.find(encodeChars(email, Requester.MAX_EMAIL));
+                if (offset != -1) {
+                    Requester requester = new Requester();
+                    requester.readRequester(requesterFile.readRecord(offset, page));
+                    requesters.put(email, requester);
+                }
+            }
+            return requesters;
+        }
+
+        RecordScanner scanner = requesterFile.scan(0);
+        while (requesters.size() < wanted.size() && scanner.next()) {
+            RecordReader reader = scanner.getReader();
+            long start = reader.getFilePointer();
+            String email = new String(readCharsFromFile(reader, Requester.MAX_EMAIL));
+            if (wanted.contains(email)) {
+                reader.seek(start);
+                Requester requester = new Requester();
+                requester.readRequester(reader);
+                requesters.put(email, requester);
+            }
+        }
+        return requesters;
+    }
+
+    //-----------------------------
+    /**
+     * Looks up the first release with an ID in the release ID index.
+     *
+     * @param releaseID (in) String - identifier of the release.
+     * @return (out) long - byte offset of the release, or -1 if there is none.
+     * @throws IOException
+     */
+    //---
+    private long findRelease(String releaseID) throws IOException {
+        if (releaseID.length() > Release.MAX_RELEASE_ID) {
+            return -1;
+        }
+        byte[] release = encodeChars(releaseID, Release.MAX_RELEASE_ID);
+        BPlusTree.Cursor cursor = releaseIDs.seek(release, 0);
+        return cursor.next() && cursor.keyStartsWith(release) ? cursor.getValue() : -1;
+    }
+
+    //-----------------------------
+    /**
+     * Finds the first record of a file selected by a filter with a scan, for files without an
+     * index on the field. The filter is checked on the encoded records, so the other records
+     * are not decoded.
+     *
+     * @param file (in) RecordFile - file to be scanned.
+     * @param filter (in) RecordFilter - selects the record.
+     * @return (out) long - byte offset of the record, or -1 if there is none.
+     * @throws IOException
+     */
+    //---
+    private long findFirst(RecordFile file, RecordFilter filter) throws IOException {
+        RecordScanner scanner = file.scan(0);
+        while (scanner.next()) {
+            if (filter.matches(scanner.getReader())) {
+                return scanner.getOffset();
+            }
+        }
+        return -1;
+    }
+
+    //-----------------------------
+    /**
+     * Looks up the change request of a requester for a change item in the (change ID, email)
+     * index, comparing the records the index points to.
+     *
+     * @param changeID (in) int - change item of the request.
+     * @param email (in) String - email of the requester.
+     * @return (out) long - byte offset of the change request, or -1 if there is none.
+     * @throws IOException
+     */
+    //---
+    private long findChangeRequest(int changeID, String email) throws IOException {
+        if (email.length() > Requester.MAX_EMAIL) {
+            return -1;
+        }
+        byte[] key = ByteBuffer.allocate(Integer.BYTES + Requester.MAX_EMAIL)
+                .putInt(changeID).put(encodeChars(email, Requester.MAX_EMAIL)).array();
+        RecordFilter filter = RecordFilter.intEquals(ChangeRequest.CHANGE_ID_OFFSET, changeID)
+                .and(RecordFilter.charsEqual(ChangeRequest.EMAIL_OFFSET, email, Requester.MAX_EMAIL));
+        RecordPage page = changeRequestFile.newPage();
+
+        for (long offset : changeRequestPairs.find(key)) {
+            if (filter.matches(changeRequestFile.readRecord(offset, page))) {
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    //-----------------------------
+    /**
+     * Finishes a change made while holding the write lock, checkpointing the log when it
+     * has grown too large. The caller commits the returned LSN after releasing the lock, so
+     * changes of concurrent callers share one log flush.
+     *
+     * @return (out) long - LSN to be committed.
+     * @throws IOException
+     */
+    //---
+    private long endChange() throws IOException {
+        if (log.needsCheckpoint()) {
+            log.checkpoint(files.values());
+        }
+        return log.getLastLsn();
+    }
+
+    //-----------------------------
+    /**
+     * Closes the file, on system shut down. All logged changes are checkpointed first, so
+     * the log is empty after a clean shut down.
      */
     //---
     public void closeFiles() {
+        compactor.stop();
         try {
+            lock.writeLock().lock();
+            try {
+                log.checkpoint(files.values());
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.close();
             requesterFile.close();
+            productFile.close();
+            releaseFile.close();
+            changeItemFile.close();
+            changeRequestFile.close();
         } catch (IOException e) {
             System.err.println("Error closing files " + e.getMessage());
         }
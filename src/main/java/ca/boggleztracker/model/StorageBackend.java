@@ -0,0 +1,82 @@
+/**
+ * File: StorageBackend.java
+ * Revision History:
+ * - 2026-10-18: Function declarations
+ * - 2026-10-18: Truncating the file
+ * Purpose:
+ * StorageBackend interface defines a contract for positional access to the bytes of a data file.
+ * ScenarioManager reads every record file through a backend, so the way bytes are fetched
+ * (system calls or memory mapping) can change without touching the record classes.
+ */
+package ca.boggleztracker.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public interface StorageBackend {
+    //=============================
+    // Abstract Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Reads bytes starting at a position in the file into the remaining space of the destination.
+     *
+     * @param position (in) long - byte position in file.
+     * @param destination (in/out) ByteBuffer - buffer the bytes are copied into.
+     * @return (out) int - number of bytes read, or -1 if position is at or past the end of file.
+     * @throws IOException
+     */
+    //---
+    int read(long position, ByteBuffer destination) throws IOException;
+
+    //-----------------------------
+    /**
+     * Writes the remaining bytes of the source starting at a position in the file, growing the
+     * file when needed.
+     *
+     * @param position (in) long - byte position in file.
+     * @param source (in) ByteBuffer - bytes to be written.
+     * @throws IOException
+     */
+    //---
+    void write(long position, ByteBuffer source) throws IOException;
+
+    //-----------------------------
+    /**
+     * Gets the size of the file.
+     *
+     * @return (out) long - file size in bytes.
+     * @throws IOException
+     */
+    //---
+    long length() throws IOException;
+
+    //-----------------------------
+    /**
+     * Cuts the file back to a size, dropping the bytes past it.
+     *
+     * @param size (in) long - new file size in bytes, not above the current size.
+     * @throws IOException
+     */
+    //---
+    void truncate(long size) throws IOException;
+
+    //-----------------------------
+    /**
+     * Forces all written bytes to the storage device.
+     *
+     * @throws IOException
+     */
+    //---
+    void force() throws IOException;
+
+    //-----------------------------
+    /**
+     * Releases the resources held by the backend. The underlying file is closed by its owner.
+     *
+     * @throws IOException
+     */
+    //---
+    void close() throws IOException;
+}
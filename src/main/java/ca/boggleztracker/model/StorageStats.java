@@ -0,0 +1,89 @@
+/**
+ * File: StorageStats.java
+ * Revision History:
+ * - 2026-10-18: Live and free bytes of a record file
+ * Purpose:
+ * StorageStats class holds how the space of one record file is used: the size of the file, the
+ * bytes taken by live records and the bytes of free slots that inserts can fill. The remaining
+ * bytes are the header page, the page headers and the unused space at the end of every page.
+ */
+package ca.boggleztracker.model;
+
+public class StorageStats {
+    //=============================
+    // Member fields
+    //=============================
+    private final String fileName;
+    private final long fileBytes;
+    private final long liveBytes;
+    private final long freeBytes;
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * Four argument constructor for StorageStats.
+     *
+     * @param fileName (in) String - name of the record file.
+     * @param fileBytes (in) long - size of the file.
+     * @param liveBytes (in) long - bytes of live records.
+     * @param freeBytes (in) long - bytes of free slots.
+     */
+    //---
+    public StorageStats(String fileName, long fileBytes, long liveBytes, long freeBytes) {
+        this.fileName = fileName;
+        this.fileBytes = fileBytes;
+        this.liveBytes = liveBytes;
+        this.freeBytes = freeBytes;
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Getter method for the name of the record file.
+     *
+     * @return (out) String - file name.
+     */
+    //---
+    public String getFileName() {
+        return fileName;
+    }
+
+    //-----------------------------
+    /**
+     * Getter method for the size of the file.
+     *
+     * @return (out) long - file size in bytes.
+     */
+    //---
+    public long getFileBytes() {
+        return fileBytes;
+    }
+
+    //-----------------------------
+    /**
+     * Getter method for the bytes taken by live records.
+     *
+     * @return (out) long - live record bytes.
+     */
+    //---
+    public long getLiveBytes() {
+        return liveBytes;
+    }
+
+    //-----------------------------
+    /**
+     * Getter method for the bytes of free slots, deleted records included.
+     *
+     * @return (out) long - free slot bytes.
+     */
+    //---
+    public long getFreeBytes() {
+        return freeBytes;
+    }
+}
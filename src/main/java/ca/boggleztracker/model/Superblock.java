@@ -0,0 +1,248 @@
+/**
+ * File: Superblock.java
+ * Revision History:
+ * - 2026-10-18: Double buffered superblock with live record count and next sequence number
+ * Purpose:
+ * Superblock class holds the counters of a record file that change with every insert or delete:
+ * the number of live records and the next sequence number (the next change ID in
+ * change-item.dat). It is stored in page 0 after the FileHeader fields, in two copies laid out as:
+ *   - LSN (8 bytes): sequence number of the logged change that wrote the copy
+ *   - record count (8 bytes): number of live records
+ *   - next sequence (8 bytes): next sequence number to hand out
+ *   - checksum (4 bytes): CRC32C of the fields above
+ * Updates go to the copy that is not the newest, so a torn write never destroys the last good
+ * copy. On open the valid copy with the highest LSN is used, and changes logged after it are
+ * replayed from the WriteAheadLog.
+ */
+package ca.boggleztracker.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+
+public class Superblock {
+    //=============================
+    // Constants and static fields
+    //=============================
+    public static final int LOG_SIZE = 2 * Long.BYTES; // record count and next sequence
+    private static final int[] COPY_OFFSETS = {64, 128};
+    private static final int FIELDS_SIZE = 3 * Long.BYTES;
+    private static final int COPY_SIZE = FIELDS_SIZE + Integer.BYTES;
+
+    //=============================
+    // Member fields
+    //=============================
+    private long lsn;
+    private long recordCount;
+    private long nextSequence;
+    private int copy; // index of the newest copy, -1 if none was written
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * Two argument constructor for the superblock of a new file.
+     *
+     * @param recordCount (in) long - number of live records.
+     * @param nextSequence (in) long - next sequence number to hand out.
+     */
+    //---
+    public Superblock(long recordCount, long nextSequence) {
+        this.lsn = 0;
+        this.recordCount = recordCount;
+        this.nextSequence = nextSequence;
+        this.copy = -1;
+    }
+
+    //=============================
+    // Static Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Reads the newest valid copy of the superblock of a file.
+     *
+     * @param storage (in) StorageBackend - backend of the opened file.
+     * @return (out) Superblock - the newest valid copy.
+     * @throws IOException when neither copy is valid.
+     */
+    //---
+    public static Superblock read(StorageBackend storage) throws IOException {
+        Superblock newest = null;
+
+        for (int i = 0; i < COPY_OFFSETS.length; i++) {
+            ByteBuffer fields = ByteBuffer.allocate(COPY_SIZE);
+            storage.read(COPY_OFFSETS[i], fields);
+            if (fields.position() != COPY_SIZE || fields.getInt(FIELDS_SIZE) != checksum(fields)) {
+                continue;
+            }
+            Superblock candidate = new Superblock(fields.getLong(Long.BYTES), fields.getLong(2 * Long.BYTES));
+            candidate.lsn = fields.getLong(0);
+            candidate.copy = i;
+            if (newest == null || candidate.lsn > newest.lsn) {
+                newest = candidate;
+            }
+        }
+        if (newest == null) {
+            throw new IOException("No valid superblock");
+        }
+        return newest;
+    }
+
+    //-----------------------------
+    /**
+     * Computes the CRC32C of the fields of a copy.
+     *
+     * @param fields (in) ByteBuffer - encoded copy.
+     * @return (out) int - checksum of the fields.
+     */
+    //---
+    private static int checksum(ByteBuffer fields) {
+        CRC32C crc = new CRC32C();
+        crc.update(fields.array(), 0, FIELDS_SIZE);
+        return (int) crc.getValue();
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Getter method for the LSN of the last logged change to the superblock.
+     *
+     * @return (out) long - superblock LSN.
+     */
+    //---
+    public long getLsn() {
+        return lsn;
+    }
+
+    //-----------------------------
+    /**
+     * Setter method for the LSN of the last logged change to the superblock.
+     *
+     * @param lsn (in) long - superblock LSN.
+     */
+    //---
+    public void setLsn(long lsn) {
+        this.lsn = lsn;
+    }
+
+    //-----------------------------
+    /**
+     * Getter method for the number of live records.
+     *
+     * @return (out) long - record count.
+     */
+    //---
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    //-----------------------------
+    /**
+     * Setter method for the number of live records.
+     *
+     * @param recordCount (in) long - record count.
+     */
+    //---
+    public void setRecordCount(long recordCount) {
+        this.recordCount = recordCount;
+    }
+
+    //-----------------------------
+    /**
+     * Getter method for the next sequence number.
+     *
+     * @return (out) long - next sequence number to hand out.
+     */
+    //---
+    public long getNextSequence() {
+        return nextSequence;
+    }
+
+    //-----------------------------
+    /**
+     * Setter method for the next sequence number.
+     *
+     * @param nextSequence (in) long - next sequence number to hand out.
+     */
+    //---
+    public void setNextSequence(long nextSequence) {
+        this.nextSequence = nextSequence;
+    }
+
+    //-----------------------------
+    /**
+     * Encodes the counters for a WriteAheadLog record.
+     *
+     * @return (out) byte[] - LOG_SIZE bytes.
+     */
+    //---
+    public byte[] toLogBytes() {
+        return ByteBuffer.allocate(LOG_SIZE).putLong(recordCount).putLong(nextSequence).array();
+    }
+
+    //-----------------------------
+    /**
+     * Sets the counters from a WriteAheadLog record.
+     *
+     * @param lsn (in) long - LSN of the log record.
+     * @param bytes (in) byte[] - LOG_SIZE bytes written by toLogBytes.
+     */
+    //---
+    public void fromLogBytes(long lsn, byte[] bytes) {
+        ByteBuffer fields = ByteBuffer.wrap(bytes);
+        this.lsn = lsn;
+        this.recordCount = fields.getLong();
+        this.nextSequence = fields.getLong();
+    }
+
+    //-----------------------------
+    /**
+     * Writes the superblock over its older copy with a single write.
+     *
+     * @param storage (in) StorageBackend - backend of the opened file.
+     * @throws IOException
+     */
+    //---
+    public void write(StorageBackend storage) throws IOException {
+        int target = (copy + 1) % COPY_OFFSETS.length;
+        storage.write(COPY_OFFSETS[target], encode());
+        copy = target;
+    }
+
+    //-----------------------------
+    /**
+     * Puts the superblock into the first copy of a header page that is not written yet, and
+     * clears the second copy.
+     *
+     * @param page (in/out) ByteBuffer - page 0 of a new file.
+     */
+    //---
+    public void writeTo(ByteBuffer page) {
+        page.put(COPY_OFFSETS[0], encode(), 0, COPY_SIZE);
+        page.put(COPY_OFFSETS[1], new byte[COPY_SIZE]);
+        copy = 0;
+    }
+
+    //-----------------------------
+    /**
+     * Encodes one copy of the superblock.
+     *
+     * @return (out) ByteBuffer - COPY_SIZE bytes ready to be written.
+     */
+    //---
+    private ByteBuffer encode() {
+        ByteBuffer fields = ByteBuffer.allocate(COPY_SIZE);
+        fields.putLong(lsn);
+        fields.putLong(recordCount);
+        fields.putLong(nextSequence);
+        fields.putInt(checksum(fields));
+        fields.flip();
+        return fields;
+    }
+}
@@ -0,0 +1,391 @@
+/**
+ * File: TermIndex.java
+ * Revision History:
+ * - 2026-10-18: Inverted index of the words of a text field, kept in a BPlusTree
+ * - 2026-10-18: Marked changed by the record file before each change
+ * - 2026-10-18: Tree of a compacted file written ahead of the swap, which only renames it
+ * Purpose:
+ * TermIndex class is a full text index over a text field of the records, e.g. the description
+ * of a change item. The field is split into terms, runs of letters and digits in lower case,
+ * and the tree gets one key per term and record: the term padded with zeros, followed by the
+ * record offset. The keys of a term are its posting list in file order, and the terms starting
+ * with a prefix are next to each other, so a prefix search is one range scan.
+ */
+package ca.boggleztracker.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class TermIndex implements RecordIndex {
+    //=============================
+    // Member fields
+    //=============================
+    private final String name;
+    private final int fieldOffset;
+    private final int fieldSize; // also the longest term
+    private final boolean mapped;
+    private String fileName;
+    private BPlusTree tree;
+    private TermIndex compacted; // index written for a compacted file, not swapped in yet
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * Four argument constructor for TermIndex. The index file is opened by open.
+     *
+     * @param name (in) String - name of the index, part of the index file name.
+     * @param fieldOffset (in) int - index of the text field in the encoded record.
+     * @param fieldSize (in) int - bytes of the text field.
+     * @param mapped (in) boolean - true to memory map the index file.
+     */
+    //---
+    public TermIndex(String name, int fieldOffset, int fieldSize, boolean mapped) {
+        this.name = name;
+        this.fieldOffset = fieldOffset;
+        this.fieldSize = fieldSize;
+        this.mapped = mapped;
+    }
+
+    //=============================
+    // Static Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Splits text into its distinct terms, the way the text field of a record is split.
+     *
+     * @param text (in) String - text to split, e.g. a search query.
+     * @return (out) List<byte[]> - terms in the order they first appear.
+     */
+    //---
+    public static List<byte[]> terms(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+        return terms(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+
+    //-----------------------------
+    /**
+     * Splits encoded text into its distinct terms.
+     *
+     * @param buffer (in) ByteBuffer - buffer holding one byte per character.
+     * @param index (in) int - index of the text in the buffer.
+     * @param length (in) int - bytes of the text.
+     * @return (out) List<byte[]> - terms in the order they first appear.
+     */
+    //---
+    private static List<byte[]> terms(ByteBuffer buffer, int index, int length) {
+        List<byte[]> terms = new ArrayList<>();
+        byte[] term = new byte[length];
+        int termLength = 0;
+
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? (char) (buffer.get(index + i) & 0xFF) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                term[termLength++] = (byte) Character.toLowerCase(c);
+            } else if (termLength > 0) {
+                byte[] found = Arrays.copyOf(term, termLength);
+                if (terms.stream().noneMatch(t -> Arrays.equals(t, found))) {
+                    terms.add(found);
+                }
+                termLength = 0;
+            }
+        }
+        return terms;
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Opens the index file next to the data file.
+     *
+     * @param file (in) RecordFile - open record file.
+     * @return (out) boolean - true if the stored tree is valid, false if it must be rebuilt.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public boolean open(RecordFile file) throws IOException {
+        fileName = file.getFileName() + "." + name + BTreeIndex.SUFFIX;
+        tree = new BPlusTree(fileName, fieldSize + Long.BYTES, mapped);
+        return tree.getStamp().isValidFor(file);
+    }
+
+    //-----------------------------
+    /**
+     * Rebuilds the tree from a scan of the file, sorting the keys and loading them bottom up.
+     *
+     * @param file (in) RecordFile - open record file.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void rebuild(RecordFile file) throws IOException {
+        List<byte[]> keys = new ArrayList<>();
+        RecordScanner scanner = file.scan(0);
+
+        while (scanner.next()) {
+            keys.addAll(keysOf(scanner.getOffset(), ByteBuffer.wrap(scanner.getRecordBytes())));
+        }
+        keys.sort(Arrays::compareUnsigned);
+
+        byte[][] sortedKeys = keys.toArray(new byte[0][]);
+        long[] values = new long[sortedKeys.length];
+        for (int i = 0; i < sortedKeys.length; i++) {
+            values[i] = ByteBuffer.wrap(sortedKeys[i]).getLong(fieldSize);
+        }
+        tree.load(sortedKeys, values, IndexStamp.of(file));
+    }
+
+    //-----------------------------
+    /**
+     * Marks the tree as changed.
+     *
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void beginChange() throws IOException {
+        tree.beginChange();
+    }
+
+    //-----------------------------
+    /**
+     * Adds the terms of an inserted record.
+     *
+     * @param offset (in) long - byte offset of the record.
+     * @param record (in) ByteBuffer - encoded record.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void inserted(long offset, ByteBuffer record) throws IOException {
+        for (byte[] key : keysOf(offset, record)) {
+            tree.put(key, offset);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Removes the terms of a deleted record.
+     *
+     * @param offset (in) long - byte offset of the record.
+     * @param record (in) ByteBuffer - encoded record as it was.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void deleted(long offset, ByteBuffer record) throws IOException {
+        for (byte[] key : keysOf(offset, record)) {
+            tree.remove(key);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Replaces the terms of an overwritten record that are no longer or newly in its text.
+     *
+     * @param offset (in) long - byte offset of the record.
+     * @param oldRecord (in) ByteBuffer - encoded record as it was.
+     * @param newRecord (in) ByteBuffer - encoded record as it is now.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void updated(long offset, ByteBuffer oldRecord, ByteBuffer newRecord) throws IOException {
+        List<byte[]> oldKeys = keysOf(offset, oldRecord);
+        List<byte[]> newKeys = keysOf(offset, newRecord);
+
+        for (byte[] key : oldKeys) {
+            if (newKeys.stream().noneMatch(k -> Arrays.equals(k, key))) {
+                tree.remove(key);
+            }
+        }
+        for (byte[] key : newKeys) {
+            if (oldKeys.stream().noneMatch(k -> Arrays.equals(k, key))) {
+                tree.put(key, offset);
+            }
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Writes the tree with the stamp of the file and closes it.
+     *
+     * @param file (in) RecordFile - record file, still open.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void close(RecordFile file) throws IOException {
+        tree.close(IndexStamp.of(file));
+    }
+
+    //-----------------------------
+    /**
+     * Writes the tree of a compacted file next to it, loaded like a rebuilt tree.
+     *
+     * @param file (in) RecordFile - compacted file opened for reading.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void writeCompacted(RecordFile file) throws IOException {
+        compacted = new TermIndex(name, fieldOffset, fieldSize, mapped);
+        compacted.open(file);
+        compacted.rebuild(file);
+        compacted.close(file);
+    }
+
+    //-----------------------------
+    /**
+     * Closes the tree and renames the tree of the compacted file over it.
+     *
+     * @param file (in) RecordFile - record file, opened again on the compacted file.
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void swapCompacted(RecordFile file) throws IOException {
+        tree.close(tree.getStamp());
+        Files.move(Paths.get(compacted.fileName), Paths.get(fileName), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        compacted = null;
+        if (!open(file)) {
+            rebuild(file);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Deletes the tree written for a compacted file.
+     *
+     * @throws IOException
+     */
+    //---
+    @Override
+    public void discardCompacted() throws IOException {
+        if (compacted != null) {
+            Files.deleteIfExists(Paths.get(compacted.fileName));
+            compacted = null;
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Finds the records whose text has, for every word of a query, a term starting with it.
+     *
+     * @param query (in) String - words to search for, each may be the start of a term.
+     * @return (out) long[] - byte offsets of the matching records in file order, none for a
+     *                        query without words.
+     * @throws IOException
+     */
+    //---
+    public long[] search(String query) throws IOException {
+        List<byte[]> words = terms(query);
+        if (words.isEmpty()) {
+            return new long[0];
+        }
+
+        // the longest word is the most selective, start with it
+        words.sort((a, b) -> b.length - a.length);
+        long[] matches = searchPrefix(words.get(0));
+        for (int i = 1; i < words.size() && matches.length > 0; i++) {
+            matches = intersect(matches, searchPrefix(words.get(i)));
+        }
+        return matches;
+    }
+
+    //-----------------------------
+    /**
+     * Finds the records with a term starting with a prefix, with one range scan.
+     *
+     * @param prefix (in) byte[] - lower case prefix of a term.
+     * @return (out) long[] - byte offsets of the records in file order.
+     * @throws IOException
+     */
+    //---
+    private long[] searchPrefix(byte[] prefix) throws IOException {
+        if (prefix.length > fieldSize) {
+            return new long[0];
+        }
+        long[] offsets = new long[16];
+        int count = 0;
+        BPlusTree.Cursor cursor = tree.seek(Arrays.copyOf(prefix, tree.getKeySize()));
+
+        while (cursor.next() && cursor.keyStartsWith(prefix)) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count++] = cursor.getValue();
+        }
+
+        // a record is found once for every term with the prefix
+        Arrays.sort(offsets, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || offsets[distinct - 1] != offsets[i]) {
+                offsets[distinct++] = offsets[i];
+            }
+        }
+        return Arrays.copyOf(offsets, distinct);
+    }
+
+    //-----------------------------
+    /**
+     * Intersects two sorted lists of offsets.
+     *
+     * @param a (in) long[] - sorted offsets.
+     * @param b (in) long[] - sorted offsets.
+     * @return (out) long[] - sorted offsets in both.
+     */
+    //---
+    private static long[] intersect(long[] a, long[] b) {
+        long[] both = new long[Math.min(a.length, b.length)];
+        int count = 0;
+
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                both[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(both, count);
+    }
+
+    //-----------------------------
+    /**
+     * Gets the keys of the terms of a record.
+     *
+     * @param offset (in) long - byte offset of the record.
+     * @param record (in) ByteBuffer - encoded record, the position is left unchanged.
+     * @return (out) List<byte[]> - one key per distinct term.
+     */
+    //---
+    private List<byte[]> keysOf(long offset, ByteBuffer record) {
+        List<byte[]> keys = new ArrayList<>();
+        for (byte[] term : terms(record, record.position() + fieldOffset, fieldSize)) {
+            byte[] key = Arrays.copyOf(term, fieldSize + Long.BYTES);
+            ByteBuffer.wrap(key).putLong(fieldSize, offset);
+            keys.add(key);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,427 @@
+/**
+ * File: WriteAheadLog.java
+ * Revision History:
+ * - 2026-10-18: Redo log with group commit
+ * - 2026-10-18: Delete log records
+ * - 2026-10-18: Superblock log records
+ * - 2026-10-18: Records appended from a ByteBuffer
+ * - 2026-10-18: Durable LSN for writing back data pages after their log records
+ * - 2026-10-18: Records appended into two reused direct buffers swapped by the flusher
+ * Purpose:
+ * WriteAheadLog class is the redo log of the tracker. Every change to a record file is appended
+ * to the log before the data page is written, and the page remembers the LSN (log sequence
+ * number) of the last change applied to it. A data page is written only once getDurableLsn has
+ * reached its LSN. Log records are buffered in memory and written by a flusher thread, so all
+ * records appended while the previous batch was being forced to disk share the next single
+ * write and fsync (group commit). Records are encoded straight into a direct buffer; the flusher
+ * swaps it for the spare one it wrote last time, so appending neither allocates nor copies the
+ * batch again before it is written.
+ * On start up the log is replayed: changes with an LSN newer than their page, or whose page
+ * fails its checksums, are applied again, which repairs pages that were half written when the
+ * program stopped. A checkpoint forces the
+ * record files to disk and empties the log.
+ *
+ * Log file layout: magic (4 bytes), version (4 bytes), first LSN of the log (8 bytes), then
+ * records of length (4 bytes), LSN (8 bytes), record type (1 byte), kind (1 byte),
+ * file offset (8 bytes), record bytes and a CRC32C checksum (4 bytes) of everything after the
+ * length. A torn record at the end of the log fails its checksum and ends the replay.
+ */
+package ca.boggleztracker.model;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+public class WriteAheadLog {
+    //=============================
+    // Constants and static fields
+    //=============================
+    public static final String FILE_NAME = "tracker.wal";
+    public static final byte PUT = 1; // record bytes written into a slot
+    public static final byte DELETE = 2; // slot freed, no record bytes
+    public static final byte SUPERBLOCK = 3; // superblock counters, at offset 0
+    public static final long CHECKPOINT_SIZE = 4L * 1024 * 1024; // log size that triggers a checkpoint
+    private static final int MAGIC = 0x42475A57; // "BGZW"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_HEADER_SIZE = Long.BYTES + 2 + Long.BYTES; // lsn, type, kind, offset
+    private static final int CHECKSUM_SIZE = Integer.BYTES;
+    private static final int BUFFER_SIZE = 64 * 1024; // initial size of each append buffer
+
+    //=============================
+    // Member fields
+    //=============================
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private ByteBuffer pending; // appended records not yet written, from 0 to the position
+    private ByteBuffer spare; // empty buffer the flusher swaps in for pending
+    private final CRC32C checksum;
+    private final Thread flusher;
+    private long nextLsn;
+    private long appendedLsn; // last LSN handed out
+    private long durableLsn; // last LSN forced to disk
+    private long writePosition; // end of the log file
+    private boolean flushing;
+    private boolean closed;
+    private IOException failure;
+
+    //=============================
+    // Constructors
+    //=============================
+
+    //-----------------------------
+    /**
+     * One argument constructor for WriteAheadLog, opens or creates the log file. Records of an
+     * existing log are not replayed until redo is called, and nothing can be appended before.
+     *
+     * @param fileName (in) String - name of the log file.
+     * @throws IOException when the file is not a log file.
+     */
+    //---
+    public WriteAheadLog(String fileName) throws IOException {
+        this.file = new RandomAccessFile(fileName, "rw");
+        this.channel = file.getChannel();
+        this.pending = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.spare = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.checksum = new CRC32C();
+
+        if (file.length() < HEADER_SIZE) {
+            writeHeader(1);
+        } else {
+            file.seek(0);
+            if (file.readInt() != MAGIC || file.readInt() != VERSION) {
+                file.close();
+                throw new IOException(fileName + " is not a log file");
+            }
+            nextLsn = file.readLong();
+        }
+        appendedLsn = nextLsn - 1;
+        durableLsn = appendedLsn;
+        writePosition = file.length();
+
+        this.flusher = new Thread(this::flushLoop, "wal-flusher");
+        this.flusher.setDaemon(true);
+    }
+
+    //=============================
+    // Methods
+    //=============================
+
+    //-----------------------------
+    /**
+     * Replays the log into the record files, then checkpoints so the log starts empty, and
+     * starts the flusher thread.
+     *
+     * @param files (in) Map - open record files by record type.
+     * @return (out) int - number of log records that were applied again.
+     * @throws IOException
+     */
+    //---
+    public int redo(Map<RecordType, RecordFile> files) throws IOException {
+        RecordType[] types = RecordType.values();
+        ByteBuffer lengthBuffer = ByteBuffer.allocate(Integer.BYTES);
+        long position = HEADER_SIZE;
+        int applied = 0;
+
+        while (true) {
+            lengthBuffer.clear();
+            if (channel.read(lengthBuffer, position) != Integer.BYTES) {
+                break;
+            }
+            int length = lengthBuffer.getInt(0);
+            if (length < RECORD_HEADER_SIZE || position + Integer.BYTES + length + CHECKSUM_SIZE > file.length()) {
+                break;
+            }
+            ByteBuffer body = ByteBuffer.allocate(length + CHECKSUM_SIZE);
+            channel.read(body, position + Integer.BYTES);
+            checksum.reset();
+            checksum.update(body.array(), 0, length);
+            if ((int) checksum.getValue() != body.getInt(length)) {
+                break;
+            }
+
+            long lsn = body.getLong(0);
+            int type = body.get(Long.BYTES);
+            byte kind = body.get(Long.BYTES + 1);
+            long offset = body.getLong(Long.BYTES + 2);
+            byte[] bytes = new byte[length - RECORD_HEADER_SIZE];
+            body.get(RECORD_HEADER_SIZE, bytes);
+            if (type < 0 || type >= types.length) {
+                throw new IOException("Log record " + lsn + " has unknown record type " + type);
+            }
+            if (files.get(types[type]).redo(lsn, kind, offset, bytes)) {
+                applied++;
+            }
+            nextLsn = Math.max(nextLsn, lsn + 1);
+            position += Integer.BYTES + length + CHECKSUM_SIZE;
+        }
+        appendedLsn = nextLsn - 1;
+        durableLsn = appendedLsn;
+
+        checkpoint(files.values());
+        flusher.start();
+        return applied;
+    }
+
+    //-----------------------------
+    /**
+     * Appends a change to the log buffer. The change is not durable until commit returns.
+     *
+     * @param type (in) RecordType - file the change is for.
+     * @param kind (in) byte - kind of change, PUT, DELETE or SUPERBLOCK.
+     * @param offset (in) long - byte offset of the record in its file.
+     * @param bytes (in) byte[] - record bytes of the change, empty for a delete.
+     * @return (out) long - LSN of the change.
+     * @throws IOException when the log can no longer be written.
+     */
+    //---
+    public long append(RecordType type, byte kind, long offset, byte[] bytes) throws IOException {
+        return append(type, kind, offset, ByteBuffer.wrap(bytes));
+    }
+
+    //-----------------------------
+    /**
+     * Appends a change to the log buffer. The change is not durable until commit returns.
+     *
+     * @param type (in) RecordType - file the change is for.
+     * @param kind (in) byte - kind of change, PUT, DELETE or SUPERBLOCK.
+     * @param offset (in) long - byte offset of the record in its file.
+     * @param bytes (in) ByteBuffer - record bytes of the change from the position to the limit,
+     *                                the position is left unchanged.
+     * @return (out) long - LSN of the change.
+     * @throws IOException when the log can no longer be written.
+     */
+    //---
+    public synchronized long append(RecordType type, byte kind, long offset, ByteBuffer bytes) throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        if (closed) {
+            throw new IOException("Log is closed");
+        }
+        long lsn = nextLsn++;
+        int length = RECORD_HEADER_SIZE + bytes.remaining();
+        reserve(Integer.BYTES + length + CHECKSUM_SIZE);
+
+        int start = pending.position() + Integer.BYTES;
+        pending.putInt(length);
+        pending.putLong(lsn);
+        pending.put((byte) type.ordinal());
+        pending.put(kind);
+        pending.putLong(offset);
+        pending.put(bytes.duplicate());
+        checksum.reset();
+        checksum.update(pending.duplicate().position(start).limit(start + length));
+        pending.putInt((int) checksum.getValue());
+
+        appendedLsn = lsn;
+        notifyAll();
+        return lsn;
+    }
+
+    //-----------------------------
+    /**
+     * Waits until a change, and every change before it, has been forced to disk.
+     *
+     * @param lsn (in) long - LSN returned by append.
+     * @throws IOException when the log could not be written.
+     */
+    //---
+    public synchronized void commit(long lsn) throws IOException {
+        while (durableLsn < lsn) {
+            if (failure != null) {
+                throw failure;
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the log", e);
+            }
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Getter method for the LSN of the last appended change.
+     *
+     * @return (out) long - last LSN handed out by append.
+     */
+    //---
+    public synchronized long getLastLsn() {
+        return appendedLsn;
+    }
+
+    //-----------------------------
+    /**
+     * Getter method for the LSN of the last change forced to disk. Pages whose LSN is at or
+     * below it can be written.
+     *
+     * @return (out) long - last durable LSN.
+     */
+    //---
+    public synchronized long getDurableLsn() {
+        return durableLsn;
+    }
+
+    //-----------------------------
+    /**
+     * Checks whether the log has grown enough to be checkpointed.
+     *
+     * @return (out) boolean - true if the log is larger than CHECKPOINT_SIZE.
+     */
+    //---
+    public synchronized boolean needsCheckpoint() {
+        return writePosition + pending.position() > CHECKPOINT_SIZE;
+    }
+
+    //-----------------------------
+    /**
+     * Forces every record file to disk and empties the log. No changes may be appended while a
+     * checkpoint runs.
+     *
+     * @param files (in) Iterable - all record files the log has changes for.
+     * @throws IOException
+     */
+    //---
+    public void checkpoint(Iterable<RecordFile> files) throws IOException {
+        commit(getLastLsn());
+        for (RecordFile recordFile : files) {
+            recordFile.force();
+        }
+
+        synchronized (this) {
+            while (flushing) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the log", e);
+                }
+            }
+            writeHeader(nextLsn);
+            writePosition = HEADER_SIZE;
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Writes everything still buffered, stops the flusher thread and closes the log file.
+     *
+     * @throws IOException
+     */
+    //---
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            if (flusher.isAlive()) {
+                flusher.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        file.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Body of the flusher thread. Takes everything appended so far by swapping in the spare
+     * buffer, writes it with a single write, forces it and wakes up the committers of that
+     * batch. The written buffer becomes the spare for the next batch.
+     */
+    //---
+    private void flushLoop() {
+        while (true) {
+            ByteBuffer batch;
+            long batchLsn;
+            long position;
+
+            synchronized (this) {
+                while (pending.position() == 0 && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (pending.position() == 0) {
+                    return;
+                }
+                batch = pending.flip();
+                pending = spare;
+                spare = null;
+                batchLsn = appendedLsn;
+                position = writePosition;
+                writePosition += batch.remaining();
+                flushing = true;
+            }
+
+            try {
+                while (batch.hasRemaining()) {
+                    position += channel.write(batch, position);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                synchronized (this) {
+                    failure = e;
+                    flushing = false;
+                    notifyAll();
+                }
+                return;
+            }
+
+            synchronized (this) {
+                spare = batch.clear();
+                durableLsn = batchLsn;
+                flushing = false;
+                notifyAll();
+            }
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Makes room for a record in the append buffer, replacing it with a larger one holding the
+     * same records when it is too full. Only happens when a batch outgrows every batch before.
+     *
+     * @param size (in) int - bytes of the record.
+     */
+    //---
+    private void reserve(int size) {
+        if (pending.remaining() < size) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(pending.capacity() * 2, pending.position() + size));
+            larger.put(pending.flip());
+            pending = larger;
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Writes the log header, dropping every record after it.
+     *
+     * @param firstLsn (in) long - LSN of the first record that will follow the header.
+     * @throws IOException
+     */
+    //---
+    private void writeHeader(long firstLsn) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putLong(firstLsn);
+        header.flip();
+
+        channel.truncate(HEADER_SIZE);
+        channel.write(header, 0);
+        channel.force(false);
+        nextLsn = firstLsn;
+    }
+}
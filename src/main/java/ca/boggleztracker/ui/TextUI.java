@@ -9,6 +9,12 @@
  * - 2024-07-16: implemented all selection & report interactions
  * - 2024-07-25: Ignore department letter case, fixed minor text bugs, added program startup and shutdown messages
  * - 2024-07-29: Refactored selection methods and created display list method
+ * - 2026-10-18: requester and product paging uses the record counts of the file superblocks
+ * - 2026-10-18: storage statistics report
+ * - 2026-10-18: search of change item descriptions in the issue menu
+ * - 2026-10-18: requester selection jumps to the emails starting with a typed prefix
+ * - 2026-10-18: reports of change items due in the next days and of releases between dates
+ * - 2026-10-18: listings page on with the PageCursor returned with each page
  * Purpose:
  * TextUI class is responsible for managing the user interface (UI) of the bug tracker
  * application. The class creates TextMenu objects and handles the different
@@ -19,7 +25,6 @@ package ca.boggleztracker.ui;
 
 import ca.boggleztracker.model.*;
 
-import java.io.IOException;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.Arrays;
@@ -145,6 +150,7 @@ public class TextUI {
         TextMenu.MenuEntry[] menuEntries = new TextMenu.MenuEntry[] {
                 new TextMenu.MenuEntry("Report an Issue", this::doAddChangeRequest),
                 new TextMenu.MenuEntry("Modify Existing Issue", this::doModifyIssue),
+                new TextMenu.MenuEntry("Search Issue Descriptions", this::doSearchIssues),
                 new TextMenu.MenuEntry("Return to Main Menu", null)
         };
 
@@ -272,6 +278,67 @@ public class TextUI {
         }
     }
 
+    //-----------------------------
+    /**
+     * Provides the user interaction to search the descriptions of all change items.
+     */
+    //---
+    public void doSearchIssues() {
+        InputValidator maxLengthValidator = (input, length) -> input.length() <= length && !input.isEmpty();
+        Scanner keyboard = new Scanner(System.in);
+        PageCursor cursor = PageCursor.FIRST;
+        String input;
+
+        System.out.println("Enter words to search for (the start of a word is enough, length: 30 max)");
+        String query = getStringUserInput(ChangeItem.MAX_DESCRIPTION, maxLengthValidator);
+
+        while (true) {
+            Page<ChangeItem> page = manager.searchChangeItems(query, cursor, PAGE_SIZE);
+            displaySearchHeader(query, page.getItems());
+            input = keyboard.nextLine().toLowerCase();
+
+            switch (input) {
+                case "0":
+                    return;
+                case "n":
+                    // the cursor of the last page starts over
+                    cursor = page.getNext();
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Utility Method to display the search results header.
+     * @param query (in) String - the words searched for.
+     * @param changeItems (in) ChangeItem[] - the change items to be listed out.
+     */
+    //---
+    private void displaySearchHeader(String query, ChangeItem[] changeItems) {
+        System.out.println("Changes matching \"" + query.trim() + "\":");
+        System.out.println("========================================================================================");
+        System.out.printf("   %10s  %-10s  %-8s  %-30s  %12s  %8s\n", "ChangeID", "Product", "Release", "Description",
+                "Status", "Priority");
+        System.out.println("   ----------  ----------  --------  ------------------------------  ------------  --------");
+
+        for (int i = 0; i < changeItems.length; i++) {
+            if (changeItems[i] != null) {
+                ChangeItem item = changeItems[i];
+                System.out.print(i + 1 + ") ") ;
+                System.out.printf(" %9d  %-10s  %-8s  %-30s  %12s  %8s\n", item.getChangeID(),
+                        new String(item.getProductName()), new String(item.getReleaseID()),
+                        new String(item.getChangeDescription()), new String(item.getStatus()).trim(),
+                        item.getPriority());
+            }
+        }
+        System.out.println("0) Return to menu");
+        System.out.println("N) List next change items");
+        System.out.println("ENTER:");
+    }
+
     //-----------------------------
     /**
      * Use the TextMenu class to create a product menu and manage interactions.
@@ -383,6 +450,9 @@ public class TextUI {
         TextMenu.MenuEntry[] menuEntries = new TextMenu.MenuEntry[] {
                 new TextMenu.MenuEntry("Report for Pending Change Items of a Product", this::listPendingChanges),
                 new TextMenu.MenuEntry("Report for Requester/Staff Notification", this::listRequesterNotification),
+                new TextMenu.MenuEntry("Report for Change Items Due in the Next Days", this::listChangesDue),
+                new TextMenu.MenuEntry("Report for Releases Between Dates", this::listReleasesBetween),
+                new TextMenu.MenuEntry("Storage Statistics", this::listStorageStats),
                 new TextMenu.MenuEntry("Return to Main Menu", null)
         };
 
@@ -428,22 +498,89 @@ public class TextUI {
 
         Scanner keyboard = new Scanner(System.in);
         String input;
-        String lastEmail = null;
+        PageCursor cursor = PageCursor.FIRST;
 
         while (true) {
-            Requester[] requesters = manager.generateEmailsPage(changeID, lastEmail, PAGE_SIZE);
-            displayNotificationHeader(requesters);
+            Page<Requester> page = manager.generateEmailsPage(changeID, cursor, PAGE_SIZE);
+            displayNotificationHeader(page.getItems());
             input = keyboard.nextLine().toLowerCase();
 
             switch (input) {
                 case "0":
                     return;
                 case "n":
-                    if (requesters[PAGE_SIZE -1] == null) {
-                        lastEmail = null;
-                    } else {
-                        lastEmail = new String(requesters[PAGE_SIZE - 1].getEmail());
-                    }
+                    cursor = page.getNext();
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Provides the user interaction to display report of the pending change items of a product
+     * anticipated in the next days.
+     */
+    //---
+    public void listChangesDue() {
+        InputValidator daysValidator = (input, length) -> input.length() <= length && input.matches("[0-9]+");
+        String productName = selectProduct();
+        if (productName == null) {
+            return;
+        }
+
+        System.out.println("Enter the number of days ahead (length: 3 max)");
+        int days = Integer.parseInt(getStringUserInput(3, daysValidator));
+
+        Scanner keyboard = new Scanner(System.in);
+        String input;
+        PageCursor cursor = PageCursor.FIRST;
+
+        while (true) {
+            Page<ChangeItem> page = manager.generateChangeItemsDuePage(productName, days, cursor, PAGE_SIZE);
+            displayChangesDueHeader(days, page.getItems());
+            input = keyboard.nextLine().toLowerCase();
+
+            switch (input) {
+                case "0":
+                    return;
+                case "n":
+                    // the cursor of the last page starts over
+                    cursor = page.getNext();
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Provides the user interaction to display report of the releases between two dates.
+     */
+    //---
+    public void listReleasesBetween() {
+        System.out.println("Enter the first date (YYYY-MM-DD)");
+        LocalDate from = getValidLocalDateInput();
+        System.out.println("Enter the last date (YYYY-MM-DD)");
+        LocalDate to = getValidLocalDateInput();
+
+        Scanner keyboard = new Scanner(System.in);
+        String input;
+        PageCursor cursor = PageCursor.FIRST;
+
+        while (true) {
+            Page<Release> page = manager.generateReleasesBetweenPage(from, to, cursor, PAGE_SIZE);
+            displayReleasesBetweenHeader(from, to, page.getItems());
+            input = keyboard.nextLine().toLowerCase();
+
+            switch (input) {
+                case "0":
+                    return;
+                case "n":
+                    // the cursor of the last page starts over
+                    cursor = page.getNext();
                     break;
                 default:
                     break;
@@ -451,6 +588,82 @@ public class TextUI {
         }
     }
 
+    //-----------------------------
+    /**
+     * Utility Method to display the change items due report header.
+     * @param days (in) int - number of days ahead.
+     * @param changeItems (in) ChangeItem[] - the change items to be listed out.
+     */
+    //---
+    private void displayChangesDueHeader(int days, ChangeItem[] changeItems) {
+        System.out.println("Changes due in the next " + days + " days:");
+        System.out.println("========================================================================================");
+        System.out.printf("   %10s  %-10s  %-8s  %-30s  %12s  %10s\n", "ChangeID", "Product", "Release", "Description",
+                "Status", "Due");
+        System.out.println("   ----------  ----------  --------  ------------------------------  ------------  ----------");
+
+        for (int i = 0; i < changeItems.length; i++) {
+            if (changeItems[i] != null) {
+                ChangeItem item = changeItems[i];
+                System.out.print(i + 1 + ") ") ;
+                System.out.printf(" %9d  %-10s  %-8s  %-30s  %12s  %10s\n", item.getChangeID(),
+                        new String(item.getProductName()), new String(item.getReleaseID()),
+                        new String(item.getChangeDescription()), new String(item.getStatus()).trim(),
+                        item.getAnticipatedReleaseDate());
+            }
+        }
+        System.out.println("0) Return to menu");
+        System.out.println("N) List next change items");
+        System.out.println("ENTER:");
+    }
+
+    //-----------------------------
+    /**
+     * Utility Method to display the releases between dates report header.
+     * @param from (in) LocalDate - first date of the range.
+     * @param to (in) LocalDate - last date of the range.
+     * @param releases (in) Release[] - the releases to be listed out.
+     */
+    //---
+    private void displayReleasesBetweenHeader(LocalDate from, LocalDate to, Release[] releases) {
+        System.out.println("Releases from " + from + " to " + to + ":");
+        System.out.println("==========================================");
+        System.out.printf("   %-10s  %-8s  %10s\n", "Product", "Release", "Date");
+        System.out.println("   ----------  --------  ----------");
+
+        for (int i = 0; i < releases.length; i++) {
+            if (releases[i] != null) {
+                Release release = releases[i];
+                System.out.print(i + 1 + ")") ;
+                System.out.printf(" %-10s  %-8s  %10s\n", new String(release.getProductName()),
+                        new String(release.getReleaseID()), release.getDate());
+            }
+        }
+        System.out.println("0) Return to menu");
+        System.out.println("N) List next releases");
+        System.out.println("ENTER:");
+    }
+
+    //-----------------------------
+    /**
+     * Provides the user interaction to display the live and free bytes of every data file.
+     */
+    //---
+    public void listStorageStats() {
+        StorageStats[] stats = manager.generateStorageStats();
+
+        System.out.println("Storage Statistics:");
+        System.out.println("==========================================================================");
+        System.out.printf("   %-20s  %14s  %14s  %14s\n", "File", "File Bytes", "Live Bytes", "Free Bytes");
+        System.out.println("   --------------------  --------------  --------------  --------------");
+        for (StorageStats stat : stats) {
+            if (stat != null) {
+                System.out.printf("   %-20s  %14d  %14d  %14d\n", stat.getFileName(), stat.getFileBytes(),
+                        stat.getLiveBytes(), stat.getFreeBytes());
+            }
+        }
+    }
+
     //-----------------------------
     /**
      * Utility Method to display the report header.
@@ -489,28 +702,42 @@ public class TextUI {
     public String selectRequester() {
         Scanner keyboard = new Scanner(System.in);
         String input;
-        int page = 0;
+        PageCursor cursor = PageCursor.FIRST;
+        PageCursor nextCursor = PageCursor.FIRST;
+        String prefix = null; // emails starting with it are listed in email order
+        String lastEmail = null;
 
         // display list of requester and handle user input
         while (true) {
-            String[] emails = manager.generateRequesterPage(page, PAGE_SIZE);
-            displayList(emails, "Requester Emails");
-            input = keyboard.nextLine().toLowerCase();
+            String[] emails;
+            if (prefix == null) {
+                Page<String> page = manager.generateRequesterPage(cursor, PAGE_SIZE);
+                emails = page.getItems();
+                nextCursor = page.getNext();
+            } else {
+                emails = manager.generateRequesterPrefixPage(prefix, lastEmail, PAGE_SIZE);
+            }
+            displayList(emails, "Requester Emails", "/text) List emails starting with text, / for all");
+            input = keyboard.nextLine();
+
+            // a prefix keeps its letter case, emails are case sensitive
+            if (input.startsWith("/")) {
+                prefix = input.length() == 1 ? null : input.substring(1);
+                lastEmail = null;
+                cursor = PageCursor.FIRST;
+                continue;
+            }
+            input = input.toLowerCase();
 
             switch (input) {
                 case "0":
                     return null;
                 case "n":
                     // reset to first page if it's the last
-                    try {
-                        page += 1;
-                        boolean exceedsFileSize = page * PAGE_SIZE * Requester.BYTES_SIZE_REQUESTER
-                                > manager.getRequesterFileSize();
-                        if (exceedsFileSize) {
-                            page = 0;
-                        }
-                    } catch (IOException e) {
-                        System.out.println("Error opening file");
+                    if (prefix != null) {
+                        lastEmail = emails[PAGE_SIZE - 1];
+                    } else {
+                        cursor = nextCursor;
                     }
                     break;
                 case "c":
@@ -545,11 +772,12 @@ public class TextUI {
     public String selectProduct() {
         Scanner keyboard = new Scanner(System.in);
         String input;
-        int page = 0;
+        PageCursor cursor = PageCursor.FIRST;
 
         // display list of products and handle user input
         while (true) {
-            String[] products = manager.generateProductPage(page, PAGE_SIZE);
+            Page<String> page = manager.generateProductPage(cursor, PAGE_SIZE);
+            String[] products = page.getItems();
             displayList(products, "Products");
             System.out.print("> ");
             input = keyboard.nextLine().toLowerCase();
@@ -558,17 +786,8 @@ public class TextUI {
                 case "0":
                     return null;
                 case "n":
-                    // reset to first page if it's the last
-                    try {
-                        page += 1;
-                        boolean exceedsFileSize = page * PAGE_SIZE * Product.BYTES_SIZE_PRODUCT
-                                >= manager.getProductFileSize();
-                        if (exceedsFileSize) {
-                            page = 0;
-                        }
-                    } catch (IOException e) {
-                        System.out.println("Error opening file");
-                    }
+                    // the cursor of the last page starts over
+                    cursor = page.getNext();
                     break;
                 default:
                     try {
@@ -598,12 +817,13 @@ public class TextUI {
     //---
     public String selectRelease(String productName) {
         Scanner keyboard = new Scanner(System.in);
-        String lastReleaseName = null;
+        PageCursor cursor = PageCursor.FIRST;
         String input;
 
         // display list of releases and handle user input
         while (true) {
-            String[] releases = manager.generateReleasePage(productName, lastReleaseName, PAGE_SIZE);
+            Page<String> page = manager.generateReleasePage(productName, cursor, PAGE_SIZE);
+            String[] releases = page.getItems();
             displayList(releases, "Releases");
             System.out.print("> ");
             input = keyboard.nextLine().toLowerCase();
@@ -612,8 +832,8 @@ public class TextUI {
                 case "0":
                     return null;
                 case "n":
-                    // reset to first page if it's the last
-                    lastReleaseName = releases[PAGE_SIZE - 1];
+                    // the cursor of the last page starts over
+                    cursor = page.getNext();
                     break;
                 default:
                     try {
@@ -643,18 +863,20 @@ public class TextUI {
     //---
     public int selectChangeItem(String productName, String releaseID, String mode) {
         Scanner keyboard = new Scanner(System.in);
+        Page<ChangeItem> page;
         ChangeItem[] changeItems;
-        int lastChangeID = -1;
+        PageCursor cursor = PageCursor.FIRST;
         String input;
 
         while (true) {
             if (mode.equals("pending")) {
-                changeItems = manager.generateFilteredChangesPage(productName, lastChangeID, PAGE_SIZE, mode);
+                page = manager.generateFilteredChangesPage(productName, cursor, PAGE_SIZE, mode);
             } else if (mode.equals("completed")) {
-                changeItems = manager.generateFilteredChangesPage(productName, lastChangeID, PAGE_SIZE, mode);
+                page = manager.generateFilteredChangesPage(productName, cursor, PAGE_SIZE, mode);
             } else {
-                changeItems = manager.generateChangeItemPage(productName, releaseID, lastChangeID, PAGE_SIZE);
+                page = manager.generateChangeItemPage(productName, releaseID, cursor, PAGE_SIZE);
             }
+            changeItems = page.getItems();
 
             displayChangesHeader(productName, releaseID, changeItems);
             input = keyboard.nextLine().toLowerCase();
@@ -664,12 +886,8 @@ public class TextUI {
                 case "0":
                     return -1;
                 case "n":
-                    // reset to first page if it's the last
-                    if (changeItems[PAGE_SIZE - 1] == null) {
-                        lastChangeID = -1;
-                    } else {
-                        lastChangeID = changeItems[PAGE_SIZE - 1].getChangeID();
-                    }
+                    // the cursor of the last page starts over
+                    cursor = page.getNext();
                     break;
                 case "c":
                     doAddChangeItem(productName, releaseID);
@@ -730,6 +948,18 @@ public class TextUI {
      */
     //---
     void displayList(String[] elements, String header) {
+        displayList(elements, header, new String[0]);
+    }
+
+    //-----------------------------
+    /**
+     * Utility method to display list of specified header, with more options after the usual ones
+     * @param elements (in) String[] - elements to be displayed.
+     * @param header (in) String - type of header
+     * @param options (in) String[] - option lines to be displayed.
+     */
+    //---
+    void displayList(String[] elements, String header, String... options) {
         System.out.println("==" + header + "==");
         for (int i = 0; i < elements.length; i++) {
             if (elements[i] != null) {
@@ -738,6 +968,9 @@ public class TextUI {
         }
         System.out.println("0) Return to menu");
         System.out.println("N) List next " + header.toLowerCase());
+        for (String option : options) {
+            System.out.println(option);
+        }
         System.out.println("ENTER:");
     }
 
@@ -0,0 +1,205 @@
+/**
+ * File: BPlusTreeTest.java
+ * Revision History:
+ * - 2026-10-18: Tests of node splits, range scans and removes
+ * Purpose:
+ * BPlusTreeTest class is a unit test of the BPlusTree index file. Its keys are large, so a few
+ * thousand of them split leaves and inner nodes over three levels, and every key is checked
+ * through lookups, range scans and removes, also after the tree is closed and opened again.
+ */
+package ca.boggleztracker.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BPlusTreeTest {
+    //=============================
+    // Constants
+    //=============================
+    private static final int KEY_SIZE = 200; // about 39 keys per node
+    private static final int KEYS = 5000;
+
+    //=============================
+    // Member fields
+    //=============================
+    @TempDir
+    Path directory;
+    private BPlusTree tree;
+
+    //=============================
+    // Set up
+    //=============================
+
+    //-----------------------------
+    /**
+     * Closes the tree left open by a test.
+     *
+     * @throws IOException
+     */
+    //---
+    @AfterEach
+    void closeTree() throws IOException {
+        if (tree != null) {
+            tree.close(new IndexStamp(true, 0, 0, 0));
+        }
+    }
+
+    //=============================
+    // Tests
+    //=============================
+
+    //-----------------------------
+    /**
+     * Keys put in random order are all found once their nodes have been split, before and after
+     * the tree is reopened.
+     */
+    //---
+    @Test
+    void keysAreFoundAfterSplits() throws IOException {
+        open(true);
+        putShuffled();
+        for (int i = 0; i < KEYS; i++) {
+            assertEquals(valueOf(i), tree.find(key(i)), "key " + i);
+        }
+
+        tree.close(new IndexStamp(true, 0, 0, 0));
+        open(false);
+        for (int i = 0; i < KEYS; i++) {
+            assertEquals(valueOf(i), tree.find(key(i)), "key " + i + " after reopening");
+        }
+        assertEquals(-1, tree.find(key(KEYS)));
+    }
+
+    //-----------------------------
+    /**
+     * A range scan starts at the first key at or above the key sought and follows the leaf
+     * chain in key order.
+     */
+    //---
+    @Test
+    void seekStartsAtTheNextKey() throws IOException {
+        open(false);
+        // only even keys are put, so an odd key is always between two stored keys
+        List<Integer> numbers = new ArrayList<>();
+        for (int i = 0; i < KEYS; i += 2) {
+            numbers.add(i);
+        }
+        Collections.shuffle(numbers, new Random(11));
+        for (int i : numbers) {
+            tree.put(key(i), valueOf(i));
+        }
+
+        BPlusTree.Cursor cursor = tree.seek(key(KEYS / 2 + 1));
+        for (int i = KEYS / 2 + 2; i < KEYS; i += 2) {
+            assertTrue(cursor.next(), "key " + i);
+            assertEquals(valueOf(i), cursor.getValue());
+        }
+        assertFalse(cursor.next());
+
+        cursor = tree.seek(null);
+        int count = 0;
+        while (cursor.next()) {
+            assertEquals(valueOf(count * 2), cursor.getValue());
+            count++;
+        }
+        assertEquals(KEYS / 2, count);
+    }
+
+    //-----------------------------
+    /**
+     * Removed keys are gone from lookups and scans, and the other keys of their leaves stay.
+     */
+    //---
+    @Test
+    void removedKeysAreNotFound() throws IOException {
+        open(true);
+        putShuffled();
+        for (int i = 0; i < KEYS; i += 3) {
+            assertEquals(valueOf(i), tree.remove(key(i)));
+        }
+        assertEquals(-1, tree.remove(key(0)), "key removed twice");
+
+        BPlusTree.Cursor cursor = tree.seek(null);
+        for (int i = 0; i < KEYS; i++) {
+            if (i % 3 == 0) {
+                assertEquals(-1, tree.find(key(i)), "removed key " + i);
+            } else {
+                assertEquals(valueOf(i), tree.find(key(i)), "key " + i);
+                assertTrue(cursor.next());
+                assertEquals(valueOf(i), cursor.getValue());
+            }
+        }
+        assertFalse(cursor.next());
+    }
+
+    //=============================
+    // Helpers
+    //=============================
+
+    //-----------------------------
+    /**
+     * Opens the tree file of the test.
+     *
+     * @param mapped (in) boolean - true to memory map the file.
+     * @throws IOException
+     */
+    //---
+    private void open(boolean mapped) throws IOException {
+        tree = new BPlusTree(directory.resolve("test" + BTreeIndex.SUFFIX).toString(), KEY_SIZE, mapped);
+    }
+
+    //-----------------------------
+    /**
+     * Puts the keys 0 to KEYS - 1 in random order.
+     *
+     * @throws IOException
+     */
+    //---
+    private void putShuffled() throws IOException {
+        List<Integer> numbers = new ArrayList<>();
+        for (int i = 0; i < KEYS; i++) {
+            numbers.add(i);
+        }
+        Collections.shuffle(numbers, new Random(7));
+        for (int i : numbers) {
+            assertEquals(-1, tree.put(key(i), valueOf(i)));
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Gets the key of a number, in the same order as the numbers.
+     *
+     * @param number (in) int - non negative number.
+     * @return (out) byte[] - key of KEY_SIZE bytes.
+     */
+    //---
+    private static byte[] key(int number) {
+        return ByteBuffer.allocate(KEY_SIZE).putInt(number).array();
+    }
+
+    //-----------------------------
+    /**
+     * Gets the value stored for a number.
+     *
+     * @param number (in) int - number of the key.
+     * @return (out) long - value of the key.
+     */
+    //---
+    private static long valueOf(int number) {
+        return 1000L + number;
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * File: ChecksumBenchmark.java
+ * Revision History:
+ * - 2026-10-18: Benchmark of checksummed against unchecked pages
+ * - 2026-10-18: Scans check every record read back, so a wrong result fails the run
+ * Purpose:
+ * ChecksumBenchmark class measures the cost of record checksums. The same change items are
+ * written to a temporary file of checksummed pages and of unchecked pages, then both files are
+ * scanned and decoded, the checksummed one verifying every record and page header on the way.
+ * Every scan checks that it read back each record written, so the run fails with an exception
+ * instead of reporting the speed of a broken page format.
+ */
+package ca.boggleztracker.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.time.LocalDate;
+
+public class ChecksumBenchmark {
+    //=============================
+    // Constants and static fields
+    //=============================
+    private static final int PAGES = 4096; // 32 MiB of pages
+    private static final int ROUNDS = 5;
+    private static final int CHANGE_ID = 42; // change ID of every record written
+
+    //=============================
+    // Static Method Declarations
+    //=============================
+
+    //-----------------------------
+    /*
+     *   Description: Writes PAGES full pages of change items and returns the elapsed nanoseconds.
+     */
+    static long writePages(StorageBackend storage, boolean checksummed, byte[] record) throws IOException {
+        RecordPage page = new RecordPage(record.length, checksummed);
+        long start = System.nanoTime();
+
+        for (long pageNumber = 1; pageNumber <= PAGES; pageNumber++) {
+            page.reset(pageNumber);
+            for (int slot = 0; slot < page.getSlotCount(); slot++) {
+                page.putRecord(slot, record);
+            }
+            page.store(storage);
+        }
+        return System.nanoTime() - start;
+    }
+
+    //-----------------------------
+    /*
+     *   Description: Loads and decodes every record of the file, verifying checksums when asked,
+     *                checks that every record written is read back and returns the elapsed
+     *                nanoseconds.
+     */
+    static long scanPages(StorageBackend storage, boolean checksummed, boolean verify) throws IOException {
+        RecordPage page = new RecordPage((int) ChangeItem.BYTES_SIZE_CHANGE_ITEM, checksummed);
+        ChangeItem item = new ChangeItem();
+        long records = 0;
+        long start = System.nanoTime();
+
+        for (long pageNumber = 1; pageNumber <= PAGES; pageNumber++) {
+            page.load(storage, pageNumber);
+            if (verify && !page.verifyHeader()) {
+                throw new IOException("Page " + pageNumber + " failed verification");
+            }
+            for (int slot = page.nextOccupied(0); slot != -1; slot = page.nextOccupied(slot + 1)) {
+                if (verify && !page.verifyRecord(slot)) {
+                    throw new IOException("Record failed verification");
+                }
+                item.readChangeItems(page.getReader(slot));
+                if (item.getChangeID() != CHANGE_ID) {
+                    throw new IOException("Record read back as change ID " + item.getChangeID());
+                }
+                records++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        if (records != (long) PAGES * page.getSlotCount()) {
+            throw new IOException("Scan read " + records + " records of " + (long) PAGES * page.getSlotCount());
+        }
+        return elapsed;
+    }
+
+    //-----------------------------
+    /*
+     *   Description: Prints the best of ROUNDS runs in MiB per second of page data.
+     */
+    static void report(String name, long[] times) {
+        long best = Long.MAX_VALUE;
+        for (long time : times) {
+            best = Math.min(best, time);
+        }
+        double mib = (double) PAGES * RecordPage.PAGE_SIZE / (1024 * 1024);
+        System.out.printf("%-28s %8.1f MiB/s%n", name, mib / (best / 1e9));
+    }
+
+    //-----------------------------
+    /**
+     * Runs the write and scan benchmarks with and without checksums
+     * @param args (in) String[] - Command line arguments
+     */
+    //---
+    public static void main(String[] args) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new ChangeItem(CHANGE_ID, "Prod1", "rel.1.00", "Menu not populating", '3', "Open",
+                LocalDate.of(2024, 8, 8)).writeChangeItem(new DataOutputStream(bytes));
+        byte[] record = bytes.toByteArray();
+
+        File checkedFile = File.createTempFile("checksummed", ".dat");
+        File uncheckedFile = File.createTempFile("unchecked", ".dat");
+        checkedFile.deleteOnExit();
+        uncheckedFile.deleteOnExit();
+
+        try (RandomAccessFile checked = new RandomAccessFile(checkedFile, "rw");
+             RandomAccessFile unchecked = new RandomAccessFile(uncheckedFile, "rw")) {
+            StorageBackend checkedStorage = new ChannelStorage(checked.getChannel());
+            StorageBackend uncheckedStorage = new ChannelStorage(unchecked.getChannel());
+            long[][] times = new long[4][ROUNDS];
+
+            for (int round = 0; round < ROUNDS; round++) {
+                times[0][round] = writePages(uncheckedStorage, false, record);
+                times[1][round] = writePages(checkedStorage, true, record);
+                times[2][round] = scanPages(uncheckedStorage, false, false);
+                times[3][round] = scanPages(checkedStorage, true, true);
+            }
+            report("write unchecked", times[0]);
+            report("write with checksums", times[1]);
+            report("scan unchecked", times[2]);
+            report("scan with verification", times[3]);
+        }
+    }
+}
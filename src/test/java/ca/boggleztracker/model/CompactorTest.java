@@ -0,0 +1,252 @@
+/**
+ * File: CompactorTest.java
+ * Revision History:
+ * - 2026-10-18: Tests of compaction, file swap and index rebuild
+ * - 2026-10-18: Tests of indexes written for the compacted file and of discarding it
+ * Purpose:
+ * CompactorTest class is a unit test of the Compactor together with RecordFile. A requester
+ * file with most of its records deleted is compacted, and the swapped in file must hold the
+ * live records in fewer pages, in a new generation, with its email index rebuilt for the new
+ * record offsets, written before the swap. A compacted file that is not swapped in is deleted
+ * with its indexes. Each test keeps its files in a temporary data directory.
+ */
+package ca.boggleztracker.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CompactorTest {
+    //=============================
+    // Constants
+    //=============================
+    private static final int REQUESTERS = 500;
+
+    //=============================
+    // Member fields
+    //=============================
+    @TempDir
+    Path directory;
+    private WriteAheadLog log;
+    private RecordFile requesterFile;
+    private BTreeIndex emails;
+    private Compactor compactor;
+
+    //=============================
+    // Set up
+    //=============================
+
+    //-----------------------------
+    /**
+     * Keeps the data files of the test in its temporary directory and opens requester.dat with
+     * an email index.
+     *
+     * @throws IOException
+     */
+    //---
+    @BeforeEach
+    void open() throws IOException {
+        System.setProperty(RecordType.DIRECTORY_PROPERTY, directory.toString());
+        FormatConverter.upgrade(RecordType.REQUESTER, true);
+        log = new WriteAheadLog(RecordType.dataPath(WriteAheadLog.FILE_NAME));
+        requesterFile = new RecordFile(RecordType.REQUESTER, true, log);
+        Map<RecordType, RecordFile> files = new EnumMap<>(RecordType.class);
+        files.put(RecordType.REQUESTER, requesterFile);
+        log.redo(files);
+        emails = new BTreeIndex("email", Requester.EMAIL_OFFSET, Requester.MAX_EMAIL, true, true);
+        requesterFile.addIndex(emails);
+        compactor = new Compactor(files, new ReentrantReadWriteLock(), log);
+    }
+
+    //-----------------------------
+    /**
+     * Closes the files left open by a test.
+     *
+     * @throws IOException
+     */
+    //---
+    @AfterEach
+    void closeFiles() throws IOException {
+        log.checkpoint(List.of(requesterFile));
+        log.close();
+        requesterFile.close();
+        System.clearProperty(RecordType.DIRECTORY_PROPERTY);
+    }
+
+    //=============================
+    // Tests
+    //=============================
+
+    //-----------------------------
+    /**
+     * A file with too many deleted records is rewritten with only its live records, and the
+     * index points at their new offsets.
+     */
+    //---
+    @Test
+    void compactedFileIsSwappedInWithItsIndexRebuilt() throws IOException {
+        List<Long> offsets = insertRequesters();
+        List<String> live = new ArrayList<>();
+        for (int i = 0; i < REQUESTERS; i++) {
+            if (i % 5 == 0) {
+                live.add(email(i));
+            } else {
+                requesterFile.delete(offsets.get(i));
+            }
+        }
+        long pages = requesterFile.getPageCount();
+        long generation = requesterFile.getGeneration();
+
+        assertTrue(Compactor.needsCompaction(requesterFile));
+        assertTrue(compactor.compact(requesterFile), "file not swapped");
+        assertEquals(generation + 1, requesterFile.getGeneration());
+        assertTrue(requesterFile.getPageCount() < pages, "file did not shrink");
+        assertEquals(live.size(), requesterFile.getRecordCount());
+        assertEquals(live, requesterEmails());
+        assertFalse(Files.exists(compactedPath()));
+        assertFalse(Files.exists(compactedIndexPath()));
+
+        RecordPage page = requesterFile.newPage();
+        for (int i = 0; i < REQUESTERS; i++) {
+            long offset = emails.find(ScenarioManager.encodeChars(email(i), Requester.MAX_EMAIL));
+            if (i % 5 == 0) {
+                Requester requester = new Requester();
+                requester.readRequester(requesterFile.readRecord(offset, page));
+                assertEquals(email(i), new String(requester.getEmail()).trim(), "record of " + email(i));
+            } else {
+                assertEquals(-1, offset, "deleted " + email(i));
+            }
+        }
+    }
+
+    //-----------------------------
+    /**
+     * A file with few deleted records is left alone.
+     */
+    //---
+    @Test
+    void fileWithFewDeletesIsNotCompacted() throws IOException {
+        List<Long> offsets = insertRequesters();
+        requesterFile.delete(offsets.get(0));
+        long generation = requesterFile.getGeneration();
+
+        assertFalse(compactor.compact(requesterFile));
+        assertEquals(generation, requesterFile.getGeneration());
+        assertEquals(REQUESTERS - 1, requesterFile.getRecordCount());
+    }
+
+    //-----------------------------
+    /**
+     * A compacted file that is discarded is deleted with the index written for it, and the file
+     * and its index are left as they were.
+     */
+    //---
+    @Test
+    void discardedCompactedFileIsDeletedWithItsIndexes() throws IOException {
+        List<Long> offsets = insertRequesters();
+        for (int i = 1; i < REQUESTERS; i++) {
+            requesterFile.delete(offsets.get(i));
+        }
+        long generation = requesterFile.getGeneration();
+
+        Path compacted = requesterFile.writeCompacted();
+        requesterFile.writeCompactedIndexes(compacted);
+        assertTrue(Files.exists(compactedIndexPath()), "index not written");
+        requesterFile.discardCompacted(compacted);
+
+        assertFalse(Files.exists(compactedPath()));
+        assertFalse(Files.exists(compactedIndexPath()));
+        assertEquals(generation, requesterFile.getGeneration());
+        assertEquals(offsets.get(0).longValue(),
+                emails.find(ScenarioManager.encodeChars(email(0), Requester.MAX_EMAIL)));
+    }
+
+    //=============================
+    // Helpers
+    //=============================
+
+    //-----------------------------
+    /**
+     * Gets the path of the compacted requester file.
+     *
+     * @return (out) Path - compacted file.
+     */
+    //---
+    private static Path compactedPath() {
+        return Path.of(RecordType.REQUESTER.getFileName() + RecordFile.COMPACT_SUFFIX);
+    }
+
+    //-----------------------------
+    /**
+     * Gets the path of the email index written for the compacted requester file.
+     *
+     * @return (out) Path - index file of the compacted file.
+     */
+    //---
+    private static Path compactedIndexPath() {
+        return Path.of(compactedPath() + ".email" + BTreeIndex.SUFFIX);
+    }
+
+    //-----------------------------
+    /**
+     * Inserts REQUESTERS requesters with distinct emails.
+     *
+     * @return (out) List<Long> - byte offset of each requester.
+     * @throws IOException
+     */
+    //---
+    private List<Long> insertRequesters() throws IOException {
+        List<Long> offsets = new ArrayList<>();
+        for (int i = 0; i < REQUESTERS; i++) {
+            Requester requester = new Requester(email(i), "Name " + i, 16045550000L + i, "QA");
+            offsets.add(requesterFile.insert(requester::writeRequester));
+        }
+        log.commit(requesterFile.getLastLsn());
+        return offsets;
+    }
+
+    //-----------------------------
+    /**
+     * Gets the email of a test requester.
+     *
+     * @param number (in) int - number of the requester.
+     * @return (out) String - email of the requester.
+     */
+    //---
+    private static String email(int number) {
+        return "r" + number + "@test.ca";
+    }
+
+    //-----------------------------
+    /**
+     * Lists the requester emails in file order.
+     *
+     * @return (out) List<String> - emails of the stored requesters.
+     * @throws IOException
+     */
+    //---
+    private List<String> requesterEmails() throws IOException {
+        List<String> found = new ArrayList<>();
+        RecordScanner scanner = requesterFile.scan(0);
+        while (scanner.next()) {
+            Requester requester = new Requester();
+            requester.readRequester(scanner.getReader());
+            found.add(new String(requester.getEmail()).trim());
+        }
+        return found;
+    }
+}
@@ -0,0 +1,197 @@
+/**
+ * File: IntHashIndexTest.java
+ * Revision History:
+ * - 2026-10-18: Tests of deletes with backward shifting and of the saved table
+ * Purpose:
+ * IntHashIndexTest class is a unit test of the IntHashIndex. Keys are added and removed in the
+ * way the record file reports its changes, and the table is compared with a map after each step,
+ * so a delete that shifts entries back into the wrong slot loses a key that is still in the map.
+ * Each test keeps its files in a temporary data directory.
+ */
+package ca.boggleztracker.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IntHashIndexTest {
+    //=============================
+    // Constants
+    //=============================
+    private static final int KEYS = 4000;
+
+    //=============================
+    // Member fields
+    //=============================
+    @TempDir
+    Path directory;
+    private WriteAheadLog log;
+    private RecordFile changeItemFile;
+    private IntHashIndex index;
+
+    //=============================
+    // Set up
+    //=============================
+
+    //-----------------------------
+    /**
+     * Keeps the data files of the test in its temporary directory and opens change-item.dat
+     * with an empty index.
+     *
+     * @throws IOException
+     */
+    //---
+    @BeforeEach
+    void open() throws IOException {
+        System.setProperty(RecordType.DIRECTORY_PROPERTY, directory.toString());
+        openFiles();
+    }
+
+    //-----------------------------
+    /**
+     * Closes the files left open by a test.
+     *
+     * @throws IOException
+     */
+    //---
+    @AfterEach
+    void closeFiles() throws IOException {
+        log.close();
+        changeItemFile.close();
+        System.clearProperty(RecordType.DIRECTORY_PROPERTY);
+    }
+
+    //=============================
+    // Tests
+    //=============================
+
+    //-----------------------------
+    /**
+     * Keys stay found while random keys are deleted from the middle of their probe sequences,
+     * and deleted keys are not found.
+     */
+    //---
+    @Test
+    void deletesKeepTheOtherKeysFindable() throws IOException {
+        Map<Integer, Long> expected = new HashMap<>();
+        Random random = new Random(5);
+
+        // consecutive keys and a table kept half full give long runs of occupied slots
+        for (int key = 0; key < KEYS; key++) {
+            insert(key, expected);
+        }
+        for (int i = 0; i < KEYS * 4; i++) {
+            int key = random.nextInt(KEYS * 2);
+            if (expected.containsKey(key)) {
+                index.deleted(expected.remove(key), record(key));
+            } else {
+                insert(key, expected);
+            }
+            if (i % 500 == 0) {
+                assertMatches(expected);
+            }
+        }
+        assertMatches(expected);
+    }
+
+    //-----------------------------
+    /**
+     * A changed key is moved to its new value, and the table written on close is loaded
+     * instead of being rebuilt.
+     */
+    //---
+    @Test
+    void tableIsLoadedAfterClose() throws IOException {
+        Map<Integer, Long> expected = new HashMap<>();
+        for (int key = 0; key < KEYS; key++) {
+            insert(key, expected);
+        }
+        long offset = expected.remove(7);
+        index.updated(offset, record(7), record(KEYS + 7));
+        expected.put(KEYS + 7, offset);
+
+        log.checkpoint(List.of(changeItemFile));
+        log.close();
+        changeItemFile.close();
+
+        // the data file holds none of the keys, so a rebuilt table would be empty
+        openFiles();
+        assertMatches(expected);
+    }
+
+    //=============================
+    // Helpers
+    //=============================
+
+    //-----------------------------
+    /**
+     * Opens the log and change-item.dat, replays the log and adds a change ID index.
+     *
+     * @throws IOException
+     */
+    //---
+    private void openFiles() throws IOException {
+        FormatConverter.upgrade(RecordType.CHANGE_ITEM, true);
+        log = new WriteAheadLog(RecordType.dataPath(WriteAheadLog.FILE_NAME));
+        changeItemFile = new RecordFile(RecordType.CHANGE_ITEM, false, log);
+        Map<RecordType, RecordFile> files = new EnumMap<>(RecordType.class);
+        files.put(RecordType.CHANGE_ITEM, changeItemFile);
+        log.redo(files);
+        index = new IntHashIndex("change-id", ChangeItem.CHANGE_ID_OFFSET);
+        changeItemFile.addIndex(index);
+    }
+
+    //-----------------------------
+    /**
+     * Reports a record with a key as inserted, at an offset of its own.
+     *
+     * @param key (in) int - change ID of the record.
+     * @param expected (in/out) Map - expected offset of every key.
+     * @throws IOException
+     */
+    //---
+    private void insert(int key, Map<Integer, Long> expected) throws IOException {
+        long offset = RecordPage.PAGE_SIZE + key * 64L;
+        index.inserted(offset, record(key));
+        expected.put(key, offset);
+    }
+
+    //-----------------------------
+    /**
+     * Encodes a change item record holding only its change ID.
+     *
+     * @param key (in) int - change ID.
+     * @return (out) ByteBuffer - encoded record.
+     */
+    //---
+    private static ByteBuffer record(int key) {
+        return ByteBuffer.allocate((int) ChangeItem.BYTES_SIZE_CHANGE_ITEM)
+                .putInt(ChangeItem.CHANGE_ID_OFFSET, key);
+    }
+
+    //-----------------------------
+    /**
+     * Checks that the index holds exactly the expected keys.
+     *
+     * @param expected (in) Map - expected offset of every key.
+     */
+    //---
+    private void assertMatches(Map<Integer, Long> expected) {
+        for (int key = 0; key < KEYS * 2; key++) {
+            long offset = expected.getOrDefault(key, -1L);
+            assertEquals(offset, index.find(key), "key " + key);
+        }
+    }
+}
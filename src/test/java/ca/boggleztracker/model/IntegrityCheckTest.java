@@ -0,0 +1,336 @@
+/**
+ * File: IntegrityCheckTest.java
+ * Revision History:
+ * - 2026-10-18: Tests of checksum failures and quarantine
+ * - 2026-10-18: Test of a record whose CRC32C is zero in a rebuilt page header
+ * Purpose:
+ * IntegrityCheckTest class is a unit test of the IntegrityCheck start up verification. Bytes of
+ * a product.dat closed cleanly are damaged on disk, as a failing device would, and the check
+ * must move exactly the damaged records to the quarantine file, and repair a damaged page
+ * header without losing records. Each test keeps its files in a temporary data directory.
+ */
+package ca.boggleztracker.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IntegrityCheckTest {
+    //=============================
+    // Constants
+    //=============================
+    private static final int PRODUCTS = 1500; // several pages
+
+    //=============================
+    // Member fields
+    //=============================
+    @TempDir
+    Path directory;
+    private WriteAheadLog log;
+    private RecordFile productFile;
+    private List<Long> offsets;
+    private List<String> names;
+
+    //=============================
+    // Set up
+    //=============================
+
+    //-----------------------------
+    /**
+     * Keeps the data files of the test in its temporary directory, stores PRODUCTS products and
+     * closes product.dat cleanly, so the log holds nothing to repair the file with.
+     *
+     * @throws IOException
+     */
+    //---
+    @BeforeEach
+    void fillFile() throws IOException {
+        System.setProperty(RecordType.DIRECTORY_PROPERTY, directory.toString());
+        open();
+        offsets = new ArrayList<>();
+        names = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            names.add("p" + i);
+            offsets.add(productFile.insert(new Product("p" + i)::writeProduct));
+        }
+        close();
+    }
+
+    //-----------------------------
+    /**
+     * Closes the files left open by a test.
+     *
+     * @throws IOException
+     */
+    //---
+    @AfterEach
+    void closeFiles() throws IOException {
+        if (log != null) {
+            close();
+        }
+        System.clearProperty(RecordType.DIRECTORY_PROPERTY);
+    }
+
+    //=============================
+    // Tests
+    //=============================
+
+    //-----------------------------
+    /**
+     * A record that fails its checksum is written to the quarantine file with its offset and
+     * freed, and the other records stay.
+     */
+    //---
+    @Test
+    void corruptRecordIsQuarantined() throws IOException {
+        int damaged = PRODUCTS / 2;
+        byte[] original = readBytes(offsets.get(damaged), RecordType.PRODUCT.getRecordSize());
+        byte[] corrupt = original.clone();
+        corrupt[0] ^= 0x20;
+        writeBytes(offsets.get(damaged), corrupt);
+
+        open();
+        assertEquals(1, IntegrityCheck.verify(productFile));
+        names.remove(damaged);
+        assertEquals(names, productNames());
+        assertEquals(PRODUCTS - 1, productFile.getRecordCount());
+
+        Path quarantine = Path.of(RecordType.PRODUCT.getFileName() + IntegrityCheck.QUARANTINE_SUFFIX);
+        assertEquals(Long.BYTES + corrupt.length, Files.size(quarantine));
+        try (DataInputStream in = new DataInputStream(new FileInputStream(quarantine.toFile()))) {
+            assertEquals(offsets.get(damaged).longValue(), in.readLong());
+            assertArrayEquals(corrupt, in.readNBytes(corrupt.length));
+        }
+        assertEquals(0, IntegrityCheck.verify(productFile), "quarantined twice");
+    }
+
+    //-----------------------------
+    /**
+     * A page whose header fails its checksum is rebuilt from the record checksums, and no
+     * record is lost.
+     */
+    //---
+    @Test
+    void corruptPageHeaderIsRebuilt() throws IOException {
+        long page = 2;
+        byte[] header = readBytes(page * RecordPage.PAGE_SIZE, 16);
+        header[12] ^= 0x01; // record count
+        writeBytes(page * RecordPage.PAGE_SIZE, header);
+
+        open();
+        assertEquals(0, IntegrityCheck.verify(productFile));
+        assertEquals(names, productNames());
+        assertEquals(PRODUCTS, productFile.getRecordCount());
+        Path quarantine = Path.of(RecordType.PRODUCT.getFileName() + IntegrityCheck.QUARANTINE_SUFFIX);
+        assertTrue(!Files.exists(quarantine) || Files.size(quarantine) == 0, "record quarantined");
+
+        RecordPage repaired = productFile.newPage();
+        productFile.readPage(page, repaired);
+        assertTrue(repaired.verifyHeader(), "page header");
+    }
+
+    //-----------------------------
+    /**
+     * A record whose CRC32C is zero is not taken for a free slot when its page header is
+     * rebuilt.
+     */
+    //---
+    @Test
+    void recordWithZeroCrcSurvivesHeaderRebuild() throws IOException {
+        byte[] name = zeroCrcName();
+        open();
+        long offset = productFile.insert(new Product(new String(name, StandardCharsets.ISO_8859_1))::writeProduct);
+        close();
+        long page = offset / RecordPage.PAGE_SIZE;
+        byte[] header = readBytes(page * RecordPage.PAGE_SIZE, 16);
+        header[12] ^= 0x01; // record count
+        writeBytes(page * RecordPage.PAGE_SIZE, header);
+
+        open();
+        assertEquals(0, IntegrityCheck.verify(productFile));
+        assertEquals(PRODUCTS + 1, productFile.getRecordCount());
+        Product product = new Product();
+        product.readProduct(productFile.readRecord(offset, productFile.newPage()));
+        assertArrayEquals(name, ScenarioManager.encodeChars(new String(product.getProductName()),
+                Product.MAX_PRODUCT_NAME));
+    }
+
+    //=============================
+    // Helpers
+    //=============================
+
+    //-----------------------------
+    /**
+     * Makes a product name whose encoded record has a CRC32C of zero. The CRC is affine in the
+     * bits of the last four bytes, so they are solved for over GF(2).
+     *
+     * @return (out) byte[] - encoded product name of MAX_PRODUCT_NAME bytes.
+     */
+    //---
+    private static byte[] zeroCrcName() {
+        byte[] name = ScenarioManager.encodeChars("zero", Product.MAX_PRODUCT_NAME);
+        int base = crcWith(name, 0);
+        int[] basis = new int[Integer.SIZE]; // basis[p] has p as its highest bit
+        int[] combination = new int[Integer.SIZE]; // bits of the last four bytes giving basis[p]
+
+        for (int bit = 0; bit < Integer.SIZE; bit++) {
+            int value = crcWith(name, 1 << bit) ^ base;
+            int combo = 1 << bit;
+            for (int p = Integer.SIZE - 1; p >= 0 && value != 0; p--) {
+                if ((value >>> p & 1) == 0) {
+                    continue;
+                }
+                if (basis[p] == 0) {
+                    basis[p] = value;
+                    combination[p] = combo;
+                    break;
+                }
+                value ^= basis[p];
+                combo ^= combination[p];
+            }
+        }
+
+        int value = base;
+        int tail = 0;
+        for (int p = Integer.SIZE - 1; p >= 0; p--) {
+            if ((value >>> p & 1) != 0) {
+                value ^= basis[p];
+                tail ^= combination[p];
+            }
+        }
+        setTail(name, tail);
+        assertEquals(0, crcWith(name, 0), "name not solved");
+        return name;
+    }
+
+    //-----------------------------
+    /**
+     * Computes the CRC32C of bytes with their last four bytes XORed with a value.
+     *
+     * @param bytes (in) byte[] - record bytes.
+     * @param tail (in) int - value XORed into the last four bytes.
+     * @return (out) int - CRC32C of the changed bytes.
+     */
+    //---
+    private static int crcWith(byte[] bytes, int tail) {
+        byte[] changed = bytes.clone();
+        setTail(changed, tail);
+        CRC32C crc = new CRC32C();
+        crc.update(changed);
+        return (int) crc.getValue();
+    }
+
+    //-----------------------------
+    /**
+     * XORs a value into the last four bytes.
+     *
+     * @param bytes (in/out) byte[] - bytes to be changed.
+     * @param tail (in) int - value XORed in, lowest byte last.
+     */
+    //---
+    private static void setTail(byte[] bytes, int tail) {
+        for (int i = 0; i < Integer.BYTES; i++) {
+            bytes[bytes.length - 1 - i] ^= (byte) (tail >>> (8 * i));
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Opens the log and product.dat and replays the log.
+     *
+     * @throws IOException
+     */
+    //---
+    private void open() throws IOException {
+        FormatConverter.upgrade(RecordType.PRODUCT, true);
+        log = new WriteAheadLog(RecordType.dataPath(WriteAheadLog.FILE_NAME));
+        productFile = new RecordFile(RecordType.PRODUCT, false, log);
+        Map<RecordType, RecordFile> files = new EnumMap<>(RecordType.class);
+        files.put(RecordType.PRODUCT, productFile);
+        log.redo(files);
+    }
+
+    //-----------------------------
+    /**
+     * Checkpoints the log and closes the files, as on a clean shut down.
+     *
+     * @throws IOException
+     */
+    //---
+    private void close() throws IOException {
+        log.checkpoint(List.of(productFile));
+        log.close();
+        productFile.close();
+        log = null;
+    }
+
+    //-----------------------------
+    /**
+     * Reads bytes of product.dat straight from the disk.
+     *
+     * @param position (in) long - byte position in the file.
+     * @param length (in) int - number of bytes.
+     * @return (out) byte[] - bytes read.
+     * @throws IOException
+     */
+    //---
+    private static byte[] readBytes(long position, int length) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(RecordType.PRODUCT.getFileName(), "r")) {
+            byte[] bytes = new byte[length];
+            file.seek(position);
+            file.readFully(bytes);
+            return bytes;
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Overwrites bytes of product.dat straight on the disk.
+     *
+     * @param position (in) long - byte position in the file.
+     * @param bytes (in) byte[] - bytes to be written.
+     * @throws IOException
+     */
+    //---
+    private static void writeBytes(long position, byte[] bytes) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(RecordType.PRODUCT.getFileName(), "rw")) {
+            file.seek(position);
+            file.write(bytes);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Lists the product names in file order.
+     *
+     * @return (out) List<String> - names of the stored products.
+     * @throws IOException
+     */
+    //---
+    private List<String> productNames() throws IOException {
+        return productFile.stream(reader -> {
+            Product product = new Product();
+            product.readProduct(reader);
+            return new String(product.getProductName()).trim();
+        }).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * File: PageCursorTest.java
+ * Revision History:
+ * - 2026-10-18: Tests of resuming listings and of cursors from an older file generation
+ * Purpose:
+ * PageCursorTest class is a unit test of the PageCursor. A cursor resumes a listing right after
+ * its record in the same generation of a file, and starts it over once the file was compacted,
+ * since the offsets it holds point into the old file. Each test keeps its files in a temporary
+ * data directory.
+ */
+package ca.boggleztracker.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PageCursorTest {
+    //=============================
+    // Constants
+    //=============================
+    private static final int PRODUCTS = 2000; // several pages
+
+    //=============================
+    // Member fields
+    //=============================
+    @TempDir
+    Path directory;
+    private WriteAheadLog log;
+    private RecordFile productFile;
+    private List<Long> offsets;
+
+    //=============================
+    // Set up
+    //=============================
+
+    //-----------------------------
+    /**
+     * Keeps the data files of the test in its temporary directory, opens product.dat and
+     * stores PRODUCTS products.
+     *
+     * @throws IOException
+     */
+    //---
+    @BeforeEach
+    void open() throws IOException {
+        System.setProperty(RecordType.DIRECTORY_PROPERTY, directory.toString());
+        FormatConverter.upgrade(RecordType.PRODUCT, true);
+        log = new WriteAheadLog(RecordType.dataPath(WriteAheadLog.FILE_NAME));
+        productFile = new RecordFile(RecordType.PRODUCT, true, log);
+        Map<RecordType, RecordFile> files = new EnumMap<>(RecordType.class);
+        files.put(RecordType.PRODUCT, productFile);
+        log.redo(files);
+
+        offsets = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            offsets.add(productFile.insert(new Product("p" + i)::writeProduct));
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Closes the files left open by a test.
+     *
+     * @throws IOException
+     */
+    //---
+    @AfterEach
+    void closeFiles() throws IOException {
+        log.checkpoint(List.of(productFile));
+        log.close();
+        productFile.close();
+        System.clearProperty(RecordType.DIRECTORY_PROPERTY);
+    }
+
+    //=============================
+    // Tests
+    //=============================
+
+    //-----------------------------
+    /**
+     * The first cursor starts a listing at the first record.
+     */
+    //---
+    @Test
+    void firstCursorStartsAtTheFirstRecord() throws IOException {
+        assertEquals(-1, PageCursor.FIRST.getLastOffset(productFile));
+        assertEquals("p0", nextProduct(PageCursor.FIRST));
+    }
+
+    //-----------------------------
+    /**
+     * A cursor of the current generation resumes right after its record and keeps its key.
+     */
+    //---
+    @Test
+    void cursorResumesAfterItsRecord() throws IOException {
+        PageCursor cursor = PageCursor.after(productFile, offsets.get(99));
+        assertEquals(offsets.get(99).longValue(), cursor.getLastOffset(productFile));
+        assertEquals("p100", nextProduct(cursor));
+
+        PageCursor keyed = PageCursor.after(productFile, 20260101L, offsets.get(5));
+        assertEquals(20260101L, keyed.getKey());
+        assertEquals(offsets.get(5).longValue(), keyed.getLastOffset(productFile));
+    }
+
+    //-----------------------------
+    /**
+     * A cursor taken before the file was compacted starts the listing over, and a cursor of the
+     * compacted file resumes in it.
+     */
+    //---
+    @Test
+    void cursorFromBeforeCompactionStartsOver() throws IOException {
+        PageCursor old = PageCursor.after(productFile, offsets.get(PRODUCTS - 1));
+        for (int i = 0; i < PRODUCTS - 10; i++) {
+            productFile.delete(offsets.get(i));
+        }
+        Compactor compactor = new Compactor(Map.of(RecordType.PRODUCT, productFile),
+                new ReentrantReadWriteLock(), log);
+        assertTrue(compactor.compact(productFile), "file not compacted");
+
+        assertEquals(-1, old.getLastOffset(productFile));
+        assertEquals("p" + (PRODUCTS - 10), nextProduct(old));
+
+        RecordScanner scanner = productFile.scan(0);
+        assertTrue(scanner.next());
+        PageCursor current = PageCursor.after(productFile, scanner.getOffset());
+        assertEquals("p" + (PRODUCTS - 9), nextProduct(current));
+    }
+
+    //=============================
+    // Helpers
+    //=============================
+
+    //-----------------------------
+    /**
+     * Gets the name of the first product a listing resumed from a cursor shows.
+     *
+     * @param cursor (in) PageCursor - cursor of the previous page.
+     * @return (out) String - product name, or null if the listing is over.
+     * @throws IOException
+     */
+    //---
+    private String nextProduct(PageCursor cursor) throws IOException {
+        RecordScanner scanner = productFile.scan(cursor.getLastOffset(productFile) + 1);
+        if (!scanner.next()) {
+            return null;
+        }
+        Product product = new Product();
+        product.readProduct(scanner.getReader());
+        return new String(product.getProductName()).trim();
+    }
+}
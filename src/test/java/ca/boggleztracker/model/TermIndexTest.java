@@ -0,0 +1,153 @@
+/**
+ * File: TermIndexTest.java
+ * Revision History:
+ * - 2026-10-18: Tests of prefix search over change item descriptions
+ * Purpose:
+ * TermIndexTest class is a unit test of the TermIndex. Change items are stored with their
+ * descriptions indexed, and searches by whole words, word prefixes and several words must find
+ * exactly the records holding them, also after records are changed or deleted. Each test keeps
+ * its files in a temporary data directory.
+ */
+package ca.boggleztracker.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TermIndexTest {
+    //=============================
+    // Member fields
+    //=============================
+    @TempDir
+    Path directory;
+    private WriteAheadLog log;
+    private RecordFile changeItemFile;
+    private TermIndex terms;
+    private long menuOffset;
+    private long crashOffset;
+    private long reportOffset;
+
+    //=============================
+    // Set up
+    //=============================
+
+    //-----------------------------
+    /**
+     * Keeps the data files of the test in its temporary directory, opens change-item.dat with a
+     * description index and stores three change items.
+     *
+     * @throws IOException
+     */
+    //---
+    @BeforeEach
+    void open() throws IOException {
+        System.setProperty(RecordType.DIRECTORY_PROPERTY, directory.toString());
+        FormatConverter.upgrade(RecordType.CHANGE_ITEM, true);
+        log = new WriteAheadLog(RecordType.dataPath(WriteAheadLog.FILE_NAME));
+        changeItemFile = new RecordFile(RecordType.CHANGE_ITEM, false, log);
+        Map<RecordType, RecordFile> files = new EnumMap<>(RecordType.class);
+        files.put(RecordType.CHANGE_ITEM, changeItemFile);
+        log.redo(files);
+        terms = new TermIndex("terms", ChangeItem.DESCRIPTION_OFFSET, ChangeItem.MAX_DESCRIPTION, false);
+        changeItemFile.addIndex(terms);
+
+        menuOffset = insert(1, "Menu not populating");
+        crashOffset = insert(2, "Menu crashes on START-UP");
+        reportOffset = insert(3, "Population report, menu bar");
+    }
+
+    //-----------------------------
+    /**
+     * Closes the files left open by a test.
+     *
+     * @throws IOException
+     */
+    //---
+    @AfterEach
+    void closeFiles() throws IOException {
+        log.checkpoint(List.of(changeItemFile));
+        log.close();
+        changeItemFile.close();
+        System.clearProperty(RecordType.DIRECTORY_PROPERTY);
+    }
+
+    //=============================
+    // Tests
+    //=============================
+
+    //-----------------------------
+    /**
+     * A word finds the records with a term starting with it, in any case and in file order.
+     */
+    //---
+    @Test
+    void prefixFindsEveryTermStartingWithIt() throws IOException {
+        assertArrayEquals(new long[] {menuOffset, crashOffset, reportOffset}, terms.search("MENU"));
+        assertArrayEquals(new long[] {menuOffset, reportOffset}, terms.search("pop"));
+        assertArrayEquals(new long[] {crashOffset}, terms.search("crash"));
+        assertArrayEquals(new long[] {crashOffset}, terms.search("up"));
+        assertArrayEquals(new long[0], terms.search("menus"));
+    }
+
+    //-----------------------------
+    /**
+     * Every word of a query must match a term of the record.
+     */
+    //---
+    @Test
+    void wordsOfAQueryAreIntersected() throws IOException {
+        assertArrayEquals(new long[] {menuOffset, reportOffset}, terms.search("menu po"));
+        assertArrayEquals(new long[] {reportOffset}, terms.search("bar, menu"));
+        assertArrayEquals(new long[0], terms.search("crash report"));
+        assertArrayEquals(new long[0], terms.search(" -- "));
+    }
+
+    //-----------------------------
+    /**
+     * The terms of a changed description replace the old ones, and a deleted record is no
+     * longer found.
+     */
+    //---
+    @Test
+    void changedAndDeletedRecordsAreReindexed() throws IOException {
+        ChangeItem changed = new ChangeItem(2, "Prod", "r1", "Toolbar crashes", '3', "Open",
+                LocalDate.of(2026, 1, 1));
+        changeItemFile.update(crashOffset, changed::writeChangeItem);
+        changeItemFile.delete(reportOffset);
+
+        assertArrayEquals(new long[] {menuOffset}, terms.search("menu"));
+        assertArrayEquals(new long[] {crashOffset}, terms.search("tool crash"));
+        assertEquals(0, terms.search("population").length);
+    }
+
+    //=============================
+    // Helpers
+    //=============================
+
+    //-----------------------------
+    /**
+     * Stores a change item with a description.
+     *
+     * @param changeID (in) int - change ID of the item.
+     * @param description (in) String - description of the change.
+     * @return (out) long - byte offset of the record.
+     * @throws IOException
+     */
+    //---
+    private long insert(int changeID, String description) throws IOException {
+        ChangeItem changeItem = new ChangeItem(changeID, "Prod", "r1", description, '3', "Open",
+                LocalDate.of(2026, 1, 1));
+        return changeItemFile.insert(changeItem::writeChangeItem);
+    }
+}
@@ -3,6 +3,7 @@
  * Revision History:
  * - 2024-07-04: File creation
  * - 2024-07-15: Added Unit test for reading, writing and modifying to file for ChangeItem and Requester
+ * - 2026-10-18: Modify test uses a valid status and checks the record written, legacy conversion test
  * Purpose: TestFileOps class represents a unit test to test writing and reading of data records.
  */
 package ca.boggleztracker.model;
@@ -10,7 +11,13 @@ package ca.boggleztracker.model;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.file.Files;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 public class TestFileOps {
     //=============================
@@ -98,9 +105,14 @@ public class TestFileOps {
             ScenarioManager testerManager = new ScenarioManager();
             RandomAccessFile myFile = new RandomAccessFile("UnitTest01Text.dat", "rw");
             ChangeItem testerModifiedChangeItem = new ChangeItem(0,"TestProd2","v1.1",
-                    "Test Description 2",'4', "Accessed", LocalDate.of(2024,8,20));
+                    "Test Description 2",'4', "Assessed", LocalDate.of(2024,8,20));
             testerManager.modifyChangeItem(myFile,0, testerModifiedChangeItem);
-            if(ChangeItem.getStatus() != testerModifiedChangeItem.getStatus()){
+            ChangeItem writtenChangeItem = new ChangeItem();
+            myFile.seek(0);
+            writtenChangeItem.readChangeItems(myFile);
+            if(Arrays.equals(writtenChangeItem.getStatus(), testerModifiedChangeItem.getStatus())
+                    && Arrays.equals(writtenChangeItem.getChangeDescription(),
+                            testerModifiedChangeItem.getChangeDescription())){
                 System.out.println("modifyChangeItem: TEST PASSED");
             }else {
                 System.out.println("modifyChangeItem: TEST FAILED");
@@ -110,6 +122,68 @@ public class TestFileOps {
         }
     }
 
+    //-----------------------------
+    /*
+     *   Description: Unit test to test the conversion of a change item in the legacy format, UTF-16
+     *                characters and a yyyy-mm-dd date, by FormatConverter and reading it back
+     *   Precondition: none, the files are written in a new temporary data directory
+     */
+    static void testLegacyChangeItemConversion(){
+        try{
+            System.setProperty(RecordType.DIRECTORY_PROPERTY, Files.createTempDirectory("legacy").toString());
+            try (RandomAccessFile legacyFile = new RandomAccessFile(RecordType.CHANGE_ITEM.getFileName(), "rw")) {
+                legacyFile.writeInt(7);
+                writeLegacyChars(legacyFile, "TestProd", Product.MAX_PRODUCT_NAME);
+                writeLegacyChars(legacyFile, "v1.1", Release.MAX_RELEASE_ID);
+                writeLegacyChars(legacyFile, "Legacy Description", ChangeItem.MAX_DESCRIPTION);
+                legacyFile.writeChar('4');
+                writeLegacyChars(legacyFile, "Assessed", ChangeItem.MAX_STATUS);
+                writeLegacyChars(legacyFile, "2024-08-20", 10);
+            }
+            FormatConverter.upgrade(RecordType.CHANGE_ITEM, true);
+
+            WriteAheadLog log = new WriteAheadLog(RecordType.dataPath(WriteAheadLog.FILE_NAME));
+            RecordFile changeItemFile = new RecordFile(RecordType.CHANGE_ITEM, false, log);
+            Map<RecordType, RecordFile> files = new EnumMap<>(RecordType.class);
+            files.put(RecordType.CHANGE_ITEM, changeItemFile);
+            log.redo(files);
+            List<ChangeItem> changeItems = changeItemFile.stream(reader -> {
+                ChangeItem changeItem = new ChangeItem();
+                changeItem.readChangeItems(reader);
+                return changeItem;
+            }).collect(Collectors.toList());
+            log.close();
+            changeItemFile.close();
+
+            ChangeItem converted = changeItems.get(0);
+            if(changeItems.size() == 1 && converted.getChangeID() == 7
+                    && new String(converted.getProductName()).trim().equals("TestProd")
+                    && new String(converted.getReleaseID()).trim().equals("v1.1")
+                    && new String(converted.getChangeDescription()).trim().equals("Legacy Description")
+                    && converted.getPriority() == '4'
+                    && new String(converted.getStatus()).trim().equals("Assessed")
+                    && converted.getAnticipatedReleaseDate().equals("2024-08-20")){
+                System.out.println("legacyChangeItemConversion: TEST PASSED");
+            }else {
+                System.out.println("legacyChangeItemConversion: TEST FAILED");
+            }
+        }catch (IOException e){
+            System.out.println("legacyChangeItemConversion: TEST FAILED");
+            System.err.println("Error converting legacy file " + e.getMessage());
+        }finally {
+            System.clearProperty(RecordType.DIRECTORY_PROPERTY);
+        }
+    }
+
+    //-----------------------------
+    /*
+     *   Description: Writes a string padded with spaces as UTF-16 characters, the way the legacy
+     *                format stored it
+     */
+    static void writeLegacyChars(RandomAccessFile file, String value, int length) throws IOException {
+        file.writeChars(new String(ScenarioManager.padCharArray(value.toCharArray(), length)));
+    }
+
     //-----------------------------
     /**
      * Unit Test of Requester and ChangeItem reading, writing, and modifying to files
@@ -129,6 +203,10 @@ public class TestFileOps {
         testChangeItemWrite(ChangeItem);
         testChangeItemRead(ChangeItem);
         testModifyChangeItem(ChangeItem);
+
+        // TEST FOR LEGACY FILE CONVERSION
+        System.out.println("Starting legacy conversion unit test:");
+        testLegacyChangeItemConversion();
     }
 
 }
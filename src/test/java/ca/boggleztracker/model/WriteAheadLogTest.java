@@ -0,0 +1,218 @@
+/**
+ * File: WriteAheadLogTest.java
+ * Revision History:
+ * - 2026-10-18: Tests of the write ahead rule and of redo after a crash
+ * Purpose:
+ * WriteAheadLogTest class is a unit test of the WriteAheadLog together with RecordFile. It
+ * checks that a data page is not written before the log records of its changes are durable,
+ * and that redo repairs a page that was torn while being written. Each test keeps its files in
+ * a temporary data directory.
+ */
+package ca.boggleztracker.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WriteAheadLogTest {
+    //=============================
+    // Member fields
+    //=============================
+    @TempDir
+    Path directory;
+    private WriteAheadLog log;
+    private RecordFile productFile;
+
+    //=============================
+    // Set up
+    //=============================
+
+    //-----------------------------
+    /**
+     * Keeps the data files of the test in its temporary directory.
+     */
+    //---
+    @BeforeEach
+    void useTempDirectory() {
+        System.setProperty(RecordType.DIRECTORY_PROPERTY, directory.toString());
+    }
+
+    //-----------------------------
+    /**
+     * Closes the files left open by a test.
+     *
+     * @throws IOException
+     */
+    //---
+    @AfterEach
+    void closeFiles() throws IOException {
+        if (log != null) {
+            log.close();
+            productFile.close();
+        }
+        System.clearProperty(RecordType.DIRECTORY_PROPERTY);
+    }
+
+    //=============================
+    // Tests
+    //=============================
+
+    //-----------------------------
+    /**
+     * An inserted record reaches the data file only after its log record is durable.
+     */
+    //---
+    @Test
+    void pageIsWrittenOnlyAfterItsLogRecord() throws IOException {
+        open(false);
+        Path dataFile = Path.of(RecordType.PRODUCT.getFileName());
+
+        productFile.insert(new Product("first")::writeProduct);
+        assertEquals(RecordPage.PAGE_SIZE, Files.size(dataFile), "page written before the log");
+
+        log.commit(productFile.getLastLsn());
+        productFile.insert(new Product("second")::writeProduct);
+        assertEquals(2 * RecordPage.PAGE_SIZE, Files.size(dataFile), "page not written back once durable");
+        assertEquals(List.of("first", "second"), productNames());
+    }
+
+    //-----------------------------
+    /**
+     * A page whose record slots were lost half way through its write is repaired from the log.
+     */
+    //---
+    @Test
+    void pageTornAfterItsHeaderIsRecovered() throws IOException {
+        List<String> names = fillFirstPage();
+        tearPage(1, RecordPage.PAGE_SIZE / 2, RecordPage.PAGE_SIZE);
+
+        assertTrue(open(true) > 0, "no logged change applied");
+        assertEquals(names, productNames());
+        assertPageIntact(1);
+    }
+
+    //-----------------------------
+    /**
+     * A page whose header was lost half way through its write is repaired from the log.
+     */
+    //---
+    @Test
+    void pageTornInItsHeaderIsRecovered() throws IOException {
+        List<String> names = fillFirstPage();
+        tearPage(1, 0, RecordPage.PAGE_SIZE / 2);
+
+        assertTrue(open(true) > 0, "no logged change applied");
+        assertEquals(names, productNames());
+        assertPageIntact(1);
+    }
+
+    //=============================
+    // Helpers
+    //=============================
+
+    //-----------------------------
+    /**
+     * Opens the log and product.dat and replays the log.
+     *
+     * @param mapped (in) boolean - true to memory map the data file.
+     * @return (out) int - number of log records applied again.
+     * @throws IOException
+     */
+    //---
+    private int open(boolean mapped) throws IOException {
+        FormatConverter.upgrade(RecordType.PRODUCT, true);
+        log = new WriteAheadLog(RecordType.dataPath(WriteAheadLog.FILE_NAME));
+        productFile = new RecordFile(RecordType.PRODUCT, mapped, log);
+        Map<RecordType, RecordFile> files = new EnumMap<>(RecordType.class);
+        files.put(RecordType.PRODUCT, productFile);
+        return log.redo(files);
+    }
+
+    //-----------------------------
+    /**
+     * Fills the first data page, writes it and stops without a checkpoint, so the log still
+     * holds every change of the page.
+     *
+     * @return (out) List<String> - names of the inserted products.
+     * @throws IOException
+     */
+    //---
+    private List<String> fillFirstPage() throws IOException {
+        open(true);
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < productFile.getSlotsPerPage(); i++) {
+            names.add("p" + i);
+            productFile.insert(new Product("p" + i)::writeProduct);
+        }
+        productFile.force();
+
+        log.close();
+        productFile.close();
+        log = null;
+        return names;
+    }
+
+    //-----------------------------
+    /**
+     * Zeroes a byte range of a page in the data file, as a write cut off by a crash leaves it.
+     *
+     * @param pageNumber (in) long - page to be torn.
+     * @param from (in) int - first byte of the page to be lost.
+     * @param to (in) int - end of the bytes to be lost.
+     * @throws IOException
+     */
+    //---
+    private void tearPage(long pageNumber, int from, int to) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(RecordType.PRODUCT.getFileName(), "rw")) {
+            file.seek(pageNumber * RecordPage.PAGE_SIZE + from);
+            file.write(new byte[to - from]);
+        }
+    }
+
+    //-----------------------------
+    /**
+     * Lists the product names in file order.
+     *
+     * @return (out) List<String> - names of the stored products.
+     * @throws IOException
+     */
+    //---
+    private List<String> productNames() throws IOException {
+        return productFile.stream(reader -> {
+            Product product = new Product();
+            product.readProduct(reader);
+            return new String(product.getProductName()).trim();
+        }).collect(Collectors.toList());
+    }
+
+    //-----------------------------
+    /**
+     * Checks the header and every record checksum of a stored page.
+     *
+     * @param pageNumber (in) long - page to be checked.
+     * @throws IOException
+     */
+    //---
+    private void assertPageIntact(long pageNumber) throws IOException {
+        RecordPage page = productFile.newPage();
+        productFile.readPage(pageNumber, page);
+        assertTrue(page.verifyHeader(), "page header");
+        for (int slot = page.nextOccupied(0); slot != -1; slot = page.nextOccupied(slot + 1)) {
+            assertTrue(page.verifyRecord(slot), "record in slot " + slot);
+        }
+    }
+}